@@ -0,0 +1,117 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a GObject moved from one GCanvas to another ends up in exactly one of
+ * them, both when the old canvas removes it right away and when the old canvas
+ * queues the removal for its own thread.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GCanvasMoveTest {
+    private TestCanvas canvas1;
+    private TestCanvas canvas2;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getTargetContext();
+        canvas1 = new TestCanvas(context);
+        canvas2 = new TestCanvas(context);
+    }
+
+    @Test
+    public void moveBetweenCanvases() {
+        GRect rect = new GRect(0, 0, 10, 10);
+        canvas1.add(new GRect(0, 0, 5, 5));
+        canvas1.add(rect);
+        canvas2.add(new GRect(0, 0, 5, 5));
+
+        canvas2.add(rect);
+        assertFalse(canvas1.contains(rect));
+        assertTrue(canvas2.contains(rect));
+        assertEquals(1, canvas1.getElementCount());
+        assertEquals(2, canvas2.getElementCount());
+        assertSame(canvas2, rect.getGCanvas());
+
+        // z-ordering calls in the new canvas find the object
+        canvas2.sendToBack(rect);
+        assertSame(rect, canvas2.getElement(0));
+
+        canvas2.remove(rect);
+        assertFalse(canvas2.contains(rect));
+        assertNull(rect.getGCanvas());
+    }
+
+    @Test
+    public void moveOutOfCanvasThatQueuesChanges() {
+        GRect rect = new GRect(0, 0, 10, 10);
+        canvas1.add(rect);
+        canvas1.add(new GRect(0, 0, 5, 5));
+        canvas2.add(new GRect(0, 0, 5, 5));
+
+        // the add waits until the old canvas has let go of the object
+        canvas1.sceneThread = false;
+        canvas2.add(rect, 20, 30);
+        assertTrue(canvas1.contains(rect));
+        assertFalse(canvas2.contains(rect));
+        assertSame(canvas1, rect.getGCanvas());
+
+        canvas1.sceneThread = true;
+        canvas1.onAnimateTick();
+        assertFalse(canvas1.contains(rect));
+        assertTrue(canvas2.contains(rect));
+        assertEquals(1, canvas1.getElementCount());
+        assertEquals(2, canvas2.getElementCount());
+        assertSame(canvas2, rect.getGCanvas());
+        assertEquals(20f, rect.getX(), 0f);
+        assertEquals(30f, rect.getY(), 0f);
+
+        // a late remove from the old canvas leaves the object where it is
+        canvas1.remove(rect);
+        assertTrue(canvas2.contains(rect));
+        assertSame(canvas2, rect.getGCanvas());
+    }
+
+    @Test
+    public void removeFromOtherCanvasHasNoEffect() {
+        GRect rect = new GRect(0, 0, 10, 10);
+        canvas1.add(rect);
+        canvas2.remove(rect);
+        assertTrue(canvas1.contains(rect));
+        assertSame(canvas1, rect.getGCanvas());
+    }
+
+    /*
+     * A canvas whose scene thread can be switched off, so that its changes are queued
+     * as they would be for a call from another thread.
+     */
+    private static class TestCanvas extends GCanvas {
+        volatile boolean sceneThread = true;
+
+        TestCanvas(Context context) {
+            super(context, null);
+        }
+
+        @Override
+        public void init() {
+            // empty
+        }
+
+        @Override
+        boolean isSceneThread() {
+            return sceneThread;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import android.graphics.RectF;
+import android.os.Debug;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the bounds queries used on every frame (contains, intersects,
+ * getBounds(RectF), getLocation(GPoint), getSize(GDimension)) allocate nothing,
+ * and logs how long they take.
+ * Runs on a device, since allocation counts come from the Android runtime.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GObjectBoundsTest {
+    private static final String TAG = "GObjectBoundsTest";
+    private static final int QUERIES = 100000;
+
+    private GObject[] objects;
+    private GCompound compound;
+    private final RectF bounds = new RectF();
+    private final GPoint location = new GPoint();
+    private final GDimension size = new GDimension();
+
+    @Before
+    public void setUp() {
+        objects = new GObject[] {
+                new GRect(10, 10, 40, 30),
+                new GOval(30, 20, 20, 20),
+                new GLine(0, 0, 50, 60),
+                new GSprite(new GRect(0, 0, 12, 12))
+        };
+        compound = new GCompound();
+        compound.add(new GRect(0, 0, 10, 10));
+        compound.add(new GRect(20, 20, 10, 10));
+    }
+
+    @Test
+    public void boundsQueriesAllocateNothing() {
+        runQueries(QUERIES);   // warm up, so that class loading and cached lookups are not counted
+        long start = System.nanoTime();
+        runQueries(QUERIES);
+        Log.i(TAG, "bounds queries: " + (System.nanoTime() - start) / QUERIES + " ns per query loop");
+
+        int allocations = countAllocations(new Runnable() {
+            public void run() {
+                runQueries(QUERIES);
+            }
+        });
+        assertEquals("objects allocated by " + QUERIES + " query loops", 0, allocations);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void allocationCountingWorks() {
+        // the old API creates GRectangles, so this checks that counting is really on
+        int allocations = countAllocations(new Runnable() {
+            public void run() {
+                for (int i = 0; i < QUERIES; i++) {
+                    objects[i & 3].getBounds();
+                }
+            }
+        });
+        assertTrue("counted " + allocations + " allocations", allocations >= QUERIES);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void boundsFollowOverriddenGetBounds() {
+        GRect rect = new GRect(0, 0, 10, 10) {
+            @Override
+            public RectF getBounds(RectF bounds) {
+                bounds.set(-50, -50, 150, 150);
+                return bounds;
+            }
+        };
+        assertTrue(rect.contains(100, 100));
+        assertTrue(rect.intersects(new GRect(120, 120, 5, 5)));
+        GRectangle plain = rect.getBounds();
+        assertEquals(-50f, plain.getX(), 0f);
+        assertEquals(200f, plain.getWidth(), 0f);
+    }
+
+    // runs the given code, returning the number of objects it allocated on this thread
+    @SuppressWarnings("deprecation")
+    private static int countAllocations(Runnable code) {
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        try {
+            code.run();
+        } finally {
+            Debug.stopAllocCounting();
+        }
+        return Debug.getThreadAllocCount();
+    }
+
+    // helper to make the given number of passes over the bounds queries
+    private void runQueries(int count) {
+        int hits = 0;
+        for (int i = 0; i < count; i++) {
+            GObject a = objects[i & 3];
+            GObject b = objects[(i >> 2) & 3];
+            if (a.intersects(b)) {
+                hits++;
+            }
+            if (a.contains(i & 63, 15)) {
+                hits++;
+            }
+            hits += (int) a.getBounds(bounds).right;
+            hits += (int) compound.getBounds(bounds).bottom;
+            hits += (int) a.getLocation(location).getX();
+            hits += (int) a.getSize(size).getWidth();
+        }
+        assertTrue(hits != 0);
+    }
+}
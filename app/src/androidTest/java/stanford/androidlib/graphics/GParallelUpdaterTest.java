@@ -0,0 +1,126 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import java.util.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a parallel step of a GKinematics store leaves exactly the same
+ * floats in its arrays as a serial one, and logs how long serial and parallel
+ * steps take at a series of sprite counts, along with where parallel starts to win.
+ * Runs on a device, since the crossover depends on its cores and clock speeds.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GParallelUpdaterTest {
+    private static final String TAG = "GParallelUpdaterTest";
+    private static final int[] SIZES = {250, 500, 1000, 2000, 4000, 8000, 16000, 32000, 64000};
+    private static final int TIMED_STEPS = 40;
+
+    private GParallelUpdater updater;
+
+    @Before
+    public void setUp() {
+        updater = new GParallelUpdater();
+    }
+
+    @After
+    public void tearDown() {
+        updater.shutdown();
+    }
+
+    @Test
+    public void parallelStepMatchesSerialStep() {
+        // odd sizes too, so that the ranges split unevenly across the threads
+        for (int size : new int[] {1, 7, 1000, 4099, 20011}) {
+            GKinematics serial = newStore(size, /* seed */ size);
+            GKinematics parallel = newStore(size, /* seed */ size);
+            for (int step = 0; step < 100; step++) {
+                serial.stepRange(0, size);
+                updater.stepParallel(parallel, size);
+            }
+            assertSameArrays("size " + size, serial, parallel);
+        }
+    }
+
+    @Test
+    public void crossover() {
+        int crossover = Integer.MAX_VALUE;
+        for (int size : SIZES) {
+            GKinematics store = newStore(size, /* seed */ 42);
+            long serial = Long.MAX_VALUE;
+            long parallel = Long.MAX_VALUE;
+            for (int i = 0; i < TIMED_STEPS; i++) {
+                // alternate, and keep the best of each, to filter out GC pauses and frequency scaling
+                long start = System.nanoTime();
+                store.stepRange(0, size);
+                serial = Math.min(serial, System.nanoTime() - start);
+                start = System.nanoTime();
+                updater.stepParallel(store, size);
+                parallel = Math.min(parallel, System.nanoTime() - start);
+            }
+            Log.i(TAG, size + " sprites: serial " + serial / 1000 + " us, parallel "
+                    + parallel / 1000 + " us on " + updater.getThreadCount() + " threads");
+            if (parallel < serial && crossover == Integer.MAX_VALUE) {
+                crossover = size;
+            }
+        }
+        Log.i(TAG, "parallel is faster from " + (crossover == Integer.MAX_VALUE ? "never" : crossover + " sprites")
+                + "; calibrate() says " + updater.calibrate());
+        if (updater.getThreadCount() < 2) {
+            assertEquals(Integer.MAX_VALUE, updater.calibrate());
+        }
+    }
+
+    // helper to fail if any array of the two stores differs in any bit of slots 0 .. size-1
+    private static void assertSameArrays(String message, GKinematics expected, GKinematics actual) {
+        float[][] expectedArrays = arrays(expected);
+        float[][] actualArrays = arrays(actual);
+        for (int i = 0; i < expectedArrays.length; i++) {
+            assertTrue(message + ", array " + i, Arrays.equals(expectedArrays[i], actualArrays[i]));
+        }
+    }
+
+    // helper to list every float array of a store
+    private static float[][] arrays(GKinematics store) {
+        return new float[][] {
+                store.left, store.top, store.right, store.bottom,
+                store.collisionLeft, store.collisionTop, store.collisionRight, store.collisionBottom,
+                store.dx, store.dy, store.accelerationX, store.accelerationY
+        };
+    }
+
+    // helper to make a scratch store whose first size slots hold pseudo-random fractional values
+    private static GKinematics newStore(int size, long seed) {
+        Random random = new Random(seed);
+        GKinematics store = new GKinematics();
+        store.ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            float x = random.nextFloat() * 1000;
+            float y = random.nextFloat() * 1000;
+            store.left[i] = x;
+            store.top[i] = y;
+            store.right[i] = x + 17.3f;
+            store.bottom[i] = y + 11.9f;
+            store.collisionLeft[i] = x + 0.7f;
+            store.collisionTop[i] = y + 0.3f;
+            store.collisionRight[i] = x + 16.1f;
+            store.collisionBottom[i] = y + 11.1f;
+            store.dx[i] = random.nextFloat() * 6 - 3;
+            store.dy[i] = random.nextFloat() * 6 - 3;
+            store.accelerationX[i] = random.nextFloat() * 0.02f - 0.01f;
+            store.accelerationY[i] = random.nextFloat() * 0.05f;
+        }
+        return store;
+    }
+}
@@ -1,31 +1,79 @@
 /*
+ * @version 2026/10/16
+ * - now driven by Choreographer vsync callbacks (or a single self-reposting
+ *   Handler message on API 15) instead of a sleeping thread
+ * - paces frames by elapsed time, so fps no longer drifts or rounds (60 fps was 62.5)
+ * - added optional fixed-timestep mode with a catch-up limit
+ * - passes the real time since the previous tick to the canvas's onAnimateTick
+ * - records frame, tick, late and dropped frame stats when the canvas has them enabled
+ * - stop() called off the main thread stops the loop at once and waits for any tick in progress
  * @version 2016/01/27
  * - initial version
  */
 
 package stanford.androidlib;
 
+import android.annotation.TargetApi;
+import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
+import android.view.Choreographer;
 import android.view.View;
+import java.util.concurrent.CountDownLatch;
 
 import stanford.androidlib.graphics.GCanvas;
 
 /**
  * This class is a helper to wrap up some of the icky code needed to
- * initiate an animation thread that repaints a view at regular intervals.
+ * repaint a view at regular intervals.
+ *
+ * <p>
+ * The loop is driven by the display's vsync signal through Android's Choreographer,
+ * so ticks line up with the frames the screen actually shows.
+ * Frames are paced by the elapsed time since the loop started rather than by sleeping,
+ * so that time spent updating and drawing does not slow the animation down.
+ * If the app falls behind (for example, when a frame takes too long to draw), the
+ * late frames are skipped rather than queued up, so the loop never builds up a backlog.
+ * </p>
+ *
+ * <p>
+ * By default, each tick is told how much time really passed since the previous tick.
+ * In fixed-timestep mode, every tick instead represents exactly 1/fps seconds; if the
+ * app falls behind, several ticks are run back-to-back to catch up, up to a limit.
+ * </p>
  */
 public class AnimationLoop {
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /** Default maximum number of ticks run in one frame in fixed-timestep mode. */
+    public static final int DEFAULT_MAX_CATCH_UP_TICKS = 5;
+
     private View view = null;
     private int fps;
-    private Thread thread = null;
+    private long frameIntervalNanos;
     private Handler handler = null;
+    private Ticker ticker = null;
     private volatile boolean isRunning = false;
 
+    // timing state; only touched on the main thread
+    private long lastFrameNanos = -1;
+    private long lastTickNanos = -1;
+    private long accumulatedNanos = 0;
+    private boolean fixedTimestep = false;
+    private int maxCatchUpTicks = DEFAULT_MAX_CATCH_UP_TICKS;
+
+    // posted to the main thread if start is called from another thread
+    private final Runnable startRunner = new Runnable() {
+        public void run() {
+            startOnMainThread();
+        }
+    };
+
     /**
-     * Constructs a new drawing thread to update the given view
+     * Constructs a new animation loop to update the given view
      * the given number of times per second.
-     * Does NOT start the thread running; call start() to do so.
+     * Does NOT start the loop running; call start() to do so.
      */
     public AnimationLoop(View view, int fps) {
         if (view == null || fps <= 0) {
@@ -33,87 +81,304 @@ public class AnimationLoop {
         }
         this.view = view;
         this.fps = fps;
+        this.frameIntervalNanos = NANOS_PER_SECOND / fps;
         this.handler = new Handler(Looper.getMainLooper());
     }
 
     /**
-     * Returns true if the drawing thread is currently started and running.
+     * Returns the number of frames per second this loop is trying to run at.
+     */
+    public int getFps() {
+        return fps;
+    }
+
+    /**
+     * Returns the maximum number of ticks that will be run in a single frame
+     * to catch up in fixed-timestep mode.
+     */
+    public int getMaxCatchUpTicks() {
+        return maxCatchUpTicks;
+    }
+
+    /**
+     * Returns whether this loop runs in fixed-timestep mode.
+     * Default false.
+     */
+    public boolean isFixedTimestep() {
+        return fixedTimestep;
+    }
+
+    /**
+     * Returns true if the loop is currently started and running.
+     * Returns false as soon as stop() has been called, from any thread.
      */
     public boolean isRunning() {
-        return thread != null;
+        return isRunning;
     }
 
     /**
-     * Starts the thread running so that it will repaint the view repeatedly.
+     * Sets whether this loop runs in fixed-timestep mode.
+     * In fixed-timestep mode, each tick always represents exactly 1/fps seconds,
+     * which makes physics and movement code deterministic.  If the app falls behind,
+     * up to getMaxCatchUpTicks() ticks are run in a row to catch up and any
+     * further lost time is dropped.
+     * When not in fixed-timestep mode (the default), at most one tick is run per
+     * frame and it is passed the real time elapsed since the previous tick.
+     */
+    public AnimationLoop setFixedTimestep(boolean fixedTimestep) {
+        this.fixedTimestep = fixedTimestep;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of ticks that will be run in a single frame
+     * to catch up in fixed-timestep mode.
+     * @throws IllegalArgumentException if max is less than 1
+     */
+    public AnimationLoop setMaxCatchUpTicks(int max) {
+        if (max < 1) {
+            throw new IllegalArgumentException("must be >= 1: " + max);
+        }
+        this.maxCatchUpTicks = max;
+        return this;
+    }
+
+    /**
+     * Starts the loop running so that it will repaint the view repeatedly.
+     * May be called from any thread; when called from a thread other than the main
+     * thread, the loop starts (and isRunning becomes true) once the main thread
+     * gets to it.
      */
     public void start() {
-        if (thread == null) {
-            thread = new Thread(new MainRunner());
-            thread.start();
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            startOnMainThread();
+        } else {
+            handler.post(startRunner);
         }
     }
 
     /**
-     * Stops the thread so that it will not repaint the view any more.
+     * Stops the loop so that it will not repaint the view any more.
+     * May be called from any thread.  When called from a thread other than the main
+     * thread, waits for the main thread to finish any tick it is in the middle of,
+     * so that no tick runs after this method returns; so it must not be called
+     * from a thread that the main thread is itself waiting for.
      */
     public void stop() {
-        if (thread != null) {
-            isRunning = false;
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            stopOnMainThread();
+            return;
+        }
+
+        // no new tick starts once this is false; then wait for the one in progress, if any
+        isRunning = false;
+        final CountDownLatch stopped = new CountDownLatch(1);
+        boolean posted = handler.post(new Runnable() {
+            public void run() {
+                if (!isRunning) {
+                    // not restarted on the main thread in the meantime
+                    stopOnMainThread();
+                }
+                stopped.countDown();
+            }
+        });
+        if (!posted) {
+            // the main thread's looper is quitting, so no more ticks will run anyway
+            return;
+        }
+        boolean interrupted = false;
+        while (stopped.getCount() > 0) {
             try {
-                thread.join();
+                stopped.await();
             } catch (InterruptedException ie) {
-                // empty
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // begins receiving frame callbacks; must be called on the main thread
+    private void startOnMainThread() {
+        if (isRunning) {
+            return;
+        }
+        isRunning = true;
+        lastFrameNanos = -1;
+        lastTickNanos = -1;
+        accumulatedNanos = 0;
+        if (ticker == null) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                ticker = new VsyncTicker();
+            } else {
+                ticker = new HandlerTicker();
             }
-            thread = null;
+        } else {
+            // drop any callback still pending from a stop made on another thread
+            ticker.cancel();
+        }
+        ticker.schedule();
+    }
+
+    // stops receiving frame callbacks; must be called on the main thread
+    private void stopOnMainThread() {
+        isRunning = false;
+        if (ticker != null) {
+            ticker.cancel();
         }
     }
 
     /*
-     * Small runnable helper class that contains the thread's main loop
-     * to repeatedly sleep-and-redraw the view.
+     * Called once per display frame with the frame's timestamp.
+     * Decides how many ticks (if any) to run, runs them, then redraws the view.
      */
-    private class MainRunner implements Runnable {
-        public void run() {
-            isRunning = true;
-            while (isRunning) {
-                // sleep for a short time between frames of animation
-                try {
-                    Thread.sleep(1000 / fps);
-                } catch (InterruptedException ie) {
-                    isRunning = false;
+    private void doFrame(long frameTimeNanos) {
+        if (!isRunning) {
+            return;
+        }
+        if (lastFrameNanos < 0) {
+            // first frame; start the clock without ticking
+            lastFrameNanos = frameTimeNanos;
+            return;
+        }
+        accumulatedNanos += frameTimeNanos - lastFrameNanos;
+        lastFrameNanos = frameTimeNanos;
+
+        // allow a tick slightly early so that jitter in vsync timestamps
+        // doesn't make a 60fps loop on a 60Hz screen skip every other frame
+        long threshold = frameIntervalNanos - frameIntervalNanos / 4;
+        if (accumulatedNanos < threshold) {
+            return;
+        }
+
+        // real time since the previous frame that ticked (since the loop started, for the first)
+        long sinceLastTick = (lastTickNanos < 0) ? accumulatedNanos : frameTimeNanos - lastTickNanos;
+        FrameStats stats = (view instanceof SimpleCanvas) ? ((SimpleCanvas) view).frameStats : null;
+        if (stats != null && lastTickNanos >= 0) {
+            stats.recordFrame(sinceLastTick, sinceLastTick > frameIntervalNanos + frameIntervalNanos / 2);
+        }
+        lastTickNanos = frameTimeNanos;
+
+        if (fixedTimestep) {
+            int ticks = 0;
+            while (accumulatedNanos >= threshold && ticks < maxCatchUpTicks && isRunning) {
+                timedTick((float) frameIntervalNanos / NANOS_PER_SECOND, stats);
+                accumulatedNanos -= frameIntervalNanos;
+                ticks++;
+            }
+            if (accumulatedNanos >= threshold) {
+                // too far behind to catch up; drop the lost time
+                if (stats != null) {
+                    stats.recordDroppedFrames((int) Math.max(1, accumulatedNanos / frameIntervalNanos));
                 }
+                accumulatedNanos = 0;
+            }
+        } else {
+            // the tick is told the real time since the last tick; the accumulator
+            // only decides when the next tick is due, so its remainder is not counted twice
+            timedTick((float) sinceLastTick / NANOS_PER_SECOND, stats);
 
-                // might have been stopped while sleeping
-                if (!isRunning) {
-                    break;
+            // carry over a partial frame's remainder to stay on schedule,
+            // but drop any whole frames that were missed
+            accumulatedNanos = Math.max(0, accumulatedNanos - frameIntervalNanos);
+            if (accumulatedNanos >= frameIntervalNanos) {
+                if (stats != null) {
+                    stats.recordDroppedFrames((int) (accumulatedNanos / frameIntervalNanos));
+                }
+                accumulatedNanos = 0;
+            }
+        }
+        view.invalidate();
+    }
+
+    // runs a single tick, recording how long it took if stats are enabled
+    private void timedTick(float elapsedSeconds, FrameStats stats) {
+        if (stats == null) {
+            tick(elapsedSeconds);
+        } else {
+            long start = System.nanoTime();
+            tick(elapsedSeconds);
+            stats.record(FrameStats.TICK, System.nanoTime() - start);
+        }
+    }
+
+    // runs a single tick of animation on the view
+    private void tick(float elapsedSeconds) {
+        if (view instanceof SimpleCanvas) {
+            SimpleCanvas simpleCanvas = (SimpleCanvas) view;
+            simpleCanvas.preAnimateTick(elapsedSeconds);
+
+            if (view instanceof GCanvas) {
+                GCanvas gcanvas = (GCanvas) view;
+                if (!gcanvas.isInitialized()) {
+                    gcanvas.init();
+                    gcanvas.setInitialized(true);
+                } else {
+                    gcanvas.onAnimateTick(elapsedSeconds);
                 }
+            }
+        }
+    }
+
+    /*
+     * Common interface for the two ways of receiving a callback once per frame.
+     */
+    private interface Ticker {
+        void schedule();
+        void cancel();
+    }
+
+    /*
+     * Receives a callback on every vsync from the Choreographer (API 16+).
+     * The same callback object is re-posted each frame, so nothing is allocated per frame.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private class VsyncTicker implements Ticker, Choreographer.FrameCallback {
+        private final Choreographer choreographer = Choreographer.getInstance();
 
-                // post a message that will cause the view to redraw
-                handler.post(new Updater());
+        public void doFrame(long frameTimeNanos) {
+            if (isRunning) {
+                AnimationLoop.this.doFrame(frameTimeNanos);
+                if (isRunning) {
+                    choreographer.postFrameCallback(this);
+                }
             }
         }
+
+        public void schedule() {
+            choreographer.postFrameCallback(this);
+        }
+
+        public void cancel() {
+            choreographer.removeFrameCallback(this);
+        }
     }
 
     /*
-     * Small runnable helper class needed by Android to redraw a view.
+     * Fallback for API 15, where Choreographer is not public.
+     * Keeps exactly one delayed message pending at a time, aimed at the next frame boundary,
+     * so that a slow frame can never cause a backlog of queued-up messages.
      */
-    private class Updater implements Runnable {
+    private class HandlerTicker implements Ticker, Runnable {
         public void run() {
-            if (view instanceof SimpleCanvas) {
-                SimpleCanvas simpleCanvas = (SimpleCanvas) view;
-                simpleCanvas.preAnimateTick();
-
-                if (view instanceof GCanvas) {
-                    GCanvas gcanvas = (GCanvas) view;
-                    if (!gcanvas.isInitialized()) {
-                        gcanvas.init();
-                        gcanvas.setInitialized(true);
-                    } else {
-                        gcanvas.onAnimateTick();
-                    }
+            if (isRunning) {
+                long now = System.nanoTime();
+                doFrame(now);
+                if (isRunning) {
+                    long elapsedSinceFrame = System.nanoTime() - now;
+                    long delayMillis = Math.max(0, (frameIntervalNanos - elapsedSinceFrame) / NANOS_PER_MILLI);
+                    handler.postDelayed(this, delayMillis);
                 }
             }
-            view.postInvalidate();
+        }
+
+        public void schedule() {
+            handler.post(this);
+        }
+
+        public void cancel() {
+            handler.removeCallbacks(this);
         }
     }
 }
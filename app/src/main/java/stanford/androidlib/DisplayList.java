@@ -0,0 +1,491 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib;
+
+import android.graphics.*;
+
+import java.util.Arrays;
+
+/**
+ * A DisplayList records a sequence of drawing commands, such as drawRect and drawText,
+ * so that they can be replayed onto a canvas later in a single call to draw.
+ * This is useful for a picture that is made of many shapes but rarely changes,
+ * such as a game board or a chart: record it once, then draw the list on every frame.
+ *
+ * <pre>
+ * DisplayList board = beginRecording();   // in your SimpleCanvas
+ * for (...) {
+ *     drawRect(...);                      // recorded, not drawn
+ * }
+ * endRecording();
+ * ...
+ * drawDisplayList(board);                 // in onDraw
+ * </pre>
+ *
+ * <p>
+ * Commands are stored in a few primitive arrays rather than as one object per
+ * command, so recording and replaying allocate no memory once the arrays have grown
+ * to size, and clear() lets a list be reused for the next recording.
+ * Paints, bitmaps, and strings are stored by reference, not copied; if you change
+ * a Paint after recording a command with it, replays of that command use the change.
+ * A cached list (see setCached) keeps drawing its bitmap, though, so after changing
+ * one of its paints or bitmaps, call setCached(true) again to render it afresh.
+ * </p>
+ *
+ * <p>
+ * A list can be moved, scaled, and rotated as a whole with translate, scale, and rotate,
+ * without re-recording it.  Calling setCached(true) renders the list into a bitmap the
+ * first time it is drawn, and draws just that bitmap afterward until the list changes.
+ * </p>
+ */
+public class DisplayList {
+    // opcodes; each command is one opcode plus two indexes into refs (-1 for none),
+    // followed by a fixed number of floats in args
+    private static final int BITMAP = 0;        // x, y
+    private static final int CIRCLE = 1;        // cx, cy, radius
+    private static final int LINE = 2;          // x1, y1, x2, y2
+    private static final int OVAL = 3;          // left, top, right, bottom
+    private static final int RECT = 4;          // left, top, right, bottom
+    private static final int ROUND_RECT = 5;    // left, top, right, bottom, rx, ry
+    private static final int TEXT = 6;          // x, y
+    private static final int INTS_PER_COMMAND = 3;
+
+    // extra pixels around the recorded shapes to cover anti-aliasing
+    private static final float BOUNDS_PADDING = 1f;
+
+    // private fields
+    private int[] ops = new int[16 * INTS_PER_COMMAND];
+    private int opCount = 0;
+    private float[] args = new float[64];
+    private int argCount = 0;
+    private Object[] refs = new Object[16];   // paints, bitmaps, and strings used by the commands
+    private int refCount = 0;
+    private Paint lastPaint = null;           // most recently added paint, so it is stored once
+    private int lastPaintIndex = -1;
+
+    // area covered by the recorded commands
+    private float left = Float.POSITIVE_INFINITY;
+    private float top = Float.POSITIVE_INFINITY;
+    private float right = Float.NEGATIVE_INFINITY;
+    private float bottom = Float.NEGATIVE_INFINITY;
+
+    private final Matrix transform = new Matrix();
+    private boolean transformed = false;
+
+    private boolean cached = false;
+    private Bitmap cache = null;
+    private Canvas cacheCanvas = null;
+    private boolean cacheValid = false;
+    private final RectF rect = new RectF();   // reused while replaying
+
+    /**
+     * Constructs a new empty display list.
+     */
+    public DisplayList() {
+        // empty
+    }
+
+    /**
+     * Removes all commands from this list so that it can record new ones.
+     * The list's transformation and caching setting are kept.
+     */
+    public DisplayList clear() {
+        Arrays.fill(refs, 0, refCount, null);
+        opCount = 0;
+        argCount = 0;
+        refCount = 0;
+        lastPaint = null;
+        lastPaintIndex = -1;
+        left = Float.POSITIVE_INFINITY;
+        top = Float.POSITIVE_INFINITY;
+        right = Float.NEGATIVE_INFINITY;
+        bottom = Float.NEGATIVE_INFINITY;
+        cacheValid = false;
+        return this;
+    }
+
+    /**
+     * Replays every command in this list onto the given canvas, in the order they
+     * were recorded, with this list's transformation applied.
+     * @throws NullPointerException if canvas is null
+     */
+    public void draw(Canvas canvas) {
+        if (opCount == 0) {
+            return;
+        }
+        if (transformed) {
+            canvas.save();
+            canvas.concat(transform);
+        }
+        if (cached) {
+            if (!cacheValid) {
+                renderCache();
+            }
+            if (cache != null) {
+                canvas.drawBitmap(cache, left, top, /* paint */ null);
+            }
+        } else {
+            replay(canvas);
+        }
+        if (transformed) {
+            canvas.restore();
+        }
+    }
+
+    /**
+     * Records a command to draw the given bitmap with its top-left corner at x, y.
+     * @throws NullPointerException if bitmap is null
+     */
+    public DisplayList drawBitmap(Bitmap bitmap, float x, float y) {
+        if (bitmap == null) {
+            throw new NullPointerException();
+        }
+        addCommand(BITMAP, -1, addRef(bitmap));
+        addArgs(x, y);
+        include(x, y, x + bitmap.getWidth(), y + bitmap.getHeight(), 0);
+        return this;
+    }
+
+    /**
+     * Records a command to draw a circle with the given center and radius.
+     * @throws NullPointerException if paint is null
+     */
+    public DisplayList drawCircle(float cx, float cy, float radius, Paint paint) {
+        addCommand(CIRCLE, addPaint(paint), -1);
+        addArgs(cx, cy, radius);
+        include(cx - radius, cy - radius, cx + radius, cy + radius, paint.getStrokeWidth());
+        return this;
+    }
+
+    /**
+     * Records a command to draw a line between the given two points.
+     * @throws NullPointerException if paint is null
+     */
+    public DisplayList drawLine(float x1, float y1, float x2, float y2, Paint paint) {
+        addCommand(LINE, addPaint(paint), -1);
+        addArgs(x1, y1, x2, y2);
+        include(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2),
+                paint.getStrokeWidth());
+        return this;
+    }
+
+    /**
+     * Records a command to draw an oval inside the given rectangle.
+     * @throws NullPointerException if paint is null
+     */
+    public DisplayList drawOval(float left, float top, float right, float bottom, Paint paint) {
+        addCommand(OVAL, addPaint(paint), -1);
+        addArgs(left, top, right, bottom);
+        include(left, top, right, bottom, paint.getStrokeWidth());
+        return this;
+    }
+
+    /**
+     * Records a command to draw the given rectangle.
+     * @throws NullPointerException if paint is null
+     */
+    public DisplayList drawRect(float left, float top, float right, float bottom, Paint paint) {
+        addCommand(RECT, addPaint(paint), -1);
+        addArgs(left, top, right, bottom);
+        include(left, top, right, bottom, paint.getStrokeWidth());
+        return this;
+    }
+
+    /**
+     * Records a command to draw the given rectangle with rounded corners.
+     * @throws NullPointerException if paint is null
+     */
+    public DisplayList drawRoundRect(float left, float top, float right, float bottom,
+                                     float rx, float ry, Paint paint) {
+        addCommand(ROUND_RECT, addPaint(paint), -1);
+        addArgs(left, top, right, bottom);
+        addArgs(rx, ry);
+        include(left, top, right, bottom, paint.getStrokeWidth());
+        return this;
+    }
+
+    /**
+     * Records a command to draw the given text with its baseline starting at x, y.
+     * @throws NullPointerException if text or paint is null
+     */
+    public DisplayList drawText(String text, float x, float y, Paint paint) {
+        if (text == null) {
+            throw new NullPointerException();
+        }
+        addCommand(TEXT, addPaint(paint), addRef(text));
+        addArgs(x, y);
+        float width = paint.measureText(text);
+        Paint.Align align = paint.getTextAlign();
+        float textLeft = align == Paint.Align.CENTER ? x - width / 2
+                : align == Paint.Align.RIGHT ? x - width : x;
+        include(textLeft, y + paint.ascent(), textLeft + width, y + paint.descent(), paint.getStrokeWidth());
+        return this;
+    }
+
+    /**
+     * Fills in the given rectangle with the area covered by the commands in this list,
+     * before its transformation is applied, and returns it.
+     * If the list is empty, the rectangle is set to all zeros.
+     * @throws NullPointerException if bounds is null
+     */
+    public RectF getBounds(RectF bounds) {
+        if (opCount == 0) {
+            bounds.setEmpty();
+        } else {
+            bounds.set(left, top, right, bottom);
+        }
+        return bounds;
+    }
+
+    /**
+     * Returns this list's transformation, which is applied when it is drawn.
+     * The returned Matrix is a copy; use setTransform to change it.
+     */
+    public Matrix getTransform() {
+        return new Matrix(transform);
+    }
+
+    /**
+     * Returns whether this list draws itself from a cached bitmap.
+     * Initially false.
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    /**
+     * Returns true if this list contains no commands.
+     */
+    public boolean isEmpty() {
+        return opCount == 0;
+    }
+
+    /**
+     * Removes any transformation from this list, so that its commands are drawn
+     * exactly where they were recorded.
+     */
+    public DisplayList resetTransform() {
+        transform.reset();
+        transformed = false;
+        return this;
+    }
+
+    /**
+     * Rotates this list by the given number of degrees clockwise around the origin,
+     * after any transformation it already has.
+     */
+    public DisplayList rotate(float degrees) {
+        transform.postRotate(degrees);
+        transformed = true;
+        return this;
+    }
+
+    /**
+     * Scales this list by the given factors around the origin,
+     * after any transformation it already has.
+     */
+    public DisplayList scale(float sx, float sy) {
+        transform.postScale(sx, sy);
+        transformed = true;
+        return this;
+    }
+
+    /**
+     * Sets whether this list should render its commands into a bitmap the first time
+     * it is drawn after it changes, and draw that bitmap instead of replaying the
+     * commands.  This is much faster for a list of many commands, but uses memory
+     * for the bitmap, and a list that is scaled up or rotated while cached may look
+     * slightly blurry, because the bitmap is rendered at the list's original size.
+     * Changes to the paints or bitmaps used by the commands do not reach the bitmap
+     * by themselves; calling setCached(true) again renders it again on the next draw.
+     * Turning caching off frees the bitmap.
+     */
+    public DisplayList setCached(boolean cached) {
+        this.cached = cached;
+        if (!cached && cache != null) {
+            cache.recycle();
+            cache = null;
+        }
+        cacheValid = false;
+        return this;
+    }
+
+    /**
+     * Sets this list's transformation, which is applied when it is drawn,
+     * to a copy of the given matrix.
+     * Pass null to remove any transformation.
+     */
+    public DisplayList setTransform(Matrix matrix) {
+        if (matrix == null) {
+            return resetTransform();
+        }
+        transform.set(matrix);
+        transformed = true;
+        return this;
+    }
+
+    /**
+     * Returns the number of commands in this list.
+     */
+    public int size() {
+        return opCount / INTS_PER_COMMAND;
+    }
+
+    /**
+     * Returns a string representation of this list, for debugging.
+     */
+    @Override
+    public String toString() {
+        return "DisplayList{" + size() + " commands, " + refCount + " refs"
+                + (cached ? ", cached" : "") + (transformed ? ", transformed" : "") + "}";
+    }
+
+    /**
+     * Moves this list by the given amounts, after any transformation it already has.
+     */
+    public DisplayList translate(float dx, float dy) {
+        transform.postTranslate(dx, dy);
+        transformed = true;
+        return this;
+    }
+
+    // helper to append floats to the argument array
+    private void addArgs(float a, float b) {
+        if (argCount + 2 > args.length) {
+            args = Arrays.copyOf(args, Math.max(argCount + 2, args.length * 2));
+        }
+        args[argCount++] = a;
+        args[argCount++] = b;
+    }
+
+    // helper to append floats to the argument array
+    private void addArgs(float a, float b, float c) {
+        addArgs(a, b);
+        if (argCount + 1 > args.length) {
+            args = Arrays.copyOf(args, args.length * 2);
+        }
+        args[argCount++] = c;
+    }
+
+    // helper to append floats to the argument array
+    private void addArgs(float a, float b, float c, float d) {
+        addArgs(a, b);
+        addArgs(c, d);
+    }
+
+    // helper to append one command's opcode and reference indexes
+    private void addCommand(int op, int ref1, int ref2) {
+        if (opCount + INTS_PER_COMMAND > ops.length) {
+            ops = Arrays.copyOf(ops, ops.length * 2);
+        }
+        ops[opCount++] = op;
+        ops[opCount++] = ref1;
+        ops[opCount++] = ref2;
+        cacheValid = false;
+    }
+
+    // helper to store a paint, reusing the previous slot if it is the same paint again
+    private int addPaint(Paint paint) {
+        if (paint == null) {
+            throw new NullPointerException();
+        }
+        if (paint != lastPaint) {
+            lastPaint = paint;
+            lastPaintIndex = addRef(paint);
+        }
+        return lastPaintIndex;
+    }
+
+    // helper to store an object used by a command and return its index
+    private int addRef(Object ref) {
+        if (refCount == refs.length) {
+            refs = Arrays.copyOf(refs, refs.length * 2);
+        }
+        refs[refCount] = ref;
+        return refCount++;
+    }
+
+    // helper to grow the recorded area to include the given rectangle and stroke
+    private void include(float l, float t, float r, float b, float strokeWidth) {
+        float pad = strokeWidth / 2 + BOUNDS_PADDING;
+        left = Math.min(left, l - pad);
+        top = Math.min(top, t - pad);
+        right = Math.max(right, r + pad);
+        bottom = Math.max(bottom, b + pad);
+    }
+
+    // helper to render the commands into the cache bitmap
+    private void renderCache() {
+        cacheValid = true;
+        int width = (int) Math.ceil(right - left);
+        int height = (int) Math.ceil(bottom - top);
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (cache == null || cache.getWidth() != width || cache.getHeight() != height) {
+            if (cache != null) {
+                cache.recycle();
+            }
+            cache = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        } else {
+            cache.eraseColor(Color.TRANSPARENT);
+        }
+        if (cacheCanvas == null) {
+            cacheCanvas = new Canvas();
+        }
+        cacheCanvas.setBitmap(cache);
+        cacheCanvas.save();
+        cacheCanvas.translate(-left, -top);
+        replay(cacheCanvas);
+        cacheCanvas.restore();
+        cacheCanvas.setBitmap(null);
+    }
+
+    // helper to run every command against the given canvas
+    private void replay(Canvas canvas) {
+        final int[] ops = this.ops;
+        final float[] args = this.args;
+        final Object[] refs = this.refs;
+        int a = 0;
+        for (int i = 0; i < opCount; i += INTS_PER_COMMAND) {
+            Paint paint = ops[i + 1] >= 0 ? (Paint) refs[ops[i + 1]] : null;
+            switch (ops[i]) {
+                case BITMAP:
+                    canvas.drawBitmap((Bitmap) refs[ops[i + 2]], args[a], args[a + 1], paint);
+                    a += 2;
+                    break;
+                case CIRCLE:
+                    canvas.drawCircle(args[a], args[a + 1], args[a + 2], paint);
+                    a += 3;
+                    break;
+                case LINE:
+                    canvas.drawLine(args[a], args[a + 1], args[a + 2], args[a + 3], paint);
+                    a += 4;
+                    break;
+                case OVAL:
+                    rect.set(args[a], args[a + 1], args[a + 2], args[a + 3]);
+                    canvas.drawOval(rect, paint);
+                    a += 4;
+                    break;
+                case RECT:
+                    canvas.drawRect(args[a], args[a + 1], args[a + 2], args[a + 3], paint);
+                    a += 4;
+                    break;
+                case ROUND_RECT:
+                    rect.set(args[a], args[a + 1], args[a + 2], args[a + 3]);
+                    canvas.drawRoundRect(rect, args[a + 4], args[a + 5], paint);
+                    a += 6;
+                    break;
+                case TEXT:
+                    canvas.drawText((String) refs[ops[i + 2]], args[a], args[a + 1], paint);
+                    a += 2;
+                    break;
+                default:
+                    throw new IllegalStateException("bad display list opcode: " + ops[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ * - methods are synchronized, so that stats can be recorded on a render thread while the UI thread reads them
+ */
+
+package stanford.androidlib;
+
+import android.graphics.*;
+
+import java.util.Arrays;
+
+/**
+ * A FrameStats object records how long each frame of animation takes in a SimpleCanvas,
+ * broken down into phases, so that you can find out where a slow or jerky animation
+ * is spending its time.  Turn it on by calling setFrameStatsEnabled(true) on your canvas,
+ * then call getFrameStats() to query it, or call setFrameStatsOverlayVisible(true)
+ * to draw a summary in the corner of the canvas.
+ *
+ * <p>
+ * The phases recorded are:
+ * </p>
+ * <ul>
+ * <li>FRAME: time between the starts of consecutive ticks of animation</li>
+ * <li>TICK: time spent in onAnimateTick, including sprite updates and your own code</li>
+ * <li>SPRITES: time spent by GCanvas updating sprites and detecting collisions</li>
+ * <li>PAINT: time spent drawing the canvas</li>
+ * </ul>
+ *
+ * <p>
+ * Only the most recent samples of each phase are kept, in fixed-size ring buffers,
+ * so recording a frame never allocates memory.  Percentiles are computed from those
+ * samples when you ask for them.
+ * </p>
+ */
+public class FrameStats {
+    /** Phase constant for the time between consecutive ticks of animation. */
+    public static final int FRAME = 0;
+
+    /** Phase constant for the time spent in onAnimateTick. */
+    public static final int TICK = 1;
+
+    /** Phase constant for the time GCanvas spends updating sprites and detecting collisions. */
+    public static final int SPRITES = 2;
+
+    /** Phase constant for the time spent drawing the canvas. */
+    public static final int PAINT = 3;
+
+    /** Default number of samples of each phase that are kept. */
+    public static final int DEFAULT_CAPACITY = 120;
+
+    private static final int PHASE_COUNT = 4;
+    private static final float NANOS_PER_MILLI = 1000000f;
+
+    // how often the overlay's text is rebuilt, in frames
+    private static final int OVERLAY_REFRESH_FRAMES = 15;
+    private static final float OVERLAY_TEXT_SIZE = 28f;
+    private static final String[] OVERLAY_PHASE_NAMES = {"frame", "tick ", "sprt ", "paint"};
+
+    // private fields
+    private final long[][] samples;
+    private final int[] sampleNext = new int[PHASE_COUNT];
+    private final int[] sampleCount = new int[PHASE_COUNT];
+    private final long[] scratch;   // reused by percentile queries
+    private int frameCount = 0;
+    private int lateFrameCount = 0;
+    private int droppedFrameCount = 0;
+    private int objectCount = 0;
+
+    // overlay state; created only if the overlay is ever shown
+    private Paint overlayTextPaint = null;
+    private Paint overlayBackPaint = null;
+    private char[][] overlayLines = null;
+    private int[] overlayLineLengths = null;
+    private int overlayFrameStamp = -1;
+
+    /**
+     * Constructs a new empty stats object keeping DEFAULT_CAPACITY samples of each phase.
+     */
+    public FrameStats() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new empty stats object keeping the given number of samples of each phase.
+     * @throws IllegalArgumentException if capacity is less than 1
+     */
+    public FrameStats(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1: " + capacity);
+        }
+        samples = new long[PHASE_COUNT][capacity];
+        scratch = new long[capacity];
+    }
+
+    /**
+     * Returns the average of the recent samples of the given phase, in milliseconds.
+     * Returns 0 if no samples have been recorded.
+     * @throws IllegalArgumentException if phase is not one of the phase constants
+     */
+    public synchronized float getAverage(int phase) {
+        checkPhase(phase);
+        int count = sampleCount[phase];
+        if (count == 0) {
+            return 0;
+        }
+        long total = 0;
+        long[] ring = samples[phase];
+        for (int i = 0; i < count; i++) {
+            total += ring[i];
+        }
+        return total / NANOS_PER_MILLI / count;
+    }
+
+    /**
+     * Returns the number of frames of animation that the loop skipped because
+     * the app fell too far behind, since this object was created or reset.
+     */
+    public synchronized int getDroppedFrameCount() {
+        return droppedFrameCount;
+    }
+
+    /**
+     * Returns the recent rate of animation ticks per second,
+     * based on the average FRAME time; or 0 if no frames have been recorded.
+     */
+    public synchronized float getFps() {
+        float average = getAverage(FRAME);
+        return average <= 0 ? 0 : 1000f / average;
+    }
+
+    /**
+     * Returns the number of ticks of animation recorded since this object was created or reset.
+     */
+    public synchronized int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Returns the number of frames that started noticeably later than scheduled
+     * (more than half a frame late), since this object was created or reset.
+     */
+    public synchronized int getLateFrameCount() {
+        return lateFrameCount;
+    }
+
+    /**
+     * Returns the most recent sample of the given phase, in milliseconds,
+     * or 0 if no samples have been recorded.
+     * @throws IllegalArgumentException if phase is not one of the phase constants
+     */
+    public synchronized float getLatest(int phase) {
+        checkPhase(phase);
+        if (sampleCount[phase] == 0) {
+            return 0;
+        }
+        long[] ring = samples[phase];
+        int index = (sampleNext[phase] + ring.length - 1) % ring.length;
+        return ring[index] / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the number of objects that were drawn on the most recent frame.
+     * Only GCanvas reports this; for other canvases it is 0.
+     */
+    public synchronized int getObjectCount() {
+        return objectCount;
+    }
+
+    /**
+     * Returns the given percentile (such as 50, 95, or 99) of the recent samples
+     * of the given phase, in milliseconds.
+     * Returns 0 if no samples have been recorded.
+     * @throws IllegalArgumentException if phase is not one of the phase constants,
+     *         or if percentile is not between 0 and 100
+     */
+    public synchronized float getPercentile(int phase, float percentile) {
+        checkPhase(phase);
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+        }
+        int count = sampleCount[phase];
+        if (count == 0) {
+            return 0;
+        }
+        System.arraycopy(samples[phase], 0, scratch, 0, count);
+        Arrays.sort(scratch, 0, count);
+        // nearest-rank percentile
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        int index = Math.max(0, Math.min(count - 1, rank - 1));
+        return scratch[index] / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the number of samples of each phase that are kept.
+     */
+    public int getCapacity() {
+        return scratch.length;
+    }
+
+    /**
+     * Discards all samples and resets all counts to 0.
+     */
+    public synchronized void reset() {
+        Arrays.fill(sampleNext, 0);
+        Arrays.fill(sampleCount, 0);
+        frameCount = 0;
+        lateFrameCount = 0;
+        droppedFrameCount = 0;
+        objectCount = 0;
+        overlayFrameStamp = -1;
+    }
+
+    /**
+     * Records that the given number of frames were skipped.
+     * Clients should not call this method directly.
+     * @noshow
+     */
+    public synchronized void recordDroppedFrames(int count) {
+        droppedFrameCount += count;
+    }
+
+    /**
+     * Records the start of a new frame that began the given number of nanoseconds
+     * after the previous one, and whether it was late.
+     * Clients should not call this method directly.
+     * @noshow
+     */
+    public synchronized void recordFrame(long intervalNanos, boolean late) {
+        frameCount++;
+        if (late) {
+            lateFrameCount++;
+        }
+        record(FRAME, intervalNanos);
+    }
+
+    /**
+     * Records the number of objects drawn on the current frame.
+     * Clients should not call this method directly.
+     * @noshow
+     */
+    public synchronized void recordObjectCount(int count) {
+        objectCount = count;
+    }
+
+    /**
+     * Records a sample of the given phase, in nanoseconds.
+     * Clients should not call this method directly.
+     * @noshow
+     */
+    public synchronized void record(int phase, long nanos) {
+        checkPhase(phase);
+        long[] ring = samples[phase];
+        ring[sampleNext[phase]] = nanos;
+        sampleNext[phase] = (sampleNext[phase] + 1) % ring.length;
+        if (sampleCount[phase] < ring.length) {
+            sampleCount[phase]++;
+        }
+    }
+
+    /**
+     * Draws a small summary of these stats in the top-left corner of the given canvas.
+     * The text is only rebuilt every few frames so that it is readable and cheap.
+     * Called by SimpleCanvas if setFrameStatsOverlayVisible(true) has been called.
+     */
+    public synchronized void drawOverlay(Canvas canvas) {
+        if (overlayTextPaint == null) {
+            overlayTextPaint = new Paint();
+            overlayTextPaint.setColor(Color.WHITE);
+            overlayTextPaint.setTextSize(OVERLAY_TEXT_SIZE);
+            overlayTextPaint.setTypeface(Typeface.MONOSPACE);
+            overlayTextPaint.setAntiAlias(true);
+            overlayBackPaint = new Paint();
+            overlayBackPaint.setColor(0xa0000000);
+            overlayLines = new char[PHASE_COUNT + 1][64];
+            overlayLineLengths = new int[PHASE_COUNT + 1];
+        }
+        if (overlayFrameStamp < 0 || frameCount - overlayFrameStamp >= OVERLAY_REFRESH_FRAMES) {
+            overlayFrameStamp = frameCount;
+            buildOverlayText();
+        }
+
+        float lineHeight = OVERLAY_TEXT_SIZE * 1.2f;
+        float width = 0;
+        for (int i = 0; i < overlayLines.length; i++) {
+            width = Math.max(width, overlayTextPaint.measureText(overlayLines[i], 0, overlayLineLengths[i]));
+        }
+        canvas.drawRect(0, 0, width + lineHeight, lineHeight * (overlayLines.length + 0.5f), overlayBackPaint);
+        for (int i = 0; i < overlayLines.length; i++) {
+            canvas.drawText(overlayLines[i], 0, overlayLineLengths[i],
+                    lineHeight / 2, lineHeight * (i + 1), overlayTextPaint);
+        }
+    }
+
+    // fills the overlay's char buffers with the current stats, without allocating strings
+    private void buildOverlayText() {
+        char[] line = overlayLines[0];
+        int len = 0;
+        len = append(line, len, "fps ");
+        len = appendDecimal(line, len, getFps());
+        len = append(line, len, " late ");
+        len = appendDecimal(line, len, lateFrameCount);
+        len = append(line, len, " drop ");
+        len = appendDecimal(line, len, droppedFrameCount);
+        len = append(line, len, " objs ");
+        len = appendDecimal(line, len, objectCount);
+        overlayLineLengths[0] = len;
+
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            line = overlayLines[phase + 1];
+            len = append(line, 0, OVERLAY_PHASE_NAMES[phase]);
+            len = append(line, len, " p50 ");
+            len = appendDecimal(line, len, getPercentile(phase, 50));
+            len = append(line, len, " p95 ");
+            len = appendDecimal(line, len, getPercentile(phase, 95));
+            len = append(line, len, " p99 ");
+            len = appendDecimal(line, len, getPercentile(phase, 99));
+            len = append(line, len, " ms");
+            overlayLineLengths[phase + 1] = len;
+        }
+    }
+
+    // helper to copy a string's chars into the buffer; returns new length
+    private static int append(char[] buffer, int len, String s) {
+        int count = Math.min(s.length(), buffer.length - len);
+        s.getChars(0, count, buffer, len);
+        return len + count;
+    }
+
+    // helper to write a non-negative number with one decimal place into the buffer; returns new length
+    private static int appendDecimal(char[] buffer, int len, float value) {
+        int tenths = Math.round(Math.max(0, value) * 10);
+        int whole = tenths / 10;
+        int digits = 1;
+        for (int n = whole; n >= 10; n /= 10) {
+            digits++;
+        }
+        if (len + digits + 2 > buffer.length) {
+            return len;
+        }
+        for (int i = digits - 1, n = whole; i >= 0; i--, n /= 10) {
+            buffer[len + i] = (char) ('0' + n % 10);
+        }
+        len += digits;
+        buffer[len++] = '.';
+        buffer[len++] = (char) ('0' + tenths % 10);
+        return len;
+    }
+
+    // helper to write a non-negative integer into the buffer; returns new length
+    private static int appendDecimal(char[] buffer, int len, int value) {
+        int digits = 1;
+        for (int n = value; n >= 10; n /= 10) {
+            digits++;
+        }
+        if (len + digits > buffer.length) {
+            return len;
+        }
+        for (int i = digits - 1, n = value; i >= 0; i--, n /= 10) {
+            buffer[len + i] = (char) ('0' + n % 10);
+        }
+        return len + digits;
+    }
+
+    // throws an IllegalArgumentException if phase is not a valid phase constant
+    private static void checkPhase(int phase) {
+        if (phase < 0 || phase >= PHASE_COUNT) {
+            throw new IllegalArgumentException("invalid phase: " + phase);
+        }
+    }
+}
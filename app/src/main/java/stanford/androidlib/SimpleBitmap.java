@@ -1,4 +1,6 @@
 /*
+ * @version 2026/10/16
+ * - added getSpriteSheet methods to load many animation frames from one image
  * @version 2016/05/21
  * - initial version
  */
@@ -15,6 +17,8 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 
+import stanford.androidlib.graphics.GSpriteSheet;
+
 /**
  * A utility class for loading and transforming Bitmap objects.
  *
@@ -126,6 +130,41 @@ public class SimpleBitmap {
         return list;
     }
 
+    /**
+     * Returns a sprite sheet for the resource image with the given ID, whose frames
+     * are the cells of a grid with the given number of rows and columns.
+     * Decoding one sheet is much faster and uses less memory than decoding
+     * each frame as a separate image with getAll.
+     */
+    public GSpriteSheet getSpriteSheet(@DrawableRes int id, int rows, int columns) {
+        return GSpriteSheet.fromGrid(get(id), rows, columns);
+    }
+
+    /**
+     * Returns a sprite sheet for the resource image with the given ID, whose frames
+     * are listed in the given manifest text (see GSpriteSheet.fromManifest).
+     * The image is loaded at its original pixel size, without scaling it for the
+     * screen density, so that the manifest's coordinates line up with it.
+     */
+    public GSpriteSheet getSpriteSheet(@DrawableRes int id, @NonNull String manifest) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inScaled = false;
+        Bitmap bitmap = BitmapFactory.decodeResource(context.getResources(), id, options);
+        return GSpriteSheet.fromManifest(bitmap, manifest);
+    }
+
+    /**
+     * Returns a sprite sheet for the resource image with the given ID, whose frames
+     * are listed in the raw text resource with the given manifest ID
+     * (see GSpriteSheet.fromManifest).
+     * The image is loaded at its original pixel size, without scaling it for the
+     * screen density, so that the manifest's coordinates line up with it.
+     * @throws IORuntimeException if the manifest cannot be read.
+     */
+    public GSpriteSheet getSpriteSheetWithManifest(@DrawableRes int id, @RawRes int manifestId) {
+        return getSpriteSheet(id, SimpleIO.with(context).readFileText(manifestId));
+    }
+
     /**
      * Whether we filter bitmaps on scale/rotate for smoothness.
      * Slower but better-looking. On by default.
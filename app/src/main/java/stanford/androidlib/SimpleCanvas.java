@@ -1,4 +1,12 @@
 /*
+ * @version 2026/10/16
+ * - added onAnimateTick(float) and getAnimationFrameDelta for frame-rate-independent animation;
+ *   deprecated preAnimateTick() in favor of preAnimateTick(float)
+ * - added getAnimationLoop
+ * - added optional frame timing stats and overlay (setFrameStatsEnabled, getFrameStats)
+ * - added beginRecording/endRecording/drawDisplayList to record and replay drawing commands
+ * - drawOval and drawRoundRect reuse one RectF instead of allocating one per call
+ * - createFont returns cached typefaces from GResourceCache
  * @version 2016/02/08
  * - moved GObject stuff to separate GCanvas class
  * @version 2016/02/07
@@ -17,6 +25,7 @@ import android.support.annotation.CallSuper;
 import android.support.annotation.DrawableRes;
 import android.util.AttributeSet;
 import android.view.*;
+import stanford.androidlib.graphics.GResourceCache;
 
 /**
  * A SimpleCanvas is meant as a 2D drawing surface for graphics in games and animations.
@@ -33,6 +42,12 @@ public abstract class SimpleCanvas extends View
     protected Paint paint = new Paint();
     private AnimationLoop animationLoop = null;
     private int animationTickCount = 0;
+    private float animationFrameDelta = 0;
+    FrameStats frameStats = null;   // null when disabled; read by AnimationLoop
+    private boolean frameStatsOverlayVisible = false;
+    private final RectF drawRect = new RectF();   // reused by the drawing methods
+    private DisplayList recording = null;         // non-null between beginRecording and endRecording
+    private Paint recordedPaint = null;           // copy of paint used by recorded commands
 
     /**
      * Required constructor; your SimpleCanvas subclass must implement a constructor
@@ -84,10 +99,70 @@ public abstract class SimpleCanvas extends View
         if (animationLoop != null) {
             animationLoop.stop();
             animationTickCount = 0;
+            animationFrameDelta = 0;
             animationLoop = null;
         }
     }
 
+    /**
+     * Returns the animation loop that is driving this canvas, so that you can
+     * adjust settings such as fixed-timestep mode; or null if not animating.
+     */
+    public AnimationLoop getAnimationLoop() {
+        return animationLoop;
+    }
+
+    /**
+     * Returns the object recording frame timing stats for this canvas,
+     * or null if frame stats are not enabled.
+     */
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * Returns whether frame timing stats are being recorded for this canvas.
+     * Default false.
+     */
+    public boolean isFrameStatsEnabled() {
+        return frameStats != null;
+    }
+
+    /**
+     * Returns whether a summary of frame timing stats is drawn on top of this canvas.
+     * Default false.
+     */
+    public boolean isFrameStatsOverlayVisible() {
+        return frameStatsOverlayVisible;
+    }
+
+    /**
+     * Sets whether to record how long each frame of animation takes to update and draw.
+     * When enabled, you can call getFrameStats() to examine the timings.
+     * When disabled (the default), no timing work is done at all.
+     * Disabling and then re-enabling discards any previous samples.
+     */
+    public void setFrameStatsEnabled(boolean enabled) {
+        if (enabled && frameStats == null) {
+            frameStats = new FrameStats();
+        } else if (!enabled) {
+            frameStats = null;
+            frameStatsOverlayVisible = false;
+        }
+    }
+
+    /**
+     * Sets whether to draw a summary of frame timing stats in the top-left corner
+     * of this canvas.  Turns on frame stats if they are not already enabled.
+     */
+    public void setFrameStatsOverlayVisible(boolean visible) {
+        if (visible) {
+            setFrameStatsEnabled(true);
+        }
+        frameStatsOverlayVisible = visible;
+        invalidate();
+    }
+
     /**
      * Returns whether animation is currently running and/or paused.
      */
@@ -238,27 +313,19 @@ public abstract class SimpleCanvas extends View
     }
 
     /**
-     * Returns a new font typeface created using the given parameters.
+     * Returns a font typeface for the given asset file or font family name.
+     * Asset fonts are cached, so each file is read only once.
      */
     public Typeface createFont(String name) {
         return createFont(name, /* style */ Typeface.NORMAL);
     }
 
     /**
-     * Returns a new font typeface created using the given parameters.
+     * Returns a font typeface for the given asset file or font family name.
+     * Asset fonts are cached, so each file is read only once.
      */
     public Typeface createFont(String name, int style) {
-        Typeface font = null;
-        try {
-            font = Typeface.createFromAsset(getContext().getAssets(), name);
-        } catch (Exception e) {
-            // empty
-        }
-        if (font == null) {
-            // create from system font name
-            font = Typeface.create(name, style);
-        }
-        return font;
+        return GResourceCache.getTypeface(getContext().getAssets(), name, style);
     }
 
     /**
@@ -370,11 +437,77 @@ public abstract class SimpleCanvas extends View
 
     /// begin drawing methods
 
+    /**
+     * Starts recording drawing commands into a new DisplayList instead of drawing them.
+     * Until endRecording is called, the drawXxx methods of this canvas (drawRect,
+     * drawOval, drawText, and so on) add commands to the list rather than drawing.
+     * Returns the list being recorded.
+     * @throws IllegalStateException if a recording is already in progress
+     */
+    public DisplayList beginRecording() {
+        return beginRecording(new DisplayList());
+    }
+
+    /**
+     * Clears the given DisplayList and starts recording drawing commands into it,
+     * as with beginRecording(), so that an existing list can be re-recorded without
+     * allocating a new one.
+     * Returns the list being recorded.
+     * @throws NullPointerException if list is null
+     * @throws IllegalStateException if a recording is already in progress
+     */
+    public DisplayList beginRecording(DisplayList list) {
+        if (list == null) {
+            throw new NullPointerException();
+        }
+        if (recording != null) {
+            throw new IllegalStateException("already recording; call endRecording first");
+        }
+        recording = list.clear();
+        recordedPaint = null;
+        return list;
+    }
+
+    /**
+     * Stops recording drawing commands, so that the drawXxx methods draw again,
+     * and returns the DisplayList that was recorded.
+     * @throws IllegalStateException if no recording is in progress
+     */
+    public DisplayList endRecording() {
+        if (recording == null) {
+            throw new IllegalStateException("not recording; call beginRecording first");
+        }
+        DisplayList list = recording;
+        recording = null;
+        recordedPaint = null;
+        return list;
+    }
+
+    /**
+     * Returns true if drawing commands are currently being recorded
+     * rather than drawn; see beginRecording.
+     */
+    public boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * Draws every command in the given DisplayList onto this canvas.
+     * @throws NullPointerException if list is null
+     */
+    public void drawDisplayList(DisplayList list) {
+        list.draw(canvas);
+    }
+
     /**
      * Draws the given bitmap image onto this canvas.
      */
     public void drawBitmap(Bitmap image, int x, int y) {
-        canvas.drawBitmap(image, x, y, /* paint */ null);
+        if (recording != null) {
+            recording.drawBitmap(image, x, y);
+        } else {
+            canvas.drawBitmap(image, x, y, /* paint */ null);
+        }
     }
 
     /**
@@ -395,7 +528,12 @@ public abstract class SimpleCanvas extends View
      * Draws the given oval onto this canvas.
      */
     public void drawOval(int x1, int y1, int x2, int y2, Paint paint) {
-        canvas.drawOval(new RectF(x1, y1, x2, y2), paint);
+        if (recording != null) {
+            recording.drawOval(x1, y1, x2, y2, paintToRecord(paint));
+        } else {
+            drawRect.set(x1, y1, x2, y2);
+            canvas.drawOval(drawRect, paint);
+        }
     }
 
     /**
@@ -409,7 +547,11 @@ public abstract class SimpleCanvas extends View
      * Draws the given rectangle onto this canvas.
      */
     public void drawRect(int x1, int y1, int x2, int y2, Paint paint) {
-        canvas.drawRect(x1, y1, x2, y2, paint);
+        if (recording != null) {
+            recording.drawRect(x1, y1, x2, y2, paintToRecord(paint));
+        } else {
+            canvas.drawRect(x1, y1, x2, y2, paint);
+        }
     }
 
     /**
@@ -423,7 +565,12 @@ public abstract class SimpleCanvas extends View
      * Draws the given rounded rectangle onto this canvas.
      */
     public void drawRoundRect(int x1, int y1, int x2, int y2, int rx, int ry, Paint paint) {
-        canvas.drawRoundRect(new RectF(x1, y1, x2, y2), rx, ry, paint);
+        if (recording != null) {
+            recording.drawRoundRect(x1, y1, x2, y2, rx, ry, paintToRecord(paint));
+        } else {
+            drawRect.set(x1, y1, x2, y2);
+            canvas.drawRoundRect(drawRect, rx, ry, paint);
+        }
     }
 
     /**
@@ -444,7 +591,38 @@ public abstract class SimpleCanvas extends View
      * Draws the given string onto this canvas.
      */
     public void drawText(String text, int x, int y, Paint paint) {
-        canvas.drawText(text, x, y, paint);
+        if (recording != null) {
+            recording.drawText(text, x, y, paintToRecord(paint));
+        } else {
+            canvas.drawText(text, x, y, paint);
+        }
+    }
+
+    // helper to return the paint a recorded command should keep; this canvas's own
+    // paint keeps changing as setColor etc. are called, so commands get a copy of it,
+    // made again whenever the paint no longer matches the last copy
+    private Paint paintToRecord(Paint paint) {
+        if (paint != this.paint) {
+            return paint;
+        }
+        if (recordedPaint == null || !drawsAlike(paint, recordedPaint)) {
+            recordedPaint = new Paint(paint);
+        }
+        return recordedPaint;
+    }
+
+    // helper that compares the attributes of two paints that drawing code commonly changes;
+    // the paint is compared rather than tracked through this class's setters because
+    // subclasses may also change the protected paint field directly
+    private static boolean drawsAlike(Paint paint1, Paint paint2) {
+        return paint1.getColor() == paint2.getColor()
+                && paint1.getStyle() == paint2.getStyle()
+                && paint1.getStrokeWidth() == paint2.getStrokeWidth()
+                && paint1.getTextSize() == paint2.getTextSize()
+                && paint1.getTextAlign() == paint2.getTextAlign()
+                && paint1.getTypeface() == paint2.getTypeface()
+                && paint1.getFlags() == paint2.getFlags()
+                && paint1.getShader() == paint2.getShader();
     }
 
     /// end drawing methods
@@ -477,12 +655,45 @@ public abstract class SimpleCanvas extends View
         // empty; override me
     }
 
+    /**
+     * This is a callback that will be called on your canvas every time the animation
+     * ticks, passing the number of seconds that have passed since the previous tick.
+     * Override this instead of onAnimateTick() if you want to move things at a speed
+     * that does not depend on the frame rate.
+     * By default, just calls onAnimateTick().
+     */
+    @CallSuper
+    public void onAnimateTick(float elapsedSeconds) {
+        onAnimateTick();
+    }
+
     /**
      * This is called each time there is a tick of animation by the AnimationLoop.
      * Clients should not call this method directly.
+     * @deprecated the AnimationLoop now calls preAnimateTick(float) instead
      */
+    @Deprecated
     public final void preAnimateTick() {
+        preAnimateTick(0);
+    }
+
+    /**
+     * This is called each time there is a tick of animation by the AnimationLoop,
+     * passing the number of seconds that have passed since the previous tick.
+     * Clients should not call this method directly.
+     */
+    public final void preAnimateTick(float elapsedSeconds) {
         animationTickCount++;
+        animationFrameDelta = elapsedSeconds;
+    }
+
+    /**
+     * Returns the number of seconds that passed between the previous frame of
+     * animation and the current one.
+     * If animation is not in progress, returns 0.
+     */
+    public float getAnimationFrameDelta() {
+        return animationFrameDelta;
     }
 
     /**
@@ -493,6 +704,26 @@ public abstract class SimpleCanvas extends View
         return animationTickCount;
     }
 
+    /**
+     * This View method is overridden to time how long drawing takes and to draw
+     * the frame stats overlay, if frame stats are enabled.
+     * Clients should override onDraw rather than this method.
+     */
+    @Override
+    public void draw(Canvas canvas) {
+        FrameStats stats = frameStats;
+        if (stats == null) {
+            super.draw(canvas);
+            return;
+        }
+        long start = System.nanoTime();
+        super.draw(canvas);
+        stats.record(FrameStats.PAINT, System.nanoTime() - start);
+        if (frameStatsOverlayVisible) {
+            stats.drawOverlay(canvas);
+        }
+    }
+
     /**
      * This View lifecycle method is overridden to stop any animation from
      * running if this canvas is removed from the screen.
@@ -0,0 +1,416 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import java.util.*;
+
+/**
+ * A named animation sequence for a GSprite: a list of frames, each shown for its
+ * own number of seconds, that plays once, loops, or ping-pongs back and forth.
+ * Named events can be attached to frames; a sprite playing the clip reports them
+ * to its ClipListener when it reaches those frames.
+ *
+ * <p>
+ * For a sprite that draws frames of a GSpriteSheet, a clip's frames are indexes of
+ * frames in the sheet (see GSpriteSheet.indexOf); otherwise they are indexes into
+ * the sprite's list of bitmaps.
+ * </p>
+ *
+ * <p>
+ * Unlike setFramesPerBitmap, which changes frames after a fixed number of animation
+ * ticks, a clip is timed in seconds, so it plays at the same speed no matter the
+ * frame rate, and skips ahead rather than slowing down when frames are dropped.
+ * </p>
+ *
+ * <p>
+ * A clip is built by chaining calls to addFrame, addEvent, and setMode.
+ * The first time it is played, it is compiled into a timeline of primitive arrays
+ * that every sprite playing it shares, and it can no longer be changed.
+ * Finding the frame shown at a given time takes constant time and takes no locks.
+ * </p>
+ *
+ * <pre>
+ * GAnimationClip walk = new GAnimationClip("walk")
+ *         .addFrames(0.1f, sheet.indexesOf("walk1", "walk2", "walk3"))
+ *         .addEvent(1, "footstep");
+ * sprite.addClip(walk);
+ * sprite.playClip("walk");
+ * </pre>
+ */
+public final class GAnimationClip {
+    /** Mode in which the clip plays through once and stays on its last frame. */
+    public static final int ONCE = 0;
+
+    /** Mode in which the clip starts over from its first frame after its last one (the default). */
+    public static final int LOOP = 1;
+
+    /** Mode in which the clip plays forward, then backward, then forward again, and so on. */
+    public static final int PING_PONG = 2;
+
+    // most lookup buckets a compiled timeline will use
+    private static final int MAX_BUCKETS = 1024;
+
+    /**
+     * A listener for the events of clips played by sprites.
+     */
+    public interface ClipListener {
+        /**
+         * Called when the given sprite reaches a frame of the given clip that has an event.
+         */
+        void onClipEvent(GSprite sprite, GAnimationClip clip, String event);
+
+        /**
+         * Called when the given sprite reaches the end of a clip whose mode is ONCE.
+         */
+        void onClipFinished(GSprite sprite, GAnimationClip clip);
+    }
+
+    /**
+     * A class with empty implementations of all methods in the ClipListener interface.
+     */
+    public static class ClipAdapter implements ClipListener {
+        /**
+         * Empty event listener method to be overridden.
+         */
+        public void onClipEvent(GSprite sprite, GAnimationClip clip, String event) {
+            // empty
+        }
+
+        /**
+         * Empty event listener method to be overridden.
+         */
+        public void onClipFinished(GSprite sprite, GAnimationClip clip) {
+            // empty
+        }
+    }
+
+    // private fields; all but timeline are used only until the clip is compiled
+    private final String name;
+    private int mode = LOOP;
+    private int[] frames = new int[8];
+    private float[] durations = new float[8];
+    private int frameCount = 0;
+    private final List<String> eventNames = new ArrayList<>();
+    private final List<Integer> eventPositions = new ArrayList<>();
+    private volatile Timeline timeline = null;
+
+    /**
+     * Constructs a new empty clip with the given name, in LOOP mode.
+     * @throws NullPointerException if name is null
+     */
+    public GAnimationClip(String name) {
+        if (name == null) {
+            throw new NullPointerException();
+        }
+        this.name = name;
+    }
+
+    /**
+     * Constructs a new clip with the given name, in LOOP mode, that shows each of
+     * the given frames for the given number of seconds.
+     * @throws NullPointerException if name or frames is null
+     * @throws IllegalArgumentException if secondsPerFrame is not positive,
+     *         or if any frame is negative
+     */
+    public GAnimationClip(String name, float secondsPerFrame, int... frames) {
+        this(name);
+        addFrames(secondsPerFrame, frames);
+    }
+
+    /**
+     * Adds a frame to the end of this clip that is shown for the given number of seconds.
+     * @throws IllegalArgumentException if frame is negative or seconds is not positive
+     * @throws IllegalStateException if this clip has already been played
+     */
+    public synchronized GAnimationClip addFrame(int frame, float seconds) {
+        checkNotCompiled();
+        if (frame < 0) {
+            throw new IllegalArgumentException("frame must be >= 0: " + frame);
+        }
+        if (!(seconds > 0) || Float.isInfinite(seconds)) {
+            throw new IllegalArgumentException("seconds must be > 0: " + seconds);
+        }
+        if (frameCount == frames.length) {
+            frames = Arrays.copyOf(frames, frameCount * 2);
+            durations = Arrays.copyOf(durations, frameCount * 2);
+        }
+        frames[frameCount] = frame;
+        durations[frameCount] = seconds;
+        frameCount++;
+        return this;
+    }
+
+    /**
+     * Adds the given frames to the end of this clip, each shown for the given number of seconds.
+     * @throws NullPointerException if frames is null
+     * @throws IllegalArgumentException if any frame is negative or seconds is not positive
+     * @throws IllegalStateException if this clip has already been played
+     */
+    public synchronized GAnimationClip addFrames(float secondsEach, int... frames) {
+        if (frames == null) {
+            throw new NullPointerException();
+        }
+        for (int frame : frames) {
+            addFrame(frame, secondsEach);
+        }
+        return this;
+    }
+
+    /**
+     * Attaches a named event to the frame at the given position in this clip
+     * (0 for the first frame added, 1 for the second, and so on).
+     * The event is reported each time a sprite playing the clip reaches that frame,
+     * including on the way back in PING_PONG mode.
+     * A frame may have any number of events.
+     * @throws NullPointerException if event is null
+     * @throws IndexOutOfBoundsException if position is not the position of a frame
+     * @throws IllegalStateException if this clip has already been played
+     */
+    public synchronized GAnimationClip addEvent(int position, String event) {
+        checkNotCompiled();
+        if (event == null) {
+            throw new NullPointerException();
+        }
+        if (position < 0 || position >= frameCount) {
+            throw new IndexOutOfBoundsException(String.valueOf(position));
+        }
+        eventPositions.add(position);
+        eventNames.add(event);
+        return this;
+    }
+
+    /**
+     * Returns the number of seconds that one pass through this clip takes;
+     * for a PING_PONG clip, this is the time to go forward and back once.
+     */
+    public float getDuration() {
+        return compile().duration;
+    }
+
+    /**
+     * Returns the frame at the given position in this clip.
+     * @throws IndexOutOfBoundsException if position is out of range
+     */
+    public synchronized int getFrame(int position) {
+        checkPosition(position);
+        return frames[position];
+    }
+
+    /**
+     * Returns the frame this clip shows the given number of seconds after it starts.
+     * @throws IllegalArgumentException if seconds is negative
+     * @throws IllegalStateException if this clip has no frames
+     */
+    public int getFrameAt(float seconds) {
+        if (!(seconds >= 0)) {
+            throw new IllegalArgumentException("seconds must be >= 0: " + seconds);
+        }
+        Timeline timeline = compile();
+        if (seconds >= timeline.duration) {
+            if (!timeline.loops) {
+                return timeline.frames[timeline.frames.length - 1];
+            }
+            seconds %= timeline.duration;
+        }
+        return timeline.frames[timeline.keyAt(seconds)];
+    }
+
+    /**
+     * Returns the number of frames that have been added to this clip.
+     */
+    public synchronized int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Returns the number of seconds for which the frame at the given position is shown.
+     * @throws IndexOutOfBoundsException if position is out of range
+     */
+    public synchronized float getFrameDuration(int position) {
+        checkPosition(position);
+        return durations[position];
+    }
+
+    /**
+     * Returns this clip's mode: ONCE, LOOP, or PING_PONG.
+     */
+    public synchronized int getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns this clip's name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets whether this clip plays ONCE, in a LOOP, or back and forth (PING_PONG).
+     * @throws IllegalArgumentException if mode is not one of those constants
+     * @throws IllegalStateException if this clip has already been played
+     */
+    public synchronized GAnimationClip setMode(int mode) {
+        checkNotCompiled();
+        if (mode != ONCE && mode != LOOP && mode != PING_PONG) {
+            throw new IllegalArgumentException("unknown mode: " + mode);
+        }
+        this.mode = mode;
+        return this;
+    }
+
+    /**
+     * Returns a string representation of this clip, for debugging.
+     */
+    @Override
+    public synchronized String toString() {
+        String modeName = mode == ONCE ? "ONCE" : (mode == LOOP ? "LOOP" : "PING_PONG");
+        return "GAnimationClip{" + name + ", frames=" + frameCount + ", " + modeName + "}";
+    }
+
+    /**
+     * Returns this clip's compiled timeline, compiling it on the first call.
+     * After the first call, the clip can no longer be changed.
+     * @throws IllegalStateException if this clip has no frames
+     */
+    Timeline compile() {
+        Timeline result = timeline;
+        if (result != null) {
+            return result;
+        }
+        synchronized (this) {
+            if (timeline == null) {
+                if (frameCount == 0) {
+                    throw new IllegalStateException("clip has no frames: " + name);
+                }
+                timeline = new Timeline(this);
+            }
+            return timeline;
+        }
+    }
+
+    // helper to throw if the clip has been compiled and so can no longer change
+    private void checkNotCompiled() {
+        if (timeline != null) {
+            throw new IllegalStateException("clip has already been played and cannot be changed: " + name);
+        }
+    }
+
+    // helper to throw if the given position is not that of a frame
+    private void checkPosition(int position) {
+        if (position < 0 || position >= frameCount) {
+            throw new IndexOutOfBoundsException(String.valueOf(position));
+        }
+    }
+
+    /*
+     * A clip compiled for playback: one key per frame shown, in playing order, with
+     * the backward half of a PING_PONG clip written out after the forward half,
+     * so that every mode plays as either a single pass or a plain loop.
+     * Immutable once constructed, and shared by every sprite playing the clip.
+     */
+    static final class Timeline {
+        final int[] frames;        // frame shown for each key
+        final float[] ends;        // time since the start at which each key ends
+        final float duration;      // end of the last key
+        final boolean loops;       // whether time wraps around at the end
+        final int maxFrame;        // largest frame index, to check against a sprite's frames
+        final int[] eventStarts;   // events of key k are eventNames[eventStarts[k] .. eventStarts[k + 1])
+        final String[] eventNames;
+
+        // lookup table from time to key: bucket b covers times [b / bucketsPerSecond, (b + 1) / bucketsPerSecond)
+        private final int[] bucketKeys;
+        private final float bucketsPerSecond;
+
+        // clip is locked by the caller
+        Timeline(GAnimationClip clip) {
+            int n = clip.frameCount;
+            int[] positions;   // position in the clip of each key
+            if (clip.mode == PING_PONG && n > 1) {
+                positions = new int[2 * n - 2];
+                for (int i = 0; i < n; i++) {
+                    positions[i] = i;
+                }
+                for (int i = n; i < positions.length; i++) {
+                    positions[i] = 2 * n - 2 - i;
+                }
+            } else {
+                positions = new int[n];
+                for (int i = 0; i < n; i++) {
+                    positions[i] = i;
+                }
+            }
+            loops = clip.mode != ONCE;
+
+            int keys = positions.length;
+            frames = new int[keys];
+            ends = new float[keys];
+            float time = 0;
+            float shortest = Float.MAX_VALUE;
+            int max = 0;
+            for (int k = 0; k < keys; k++) {
+                int position = positions[k];
+                frames[k] = clip.frames[position];
+                time += clip.durations[position];
+                ends[k] = time;
+                shortest = Math.min(shortest, clip.durations[position]);
+                max = Math.max(max, frames[k]);
+            }
+            duration = time;
+            maxFrame = max;
+
+            // events, grouped by key in the style of a compressed sparse row
+            int[] eventsAtPosition = new int[n];
+            for (int position : clip.eventPositions) {
+                eventsAtPosition[position]++;
+            }
+            eventStarts = new int[keys + 1];
+            for (int k = 0; k < keys; k++) {
+                eventStarts[k + 1] = eventStarts[k] + eventsAtPosition[positions[k]];
+            }
+            eventNames = new String[eventStarts[keys]];
+            int[] filled = new int[keys];
+            for (int k = 0; k < keys; k++) {
+                for (int e = 0; e < clip.eventPositions.size(); e++) {
+                    if (clip.eventPositions.get(e) == positions[k]) {
+                        eventNames[eventStarts[k] + filled[k]++] = clip.eventNames.get(e);
+                    }
+                }
+            }
+
+            // buckets no wider than the shortest key hold at most one key boundary each,
+            // unless there would be too many of them
+            int buckets = (int) Math.min(MAX_BUCKETS, Math.ceil(duration / shortest));
+            buckets = Math.max(1, buckets);
+            bucketsPerSecond = buckets / duration;
+            bucketKeys = new int[buckets];
+            int k = 0;
+            for (int b = 0; b < buckets; b++) {
+                float bucketStart = b / bucketsPerSecond;
+                while (k < keys - 1 && bucketStart >= ends[k]) {
+                    k++;
+                }
+                bucketKeys[b] = k;
+            }
+        }
+
+        /**
+         * Returns the key shown at the given time, which must be in [0, duration).
+         */
+        int keyAt(float time) {
+            int bucket = (int) (time * bucketsPerSecond);
+            if (bucket >= bucketKeys.length) {
+                bucket = bucketKeys.length - 1;
+            }
+            int k = bucketKeys[bucket];
+            int last = frames.length - 1;
+            while (k < last && time >= ends[k]) {
+                k++;
+            }
+            return k;
+        }
+    }
+}
@@ -118,17 +118,17 @@ public class GArrow extends GLine {
                 arrowhead.addEdge(backLX - p2x, p2y - backLY);
                 arrowhead.addEdge(backRX - backLX, backLY - backRY);
                 // arrowhead.setLineWidth(EDGE_LINE_WIDTH);
-                arrowhead.setColor(getPaint());
-                arrowhead.setFillColor(getPaint());
+                arrowhead.setColor(paint);
+                arrowhead.setFillColor(paint);
                 arrowhead.paint(canvas);
             } else {
                 GLine arrowheadLine1 = new GLine(p2x, p2y, backLX, backLY);
-                arrowheadLine1.setColor(getPaint());
+                arrowheadLine1.setColor(paint);
                 // arrowheadLine1.setLineWidth(EDGE_LINE_WIDTH);
                 arrowheadLine1.paint(canvas);
 
                 GLine arrowheadLine2 = new GLine(p2x, p2y, backRX, backRY);
-                arrowheadLine2.setColor(getPaint());
+                arrowheadLine2.setColor(paint);
                 // arrowheadLine2.setLineWidth(EDGE_LINE_WIDTH);
                 arrowheadLine2.paint(canvas);
             }
@@ -0,0 +1,260 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import android.graphics.*;
+import java.util.*;
+
+/**
+ * A packed bitmask of the opaque pixels of a Bitmap, used by GSprite for
+ * pixel-accurate collisions (see GSprite.setPixelCollision).
+ *
+ * <p>
+ * A mask can be made at a reduced resolution, where each bit stands for a square
+ * cell of resolution-by-resolution pixels and is set if any pixel in the cell is
+ * opaque.  Each row of cells is stored as 64-bit words, so that two masks can be
+ * compared 64 cells at a time with a single AND.
+ * </p>
+ *
+ * <p>
+ * Masks are cached, so every sprite that shows the same bitmap at the same
+ * resolution shares one mask; for a sprite sheet, one mask covers the whole sheet.
+ * The cache does not keep bitmaps alive, and a mask is rebuilt if its bitmap's
+ * pixels have changed since it was made.
+ * </p>
+ */
+public final class GBitmapMask {
+    /** Pixels with at least this alpha value (0-255) count as opaque. */
+    public static final int OPAQUE_ALPHA = 128;
+
+    // cached masks of each bitmap, one per resolution asked for
+    private static final Map<Bitmap, List<GBitmapMask>> masks = new WeakHashMap<>();
+
+    // fields
+    private final int resolution;     // pixels per cell along each axis
+    private final int pixelWidth;     // size of the bitmap in pixels
+    private final int pixelHeight;
+    private final int width;          // size of the mask in cells
+    private final int height;
+    private final int wordsPerRow;
+    private final long[] bits;        // bit x % 64 of word x / 64 of each row is cell x
+    final int generationId;           // bitmap's generation when this mask was made
+
+    /**
+     * Returns the mask of the given bitmap at full resolution (one bit per pixel).
+     * @throws NullPointerException if bitmap is null
+     */
+    public static GBitmapMask get(Bitmap bitmap) {
+        return get(bitmap, /* resolution */ 1);
+    }
+
+    /**
+     * Returns the mask of the given bitmap in which each bit stands for a square
+     * of resolution-by-resolution pixels.
+     * The mask is made the first time it is asked for, and cached after that.
+     * @throws NullPointerException if bitmap is null
+     * @throws IllegalArgumentException if resolution is less than 1
+     */
+    public static GBitmapMask get(Bitmap bitmap, int resolution) {
+        if (bitmap == null) {
+            throw new NullPointerException();
+        }
+        if (resolution < 1) {
+            throw new IllegalArgumentException("resolution must be >= 1: " + resolution);
+        }
+        synchronized (masks) {
+            List<GBitmapMask> list = masks.get(bitmap);
+            if (list == null) {
+                list = new ArrayList<>(1);
+                masks.put(bitmap, list);
+            }
+            for (int i = 0; i < list.size(); i++) {
+                GBitmapMask mask = list.get(i);
+                if (mask.resolution == resolution) {
+                    if (mask.generationId == bitmap.getGenerationId()) {
+                        return mask;
+                    }
+                    list.remove(i);
+                    break;
+                }
+            }
+            GBitmapMask mask = new GBitmapMask(bitmap, resolution);
+            list.add(mask);
+            return mask;
+        }
+    }
+
+    /**
+     * Removes every mask from the cache.
+     * Masks already handed out keep working.
+     */
+    public static void clear() {
+        synchronized (masks) {
+            masks.clear();
+        }
+    }
+
+    // builds the mask of the given bitmap; use get() instead
+    private GBitmapMask(Bitmap bitmap, int resolution) {
+        this.resolution = resolution;
+        this.generationId = bitmap.getGenerationId();
+        pixelWidth = bitmap.getWidth();
+        pixelHeight = bitmap.getHeight();
+        width = (pixelWidth + resolution - 1) / resolution;
+        height = (pixelHeight + resolution - 1) / resolution;
+        wordsPerRow = (width + 63) / 64;
+        bits = new long[wordsPerRow * height];
+
+        int[] pixels = new int[pixelWidth];
+        for (int y = 0; y < pixelHeight; y++) {
+            bitmap.getPixels(pixels, 0, pixelWidth, 0, y, pixelWidth, 1);
+            int rowStart = (y / resolution) * wordsPerRow;
+            for (int x = 0; x < pixelWidth; x++) {
+                if ((pixels[x] >>> 24) >= OPAQUE_ALPHA) {
+                    int cell = x / resolution;
+                    bits[rowStart + (cell >>> 6)] |= 1L << (cell & 63);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of rows of cells in this mask.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of pixels along each side of the square that each bit stands for.
+     */
+    public int getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Returns the number of columns of cells in this mask.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns true if the pixel at the given coordinates of the bitmap, or any
+     * pixel in the same cell, is opaque.  Returns false for pixels outside the bitmap.
+     */
+    public boolean isOpaque(int x, int y) {
+        if (x < 0 || y < 0 || x >= pixelWidth || y >= pixelHeight) {
+            return false;
+        }
+        int cellX = x / resolution;
+        return (bits[(y / resolution) * wordsPerRow + (cellX >>> 6)] & (1L << (cellX & 63))) != 0;
+    }
+
+    /**
+     * Returns a string representation of this mask, for debugging.
+     */
+    @Override
+    public String toString() {
+        return "GBitmapMask{" + pixelWidth + "x" + pixelHeight + ", resolution=" + resolution + "}";
+    }
+
+    /**
+     * Returns the bits of count cells of the given row, starting at column x, in the
+     * low bits of the result; cells outside the mask are 0.  count must be 1-64.
+     */
+    long bitsAt(int row, int x, int count) {
+        if (row < 0 || row >= height || x >= width || x + count <= 0) {
+            return 0;
+        }
+        long result;
+        if (x < 0) {
+            result = bitsAt(row, 0, count + x) << -x;
+        } else {
+            int base = row * wordsPerRow;
+            int word = x >>> 6;
+            int shift = x & 63;
+            result = bits[base + word] >>> shift;
+            if (shift != 0 && word + 1 < wordsPerRow) {
+                result |= bits[base + word + 1] << (64 - shift);
+            }
+        }
+        return count == 64 ? result : result & ((1L << count) - 1);
+    }
+
+    /**
+     * Returns true if two masks placed in the world have an opaque cell in common
+     * within the given region, which should already be clipped to both objects.
+     * Each mask is given with the world coordinates of its bitmap's top-left corner
+     * and the world size of one of the bitmap's pixels; a null mask is solid.
+     */
+    static boolean overlaps(GBitmapMask mask1, float x1, float y1, float scaleX1, float scaleY1,
+                            GBitmapMask mask2, float x2, float y2, float scaleX2, float scaleY2,
+                            RectF region) {
+        if (region.left >= region.right || region.top >= region.bottom) {
+            return false;
+        }
+        if (mask1 == null && mask2 == null) {
+            return true;
+        }
+        if (isUnscaled(mask1, scaleX1, scaleY1) && isUnscaled(mask2, scaleX2, scaleY2)
+                && (mask1 == null || mask2 == null || mask1.resolution == mask2.resolution)) {
+            // both masks lie on the same grid of cells, give or take a fraction of a cell,
+            // so compare them 64 cells at a time
+            int cell = mask1 != null ? mask1.resolution : mask2.resolution;
+            int columns = (int) Math.ceil((region.right - region.left) / cell);
+            int rows = (int) Math.ceil((region.bottom - region.top) / cell);
+            int column1 = (int) Math.floor((region.left - x1) / cell);
+            int row1 = (int) Math.floor((region.top - y1) / cell);
+            int column2 = (int) Math.floor((region.left - x2) / cell);
+            int row2 = (int) Math.floor((region.top - y2) / cell);
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < columns; c += 64) {
+                    int count = Math.min(64, columns - c);
+                    long all = count == 64 ? -1L : (1L << count) - 1;
+                    long bits1 = mask1 == null ? all : mask1.bitsAt(row1 + r, column1 + c, count);
+                    long bits2 = mask2 == null ? all : mask2.bitsAt(row2 + r, column2 + c, count);
+                    if ((bits1 & bits2) != 0) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        // scaled or mixed resolutions; sample the region at the size of the smaller cell
+        float step = Math.min(cellSize(mask1, scaleX1, scaleY1), cellSize(mask2, scaleX2, scaleY2));
+        for (float y = region.top + step / 2; y < region.bottom; y += step) {
+            for (float x = region.left + step / 2; x < region.right; x += step) {
+                if (isOpaqueAt(mask1, x1, y1, scaleX1, scaleY1, x, y)
+                        && isOpaqueAt(mask2, x2, y2, scaleX2, scaleY2, x, y)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // helper to return the smallest world size of one of a mask's cells, at least 1 pixel
+    private static float cellSize(GBitmapMask mask, float scaleX, float scaleY) {
+        if (mask == null) {
+            return Float.MAX_VALUE;
+        }
+        return Math.max(1, mask.resolution * Math.min(Math.abs(scaleX), Math.abs(scaleY)));
+    }
+
+    // helper to test the given world point against a mask placed in the world
+    private static boolean isOpaqueAt(GBitmapMask mask, float maskX, float maskY,
+                                      float scaleX, float scaleY, float x, float y) {
+        return mask == null || mask.isOpaque((int) Math.floor((x - maskX) / scaleX),
+                (int) Math.floor((y - maskY) / scaleY));
+    }
+
+    // helper to return true if the mask is drawn at one world pixel per bitmap pixel
+    private static boolean isUnscaled(GBitmapMask mask, float scaleX, float scaleY) {
+        return mask == null || (Math.abs(scaleX - 1) < 1e-4f && Math.abs(scaleY - 1) < 1e-4f);
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import android.graphics.*;
+
+/**
+ * A GCamera is a movable, zoomable view onto a GCanvas's world.
+ * Without a camera, a GObject's x/y location is where it appears on the screen.
+ * With a camera, x/y locations are positions in a world that can be much larger
+ * than the screen, and the camera decides which part of that world is shown.
+ * Scrolling the screen is then just a matter of moving the camera, rather than
+ * moving every object in the world.
+ *
+ * <pre>
+ * GCamera camera = new GCamera();
+ * camera.setWorldBounds(0, 0, 4000, 3000);   // keep the view inside the level
+ * camera.follow(player);                     // keep the player in the middle
+ * setCamera(camera);                         // inside your GCanvas's init()
+ * </pre>
+ *
+ * <p>
+ * Objects that lie entirely outside the camera's view are not drawn.
+ * Touch coordinates are in screen pixels; pass them to GCanvas.toWorldX/toWorldY,
+ * or pass the MotionEvent to GCanvas.getElementAt, to find what was touched.
+ * </p>
+ *
+ * <p>
+ * The camera learns the size of its view when it is given to GCanvas.setCamera
+ * (or, if the canvas has not been laid out yet, when it is first drawn).
+ * A centerOn or setZoom call made before then is remembered and carried out as
+ * soon as the size is known, so it is fine to set up a camera completely before
+ * passing it to setCamera.
+ * </p>
+ */
+public class GCamera {
+    // private fields
+    private float x = 0;        // world coordinates of the top-left corner of the view
+    private float y = 0;
+    private float zoom = 1;
+    private float viewportWidth = 0;    // size of the screen area the camera fills, in pixels
+    private float viewportHeight = 0;
+    private GObject target = null;
+    private float boundsLeft = 0;
+    private float boundsTop = 0;
+    private float boundsRight = 0;
+    private float boundsBottom = 0;
+    private boolean bounded = false;
+
+    // a view center asked for before the viewport size was known, by centerOn or by
+    // setZoom (which keeps the middle of the view in place); applied once it is known
+    private boolean centerPending = false;
+    private float pendingCenterX;
+    private float pendingCenterY;
+    private float pendingFromZoom = 0;   // if not 0, center on the middle of a view at x/y with this zoom
+    private final RectF objBounds = new RectF();   // reused by isVisible and update
+
+    /**
+     * Constructs a new camera looking at the top-left corner of the world at 1x zoom.
+     */
+    public GCamera() {
+        // empty
+    }
+
+    /**
+     * Moves the camera so that the given world location is in the middle of the view,
+     * as far as its world bounds allow.
+     */
+    public GCamera centerOn(float worldX, float worldY) {
+        if (!hasViewport()) {
+            centerPending = true;
+            pendingCenterX = worldX;
+            pendingCenterY = worldY;
+            pendingFromZoom = 0;
+        }
+        x = worldX - getVisibleWidth() / 2;
+        y = worldY - getVisibleHeight() / 2;
+        clamp();
+        return this;
+    }
+
+    /**
+     * Makes the camera keep the given object in the middle of the view,
+     * moving along with it every time the canvas is drawn.
+     * Pass null to stop following.
+     */
+    public GCamera follow(GObject target) {
+        this.target = target;
+        return this;
+    }
+
+    /**
+     * Returns the object this camera is following, or null if none.
+     */
+    public GObject getFollowTarget() {
+        return target;
+    }
+
+    /**
+     * Returns the height of the part of the world that is currently visible.
+     */
+    public float getVisibleHeight() {
+        return viewportHeight / zoom;
+    }
+
+    /**
+     * Returns the width of the part of the world that is currently visible.
+     */
+    public float getVisibleWidth() {
+        return viewportWidth / zoom;
+    }
+
+    /**
+     * Returns the world x-coordinate shown at the left edge of the view.
+     */
+    public float getX() {
+        return x;
+    }
+
+    /**
+     * Returns the world y-coordinate shown at the top edge of the view.
+     */
+    public float getY() {
+        return y;
+    }
+
+    /**
+     * Returns the camera's zoom factor; 2 means objects are drawn at twice their size.
+     * Initially 1.
+     */
+    public float getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Returns true if any part of the given world rectangle is inside the view.
+     */
+    public boolean isVisible(float left, float top, float right, float bottom) {
+        return left < x + getVisibleWidth() && x < right
+                && top < y + getVisibleHeight() && y < bottom;
+    }
+
+    /**
+     * Returns true if any part of the given object's bounding box is inside the view.
+     * @throws NullPointerException if gobj is null
+     */
+    public boolean isVisible(GObject gobj) {
+        RectF bounds = gobj.getBounds(objBounds);
+        float pad = gobj.paint.getStrokeWidth() / 2 + 1;
+        return isVisible(bounds.left - pad, bounds.top - pad, bounds.right + pad, bounds.bottom + pad);
+    }
+
+    /**
+     * Stops keeping the view inside any world bounds previously set.
+     */
+    public GCamera removeWorldBounds() {
+        bounded = false;
+        return this;
+    }
+
+    /**
+     * Moves the camera so that the given world location is at the top-left corner
+     * of the view, as far as its world bounds allow.
+     */
+    public GCamera setLocation(float worldX, float worldY) {
+        centerPending = false;
+        x = worldX;
+        y = worldY;
+        clamp();
+        return this;
+    }
+
+    /**
+     * Keeps the view inside the given rectangle of the world, so that the camera never
+     * shows anything outside it.  If the rectangle is smaller than the view, it is centered.
+     * @throws IllegalArgumentException if width or height is negative
+     */
+    public GCamera setWorldBounds(float left, float top, float width, float height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("illegal size: " + width + "x" + height);
+        }
+        boundsLeft = left;
+        boundsTop = top;
+        boundsRight = left + width;
+        boundsBottom = top + height;
+        bounded = true;
+        clamp();
+        return this;
+    }
+
+    /**
+     * Sets the camera's zoom factor, keeping the middle of the view where it is.
+     * Values above 1 zoom in (objects look bigger); values below 1 zoom out.
+     * @throws IllegalArgumentException if zoom is not positive
+     */
+    public GCamera setZoom(float zoom) {
+        if (zoom <= 0 || Float.isNaN(zoom) || Float.isInfinite(zoom)) {
+            throw new IllegalArgumentException("zoom must be positive: " + zoom);
+        }
+        if (!hasViewport()) {
+            // the middle of the view is not known yet; work it out once it is
+            if (!centerPending) {
+                centerPending = true;
+                pendingFromZoom = this.zoom;
+            }
+            this.zoom = zoom;
+            return this;
+        }
+        float centerX = x + getVisibleWidth() / 2;
+        float centerY = y + getVisibleHeight() / 2;
+        this.zoom = zoom;
+        return centerOn(centerX, centerY);
+    }
+
+    /**
+     * Converts an x-coordinate on the screen to the world x-coordinate shown there.
+     */
+    public float toWorldX(float screenX) {
+        return x + screenX / zoom;
+    }
+
+    /**
+     * Converts a y-coordinate on the screen to the world y-coordinate shown there.
+     */
+    public float toWorldY(float screenY) {
+        return y + screenY / zoom;
+    }
+
+    /**
+     * Converts a world x-coordinate to the x-coordinate where it appears on the screen.
+     */
+    public float toScreenX(float worldX) {
+        return (worldX - x) * zoom;
+    }
+
+    /**
+     * Converts a world y-coordinate to the y-coordinate where it appears on the screen.
+     */
+    public float toScreenY(float worldY) {
+        return (worldY - y) * zoom;
+    }
+
+    /**
+     * Returns a string representation of this camera, for debugging.
+     */
+    @Override
+    public String toString() {
+        return "GCamera{x=" + x + ", y=" + y + ", zoom=" + zoom
+                + ", view=" + getVisibleWidth() + "x" + getVisibleHeight() + "}";
+    }
+
+    /**
+     * Transforms the given canvas so that world coordinates drawn on it appear
+     * where this camera shows them.  Called by GCanvas; the caller saves and
+     * restores the canvas around it.
+     */
+    void apply(Canvas canvas) {
+        canvas.scale(zoom, zoom);
+        canvas.translate(-x, -y);
+    }
+
+    /**
+     * Tells the camera the size of the screen area it fills, then follows its
+     * target and applies its world bounds.  Called by GCanvas before each frame,
+     * and by setCamera.
+     */
+    void update(float viewportWidth, float viewportHeight) {
+        this.viewportWidth = viewportWidth;
+        this.viewportHeight = viewportHeight;
+        if (centerPending && hasViewport()) {
+            centerPending = false;
+            if (pendingFromZoom != 0) {
+                pendingCenterX = x + viewportWidth / pendingFromZoom / 2;
+                pendingCenterY = y + viewportHeight / pendingFromZoom / 2;
+            }
+            centerOn(pendingCenterX, pendingCenterY);
+        }
+        if (target != null) {
+            RectF bounds = target.getBounds(objBounds);
+            centerOn(bounds.centerX(), bounds.centerY());
+        } else {
+            clamp();
+        }
+    }
+
+    // helper to return true once the size of the view is known
+    private boolean hasViewport() {
+        return viewportWidth > 0 && viewportHeight > 0;
+    }
+
+    // helper to keep the view inside the world bounds, if any
+    private void clamp() {
+        if (!bounded) {
+            return;
+        }
+        float width = getVisibleWidth();
+        float height = getVisibleHeight();
+        if (boundsRight - boundsLeft <= width) {
+            x = (boundsLeft + boundsRight - width) / 2;
+        } else {
+            x = Math.max(boundsLeft, Math.min(x, boundsRight - width));
+        }
+        if (boundsBottom - boundsTop <= height) {
+            y = (boundsTop + boundsBottom - height) / 2;
+        } else {
+            y = Math.max(boundsTop, Math.min(y, boundsBottom - height));
+        }
+    }
+}
@@ -1,4 +1,29 @@
 /*
+ * @version 2026/10/16
+ * - added optional spatial index for getElementAt, and getElementsAt rectangle query
+ * - added collision engine that reports sprite collisions on each animation tick
+ * - reports sprite update time and object count to frame stats, if enabled
+ * - added optional partial redraw of only the changed areas of the display buffer
+ * - display buffer's Canvas is now created once and reused instead of on every frame
+ * - createDisplayBuffer reuses the existing buffer if it is already the requested size
+ * - added setRenderScale; a GCanvas draws into one buffer (see GSurfaceCanvas for drawing on another thread)
+ * - updates GParticleSystems on each animation tick
+ * - added setKinematicsEnabled to move plain sprites in one pass over shared float arrays
+ * - added setParallelUpdateEnabled to split that pass across worker threads for large scenes
+ * - added setCamera for a scrolling, zooming view of a larger world; objects outside it are not drawn;
+ *   setCamera tells the camera the view size right away
+ * - added toWorldX/Y and getElementAt(MotionEvent) to map touches to world coordinates
+ * - draws runs of static objects (GObject.setStatic) from cached layer bitmaps
+ * - bounds checks on each frame reuse one RectF instead of creating GRectangles
+ * - objects are kept in a GSceneList: drawing and ticks walk an immutable snapshot that shares unchanged
+ *   chunks with the list, and add/remove/z-order calls from other threads are queued and applied at
+ *   the start of the next frame
+ * - onDraw paints the scene and shows the display buffer in separate steps, so that GSurfaceCanvas
+ *   can do both on its render thread
+ * - looks up the objects near the path of a GSprite that sweeps for collisions (GSprite.setContinuousCollision)
+ * - an object moved here from a canvas that queues its changes is added once that canvas has removed it;
+ *   remove clears an object's canvas only if the object was in this one
+ * - adding an object that is already in this canvas moves it to the front instead of adding it twice
  * @version 2016/12/22
  * - added illegal arg / nullness checking to some methods
  * @version 2016/02/15
@@ -12,8 +37,10 @@ package stanford.androidlib.graphics;
 
 import android.content.Context;
 import android.graphics.*;
+import android.os.Looper;
 import android.support.annotation.CallSuper;
 import android.util.AttributeSet;
+import android.view.MotionEvent;
 import java.util.*;
 import stanford.androidlib.*;
 
@@ -32,8 +59,28 @@ import stanford.androidlib.*;
  *     }
  * }
  * </pre>
+ *
+ * <p>
+ * A GCanvas ticks, draws, and shows each frame on the UI thread.
+ * To tick, draw, and show a heavy scene on a thread of its own, extend GSurfaceCanvas
+ * instead, which has the same methods for adding and arranging GObjects.
+ * </p>
  */
 public abstract class GCanvas extends SimpleCanvas implements Iterable<GObject> {
+    /**
+     * Default fraction of the display buffer's area above which partial redraw
+     * gives up and redraws the whole buffer.
+     */
+    public static final float DEFAULT_PARTIAL_REDRAW_THRESHOLD = 0.5f;
+
+    /**
+     * Default number of sprites below which parallel update stays on one thread.
+     */
+    public static final int DEFAULT_PARALLEL_UPDATE_THRESHOLD = 4000;
+
+    // extra pixels around each object's bounds to cover anti-aliasing when redrawing
+    private static final float DIRTY_PADDING = 2f;
+
     // context used by GObject classes (e.g. GLabel) for loading resources
     private static Context applicationContext = null;
 
@@ -50,12 +97,32 @@ public abstract class GCanvas extends SimpleCanvas implements Iterable<GObject>
     }
 
     private Paint background = new Paint(GColor.WHITE);
-    private final List<GObject> gobjects = new ArrayList<>();
-    private Bitmap displayBuffer = null;
-    private Rect drawSrc = null;
-    private RectF drawDst = null;
+    private final GSceneList scene = new GSceneList(this);
+    private List<PendingChange> pendingChanges = new ArrayList<>();   // guarded by pendingLock
+    private List<PendingChange> appliedChanges = new ArrayList<>();   // scratch list for applyPendingChanges
+    private final Object pendingLock = new Object();
+    private volatile boolean changesPending = false;
+    private GDisplaySurface surface = null;   // null when drawing straight to the screen
+    private float renderScale = 0;            // 0 unless the surface is sized from the view
+    private final RectF drawDst = new RectF();
+    private final RectF objBounds = new RectF();   // reused for bounds checks of each object
     private boolean firstDraw = false;
     private boolean initialized = false;
+    private GSpatialIndex spatialIndex = null;
+    private GCollisionEngine collisionEngine = null;
+    private GCamera camera = null;
+    private GKinematics kinematics = null;   // null unless kinematics is enabled
+    private GParallelUpdater parallelUpdater = null;   // null unless parallel update is enabled
+    private int parallelUpdateThreshold = DEFAULT_PARALLEL_UPDATE_THRESHOLD;
+    private GDirtyRegion dirtyRegion = null;   // null when partial redraw is off
+    private final List<GObject> changedObjects = new ArrayList<>();
+    private final List<GObject> sweepCandidates = new ArrayList<>();   // scratch list for getSweepCandidates
+    private float partialRedrawThreshold = DEFAULT_PARTIAL_REDRAW_THRESHOLD;
+    private boolean fullRedrawNeeded = true;
+    private List<GStaticLayer> staticLayers = new ArrayList<>();
+    private List<GStaticLayer> regroupedLayers = new ArrayList<>();   // scratch list for updateStaticLayers
+    private int staticObjectCount = 0;
+    private boolean staticLayersChanged = false;
 
     /**
      * Required constructor; your canvas subclass must implement a constructor
@@ -69,30 +136,62 @@ public abstract class GCanvas extends SimpleCanvas implements Iterable<GObject>
     }
 
     /**
-     * Adds the given GObject to this canvas.
+     * Adds the given GObject to this canvas, at the front of the Z-ordering.
      * On every repaint / onDraw operation, all added GObjects will be drawn.
+     * An object is in a canvas at most once, so if the object is already in this
+     * canvas, it is moved to the front, as sendToFront does.  (Earlier versions added
+     * it to the list a second time, so it was drawn twice and had to be removed twice.)
+     * If it is in another canvas, it is removed from that one first; if that canvas is
+     * animating on a thread of its own, the object is added here only after that canvas
+     * has removed it, at the start of its next frame.
+     * This may be called from any thread; if it is called from a thread other than
+     * the one that draws the canvas, the object is added at the start of the next frame,
+     * so until then contains, getElementCount, and getElement do not include it.
      * @throws NullPointerException if obj is null
      */
     public void add(GObject obj) {
         if (obj == null) {
             throw new NullPointerException();
         }
+        if (!isSceneThread()) {
+            queueChange(new PendingChange(PendingChange.ADD, obj));
+            return;
+        }
+        if (!removeFromOtherCanvas(obj, /* hasLocation */ false, 0, 0)) {
+            return;
+        }
         obj.setGCanvas(this);
-        gobjects.add(obj);
+        addToList(obj);
     }
 
     /**
      * Adds the given GObject to this canvas at the given x/y location.
      * On every repaint / onDraw operation, all added GObjects will be drawn.
+     * An object already in this canvas is moved to the front, and one in another canvas
+     * is moved here, as described for add(GObject).
+     * This may be called from any thread; if it is called from a thread other than
+     * the one that draws the canvas, the object is added at the start of the next frame,
+     * so until then contains, getElementCount, and getElement do not include it.
      * @throws NullPointerException if obj is null
      */
     public void add(GObject obj, float x, float y) {
         if (obj == null) {
             throw new NullPointerException();
         }
+        if (!isSceneThread()) {
+            PendingChange change = new PendingChange(PendingChange.ADD, obj);
+            change.x = x;
+            change.y = y;
+            change.hasLocation = true;
+            queueChange(change);
+            return;
+        }
+        if (!removeFromOtherCanvas(obj, /* hasLocation */ true, x, y)) {
+            return;
+        }
         obj.setGCanvas(this);
         obj.setLocation(x, y);
-        gobjects.add(obj);
+        addToList(obj);
     }
 
     /**
@@ -104,15 +203,59 @@ public abstract class GCanvas extends SimpleCanvas implements Iterable<GObject>
         add(obj, point.getX(), point.getY());
     }
 
+    // helper to take an object out of the canvas it is in, if that is not this one,
+    // since an object can be in only one canvas's z-ordering at a time; returns false
+    // if the other canvas must remove it on its own thread, in which case the add is
+    // handed to that canvas to make once the object is out
+    private boolean removeFromOtherCanvas(GObject obj, boolean hasLocation, float x, float y) {
+        GSceneList other = obj.sceneList;
+        if (other == null || other == scene) {
+            return true;
+        }
+        if (!other.canvas.isSceneThread()) {
+            PendingChange move = new PendingChange(PendingChange.MOVE, obj);
+            move.target = this;
+            move.x = x;
+            move.y = y;
+            move.hasLocation = hasLocation;
+            other.canvas.queueChange(move);
+            return false;
+        }
+        other.canvas.remove(obj);
+        return true;
+    }
+
+    // helper to append an object to the top of the z-ordering
+    private void addToList(GObject obj) {
+        if (scene.contains(obj)) {
+            sendToFront(obj);
+            return;
+        }
+        scene.add(obj);
+        if (spatialIndex != null) {
+            spatialIndex.add(obj);
+        }
+        if (kinematics != null && obj instanceof GSprite && GKinematics.canRegister((GSprite) obj)) {
+            kinematics.register((GSprite) obj);
+        }
+        if (obj.staticObject) {
+            staticObjectCount++;
+            staticLayersChanged = true;
+        }
+        objectChanged(obj);
+    }
+
     /**
      * Returns whether this canvas contains the given graphical object.
+     * Adds and removes made from other threads are not reflected until they are
+     * applied at the start of the next frame.
      * @throws NullPointerException if obj is null
      */
     public boolean contains(GObject obj) {
         if (obj == null) {
             throw new NullPointerException();
         }
-        return gobjects.contains(obj);
+        return scene.contains(obj);
     }
 
     /**
@@ -121,6 +264,10 @@ public abstract class GCanvas extends SimpleCanvas implements Iterable<GObject>
      * If multiple objects touch that loaction, the highest one in the Z-ordering is returned.
      */
     public GObject getElementAt(float x, float y) {
+        if (spatialIndex != null) {
+            return spatialIndex.getElementAt(x, y);
+        }
+        List<GObject> gobjects = scene.snapshot();
         for (int i = gobjects.size() - 1; i >= 0; i--) {
             GObject obj = gobjects.get(i);
             if (obj.contains(x, y)) {
@@ -130,6 +277,18 @@ public abstract class GCanvas extends SimpleCanvas implements Iterable<GObject>
         return null;
     }
 
+    /**
+     * Returns the GObject found where the given touch event happened.
+     * Unlike getElementAt(event.getX(), event.getY()), this converts the touch's
+     * screen location to world coordinates first, so it finds the right object even
+     * if a camera has scrolled or zoomed the view, or a display buffer has scaled it.
+     * If no object touches that location, null is returned.
+     * @throws NullPointerException if event is null
+     */
+    public GObject getElementAt(MotionEvent event) {
+        return getElementAt(toWorldX(event.getX()), toWorldY(event.getY()));
+    }
+
     /**
      * Returns the GObject found at the given x/y location in this canvas.
      * If no object touches that location, null is returned.
@@ -173,20 +332,66 @@ public abstract class GCanvas extends SimpleCanvas implements Iterable<GObject>
         return null;
     }
 
+    /**
+     * Returns a list of all GObjects in this canvas whose bounding boxes touch
+     * the given rectangular area, ordered from back (index 0) to front in the Z-ordering.
+     * If no objects touch the area, an empty list is returned.
+     * @throws IllegalArgumentException if width or height is negative
+     */
+    public List<GObject> getElementsAt(float x, float y, float width, float height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("illegal size: " + width + "x" + height);
+        }
+        List<GObject> result = new ArrayList<>();
+        if (spatialIndex != null) {
+            spatialIndex.getElementsAt(x, y, width, height, result);
+        } else {
+            float right = x + width;
+            float bottom = y + height;
+            for (GObject obj : scene.snapshot()) {
+                RectF bounds = obj.getBounds(objBounds);
+                if (bounds.left <= right && x <= bounds.right && bounds.top <= bottom && y <= bounds.bottom) {
+                    result.add(obj);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a list of all GObjects in this canvas whose bounding boxes touch
+     * the given rectangular area, ordered from back (index 0) to front in the Z-ordering.
+     * If no objects touch the area, an empty list is returned.
+     * @throws NullPointerException if the rectangle is null
+     */
+    public List<GObject> getElementsAt(GRectangle area) {
+        return getElementsAt(area.getX(), area.getY(), area.getWidth(), area.getHeight());
+    }
+
     /**
      * Returns the graphical object at the specified index,
      * numbering from back (0) to front in the the z ordering.
      * @throws IndexOutOfBoundsException if index is negative or exceeds number of objects in canvas
      */
     public GObject getElement(int index) {
-        return gobjects.get(index);
+        return scene.snapshot().get(index);
+    }
+
+    /**
+     * Returns the collision engine that finds sprite collisions in this canvas
+     * on each tick of animation, or null if no collision listener has been set.
+     */
+    public GCollisionEngine getCollisionEngine() {
+        return collisionEngine;
     }
 
     /**
      * Returns the number of graphical objects stored in this canvas.
+     * Adds and removes made from other threads are not counted until they are
+     * applied at the start of the next frame.
      */
     public int getElementCount() {
-        return gobjects.size();
+        return scene.size();
     }
 
     /**
@@ -199,120 +404,544 @@ public abstract class GCanvas extends SimpleCanvas implements Iterable<GObject>
     @Override
     protected final void onDraw(Canvas canvas) {
         super.onDraw(canvas);
+        renderScene(canvas);
+        showFrame(canvas);
+    }
 
-        Canvas drawingSurface = (displayBuffer == null) ? canvas : new Canvas(displayBuffer);
+    /**
+     * Paints every GObject into the display buffer, or straight onto the given
+     * canvas if there is no display buffer.
+     * The canvas may be null if there is a display buffer.
+     */
+    final void renderScene(Canvas canvas) {
+        applyPendingChanges();
 
-        // fill with background color, maybe
-        if (background != null) {
-            drawingSurface.drawColor(background.getColor());
-        } else if (displayBuffer != null) {
-            drawingSurface.drawColor(0);   // fill with transparency
+        // draw the scene as it is now, even if objects are added or moved while drawing
+        List<GObject> gobjects = scene.snapshot();
+        Canvas drawingSurface;
+        if (surface == null) {
+            drawingSurface = canvas;
+        } else {
+            drawingSurface = surface.beginFrame();
+        }
+        if (staticLayersChanged) {
+            updateStaticLayers(gobjects);
+        }
+        if (camera != null) {
+            camera.update(getViewportWidth(canvas), getViewportHeight(canvas));
         }
 
-        // draw every GObject that has been added so far
-        for (GObject gobject : gobjects) {
-            gobject.setGCanvas(this);
-            gobject.setCanvas(drawingSurface);
-            gobject.paint(drawingSurface);
+        // a camera may scroll the whole view at any time, so it always redraws everything
+        if (dirtyRegion != null && surface != null && !fullRedrawNeeded && camera == null) {
+            drawDirtyRegion(drawingSurface, gobjects);
+        } else {
+            // fill with background color, maybe
+            if (background != null) {
+                drawingSurface.drawColor(background.getColor());
+            } else if (surface != null) {
+                drawingSurface.drawColor(0, PorterDuff.Mode.CLEAR);   // fill with transparency
+            }
+
+            // draw every GObject that has been added so far
+            if (camera != null) {
+                drawingSurface.save();
+                camera.apply(drawingSurface);
+            }
+            for (int i = 0; i < gobjects.size(); i++) {
+                GObject gobject = gobjects.get(i);
+                GStaticLayer layer = gobject.staticLayer;
+                if (layer != null && layer.prepare(gobjects, this, getStaticLayerScale())) {
+                    if (camera == null || camera.isVisible(layer.left, layer.top, layer.right, layer.bottom)) {
+                        layer.draw(drawingSurface);
+                    }
+                    i = layer.end - 1;
+                    continue;
+                }
+                gobject.setGCanvas(this);
+                gobject.canvas = drawingSurface;
+                if (camera == null || camera.isVisible(gobject)) {
+                    gobject.paint(drawingSurface);
+                }
+            }
+            if (camera != null) {
+                drawingSurface.restore();
+            }
+            if (dirtyRegion != null) {
+                resetDirtyRegion(gobjects);
+            }
         }
 
-        if (displayBuffer != null) {
-            this.drawDst.set(0, 0, canvas.getWidth(), canvas.getHeight());
-            canvas.drawBitmap(displayBuffer, drawSrc, drawDst, /* paint */ null);
+        if (surface != null) {
+            surface.endFrame();
         }
 
+        if (getFrameStats() != null) {
+            getFrameStats().recordObjectCount(gobjects.size());
+        }
         firstDraw = false;
     }
 
+    /**
+     * Draws the display buffer, if there is one, stretched to fill the given canvas,
+     * which shows this canvas on the screen.
+     */
+    final void showFrame(Canvas canvas) {
+        if (surface != null) {
+            drawDst.set(0, 0, canvas.getWidth(), canvas.getHeight());
+            canvas.drawBitmap(surface.getBitmap(), surface.getSourceRect(), drawDst, /* paint */ null);
+        }
+    }
+
+    // helper to return how many bitmap pixels static layers use per world unit,
+    // so that they are as sharp as the surface they are drawn onto
+    private float getStaticLayerScale() {
+        return surface != null ? surface.getScale() : 1;
+    }
+
+    // helper to regroup the static objects into layers, one per run of consecutive
+    // static objects in the z-ordering, after objects are added, removed, or reordered;
+    // a run with exactly the same objects as before keeps its layer's baked bitmap
+    private void updateStaticLayers(List<GObject> gobjects) {
+        staticLayersChanged = false;
+        regroupedLayers.clear();
+        int size = gobjects.size();
+        int i = 0;
+        while (i < size) {
+            if (!gobjects.get(i).staticObject) {
+                gobjects.get(i).staticLayer = null;
+                i++;
+                continue;
+            }
+            int start = i;
+            GStaticLayer old = gobjects.get(start).staticLayer;
+            boolean unchanged = old != null && !regroupedLayers.contains(old);
+            while (i < size && gobjects.get(i).staticObject) {
+                unchanged = unchanged && gobjects.get(i).staticLayer == old;
+                i++;
+            }
+            GStaticLayer layer;
+            if (unchanged && old.end - old.start == i - start) {
+                layer = old;
+            } else {
+                layer = (old != null && !regroupedLayers.contains(old)) ? old : new GStaticLayer();
+                layer.invalidate();
+            }
+            layer.start = start;
+            layer.end = i;
+            for (int j = start; j < i; j++) {
+                gobjects.get(j).staticLayer = layer;
+            }
+            regroupedLayers.add(layer);
+        }
+
+        // free the bitmaps of layers whose objects are gone
+        for (GStaticLayer layer : staticLayers) {
+            if (!regroupedLayers.contains(layer)) {
+                layer.release();
+            }
+        }
+        List<GStaticLayer> temp = staticLayers;
+        staticLayers = regroupedLayers;
+        regroupedLayers = temp;
+        regroupedLayers.clear();
+    }
+
+    // helper to return the width of the area that a camera's view fills
+    private float getViewportWidth(Canvas canvas) {
+        return surface != null ? surface.getWorldWidth() : canvas.getWidth();
+    }
+
+    // helper to return the height of the area that a camera's view fills
+    private float getViewportHeight(Canvas canvas) {
+        return surface != null ? surface.getWorldHeight() : canvas.getHeight();
+    }
+
+    // redraws only the parts of the display buffer covered by objects that changed
+    private void drawDirtyRegion(Canvas drawingSurface, List<GObject> gobjects) {
+        // each changed object dirties both the area where it was and where it is now
+        for (int i = 0; i < changedObjects.size(); i++) {
+            GObject obj = changedObjects.get(i);
+            obj.redrawPending = false;
+            if (obj.drawnValid) {
+                dirtyRegion.add(obj.drawnLeft, obj.drawnTop, obj.drawnRight, obj.drawnBottom);
+            }
+            if (obj.sceneList == scene) {
+                updateDrawnBounds(obj);
+                if (obj.drawnValid) {
+                    dirtyRegion.add(obj.drawnLeft, obj.drawnTop, obj.drawnRight, obj.drawnBottom);
+                }
+            } else {
+                obj.drawnValid = false;
+            }
+        }
+        changedObjects.clear();
+
+        float worldWidth = surface.getWorldWidth();
+        float worldHeight = surface.getWorldHeight();
+        dirtyRegion.clip(worldWidth, worldHeight);
+        if (dirtyRegion.isEmpty()) {
+            // nothing visible changed, so the buffer is already up to date
+            return;
+        }
+        if (dirtyRegion.getArea() > partialRedrawThreshold * worldWidth * worldHeight) {
+            // so much has changed that one full pass is cheaper than many partial ones
+            dirtyRegion.clear();
+            drawClipped(drawingSurface, gobjects, 0, 0, worldWidth, worldHeight);
+            return;
+        }
+
+        for (int i = 0; i < dirtyRegion.size(); i++) {
+            RectF rect = dirtyRegion.get(i);
+            drawingSurface.save();
+            drawingSurface.clipRect(rect);
+            drawClipped(drawingSurface, gobjects, rect.left, rect.top, rect.right, rect.bottom);
+            drawingSurface.restore();
+        }
+        dirtyRegion.clear();
+    }
+
+    // clears the given (already clipped) area to the background and redraws the objects touching it
+    private void drawClipped(Canvas drawingSurface, List<GObject> gobjects,
+                             float left, float top, float right, float bottom) {
+        if (background != null) {
+            drawingSurface.drawColor(background.getColor(), PorterDuff.Mode.SRC);
+        } else {
+            drawingSurface.drawColor(0, PorterDuff.Mode.CLEAR);
+        }
+        for (int i = 0; i < gobjects.size(); i++) {
+            GObject gobject = gobjects.get(i);
+            GStaticLayer layer = gobject.staticLayer;
+            if (layer != null && layer.prepare(gobjects, this, getStaticLayerScale())) {
+                if (layer.left < right && left < layer.right && layer.top < bottom && top < layer.bottom) {
+                    layer.draw(drawingSurface);
+                }
+                i = layer.end - 1;
+                continue;
+            }
+            if (gobject.drawnValid && gobject.drawnLeft < right && left < gobject.drawnRight
+                    && gobject.drawnTop < bottom && top < gobject.drawnBottom) {
+                gobject.canvas = drawingSurface;
+                gobject.paint(drawingSurface);
+            }
+        }
+    }
+
+    // after a full redraw, records where every object was drawn and forgets pending changes
+    private void resetDirtyRegion(List<GObject> gobjects) {
+        for (int i = 0; i < changedObjects.size(); i++) {
+            changedObjects.get(i).redrawPending = false;
+        }
+        changedObjects.clear();
+        dirtyRegion.clear();
+        for (int i = 0; i < gobjects.size(); i++) {
+            updateDrawnBounds(gobjects.get(i));
+        }
+        fullRedrawNeeded = false;
+    }
+
+    // records the area the given object covers as drawn, padded for stroke width and anti-aliasing
+    private void updateDrawnBounds(GObject obj) {
+        if (!obj.isVisible()) {
+            obj.drawnValid = false;
+            return;
+        }
+        RectF bounds = obj.getBounds(objBounds);
+        float pad = obj.paint.getStrokeWidth() / 2 + DIRTY_PADDING;
+        obj.drawnLeft = bounds.left - pad;
+        obj.drawnTop = bounds.top - pad;
+        obj.drawnRight = bounds.right + pad;
+        obj.drawnBottom = bounds.bottom + pad;
+        obj.drawnValid = true;
+    }
+
     /**
      * Removes the given graphical object, if it was contained in this canvas.
+     * If it was not, has no effect.
+     * This may be called from any thread; if it is called from a thread other than
+     * the one that draws the canvas, the object is removed at the start of the next frame,
+     * so until then contains, getElementCount, and getElement still include it.
      * @throws NullPointerException if obj is null
      */
     public void remove(GObject obj) {
         if (obj == null) {
             throw new NullPointerException();
         }
-        gobjects.remove(obj);
-        obj.setGCanvas(null);
+        if (!isSceneThread()) {
+            queueChange(new PendingChange(PendingChange.REMOVE, obj));
+            return;
+        }
+        if (scene.remove(obj)) {
+            if (spatialIndex != null) {
+                spatialIndex.remove(obj);
+            }
+            if (kinematics != null && obj instanceof GSprite) {
+                kinematics.unregister((GSprite) obj);
+            }
+            if (dirtyRegion != null && obj.drawnValid) {
+                dirtyRegion.add(obj.drawnLeft, obj.drawnTop, obj.drawnRight, obj.drawnBottom);
+            }
+            obj.drawnValid = false;
+            obj.staticLayer = null;
+            if (obj.staticObject) {
+                staticObjectCount--;
+            }
+            if (staticObjectCount > 0 || obj.staticObject) {
+                // removing any object can join two runs of static objects
+                staticLayersChanged = true;
+            }
+            if (obj.gcanvas == this) {
+                obj.setGCanvas(null);
+            }
+        }
     }
 
     /**
      * Removes all graphical objects from this canvas.
+     * This may be called from any thread; if it is called from a thread other than
+     * the one that draws the canvas, the objects are removed at the start of the next frame,
+     * so until then contains, getElementCount, and getElement still include them.
      */
     public void removeAll() {
-        gobjects.clear();
+        if (!isSceneThread()) {
+            queueChange(new PendingChange(PendingChange.REMOVE_ALL, null));
+            return;
+        }
+        for (GObject obj : scene.removeAll()) {
+            obj.drawnValid = false;
+            obj.staticLayer = null;
+        }
+        for (GStaticLayer layer : staticLayers) {
+            layer.release();
+        }
+        staticLayers.clear();
+        staticObjectCount = 0;
+        staticLayersChanged = false;
+        if (spatialIndex != null) {
+            spatialIndex.clear();
+        }
+        if (kinematics != null) {
+            kinematics.unregisterAll();
+        }
+        fullRedrawNeeded = true;
     }
 
     /**
      * Moves the given GObject back/down by 1 in the Z-ordering.
      * If the given GObject is not added to this canvas, has no effect.
+     * This may be called from any thread; if it is called from a thread other than
+     * the one that draws the canvas, the object is moved at the start of the next frame.
      * @throws NullPointerException if obj is null
      */
     public void sendBackward(GObject obj) {
         if (obj == null) {
             throw new NullPointerException();
         }
-        int index = gobjects.indexOf(obj);
-        if (index > 0) {
-            synchronized (gobjects) {
-                gobjects.remove(index);
-                gobjects.add(index - 1, obj);
-            }
+        if (!isSceneThread()) {
+            queueChange(new PendingChange(PendingChange.SEND_BACKWARD, obj));
+        } else if (scene.moveBackward(obj)) {
+            reordered(obj);
         }
     }
 
     /**
      * Moves the given GObject forward/up by 1 in the Z-ordering.
      * If the given GObject is not added to this canvas, has no effect.
+     * This may be called from any thread; if it is called from a thread other than
+     * the one that draws the canvas, the object is moved at the start of the next frame.
      * @throws NullPointerException if obj is null
      */
     public void sendForward(GObject obj) {
         if (obj == null) {
             throw new NullPointerException();
         }
-        int index = gobjects.indexOf(obj);
-        if (index >= 0 && index < gobjects.size() - 1) {
-            synchronized (gobjects) {
-                gobjects.remove(index);
-                gobjects.add(index + 1, obj);
-            }
+        if (!isSceneThread()) {
+            queueChange(new PendingChange(PendingChange.SEND_FORWARD, obj));
+        } else if (scene.moveForward(obj)) {
+            reordered(obj);
         }
     }
 
     /**
      * Moves the given GObject to the back/bottom of the Z-ordering.
      * If the given GObject is not added to this canvas, has no effect.
+     * This may be called from any thread; if it is called from a thread other than
+     * the one that draws the canvas, the object is moved at the start of the next frame.
      * @throws NullPointerException if obj is null
      */
     public void sendToBack(GObject obj) {
         if (obj == null) {
             throw new NullPointerException();
         }
-        int index = gobjects.indexOf(obj);
-        if (index > 0) {
-            synchronized (gobjects) {
-                gobjects.remove(index);
-                gobjects.add(0, obj);
-            }
+        if (!isSceneThread()) {
+            queueChange(new PendingChange(PendingChange.SEND_TO_BACK, obj));
+        } else if (scene.moveToBack(obj)) {
+            reordered(obj);
         }
     }
 
     /**
      * Moves the given GObject to the front/top of the Z-ordering.
      * If the given GObject is not added to this canvas, has no effect.
+     * This may be called from any thread; if it is called from a thread other than
+     * the one that draws the canvas, the object is moved at the start of the next frame.
      * @throws NullPointerException if obj is null
      */
     public void sendToFront(GObject obj) {
         if (obj == null) {
             throw new NullPointerException();
         }
-        int index = gobjects.indexOf(obj);
-        if (index >= 0 && index < gobjects.size() - 1) {
-            synchronized (gobjects) {
-                gobjects.remove(index);
-                gobjects.add(obj);
+        if (!isSceneThread()) {
+            queueChange(new PendingChange(PendingChange.SEND_TO_FRONT, obj));
+        } else if (scene.moveToFront(obj)) {
+            reordered(obj);
+        }
+    }
+
+    // helper to update bookkeeping after an object moves in the z-ordering
+    private void reordered(GObject obj) {
+        if (staticObjectCount > 0) {
+            // moving any object can split or join runs of static objects
+            staticLayersChanged = true;
+        }
+        objectChanged(obj);
+    }
+
+    /**
+     * Returns whether the calling thread is the one that ticks and draws this canvas,
+     * and so may change its scene directly; calls from any other thread are queued
+     * and applied by that thread at the start of the next frame.
+     */
+    boolean isSceneThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    // helper to remember a change made from another thread until the next frame
+    private void queueChange(PendingChange change) {
+        synchronized (pendingLock) {
+            pendingChanges.add(change);
+            changesPending = true;
+        }
+        if (!isAnimated()) {
+            postInvalidate();
+        }
+    }
+
+    // applies the changes queued by other threads since the last frame, in the order they were made
+    private void applyPendingChanges() {
+        if (!changesPending) {
+            return;
+        }
+        List<PendingChange> changes;
+        synchronized (pendingLock) {
+            changes = pendingChanges;
+            pendingChanges = appliedChanges;
+            appliedChanges = changes;
+            changesPending = false;
+        }
+        for (int i = 0; i < changes.size(); i++) {
+            PendingChange change = changes.get(i);
+            GObject obj = change.obj;
+            switch (change.kind) {
+                case PendingChange.ADD:
+                    if (change.hasLocation) {
+                        add(obj, change.x, change.y);
+                    } else {
+                        add(obj);
+                    }
+                    break;
+                case PendingChange.REMOVE:
+                    remove(obj);
+                    break;
+                case PendingChange.MOVE:
+                    // the object leaves this canvas before it joins the other one
+                    remove(obj);
+                    if (change.hasLocation) {
+                        change.target.add(obj, change.x, change.y);
+                    } else {
+                        change.target.add(obj);
+                    }
+                    break;
+                case PendingChange.REMOVE_ALL:
+                    removeAll();
+                    break;
+                case PendingChange.SEND_BACKWARD:
+                    sendBackward(obj);
+                    break;
+                case PendingChange.SEND_FORWARD:
+                    sendForward(obj);
+                    break;
+                case PendingChange.SEND_TO_BACK:
+                    sendToBack(obj);
+                    break;
+                case PendingChange.SEND_TO_FRONT:
+                    sendToFront(obj);
+                    break;
             }
         }
+        changes.clear();
+    }
+
+    /**
+     * Called by a GObject in this canvas when its location, size, or appearance changes.
+     * You should not call this directly.
+     */
+    void objectChanged(GObject obj) {
+        if (obj.sceneList != scene) {
+            return;
+        }
+        if (spatialIndex != null) {
+            spatialIndex.markDirty(obj);
+        }
+        if (obj.staticLayer != null) {
+            obj.staticLayer.invalidate();
+        }
+        if (dirtyRegion != null && !obj.redrawPending) {
+            obj.redrawPending = true;
+            changedObjects.add(obj);
+        }
+    }
+
+    /**
+     * Called by a GSprite in this canvas when something changes whether the
+     * kinematics arrays can move it.
+     * You should not call this directly.
+     */
+    void kinematicsChanged(GSprite sprite) {
+        if (kinematics == null || sprite.sceneList != scene) {
+            return;
+        }
+        if (GKinematics.canRegister(sprite)) {
+            kinematics.register(sprite);
+        } else {
+            kinematics.unregister(sprite);
+        }
+    }
+
+    /**
+     * Returns the objects whose bounds may touch the given area, for a GSprite that
+     * is sweeping for collisions: those found by the spatial index if there is one,
+     * or else every object.  The list is reused or shared, so do not modify or keep it.
+     */
+    List<GObject> getSweepCandidates(float left, float top, float right, float bottom) {
+        if (spatialIndex == null) {
+            return scene.snapshot();
+        }
+        sweepCandidates.clear();
+        spatialIndex.getElementsAt(left, top, right - left, bottom - top, sweepCandidates);
+        return sweepCandidates;
+    }
+
+    /**
+     * Called by a GObject in this canvas when it is marked as static or dynamic.
+     * You should not call this directly.
+     */
+    void staticChanged(GObject obj) {
+        if (obj.sceneList != scene) {
+            return;
+        }
+        staticObjectCount += obj.staticObject ? 1 : -1;
+        staticLayersChanged = true;
+        objectChanged(obj);
     }
 
     /**
@@ -332,18 +961,15 @@ public abstract class GCanvas extends SimpleCanvas implements Iterable<GObject>
 
     /**
      * Returns an iterator over the GObjects found in this canvas.
-     * If the copy flag passed is true (default), makes a copy of the internal
-     * list of GObjects so that you will not receive a ConcurrentModificationException
-     * if you try to add/remove GObjects during a for-each loop over a GCanvas.
-     * If the copy flag passed is false, iterates over the actual internal array list
-     * of GObjects inside this canvas.
+     * The iterator walks an unmodifiable snapshot of the objects as they were when it
+     * was created, so you will not receive a ConcurrentModificationException if you
+     * add/remove GObjects during a for-each loop over a GCanvas, even from another thread.
+     * Snapshots are shared until the canvas next changes, so no copy is made either way;
+     * the copy flag is kept for compatibility.
+     * The iterator's remove method is not supported; call remove on the canvas instead.
      */
     public Iterator<GObject> iterator(boolean copy) {
-        if (copy) {
-            return new ArrayList<>(gobjects).iterator();
-        } else {
-            return gobjects.iterator();
-        }
+        return scene.snapshot().iterator();
     }
 
     /**
@@ -354,6 +980,301 @@ public abstract class GCanvas extends SimpleCanvas implements Iterable<GObject>
         return this.background;
     }
 
+    /**
+     * Sets a listener to be notified when the collidable GSprites in this canvas
+     * begin touching, keep touching, or stop touching each other.
+     * Collisions are checked once per tick of animation, inside GCanvas's
+     * onAnimateTick method right after all sprites have been updated.
+     * This is much faster than calling collidesWith on every pair of sprites yourself.
+     * Pass null to stop checking for collisions.
+     */
+    public void setCollisionListener(GCollisionEngine.CollisionListener listener) {
+        if (listener == null) {
+            collisionEngine = null;
+        } else if (collisionEngine == null) {
+            collisionEngine = new GCollisionEngine(listener);
+        } else {
+            collisionEngine.setListener(listener);
+        }
+    }
+
+    /**
+     * Returns the camera set by setCamera, or null if there is none.
+     */
+    public GCamera getCamera() {
+        return camera;
+    }
+
+    /**
+     * Sets a camera that decides which part of a larger world this canvas shows.
+     * With a camera, GObjects' x/y locations are world coordinates; the camera can
+     * scroll, zoom, follow an object, and be kept within the world's bounds, and
+     * objects entirely outside its view are not drawn.
+     * Because a moving camera changes every pixel on the screen, partial redraw
+     * (setPartialRedrawEnabled) always redraws the whole buffer while a camera is set.
+     * Pass null to remove the camera, so that locations are screen coordinates again.
+     */
+    public void setCamera(GCamera camera) {
+        this.camera = camera;
+        if (camera != null && getWidth() > 0 && getHeight() > 0) {
+            // tell the camera its view size right away, so that centerOn and setZoom work
+            // before the next frame is drawn
+            camera.update(surface != null ? surface.getWorldWidth() : getWidth(),
+                    surface != null ? surface.getWorldHeight() : getHeight());
+        }
+        fullRedrawNeeded = true;
+        if (!isAnimated()) {
+            postInvalidate();
+        }
+    }
+
+    /**
+     * Converts an x-coordinate on this view, such as the location of a touch event,
+     * to the world x-coordinate that is drawn there, taking into account any camera
+     * and any display buffer that is stretched to fill the view.
+     */
+    public float toWorldX(float viewX) {
+        float x = viewX;
+        if (surface != null && getWidth() > 0) {
+            x = x * surface.getWorldWidth() / getWidth();
+        }
+        return camera == null ? x : camera.toWorldX(x);
+    }
+
+    /**
+     * Converts a y-coordinate on this view, such as the location of a touch event,
+     * to the world y-coordinate that is drawn there, taking into account any camera
+     * and any display buffer that is stretched to fill the view.
+     */
+    public float toWorldY(float viewY) {
+        float y = viewY;
+        if (surface != null && getHeight() > 0) {
+            y = y * surface.getWorldHeight() / getHeight();
+        }
+        return camera == null ? y : camera.toWorldY(y);
+    }
+
+    /**
+     * Returns whether this canvas keeps its sprites' positions and velocities in
+     * shared arrays and moves them all in one pass.
+     * Initially false.
+     */
+    public boolean isKinematicsEnabled() {
+        return kinematics != null;
+    }
+
+    /**
+     * Sets whether this canvas should keep the position, velocity, and acceleration
+     * of its GSprites in a few shared float arrays, and move them all in a single
+     * tight loop on each tick of animation instead of calling update() on each one.
+     * The sprites' getters and setters keep working as before; they read and write
+     * the shared arrays.
+     * This makes a big difference in scenes with thousands of moving sprites.
+     * Sprites whose class overrides update() are still updated one at a time by
+     * calling their update method, so that your code in it keeps running.
+     * Initially false.
+     */
+    public void setKinematicsEnabled(boolean enabled) {
+        if (enabled && kinematics == null) {
+            kinematics = new GKinematics();
+            for (GObject obj : scene.snapshot()) {
+                if (obj instanceof GSprite && GKinematics.canRegister((GSprite) obj)) {
+                    kinematics.register((GSprite) obj);
+                }
+            }
+        } else if (!enabled && kinematics != null) {
+            setParallelUpdateEnabled(false);
+            kinematics.unregisterAll();
+            kinematics = null;
+        }
+    }
+
+    /**
+     * Measures how long it takes this device to move various numbers of sprites
+     * on one thread and on several, and sets the parallel update threshold to the
+     * smallest number of sprites for which several threads were faster.
+     * Returns the new threshold, which is Integer.MAX_VALUE if several threads were
+     * never faster (for example, on a single-core device).
+     * Takes on the order of a hundred milliseconds, so call it once at startup
+     * rather than during animation.
+     */
+    public int calibrateParallelUpdateThreshold() {
+        GParallelUpdater updater = parallelUpdater;
+        if (updater == null) {
+            updater = new GParallelUpdater();
+        }
+        int threshold = updater.calibrate();
+        if (updater != parallelUpdater) {
+            updater.shutdown();
+        }
+        setParallelUpdateThreshold(threshold);
+        return threshold;
+    }
+
+    /**
+     * Returns the number of sprites below which parallel update stays on one thread.
+     */
+    public int getParallelUpdateThreshold() {
+        return parallelUpdateThreshold;
+    }
+
+    /**
+     * Returns whether this canvas moves its sprites on several threads at once.
+     * Initially false.
+     */
+    public boolean isParallelUpdateEnabled() {
+        return parallelUpdater != null;
+    }
+
+    /**
+     * Sets whether this canvas should move its sprites on several threads at once
+     * when there are enough of them, using one worker thread per extra processor core.
+     * All of the sprites have finished moving before collisions are checked, your
+     * onAnimateTick code runs, or anything is drawn, and the results are exactly the
+     * same as moving them one at a time.
+     * Turning this on also turns on setKinematicsEnabled, since only the sprites kept
+     * in the shared kinematics arrays can be moved this way; sprites whose class
+     * overrides update() are still updated one at a time on the animation thread.
+     * Initially false.
+     */
+    public void setParallelUpdateEnabled(boolean enabled) {
+        if (enabled && parallelUpdater == null) {
+            setKinematicsEnabled(true);
+            parallelUpdater = new GParallelUpdater();
+            parallelUpdater.setThreshold(parallelUpdateThreshold);
+        } else if (!enabled && parallelUpdater != null) {
+            parallelUpdater.shutdown();
+            parallelUpdater = null;
+        }
+    }
+
+    /**
+     * Sets the number of sprites below which parallel update stays on one thread,
+     * because handing small amounts of work to other threads costs more than it saves.
+     * See also calibrateParallelUpdateThreshold.
+     * @throws IllegalArgumentException if threshold is negative
+     */
+    public void setParallelUpdateThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must be non-negative: " + threshold);
+        }
+        this.parallelUpdateThreshold = threshold;
+        if (parallelUpdater != null) {
+            parallelUpdater.setThreshold(threshold);
+        }
+    }
+
+    /**
+     * Returns the fraction of the display buffer's area above which partial redraw
+     * redraws the whole buffer instead.
+     */
+    public float getPartialRedrawThreshold() {
+        return partialRedrawThreshold;
+    }
+
+    /**
+     * Returns whether this canvas redraws only the changed parts of its display buffer.
+     * Initially false.
+     */
+    public boolean isPartialRedrawEnabled() {
+        return dirtyRegion != null;
+    }
+
+    /**
+     * Sets whether this canvas should redraw only the parts of its display buffer
+     * that changed since the last frame.
+     * When an object moves, changes color, is shown or hidden, or is added or removed,
+     * the areas it covered before and after the change are marked dirty; on the next
+     * frame only those areas are cleared and only the objects touching them are redrawn.
+     * In a scene where most objects stay still, this is much faster than redrawing
+     * everything.
+     * Partial redraw only takes effect while a display buffer is set (see setDisplayBuffer
+     * and setRenderScale), since the screen itself does not keep its contents between frames.
+     * If you modify an object in a way the canvas cannot see (such as changing
+     * its Paint directly), call repaint() on that object.
+     * Initially false.
+     */
+    public void setPartialRedrawEnabled(boolean enabled) {
+        if (enabled && dirtyRegion == null) {
+            dirtyRegion = new GDirtyRegion();
+            fullRedrawNeeded = true;
+        } else if (!enabled && dirtyRegion != null) {
+            dirtyRegion = null;
+            for (GObject obj : changedObjects) {
+                obj.redrawPending = false;
+            }
+            changedObjects.clear();
+        }
+    }
+
+    /**
+     * Sets the fraction of the display buffer's area above which partial redraw
+     * redraws the whole buffer instead; for example, 0.5 means that if more than
+     * half of the buffer is dirty, everything is redrawn.
+     * @throws IllegalArgumentException if threshold is not between 0 and 1
+     */
+    public void setPartialRedrawThreshold(float threshold) {
+        if (threshold <= 0 || threshold > 1) {
+            throw new IllegalArgumentException("threshold must be between 0 and 1: " + threshold);
+        }
+        this.partialRedrawThreshold = threshold;
+    }
+
+    /**
+     * Returns whether this canvas keeps a spatial index of its GObjects' bounds.
+     * Initially false.
+     */
+    public boolean isSpatialIndexEnabled() {
+        return spatialIndex != null;
+    }
+
+    /**
+     * Sets whether this canvas should keep a spatial index (a uniform grid of cells)
+     * over the bounds of its GObjects.
+     * With the index turned on, getElementAt and getElementsAt only need to examine
+     * the objects near the given location, rather than every object in the canvas,
+     * which makes touch handling much faster in scenes with many objects.
+     * Initially false.
+     */
+    public void setSpatialIndexEnabled(boolean enabled) {
+        setSpatialIndexEnabled(enabled, GSpatialIndex.DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Sets whether this canvas should keep a spatial index (a uniform grid of cells)
+     * over the bounds of its GObjects, using cells of the given size in pixels.
+     * A good cell size is around the size of a typical object in your scene.
+     * @throws IllegalArgumentException if cellSize is not a positive number
+     */
+    public void setSpatialIndexEnabled(boolean enabled, float cellSize) {
+        if (!enabled) {
+            spatialIndex = null;
+            return;
+        }
+        if (spatialIndex == null || spatialIndex.getCellSize() != cellSize) {
+            spatialIndex = new GSpatialIndex(cellSize);
+            for (GObject obj : scene.snapshot()) {
+                spatialIndex.add(obj);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds this canvas's spatial index from scratch, if it has one.
+     * GObjects report their own moves and size changes to the index automatically,
+     * but if you modify an object in a way that the canvas cannot see (such as
+     * changing the size of a GLabel's font through its Paint), call this to bring
+     * the index up to date.
+     */
+    public void updateSpatialIndex() {
+        if (spatialIndex != null) {
+            spatialIndex.clear();
+            for (GObject obj : scene.snapshot()) {
+                spatialIndex.add(obj);
+            }
+        }
+    }
+
     /**
      * Sets a background color that will be drawn on this canvas.
      * If no background has been set, the default background is white.
@@ -364,6 +1285,7 @@ public abstract class GCanvas extends SimpleCanvas implements Iterable<GObject>
             throw new NullPointerException();
         }
         this.background = color;
+        fullRedrawNeeded = true;
     }
 
     /**
@@ -401,14 +1323,41 @@ public abstract class GCanvas extends SimpleCanvas implements Iterable<GObject>
     @CallSuper
     public void onAnimateTick() {
         super.onAnimateTick();
+        applyPendingChanges();
         if (!firstDraw) {
-            // update all sprites
-            for (GObject gobject : gobjects) {
+            FrameStats stats = getFrameStats();
+            long start = (stats == null) ? 0 : System.nanoTime();
+
+            // move the sprites kept in the kinematics arrays all at once
+            if (kinematics != null) {
+                if (parallelUpdater != null) {
+                    parallelUpdater.step(kinematics);
+                } else {
+                    kinematics.step();
+                }
+                kinematics.finishStep(/* notify */ spatialIndex != null || dirtyRegion != null);
+            }
+
+            // update all other sprites and particle systems; a sprite's update may add or
+            // remove objects, which does not disturb this pass over the snapshot
+            List<GObject> gobjects = scene.snapshot();
+            for (int i = 0; i < gobjects.size(); i++) {
+                GObject gobject = gobjects.get(i);
                 if (gobject instanceof GSprite) {
                     GSprite sprite = (GSprite) gobject;
-                    sprite.update();
+                    if (sprite.kinematics == null) {
+                        sprite.update();
+                    }
+                } else if (gobject instanceof GParticleSystem) {
+                    ((GParticleSystem) gobject).update(getAnimationFrameDelta());
                 }
             }
+            if (collisionEngine != null) {
+                collisionEngine.detect(scene.snapshot());
+            }
+            if (stats != null) {
+                stats.record(FrameStats.SPRITES, System.nanoTime() - start);
+            }
         }
     }
 
@@ -416,7 +1365,14 @@ public abstract class GCanvas extends SimpleCanvas implements Iterable<GObject>
      * Returns the display buffer you previously passed to setDisplayBuffer, or null if none has been set.
      */
     public Bitmap getDisplayBuffer() {
-        return this.displayBuffer;
+        return surface == null ? null : surface.getBitmap();
+    }
+
+    /**
+     * Returns the render scale set by setRenderScale, or 0 if none has been set.
+     */
+    public float getRenderScale() {
+        return renderScale;
     }
 
     /**
@@ -425,28 +1381,84 @@ public abstract class GCanvas extends SimpleCanvas implements Iterable<GObject>
      * and then the bitmap will be scaled and drawn onto the canvas.
      * Initially the display buffer is null; call setDisplayBuffer(null); to turn
      * off scaled drawing.
+     * Also turns off any render scale previously set with setRenderScale.
      */
     public void setDisplayBuffer(Bitmap bitmap) {
-        this.displayBuffer = bitmap;
-        if (bitmap == null) {
-            drawSrc = null;
-            drawDst = null;
-        } else {
-            this.drawSrc = new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight());
-            this.drawDst = new RectF(0, 0, getWidth(), getHeight());
+        if (surface != null && surface.isUsing(bitmap) && renderScale == 0) {
+            return;
+        }
+        releaseSurface();
+        if (bitmap != null) {
+            surface = new GDisplaySurface(bitmap);
         }
     }
 
     /**
      * Sets the display buffer to a new empty bitmap image of the given size.
      * Equivalent to calling Bitmap.createBitmap and then passing the result to
-     * setDisplayBuffer.
+     * setDisplayBuffer, except that if the current display buffer is already the
+     * given size, it is kept rather than allocating a new one.
      */
     public void createDisplayBuffer(int width, int height) {
+        if (surface != null && renderScale == 0 && surface.isSize(width, height)) {
+            return;
+        }
         Bitmap bmp = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
         setDisplayBuffer(bmp);
     }
 
+    /**
+     * Makes this canvas draw into a display buffer that is the given fraction of
+     * the canvas's size, which is then stretched to fill the screen.
+     * For example, a scale of 0.5 draws at half the width and height (a quarter as
+     * many pixels), which can greatly speed up drawing on slow devices at some cost
+     * in sharpness.  A scale of 1 draws into a full-size buffer, which is useful
+     * together with setPartialRedrawEnabled.
+     * Unlike with setDisplayBuffer, GObject coordinates are not affected; they still
+     * match the canvas's width and height and touch event coordinates.
+     * The buffer is reallocated only when the canvas changes size.
+     * Replaces any display buffer set with setDisplayBuffer.
+     * @throws IllegalArgumentException if scale is not greater than 0 and at most 1
+     */
+    public void setRenderScale(float scale) {
+        if (scale <= 0 || scale > 1) {
+            throw new IllegalArgumentException("scale must be between 0 and 1: " + scale);
+        }
+        if (scale == renderScale) {
+            return;
+        }
+        releaseSurface();
+        renderScale = scale;
+        if (getWidth() > 0 && getHeight() > 0) {
+            surface = new GDisplaySurface(getWidth(), getHeight(), renderScale);
+        }
+    }
+
+    // helper to discard the current display surface
+    private void releaseSurface() {
+        surface = null;
+        renderScale = 0;
+        fullRedrawNeeded = true;
+    }
+
+    /**
+     * This view lifecycle method is overridden so that a display buffer created
+     * by setRenderScale can be resized to match the canvas.
+     */
+    @Override
+    @CallSuper
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+        if (renderScale != 0 && width > 0 && height > 0) {
+            if (surface == null) {
+                surface = new GDisplaySurface(width, height, renderScale);
+                fullRedrawNeeded = true;
+            } else if (surface.resize(width, height)) {
+                fullRedrawNeeded = true;
+            }
+        }
+    }
+
     /**
      * This view lifecycle method is overridden so that we can ensure that init()
      * is called on the canvas before it is shown.
@@ -467,4 +1479,30 @@ public abstract class GCanvas extends SimpleCanvas implements Iterable<GObject>
             initialized = true;
         }
     }
+
+    /*
+     * A change to the scene requested from another thread, waiting for the next frame.
+     */
+    private static final class PendingChange {
+        static final int ADD = 0;
+        static final int REMOVE = 1;
+        static final int REMOVE_ALL = 2;
+        static final int SEND_BACKWARD = 3;
+        static final int SEND_FORWARD = 4;
+        static final int SEND_TO_BACK = 5;
+        static final int SEND_TO_FRONT = 6;
+        static final int MOVE = 7;   // remove obj from this canvas, then add it to target
+
+        final int kind;
+        final GObject obj;   // null for REMOVE_ALL
+        GCanvas target;      // canvas that obj moves to, for MOVE
+        float x;
+        float y;
+        boolean hasLocation;
+
+        PendingChange(int kind, GObject obj) {
+            this.kind = kind;
+            this.obj = obj;
+        }
+    }
 }
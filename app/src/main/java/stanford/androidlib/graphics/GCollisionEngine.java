@@ -0,0 +1,356 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import java.util.*;
+
+/**
+ * A GCollisionEngine finds all pairs of colliding sprites in a GCanvas once per
+ * frame of animation and reports them to a listener.
+ * You normally do not construct one yourself; call setCollisionListener on your
+ * GCanvas and the canvas will run the engine after updating its sprites on each tick.
+ *
+ * <pre>
+ * setCollisionListener(new GCollisionEngine.CollisionAdapter() {
+ *     public void onCollisionEnter(GSprite sprite1, GSprite sprite2) {
+ *         ...
+ *     }
+ * });
+ * </pre>
+ *
+ * <p>
+ * Rather than testing every sprite against every other sprite, the engine sorts the
+ * sprites by the left edge of their collision rectangles and sweeps across them, so
+ * that only sprites whose rectangles overlap horizontally are ever compared
+ * ("sweep and prune").  Because sprites move only a little between frames, the
+ * sorted order from the previous frame is kept and repaired with an insertion sort,
+ * which is close to linear time.  Candidate pairs are then checked with
+ * GSprite.collidesWith, which respects collision margins and collision layers.
+ * </p>
+ *
+ * <p>
+ * Collisions are reported in three batches after all pairs have been found:
+ * first every pair that started touching on this frame (enter), then every pair
+ * that was already touching (stay), then every pair that stopped touching (exit).
+ * It is safe to add or remove sprites from inside the listener methods.
+ * </p>
+ */
+public class GCollisionEngine {
+    private static final int INITIAL_CAPACITY = 64;
+
+    // how each pair changed since the previous frame
+    private static final byte ENTER = 0;
+    private static final byte STAY = 1;
+    private static final byte EXIT = 2;
+
+    /**
+     * A listener for sprite collision events.
+     * The two sprites of each pair are always passed in the same order.
+     */
+    public interface CollisionListener {
+        /**
+         * Called when the two sprites begin touching.
+         */
+        void onCollisionEnter(GSprite sprite1, GSprite sprite2);
+
+        /**
+         * Called on each frame after the first in which the two sprites are still touching.
+         */
+        void onCollisionStay(GSprite sprite1, GSprite sprite2);
+
+        /**
+         * Called when the two sprites were touching on the previous frame but no longer are.
+         */
+        void onCollisionExit(GSprite sprite1, GSprite sprite2);
+    }
+
+    /**
+     * A class with empty implementations of all methods in the CollisionListener interface.
+     */
+    public static class CollisionAdapter implements CollisionListener {
+        /**
+         * Empty event listener method to be overridden.
+         */
+        public void onCollisionEnter(GSprite sprite1, GSprite sprite2) {
+            // empty
+        }
+
+        /**
+         * Empty event listener method to be overridden.
+         */
+        public void onCollisionStay(GSprite sprite1, GSprite sprite2) {
+            // empty
+        }
+
+        /**
+         * Empty event listener method to be overridden.
+         */
+        public void onCollisionExit(GSprite sprite1, GSprite sprite2) {
+            // empty
+        }
+    }
+
+    // private fields
+    private CollisionListener listener;
+    private int frameStamp = 0;
+
+    // collidable sprites sorted by left edge of collision rect, kept between frames
+    private GSprite[] sorted = new GSprite[INITIAL_CAPACITY];
+    private int sortedCount = 0;
+
+    // pairs found on this frame and on the previous frame, sorted by key
+    private PairList current = new PairList();
+    private PairList previous = new PairList();
+
+    /**
+     * Constructs a new collision engine that reports to the given listener.
+     * @throws NullPointerException if listener is null
+     */
+    public GCollisionEngine(CollisionListener listener) {
+        setListener(listener);
+    }
+
+    /**
+     * Returns the listener that receives this engine's collision events.
+     */
+    public CollisionListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Returns the number of pairs of sprites that were touching on the most recent frame.
+     */
+    public int getCollisionCount() {
+        return current.size;
+    }
+
+    /**
+     * Returns whether the two given sprites were found to be touching on the most recent frame.
+     */
+    public boolean isColliding(GSprite sprite1, GSprite sprite2) {
+        if (sprite1 == null || sprite2 == null || sprite1 == sprite2) {
+            return false;
+        }
+        return current.indexOf(pairKey(sprite1, sprite2)) >= 0;
+    }
+
+    /**
+     * Forgets all pairs that are currently touching, without sending exit events.
+     */
+    public void reset() {
+        current.clear();
+        previous.clear();
+        Arrays.fill(sorted, 0, sortedCount, null);
+        sortedCount = 0;
+    }
+
+    /**
+     * Sets the listener that receives this engine's collision events.
+     * @throws NullPointerException if listener is null
+     */
+    public void setListener(CollisionListener listener) {
+        if (listener == null) {
+            throw new NullPointerException();
+        }
+        this.listener = listener;
+    }
+
+    /**
+     * Finds all colliding pairs of collidable sprites in the given list of objects
+     * and sends the resulting enter/stay/exit events to the listener.
+     * Called by GCanvas on each tick of animation.
+     */
+    void detect(List<GObject> gobjects) {
+        gatherSprites(gobjects);
+        sortSprites();
+
+        // swap pair lists so that last frame's pairs become 'previous'
+        PairList temp = previous;
+        previous = current;
+        current = temp;
+        current.clear();
+
+        // sweep: a sprite can only touch sprites whose left edge is before its right edge
+        for (int i = 0; i < sortedCount; i++) {
+            GSprite sprite1 = sorted[i];
+            float right = sprite1.collisionRect().right;
+            for (int j = i + 1; j < sortedCount; j++) {
+                GSprite sprite2 = sorted[j];
+                if (sprite2.collisionRect().left > right) {
+                    break;
+                }
+                if (sprite1.collidesWith(sprite2)) {
+                    if (sprite1.spriteId < sprite2.spriteId) {
+                        current.add(sprite1, sprite2);
+                    } else {
+                        current.add(sprite2, sprite1);
+                    }
+                }
+            }
+        }
+        current.sort();
+        classifyAndDispatch();
+    }
+
+    // compares this frame's pairs to last frame's and sends events in batches
+    private void classifyAndDispatch() {
+        // walk both sorted lists together; previous pairs not matched are exits
+        int p = 0;
+        for (int c = 0; c < current.size; c++) {
+            long key = current.keys[c];
+            while (p < previous.size && previous.keys[p] < key) {
+                previous.kinds[p] = EXIT;
+                p++;
+            }
+            if (p < previous.size && previous.keys[p] == key) {
+                current.kinds[c] = STAY;
+                previous.kinds[p] = STAY;
+                p++;
+            } else {
+                current.kinds[c] = ENTER;
+            }
+        }
+        while (p < previous.size) {
+            previous.kinds[p] = EXIT;
+            p++;
+        }
+
+        for (int c = 0; c < current.size; c++) {
+            if (current.kinds[c] == ENTER) {
+                listener.onCollisionEnter(current.sprites1[c], current.sprites2[c]);
+            }
+        }
+        for (int c = 0; c < current.size; c++) {
+            if (current.kinds[c] == STAY) {
+                listener.onCollisionStay(current.sprites1[c], current.sprites2[c]);
+            }
+        }
+        for (p = 0; p < previous.size; p++) {
+            if (previous.kinds[p] == EXIT) {
+                listener.onCollisionExit(previous.sprites1[p], previous.sprites2[p]);
+            }
+        }
+    }
+
+    // rebuilds the sorted sprite array, keeping last frame's order for sprites still present
+    private void gatherSprites(List<GObject> gobjects) {
+        frameStamp++;
+        int size = gobjects.size();
+        for (int i = 0; i < size; i++) {
+            GObject gobject = gobjects.get(i);
+            if (gobject instanceof GSprite && ((GSprite) gobject).isCollidable()) {
+                GSprite sprite = (GSprite) gobject;
+                sprite.collisionStamp = frameStamp;
+            }
+        }
+
+        // keep sprites from last frame that are still collidable and in the canvas
+        int count = 0;
+        for (int i = 0; i < sortedCount; i++) {
+            GSprite sprite = sorted[i];
+            if (sprite.collisionStamp == frameStamp) {
+                sprite.collisionStamp = -frameStamp;   // mark as placed
+                sorted[count++] = sprite;
+            }
+        }
+        Arrays.fill(sorted, count, sortedCount, null);
+        sortedCount = count;
+
+        // append newly added sprites
+        for (int i = 0; i < size; i++) {
+            GObject gobject = gobjects.get(i);
+            if (gobject instanceof GSprite && ((GSprite) gobject).collisionStamp == frameStamp) {
+                GSprite sprite = (GSprite) gobject;
+                sprite.collisionStamp = -frameStamp;
+                if (sortedCount == sorted.length) {
+                    sorted = Arrays.copyOf(sorted, sorted.length * 2);
+                }
+                sorted[sortedCount++] = sprite;
+            }
+        }
+    }
+
+    // insertion sort by left edge; nearly linear because order changes little between frames
+    private void sortSprites() {
+        for (int i = 1; i < sortedCount; i++) {
+            GSprite sprite = sorted[i];
+            float left = sprite.collisionRect().left;
+            int j = i - 1;
+            while (j >= 0 && sorted[j].collisionRect().left > left) {
+                sorted[j + 1] = sorted[j];
+                j--;
+            }
+            sorted[j + 1] = sprite;
+        }
+    }
+
+    // unique key for an unordered pair of sprites
+    private static long pairKey(GSprite sprite1, GSprite sprite2) {
+        int id1 = Math.min(sprite1.spriteId, sprite2.spriteId);
+        int id2 = Math.max(sprite1.spriteId, sprite2.spriteId);
+        return ((long) id1 << 32) | (id2 & 0xffffffffL);
+    }
+
+    /*
+     * A growable list of sprite pairs stored in parallel arrays,
+     * so that finding pairs on each frame does not allocate any objects.
+     */
+    private static class PairList {
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private GSprite[] sprites1 = new GSprite[INITIAL_CAPACITY];
+        private GSprite[] sprites2 = new GSprite[INITIAL_CAPACITY];
+        private byte[] kinds = new byte[INITIAL_CAPACITY];
+        private int size = 0;
+
+        // adds a pair; sprite1 must have the smaller sprite ID
+        public void add(GSprite sprite1, GSprite sprite2) {
+            if (size == keys.length) {
+                int capacity = size * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                sprites1 = Arrays.copyOf(sprites1, capacity);
+                sprites2 = Arrays.copyOf(sprites2, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+            }
+            keys[size] = pairKey(sprite1, sprite2);
+            sprites1[size] = sprite1;
+            sprites2[size] = sprite2;
+            size++;
+        }
+
+        public void clear() {
+            Arrays.fill(sprites1, 0, size, null);
+            Arrays.fill(sprites2, 0, size, null);
+            size = 0;
+        }
+
+        // binary search for the given key; list must be sorted
+        public int indexOf(long key) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            return index >= 0 ? index : -1;
+        }
+
+        // sorts pairs by key (shell sort, so that the parallel arrays stay in step)
+        public void sort() {
+            for (int gap = size / 2; gap > 0; gap /= 2) {
+                for (int i = gap; i < size; i++) {
+                    long key = keys[i];
+                    GSprite s1 = sprites1[i];
+                    GSprite s2 = sprites2[i];
+                    int j = i;
+                    while (j >= gap && keys[j - gap] > key) {
+                        keys[j] = keys[j - gap];
+                        sprites1[j] = sprites1[j - gap];
+                        sprites2[j] = sprites2[j - gap];
+                        j -= gap;
+                    }
+                    keys[j] = key;
+                    sprites1[j] = s1;
+                    sprites2[j] = s2;
+                }
+            }
+        }
+    }
+}
@@ -1,4 +1,9 @@
 /*
+ * @version 2026/10/16
+ * - caches the union of its children's bounds until a child changes
+ * - paint skips the whole compound when its bounds are outside the canvas's clip
+ * - added getBounds(RectF); recomputing the cached bounds no longer allocates
+ * - getBounds() is inherited from GObject, which builds it from getBounds(RectF)
  * @version 2016/12/22
  * - added illegal arg checking to some methods e.g. add, remove
  * - alphabetized methods
@@ -6,12 +11,23 @@
 package stanford.androidlib.graphics;
 
 import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
 import java.util.*;
 
 /**
  * This class defines a graphical object that consists of a collection
  * of other graphical objects.  Once assembled, the internal objects
  * can be manipulated as a unit.
+ *
+ * <p>
+ * A compound remembers the combined bounds of its contents, and does not paint
+ * any of them when those bounds lie entirely off-screen, so a compound can be
+ * used to group the objects of one part of a large scene.  Changes made through
+ * the contents' own methods (setLocation, setSize, and so on) are seen by the
+ * compound automatically; if you change a content object some other way, such as
+ * by modifying its Paint directly, call repaint() on that object.
+ * </p>
  */
 public class GCompound extends GObject implements GScalable, Iterable<GObject> {
     /**
@@ -27,6 +43,21 @@ public class GCompound extends GObject implements GScalable, Iterable<GObject> {
     private GObject lastObject;
     private GObject dragObject;
 
+    // union of the contents' bounds, relative to this compound's location; valid if boundsValid
+    private float localLeft;
+    private float localTop;
+    private float localRight;
+    private float localBottom;
+
+    // area the contents may draw in, relative to this compound's location; unlike the local bounds,
+    // this includes zero-width or zero-height contents such as lines, and their stroke width
+    private float paintLeft;
+    private float paintTop;
+    private float paintRight;
+    private float paintBottom;
+    private boolean boundsValid;
+    private final RectF childBounds = new RectF();
+
     /**
      * Creates a new <code>GCompound</code> object with no internal components.
      *
@@ -63,7 +94,8 @@ public class GCompound extends GObject implements GScalable, Iterable<GObject> {
                     + "marked as complete.");
         }
         contents.add(gobj);
-        repaint();
+        gobj.parent = this;
+        childChanged();
         return this;
     }
 
@@ -112,19 +144,16 @@ public class GCompound extends GObject implements GScalable, Iterable<GObject> {
     }
 
     /**
-     * Returns the bounding rectangle for this compound object, which consists of
-     * the union of the bounding rectangles for each of the components.
-     *
-     * @usage GRectangle bounds = gcomp.getBounds();
-     * @return A <code>GRectangle</code> that bounds the components of this object
+     * Sets the given rectangle to the bounding rectangle for this compound object,
+     * which is the union of the bounding rectangles of its components, and returns it.
+     * @throws NullPointerException if bounds is null
      */
     @Override
-    public GRectangle getBounds() {
-        GRectangle bounds = new GRectangle();
-        for (GObject obj : contents) {
-            bounds = bounds.union(obj.getBounds());
-        }
-        bounds.translate(getX(), getY());
+    public RectF getBounds(RectF bounds) {
+        updateBounds();
+        float x = getX();
+        float y = getY();
+        bounds.set(x + localLeft, y + localTop, x + localRight, y + localBottom);
         return bounds;
     }
 
@@ -209,6 +238,13 @@ public class GCompound extends GObject implements GScalable, Iterable<GObject> {
      */
     @Override
     public void paint(Canvas canvas) {
+        // skip the whole group if none of it can be seen
+        updateBounds();
+        if (contents.isEmpty() || canvas.quickReject(getX() + paintLeft, getY() + paintTop,
+                getX() + paintRight, getY() + paintBottom, Canvas.EdgeType.AA)) {
+            return;
+        }
+
         canvas.translate(GMath.round(getX()), GMath.round(getY()));
         for (GObject obj : contents) {
             obj.paint(canvas);
@@ -231,8 +267,10 @@ public class GCompound extends GObject implements GScalable, Iterable<GObject> {
             throw new IllegalStateException("You can't remove objects from a GCompound that has been "
                     + "marked as complete.");
         }
-        contents.remove(gobj);
-        repaint();
+        if (contents.remove(gobj) && gobj.parent == this) {
+            gobj.parent = null;
+        }
+        childChanged();
         return this;
     }
 
@@ -246,8 +284,13 @@ public class GCompound extends GObject implements GScalable, Iterable<GObject> {
             throw new IllegalStateException("You can't remove objects from a GCompound that has been "
                     + "marked as complete.");
         }
+        for (GObject obj : contents) {
+            if (obj.parent == this) {
+                obj.parent = null;
+            }
+        }
         contents.clear();
-        repaint();
+        childChanged();
         return this;
     }
 
@@ -355,6 +398,67 @@ public class GCompound extends GObject implements GScalable, Iterable<GObject> {
         return this;
     }
 
+    /**
+     * Called by a content object when its location, size, or appearance changes,
+     * so that the cached bounds are recomputed.
+     * You should not call this directly.
+     */
+    void childChanged() {
+        boundsValid = false;
+        repaint();
+    }
+
+    // helper to recompute the union of the contents' bounds, if a content object has changed
+    private void updateBounds() {
+        if (boundsValid) {
+            return;
+        }
+        // union of the non-empty contents' bounds, as GRectangle.union computes it
+        float unionLeft = 0;
+        float unionTop = 0;
+        float unionRight = 0;
+        float unionBottom = 0;
+        float left = Float.POSITIVE_INFINITY;
+        float top = Float.POSITIVE_INFINITY;
+        float right = Float.NEGATIVE_INFINITY;
+        float bottom = Float.NEGATIVE_INFINITY;
+        float maxStroke = 0;
+        for (GObject obj : contents) {
+            RectF objBounds = obj.getBounds(childBounds);
+            if (unionRight <= unionLeft || unionBottom <= unionTop) {
+                unionLeft = objBounds.left;
+                unionTop = objBounds.top;
+                unionRight = objBounds.right;
+                unionBottom = objBounds.bottom;
+            } else if (objBounds.right > objBounds.left && objBounds.bottom > objBounds.top) {
+                unionLeft = Math.min(unionLeft, objBounds.left);
+                unionTop = Math.min(unionTop, objBounds.top);
+                unionRight = Math.max(unionRight, objBounds.right);
+                unionBottom = Math.max(unionBottom, objBounds.bottom);
+            }
+            left = Math.min(left, objBounds.left);
+            top = Math.min(top, objBounds.top);
+            right = Math.max(right, objBounds.right);
+            bottom = Math.max(bottom, objBounds.bottom);
+            Paint paint = obj.paint;
+            if (paint != null) {
+                maxStroke = Math.max(maxStroke, paint.getStrokeWidth());
+            }
+        }
+
+        // pad by half the widest stroke, plus a little for anti-aliasing
+        float padding = maxStroke / 2 + 2;
+        localLeft = unionLeft;
+        localTop = unionTop;
+        localRight = unionRight;
+        localBottom = unionBottom;
+        paintLeft = left - padding;
+        paintTop = top - padding;
+        paintRight = right + padding;
+        paintBottom = bottom + padding;
+        boundsValid = true;
+    }
+
     /**
      * Implements the <code>sendToFront</code> function from the <code>GContainer</code>
      * interface.  Clients should not be calling this method, but the semantics of
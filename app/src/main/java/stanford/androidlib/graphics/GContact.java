@@ -0,0 +1,111 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+/**
+ * A contact found by a GSprite that sweeps for collisions as it moves
+ * (see GSprite.setContinuousCollision): the sprite it ran into, how far through
+ * the tick's movement that happened, and the direction of the surface it hit.
+ *
+ * <p>
+ * The normal is a unit vector along one axis that points out of the surface that
+ * was hit, back toward the moving sprite; for example, a sprite moving right into
+ * the left side of a wall has a normal of (-1, 0).
+ * </p>
+ *
+ * <p>
+ * Each sprite reuses a single GContact for every contact it reports, so its values
+ * are only valid during the call to ContactListener.onContact.
+ * </p>
+ */
+public final class GContact {
+    /** Response in which the sprite moves on through what it hits; the contact is only reported. */
+    public static final int NONE = 0;
+
+    /** Response in which the sprite stops against what it hits, and slides along it (the default). */
+    public static final int STOP = 1;
+
+    /** Response in which the sprite bounces off what it hits. */
+    public static final int BOUNCE = 2;
+
+    /**
+     * A listener for the contacts of sprites that sweep for collisions.
+     */
+    public interface ContactListener {
+        /**
+         * Called when the given sprite runs into another sprite while moving.
+         * By the time this is called, the sprite's response has already been applied.
+         */
+        void onContact(GSprite sprite, GContact contact);
+    }
+
+    // contact details, filled in by GSprite
+    GSprite other;
+    float time;
+    float normalX;
+    float normalY;
+    float x;
+    float y;
+    float moveX;   // how far the sprite moves to reach the contact
+    float moveY;
+
+    // constructed only by GSprite
+    GContact() {
+        // empty
+    }
+
+    /**
+     * Returns the x component of the normal of the surface that was hit: -1, 0, or 1.
+     */
+    public float getNormalX() {
+        return normalX;
+    }
+
+    /**
+     * Returns the y component of the normal of the surface that was hit: -1, 0, or 1.
+     */
+    public float getNormalY() {
+        return normalY;
+    }
+
+    /**
+     * Returns the sprite that was hit.
+     */
+    public GSprite getOther() {
+        return other;
+    }
+
+    /**
+     * Returns the time of impact, as a fraction from 0 to 1 of the way through
+     * the movement in which the contact happened.
+     */
+    public float getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the x-coordinate of the moving sprite's top-left corner when the contact happened.
+     */
+    public float getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y-coordinate of the moving sprite's top-left corner when the contact happened.
+     */
+    public float getY() {
+        return y;
+    }
+
+    /**
+     * Returns a string representation of this contact, for debugging.
+     */
+    @Override
+    public String toString() {
+        return "GContact{time=" + time + ", normal=(" + normalX + ", " + normalY + ")"
+                + ", at=(" + x + ", " + y + ")}";
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import android.graphics.*;
+
+/**
+ * A small set of rectangles describing the parts of a GCanvas's display buffer
+ * that need to be redrawn on the next frame.
+ * Overlapping rectangles are merged as they are added, and the number of rectangles
+ * is capped so that redrawing them never costs more than a handful of passes.
+ *
+ * <p>
+ * This class is used internally by GCanvas; turn it on by calling
+ * GCanvas.setPartialRedrawEnabled(true).
+ * </p>
+ */
+final class GDirtyRegion {
+    /** Maximum number of separate rectangles kept; more are merged together. */
+    static final int MAX_RECTS = 8;
+
+    // private fields
+    private final RectF[] rects = new RectF[MAX_RECTS];
+    private int count = 0;
+
+    /**
+     * Constructs a new empty dirty region.
+     */
+    GDirtyRegion() {
+        for (int i = 0; i < MAX_RECTS; i++) {
+            rects[i] = new RectF();
+        }
+    }
+
+    /**
+     * Adds the given rectangle to the region.
+     * Empty rectangles are ignored.
+     */
+    void add(float left, float top, float right, float bottom) {
+        if (right <= left || bottom <= top) {
+            return;
+        }
+
+        // merge into an overlapping rectangle if there is one
+        for (int i = 0; i < count; i++) {
+            RectF rect = rects[i];
+            if (left < rect.right && rect.left < right && top < rect.bottom && rect.top < bottom) {
+                rect.union(left, top, right, bottom);
+                mergeOverlapping(i);
+                return;
+            }
+        }
+
+        if (count < MAX_RECTS) {
+            rects[count++].set(left, top, right, bottom);
+            return;
+        }
+
+        // out of room; grow whichever rectangle would get the least bigger
+        int best = 0;
+        float bestGrowth = Float.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            RectF rect = rects[i];
+            float unionArea = (Math.max(rect.right, right) - Math.min(rect.left, left))
+                    * (Math.max(rect.bottom, bottom) - Math.min(rect.top, top));
+            float growth = unionArea - area(rect);
+            if (growth < bestGrowth) {
+                bestGrowth = growth;
+                best = i;
+            }
+        }
+        rects[best].union(left, top, right, bottom);
+        mergeOverlapping(best);
+    }
+
+    /**
+     * Removes all rectangles from the region.
+     */
+    void clear() {
+        count = 0;
+    }
+
+    /**
+     * Shrinks every rectangle to lie within (0, 0) - (width, height),
+     * dropping any that fall entirely outside it.
+     */
+    void clip(float width, float height) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            RectF rect = rects[i];
+            if (rect.intersect(0, 0, width, height)) {
+                if (kept != i) {
+                    RectF temp = rects[kept];
+                    rects[kept] = rect;
+                    rects[i] = temp;
+                }
+                kept++;
+            }
+        }
+        count = kept;
+    }
+
+    /**
+     * Returns the rectangle at the given index.
+     * The returned object is reused; do not keep or modify it.
+     */
+    RectF get(int index) {
+        return rects[index];
+    }
+
+    /**
+     * Returns the total area of the rectangles in the region.
+     */
+    float getArea() {
+        float total = 0;
+        for (int i = 0; i < count; i++) {
+            total += area(rects[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Returns true if the region contains no rectangles.
+     */
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns the number of rectangles in the region.
+     */
+    int size() {
+        return count;
+    }
+
+    // helper to return the area of a rectangle
+    private static float area(RectF rect) {
+        return (rect.right - rect.left) * (rect.bottom - rect.top);
+    }
+
+    // after rects[index] has grown, folds any rectangles it now overlaps into it
+    private void mergeOverlapping(int index) {
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            RectF grown = rects[index];
+            for (int i = 0; i < count; i++) {
+                RectF rect = rects[i];
+                if (i != index && grown.left < rect.right && rect.left < grown.right
+                        && grown.top < rect.bottom && rect.top < grown.bottom) {
+                    grown.union(rect);
+                    // remove rects[i] by swapping in the last rectangle
+                    count--;
+                    rects[i] = rects[count];
+                    rects[count] = rect;
+                    if (index == count) {
+                        index = i;
+                    }
+                    merged = true;
+                    break;
+                }
+            }
+        }
+    }
+}
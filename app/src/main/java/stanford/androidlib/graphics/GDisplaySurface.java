@@ -0,0 +1,153 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import android.graphics.*;
+
+/**
+ * An off-screen drawing surface for a GCanvas: a bitmap whose Canvas is created
+ * once and reused on every frame.
+ *
+ * <p>
+ * The surface can draw at a lower resolution than the world coordinates it is
+ * given (a scale below 1), so that a GCanvas can render at, say, half size and have
+ * the result stretched to fill the screen.  It keeps just one bitmap, since the
+ * thread that draws a frame into it is always the one that then copies it to the
+ * screen; a GSurfaceCanvas, which draws on a thread of its own, gets its buffering
+ * from its SurfaceHolder, which lets it draw the next frame while the last one
+ * is still being shown.
+ * </p>
+ *
+ * <p>
+ * This class is used internally by GCanvas; see GCanvas.setDisplayBuffer and
+ * setRenderScale.
+ * </p>
+ */
+final class GDisplaySurface {
+    // private fields
+    private Bitmap bitmap;
+    private Canvas canvas;
+    private final Rect source = new Rect();
+    private final boolean managed;   // true if this surface allocated the bitmap itself
+    private final float scale;
+
+    /**
+     * Constructs a surface that draws into the given bitmap, with world coordinates
+     * equal to the bitmap's pixel coordinates.
+     */
+    GDisplaySurface(Bitmap bitmap) {
+        this.managed = false;
+        this.scale = 1;
+        setBitmap(bitmap);
+    }
+
+    /**
+     * Constructs a surface whose bitmap is allocated to hold a world of the given size
+     * drawn at the given scale.
+     */
+    GDisplaySurface(int worldWidth, int worldHeight, float scale) {
+        this.managed = true;
+        this.scale = scale;
+        setBitmap(Bitmap.createBitmap(scaled(worldWidth), scaled(worldHeight), Bitmap.Config.ARGB_8888));
+    }
+
+    /**
+     * Returns the canvas to draw the next frame on, with the world-to-bitmap scale applied.
+     * Must be followed by a call to endFrame.
+     */
+    Canvas beginFrame() {
+        canvas.save();
+        if (scale != 1) {
+            canvas.scale(scale, scale);
+        }
+        return canvas;
+    }
+
+    /**
+     * Finishes drawing the current frame.
+     */
+    void endFrame() {
+        canvas.restore();
+    }
+
+    /**
+     * Returns the bitmap that frames are drawn into.
+     */
+    Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    /**
+     * Returns a rectangle covering the whole bitmap, for drawing it onto the screen.
+     * The returned object is reused; do not modify it.
+     */
+    Rect getSourceRect() {
+        return source;
+    }
+
+    /**
+     * Returns the factor by which world coordinates are scaled when drawn into the bitmap.
+     */
+    float getScale() {
+        return scale;
+    }
+
+    /**
+     * Returns the width of the world that fits in this surface, in world coordinates.
+     */
+    float getWorldWidth() {
+        return bitmap.getWidth() / scale;
+    }
+
+    /**
+     * Returns the height of the world that fits in this surface, in world coordinates.
+     */
+    float getWorldHeight() {
+        return bitmap.getHeight() / scale;
+    }
+
+    /**
+     * Returns true if this surface wraps the given bitmap.
+     */
+    boolean isUsing(Bitmap bitmap) {
+        return this.bitmap == bitmap;
+    }
+
+    /**
+     * Returns true if this surface's bitmap is the given size in pixels.
+     */
+    boolean isSize(int width, int height) {
+        return bitmap.getWidth() == width && bitmap.getHeight() == height;
+    }
+
+    /**
+     * Reallocates this surface's bitmap to hold a world of the given size,
+     * if it is not already that size.  Has no effect on a surface that wraps
+     * a bitmap passed in by the client.
+     * Returns true if the bitmap was reallocated.
+     */
+    boolean resize(int worldWidth, int worldHeight) {
+        int width = scaled(worldWidth);
+        int height = scaled(worldHeight);
+        if (!managed || isSize(width, height)) {
+            return false;
+        }
+        setBitmap(Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888));
+        return true;
+    }
+
+    // helper to store the bitmap and create its reusable canvas
+    private void setBitmap(Bitmap bitmap) {
+        this.bitmap = bitmap;
+        this.canvas = new Canvas(bitmap);
+        source.set(0, 0, bitmap.getWidth(), bitmap.getHeight());
+    }
+
+    // helper to convert a world size to a bitmap size, never less than 1 pixel
+    private int scaled(int worldSize) {
+        return Math.max(1, (int) Math.ceil(worldSize * scale));
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * A structure-of-arrays store for the position, velocity, and acceleration of
+ * many GSprites, so that moving all of them on a tick of animation is a single
+ * pass over a few contiguous float arrays instead of a method call per sprite.
+ *
+ * <p>
+ * While a sprite is registered here, the arrays hold its true state, and the
+ * sprite's own rectangles and velocity fields are only a cache of it.  A sprite
+ * copies its state out of the arrays lazily, the first time one of its methods
+ * needs it after a step, and writes each change it makes, such as a new velocity,
+ * straight into its slot.
+ * Each step applies exactly the same float operations as GSprite.update, so the
+ * results are identical to updating the sprites one at a time.
+ * </p>
+ *
+ * <p>
+ * This class is used internally by GCanvas; turn it on by calling
+ * GCanvas.setKinematicsEnabled(true).
+ * </p>
+ */
+final class GKinematics {
+    private static final int INITIAL_CAPACITY = 64;
+
+    // per-class cache of whether a GSprite subclass overrides update()
+    private static final Map<Class<?>, Boolean> OVERRIDES_UPDATE = new HashMap<>();
+
+    // sprite state, indexed by slot; slots 0 .. size-1 are in use
+    float[] left = new float[INITIAL_CAPACITY];
+    float[] top = new float[INITIAL_CAPACITY];
+    float[] right = new float[INITIAL_CAPACITY];
+    float[] bottom = new float[INITIAL_CAPACITY];
+    float[] collisionLeft = new float[INITIAL_CAPACITY];
+    float[] collisionTop = new float[INITIAL_CAPACITY];
+    float[] collisionRight = new float[INITIAL_CAPACITY];
+    float[] collisionBottom = new float[INITIAL_CAPACITY];
+    float[] dx = new float[INITIAL_CAPACITY];
+    float[] dy = new float[INITIAL_CAPACITY];
+    float[] accelerationX = new float[INITIAL_CAPACITY];
+    float[] accelerationY = new float[INITIAL_CAPACITY];
+    private boolean[] moved = new boolean[INITIAL_CAPACITY];   // whether each sprite moved on the last step
+    private GSprite[] sprites = new GSprite[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // incremented by every step; sprites compare it to know whether their cached state is stale
+    int step = 0;
+
+    /**
+     * Returns true if the given sprite can be moved by this store, that is, if its
+     * class does not override update() with behavior of its own, and it does not
+     * sweep for collisions as it moves.
+     */
+    static boolean canRegister(GSprite sprite) {
+        if (sprite.continuousCollision) {
+            return false;
+        }
+        Class<?> type = sprite.getClass();
+        if (type == GSprite.class) {
+            return true;
+        }
+        synchronized (OVERRIDES_UPDATE) {
+            Boolean overrides = OVERRIDES_UPDATE.get(type);
+            if (overrides == null) {
+                try {
+                    Method update = type.getMethod("update");
+                    overrides = update.getDeclaringClass() != GSprite.class;
+                } catch (NoSuchMethodException nsme) {
+                    overrides = true;
+                }
+                OVERRIDES_UPDATE.put(type, overrides);
+            }
+            return !overrides;
+        }
+    }
+
+    /**
+     * Adds the given sprite to this store, copying its current state into the arrays.
+     * Has no effect if the sprite is already registered here.
+     */
+    void register(GSprite sprite) {
+        if (sprite.kinematics == this) {
+            return;
+        }
+        ensureCapacity(size + 1);
+        int slot = size++;
+        sprites[slot] = sprite;
+        sprite.joinKinematics(this, slot);
+    }
+
+    /**
+     * Makes sure the arrays can hold at least the given number of slots.
+     */
+    void ensureCapacity(int capacity) {
+        if (capacity > sprites.length) {
+            grow(Math.max(capacity, sprites.length * 2));
+        }
+    }
+
+    /**
+     * Returns the number of sprites in this store.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Advances every sprite in this store by one tick of animation:
+     * moves each one by its velocity, then adds its acceleration to its velocity.
+     * Follow with a call to finishStep.
+     */
+    void step() {
+        step++;
+        stepRange(0, size);
+    }
+
+    /**
+     * Integrates slots start .. end-1 only, without counting a new step.
+     * Ranges that do not overlap touch disjoint parts of the arrays, so
+     * GParallelUpdater can integrate several of them at once on different threads.
+     */
+    void stepRange(int start, int end) {
+        final float[] left = this.left, top = this.top, right = this.right, bottom = this.bottom;
+        final float[] cLeft = collisionLeft, cTop = collisionTop;
+        final float[] cRight = collisionRight, cBottom = collisionBottom;
+        final float[] dx = this.dx, dy = this.dy, ax = accelerationX, ay = accelerationY;
+        final boolean[] moved = this.moved;
+        for (int i = start; i < end; i++) {
+            float vx = dx[i];
+            float vy = dy[i];
+            left[i] += vx;
+            top[i] += vy;
+            right[i] += vx;
+            bottom[i] += vy;
+            cLeft[i] += vx;
+            cTop[i] += vy;
+            cRight[i] += vx;
+            cBottom[i] += vy;
+            dx[i] = vx + ax[i];
+            dy[i] = vy + ay[i];
+            moved[i] = vx != 0 || vy != 0;
+        }
+    }
+
+    /**
+     * Gives each sprite in this store the per-sprite work of a tick that is not
+     * plain arithmetic: reporting movement to the canvas, and advancing bitmap animation.
+     * Call right after step.
+     * @param notify whether the canvas needs to be told which sprites moved;
+     *               static sprites are always reported, so that their layer is re-baked
+     */
+    void finishStep(boolean notify) {
+        for (int i = 0; i < size; i++) {
+            GSprite sprite = sprites[i];
+            if (moved[i] && (notify || sprite.staticLayer != null) && sprite.gcanvas != null) {
+                sprite.gcanvas.objectChanged(sprite);
+            }
+            sprite.advanceBitmap();
+        }
+    }
+
+    /**
+     * Removes the given sprite from this store, copying its latest state back into it.
+     * Has no effect if the sprite is not registered here.
+     */
+    void unregister(GSprite sprite) {
+        if (sprite.kinematics != this) {
+            return;
+        }
+        int slot = sprite.kinematicsSlot;
+        sprite.leaveKinematics();
+
+        // fill the hole with the last sprite
+        size--;
+        if (slot != size) {
+            GSprite last = sprites[size];
+            moveSlot(size, slot);
+            sprites[slot] = last;
+            last.kinematicsSlot = slot;
+        }
+        sprites[size] = null;
+    }
+
+    /**
+     * Removes every sprite from this store, copying their latest state back into them.
+     */
+    void unregisterAll() {
+        for (int i = 0; i < size; i++) {
+            sprites[i].leaveKinematics();
+            sprites[i] = null;
+        }
+        size = 0;
+    }
+
+    // helper to enlarge all of the arrays
+    private void grow(int capacity) {
+        left = Arrays.copyOf(left, capacity);
+        top = Arrays.copyOf(top, capacity);
+        right = Arrays.copyOf(right, capacity);
+        bottom = Arrays.copyOf(bottom, capacity);
+        collisionLeft = Arrays.copyOf(collisionLeft, capacity);
+        collisionTop = Arrays.copyOf(collisionTop, capacity);
+        collisionRight = Arrays.copyOf(collisionRight, capacity);
+        collisionBottom = Arrays.copyOf(collisionBottom, capacity);
+        dx = Arrays.copyOf(dx, capacity);
+        dy = Arrays.copyOf(dy, capacity);
+        accelerationX = Arrays.copyOf(accelerationX, capacity);
+        accelerationY = Arrays.copyOf(accelerationY, capacity);
+        moved = Arrays.copyOf(moved, capacity);
+        sprites = Arrays.copyOf(sprites, capacity);
+    }
+
+    // helper to copy the state in one slot to another
+    private void moveSlot(int from, int to) {
+        left[to] = left[from];
+        top[to] = top[from];
+        right[to] = right[from];
+        bottom[to] = bottom[from];
+        collisionLeft[to] = collisionLeft[from];
+        collisionTop[to] = collisionTop[from];
+        collisionRight[to] = collisionRight[from];
+        collisionBottom[to] = collisionBottom[from];
+        dx[to] = dx[from];
+        dy[to] = dy[from];
+        accelerationX[to] = accelerationX[from];
+        accelerationY[to] = accelerationY[from];
+        moved[to] = moved[from];
+    }
+}
@@ -1,4 +1,7 @@
 /*
+ * @version 2026/10/16
+ * - caches width and height until the text, font, or size changes
+ * - added setWrapWidth; labels with line breaks or a wrap width are drawn from a cached StaticLayout
  * @version 2016/02/15
  * - added resource ID based methods to support string resources and l10n
  */
@@ -8,10 +11,17 @@ package stanford.androidlib.graphics;
 import android.content.Context;
 import android.graphics.*;
 import android.support.annotation.StringRes;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
 
 /**
  * The <code>GLabel</code> class is a graphical object whose appearance
  * consists of a text string.
+ * A label's text may contain line breaks ('\n'), and with setWrapWidth it can
+ * also wrap long lines at word boundaries.
+ * Measuring text is slow, so a label remembers its size and line layout and
+ * measures them again only after its text, font, or font size changes.
  */
 public class GLabel extends GObject {
     /**
@@ -30,6 +40,19 @@ public class GLabel extends GObject {
     // private fields
     private String label;
     private Typeface labelFont;
+    private float wrapWidth = 0;   // 0 means do not wrap
+
+    // cached metrics, valid while the label is drawn with the same text, paint, font, and size
+    private boolean metricsValid = false;
+    private String metricsLabel;
+    private Paint metricsPaint;
+    private Typeface metricsTypeface;
+    private float metricsTextSize;
+    private float cachedWidth;
+    private float cachedHeight;
+    private final Rect textBounds = new Rect();
+    private StaticLayout layout;   // null unless the text has several lines
+    private TextPaint layoutPaint;
 
     /**
      * Creates a new empty <code>GLabel</code> object with its top-left corner at (0, 0).
@@ -64,7 +87,7 @@ public class GLabel extends GObject {
         if (str == null) {
             throw new NullPointerException();
         }
-        paint.setStrokeWidth(0f);
+        mutablePaint().setStrokeWidth(0f);
         label = str;
         setFont(DEFAULT_FONT);
         setLocation(x, y);
@@ -91,7 +114,7 @@ public class GLabel extends GObject {
      * @throws NullPointerException if no string found for given resource ID
      */
     public GLabel(@StringRes int id, float x, float y) {
-        paint.setStrokeWidth(0f);
+        mutablePaint().setStrokeWidth(0f);
         label = getStringFromId(id);
         if (label == null) {
             throw new NullPointerException();
@@ -179,6 +202,15 @@ public class GLabel extends GObject {
         return labelFont.getStyle();
     }
 
+    /**
+     * Returns the number of lines of text shown by this label:
+     * 1, unless its text contains line breaks or is wrapped.
+     */
+    public int getLineCount() {
+        updateMetrics();
+        return layout == null ? 1 : layout.getLineCount();
+    }
+
     /**
      * Returns the string displayed by this object.
      *
@@ -210,9 +242,18 @@ public class GLabel extends GObject {
             throw new NullPointerException();
         }
 
-        // shift downward by height so that x/y coord passed represents top-left
-        Paint paint = getPaint();
-        canvas.drawText(this.label, getX(), getY() + getHeight(), paint);
+        updateMetrics();
+        if (layout == null) {
+            // shift downward by height so that x/y coord passed represents top-left
+            canvas.drawText(this.label, getX(), getY() + cachedHeight, paint);
+        } else {
+            // pick up any change of color since the layout was made
+            layoutPaint.set(paint);
+            canvas.save();
+            canvas.translate(getX(), getY());
+            layout.draw(canvas);
+            canvas.restore();
+        }
     }
 
     /**
@@ -223,7 +264,8 @@ public class GLabel extends GObject {
      */
     @Override
     public float getWidth() {
-        return getPaint().measureText(label);
+        updateMetrics();
+        return cachedWidth;
     }
 
     /**
@@ -234,16 +276,23 @@ public class GLabel extends GObject {
      */
     @Override
     public float getHeight() {
-        Rect bounds = new Rect();
-        getPaint().getTextBounds(label, 0, label.length(), bounds);
-        return bounds.height();
+        updateMetrics();
+        return cachedHeight;
     }
 
     /**
      * Returns the font size currently used by this label.
      */
     public float getFontSize() {
-        return getPaint().getTextSize();
+        return paint.getTextSize();
+    }
+
+    /**
+     * Returns the width at which this label wraps its text onto a new line,
+     * or 0 if it does not wrap.
+     */
+    public float getWrapWidth() {
+        return wrapWidth;
     }
 
     /**
@@ -253,7 +302,7 @@ public class GLabel extends GObject {
      */
     public GLabel setFontStyle(int style) {
         verifyFontStyle(style);
-        getPaint().setTypeface(Typeface.create(this.labelFont, style));
+        mutablePaint().setTypeface(Typeface.create(this.labelFont, style));
         repaint();
         return this;
     }
@@ -273,7 +322,7 @@ public class GLabel extends GObject {
             throw new NullPointerException();
         }
         labelFont = font;
-        getPaint().setTypeface(font);
+        mutablePaint().setTypeface(font);
         repaint();
         return this;
     }
@@ -288,7 +337,7 @@ public class GLabel extends GObject {
             throw new NullPointerException();
         }
         labelFont = font;
-        getPaint().setTypeface(font);
+        mutablePaint().setTypeface(font);
         setFontSize(size);
         return this;
     }
@@ -341,7 +390,7 @@ public class GLabel extends GObject {
         if (size <= 0) {
             throw new IllegalArgumentException("Illegal font size: " + size);
         }
-        getPaint().setTextSize(size);
+        mutablePaint().setTextSize(size);
         repaint();
         return this;
     }
@@ -376,6 +425,22 @@ public class GLabel extends GObject {
         return this;
     }
 
+    /**
+     * Sets the width at which this label wraps its text onto a new line,
+     * breaking lines between words where it can.
+     * Pass 0 to stop wrapping, so that only line breaks in the text start new lines.
+     * @throws IllegalArgumentException if width is negative
+     */
+    public GLabel setWrapWidth(float width) {
+        if (width < 0) {
+            throw new IllegalArgumentException("illegal wrap width: " + width);
+        }
+        wrapWidth = width;
+        metricsValid = false;
+        repaint();
+        return this;
+    }
+
     /**
      * Changes the string stored within the <code>GLabel</code> object, so that
      * a new text string appears on the display.
@@ -399,6 +464,45 @@ public class GLabel extends GObject {
         return setLabel(str);
     }
 
+    // helper to measure the text again, and lay out its lines, if the text or the
+    // paint's font or size has changed since it was last measured; the paint is
+    // checked directly so that changes made through getPaint() are noticed too
+    private void updateMetrics() {
+        Paint paint = this.paint;
+        if (metricsValid && metricsLabel == label && metricsPaint == paint
+                && metricsTypeface == paint.getTypeface() && metricsTextSize == paint.getTextSize()) {
+            return;
+        }
+        metricsValid = true;
+        metricsLabel = label;
+        metricsPaint = paint;
+        metricsTypeface = paint.getTypeface();
+        metricsTextSize = paint.getTextSize();
+
+        if (wrapWidth <= 0 && label.indexOf('\n') < 0) {
+            layout = null;
+            cachedWidth = paint.measureText(label);
+            paint.getTextBounds(label, 0, label.length(), textBounds);
+            cachedHeight = textBounds.height();
+        } else {
+            if (layoutPaint == null) {
+                layoutPaint = new TextPaint(paint);
+            } else {
+                layoutPaint.set(paint);
+            }
+            float width = wrapWidth > 0 ? wrapWidth : Layout.getDesiredWidth(label, layoutPaint);
+            layout = new StaticLayout(label, layoutPaint, Math.max(1, (int) Math.ceil(width)),
+                    Layout.Alignment.ALIGN_NORMAL, /* spacingMult */ 1f, /* spacingAdd */ 0f,
+                    /* includePad */ false);
+            float widest = 0;
+            for (int i = 0; i < layout.getLineCount(); i++) {
+                widest = Math.max(widest, layout.getLineWidth(i));
+            }
+            cachedWidth = widest;
+            cachedHeight = layout.getHeight();
+        }
+    }
+
     // helper to convert string resource ID into that string
     private String getStringFromId(@StringRes int id) {
         Context context = GCanvas.__getCanvasContext();
@@ -1,6 +1,7 @@
 package stanford.androidlib.graphics;
 
 import android.graphics.Canvas;
+import android.graphics.RectF;
 
 /**
  * The <code>GLine</code> class is a graphical object whose appearance consists
@@ -117,20 +118,19 @@ public class GLine extends GObject implements GScalable {
     public void paint(Canvas canvas) {
         float x = getX();
         float y = getY();
-        canvas.drawLine(x, y, (x + dx), (y + dy), getPaint());
+        canvas.drawLine(x, y, (x + dx), (y + dy), paint);
     }
 
     /**
-     * Returns the bounding box for this object.
-     *
-     * @usage GRectangle bounds = gline.getBounds();
-     * @return The bounding box for this object
+     * Sets the given rectangle to the bounding box for this object, and returns it.
+     * @throws NullPointerException if bounds is null
      */
     @Override
-    public GRectangle getBounds() {
-        float x = Math.min(getX(), getX() + dx);
-        float y = Math.min(getY(), getY() + dy);
-        return new GRectangle(x, y, Math.abs(dx), Math.abs(dy));
+    public RectF getBounds(RectF bounds) {
+        float x = getX();
+        float y = getY();
+        bounds.set(Math.min(x, x + dx), Math.min(y, y + dy), Math.max(x, x + dx), Math.max(y, y + dy));
+        return bounds;
     }
 
     /**
@@ -203,6 +203,7 @@ public class GLine extends GObject implements GScalable {
     public GLine setEndPoint(float x, float y) {
         dx = x - getX();
         dy = y - getY();
+        repaint();
         return this;
     }
 
@@ -228,6 +229,7 @@ public class GLine extends GObject implements GScalable {
     public GObject scale(float sx, float sy) {
         dx *= sx;
         dy *= sy;
+        repaint();
         return this;
     }
 
@@ -1,4 +1,17 @@
 /*
+ * @version 2026/10/16
+ * - notify enclosing GCanvas when bounds change, for its optional spatial index
+ * - setSize now calls repaint
+ * - setFillColor and setFilled now call repaint
+ * - repaint also tells the enclosing GCompound, if any, so it can refresh its cached bounds
+ * - added isStatic/setStatic to let a GCanvas draw unchanging objects from a cached layer
+ * - objects share interned paints from GResourceCache: setColor, setFillColor, and the new
+ *   setLineWidth switch to another shared paint, and getPaint/getColor/getFillColor copy it
+ * - added getBounds(RectF), getLocation(GPoint), and getSize(GDimension) that fill in an existing object;
+ *   subclasses now override getBounds(RectF) to change their bounds: contains, intersects, and GCanvas
+ *   read only that, and getBounds() is built from it and deprecated as a method to override
+ * - contains and intersects no longer allocate rectangles
+ * - remove() removes this object from the canvas whose scene it is in
  * @version 2017/02/28
  * - bug fix for setColor method
  * - added more methods that take a GPoint for x/y location
@@ -21,10 +34,20 @@ import android.support.annotation.CallSuper;
  * such as lines, ovals, rectangles, ellipses, and other polygons.
  */
 public abstract class GObject {
+    // scratch rectangle for contains and intersects, so that they allocate nothing;
+    // one per thread, since objects may be tested from more than one thread at once
+    private static final ThreadLocal<RectF> scratchBounds = new ThreadLocal<RectF>() {
+        @Override
+        protected RectF initialValue() {
+            return new RectF();
+        }
+    };
+
     // fields (instance variables)
     GCanvas gcanvas;
+    GCompound parent;   // compound this object has been added to, if any
     Canvas canvas;
-    Paint paint = new Paint();
+    Paint paint;
     float x;
     float y;
     float width;
@@ -33,14 +56,39 @@ public abstract class GObject {
     boolean isFilled;
     Paint fillColor;
 
+    // bookkeeping for the enclosing GCanvas (the scene list this object is in, if any,
+    // its z-order sort key within that list, and spatial index cells)
+    volatile GSceneList sceneList;
+    long zOrder;
+    int indexCellLeft;
+    int indexCellTop;
+    int indexCellRight;
+    int indexCellBottom;
+    int indexQueryStamp;
+    boolean indexLarge;
+    boolean indexDirty;
+
+    // area this object covered when last drawn, for the GCanvas's partial redraw
+    float drawnLeft;
+    float drawnTop;
+    float drawnRight;
+    float drawnBottom;
+    boolean drawnValid;
+    boolean redrawPending;
+
+    // whether this object rarely changes, and the GCanvas layer it is baked into, if any
+    boolean staticObject;
+    GStaticLayer staticLayer;
+
     /**
      * Constructs a new empty object.
      */
     public GObject() {
         // default paint is stroked and 2px wide
-        // because 1px paint basically doesn't show up
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setStrokeWidth(2f);
+        // because 1px paint basically doesn't show up;
+        // it is shared until this object changes it (see mutablePaint)
+        paint = GResourceCache.getPaint(Color.BLACK, Paint.Style.STROKE,
+                /* strokeWidth */ 2f, /* antiAlias */ false);
     }
 
     /**
@@ -82,7 +130,8 @@ public abstract class GObject {
      * Checks to see whether a point is inside the object.
      */
     public boolean contains(float x, float y) {
-        return getBounds().contains(x, y);
+        RectF bounds = getBounds(scratchBounds.get());
+        return x >= bounds.left && y >= bounds.top && x < bounds.right && y < bounds.bottom;
     }
 
     /**
@@ -93,7 +142,7 @@ public abstract class GObject {
         if (pt == null) {
             throw new NullPointerException();
         }
-        return getBounds().contains(pt);
+        return contains(pt.getX(), pt.getY());
     }
 
     /**
@@ -106,9 +155,32 @@ public abstract class GObject {
     /**
      * Returns the bounding box of this object, which is defined to be
      * the smallest rectangle that covers everything drawn by the figure.
+     * This creates a new GRectangle each call; see getBounds(RectF).
+     * @deprecated as a method to override: contains, intersects, and GCanvas's
+     * hit-testing, culling, and partial redraw all read getBounds(RectF) instead,
+     * so a subclass that overrides only this method changes none of them.
+     * Move such an override into getBounds(RectF), which this method calls.
      */
+    @Deprecated
     public GRectangle getBounds() {
-        return new GRectangle(getX(), getY(), getWidth(), getHeight());
+        RectF bounds = getBounds(new RectF());
+        return new GRectangle(bounds.left, bounds.top, bounds.width(), bounds.height());
+    }
+
+    /**
+     * Sets the given rectangle to the bounding box of this object, the same area
+     * that getBounds returns, and returns it.
+     * Unlike getBounds, this does not create a new object, so it is better for code
+     * that checks the bounds of many objects on every frame.
+     * This is the method to override in a subclass whose bounds are not just its
+     * location and size: contains, intersects, and getBounds() all go through it.
+     * @throws NullPointerException if bounds is null
+     */
+    public RectF getBounds(RectF bounds) {
+        float x = getX();
+        float y = getY();
+        bounds.set(x, y, x + getWidth(), y + getHeight());
+        return bounds;
     }
 
     /**
@@ -129,7 +201,7 @@ public abstract class GObject {
      * Returns the color used to display this object.
      */
     public final Paint getColor() {
-        return paint;
+        return mutablePaint();
     }
 
     /**
@@ -141,7 +213,13 @@ public abstract class GObject {
      * @return The color used to display the filled region of this object
      */
     public final Paint getFillColor() {
-        return (fillColor == null) ? getColor() : fillColor;
+        if (fillColor == null) {
+            return getColor();
+        }
+        if (GResourceCache.isShared(fillColor)) {
+            fillColor = new Paint(fillColor);
+        }
+        return fillColor;
     }
 
     /**
@@ -166,6 +244,13 @@ public abstract class GObject {
         return getX();
     }
 
+    /**
+     * Returns the width of the lines used to draw this object's outline, in pixels.
+     */
+    public final float getLineWidth() {
+        return paint.getStrokeWidth();
+    }
+
     /**
      * Returns the location of this object as a GPoint.
      */
@@ -173,11 +258,20 @@ public abstract class GObject {
         return new GPoint(getX(), getY());
     }
 
+    /**
+     * Sets the given point to the location of this object, and returns it.
+     * Unlike getLocation(), this does not create a new object.
+     * @throws NullPointerException if location is null
+     */
+    public final GPoint getLocation(GPoint location) {
+        return location.setLocation(getX(), getY());
+    }
+
     /**
      * Returns the color used to display this object.
      */
     public final Paint getPaint() {
-        return paint;
+        return mutablePaint();
     }
 
     /**
@@ -194,6 +288,16 @@ public abstract class GObject {
         return new GDimension(getWidth(), getHeight());
     }
 
+    /**
+     * Sets the given dimension to the size of this object's bounding box, and returns it.
+     * Unlike getSize(), this does not create a new object.
+     * @throws NullPointerException if size is null
+     */
+    public final GDimension getSize(GDimension size) {
+        size.setSize(getWidth(), getHeight());
+        return size;
+    }
+
     /**
      * Returns this object's top y-coordinate.
      */
@@ -227,7 +331,19 @@ public abstract class GObject {
      * @throws NullPointerException if obj is null
      */
     public final boolean intersects(GObject obj) {
-        return getBounds().intersects(obj.getBounds());
+        if (obj == null) {
+            throw new NullPointerException();
+        }
+        // read this object's bounds out of the scratch rectangle before the other
+        // object's getBounds runs, since that may test other objects on this thread
+        RectF scratch = scratchBounds.get();
+        RectF bounds = getBounds(scratch);
+        float left = bounds.left;
+        float top = bounds.top;
+        float right = bounds.right;
+        float bottom = bounds.bottom;
+        bounds = obj.getBounds(scratch);
+        return left <= bounds.right && bounds.left <= right && top <= bounds.bottom && bounds.top <= bottom;
     }
 
     /**
@@ -240,6 +356,14 @@ public abstract class GObject {
         return isFilled;
     }
 
+    /**
+     * Returns whether this object has been marked as static with setStatic.
+     * Initially false.
+     */
+    public final boolean isStatic() {
+        return staticObject;
+    }
+
     /**
      * Checks to see whether this object is visible.
      */
@@ -247,6 +371,27 @@ public abstract class GObject {
         return visible;
     }
 
+    /**
+     * Returns the paint to fill this object with, without copying it;
+     * for use by paint methods, which must not modify it.
+     */
+    Paint fillPaint() {
+        return (fillColor == null) ? paint : fillColor;
+    }
+
+    /**
+     * Returns this object's paint, first replacing it with a private copy if it is
+     * a shared paint from GResourceCache, so that the caller can modify it.
+     * Code in this package must change the paint only through this method,
+     * and should read the paint field directly when it only draws with it.
+     */
+    Paint mutablePaint() {
+        if (GResourceCache.isShared(paint)) {
+            paint = new Paint(paint);
+        }
+        return paint;
+    }
+
     /**
      * Moves the object on the screen using the displacements dx and dy.
      */
@@ -303,7 +448,10 @@ public abstract class GObject {
      * Equivalent to calling remove(thisGObject) on the canvas.
      */
     public GObject remove() {
-        if (this.gcanvas != null) {
+        GSceneList list = sceneList;
+        if (list != null) {
+            list.canvas.remove(this);
+        } else if (this.gcanvas != null) {
             this.gcanvas.remove(this);
         }
         return this;
@@ -315,8 +463,14 @@ public abstract class GObject {
      */
     @CallSuper
     public void repaint() {
-        if (gcanvas != null && !gcanvas.isAnimated()) {
-            gcanvas.postInvalidate();
+        if (gcanvas != null) {
+            gcanvas.objectChanged(this);
+            if (!gcanvas.isAnimated()) {
+                gcanvas.postInvalidate();
+            }
+        }
+        if (parent != null) {
+            parent.childChanged();
         }
     }
 
@@ -474,10 +628,14 @@ public abstract class GObject {
         }
         if (this.paint == null) {
             this.paint = paint;
+        } else if (GResourceCache.isShared(this.paint)) {
+            // switch to the shared paint that differs from this one only in color
+            this.paint = GResourceCache.getPaint(paint.getColor(), this.paint.getStyle(),
+                    this.paint.getStrokeWidth(), this.paint.isAntiAlias());
         } else {
             // BUGFIX: copy over the color from the parameter paint,
             // while retaining other attributes of this.paint (e.g. font size)
-            GColor.matchColor(/* src */ paint, /* dst */ this.paint);
+            GColor.matchColor(/* src */ paint, /* dst */ mutablePaint());
         }
         repaint();
         return this;
@@ -485,6 +643,9 @@ public abstract class GObject {
 
     /**
      * Sets the color used to display the filled region of this object.
+     * A plain color, such as one of the GColor constants, is shared with the other
+     * objects filled with it; a paint with a shader or other effects is copied.
+     * A shadow layer on a plain color is not kept.
      *
      * @usage gobj.setFillColor(color);
      * @param color The color used to display the filled region of this object
@@ -494,9 +655,13 @@ public abstract class GObject {
         if (color == null) {
             throw new NullPointerException();
         }
-        fillColor = new Paint(color);
-        fillColor.setStyle(Paint.Style.FILL);
+        fillColor = GResourceCache.getFillPaint(color);
+        if (fillColor == null) {
+            fillColor = new Paint(color);
+            fillColor.setStyle(Paint.Style.FILL);
+        }
         isFilled = true;
+        repaint();
         return this;
     }
 
@@ -511,6 +676,7 @@ public abstract class GObject {
         if (!fill) {
             this.fillColor = null;
         }
+        repaint();
         return this;
     }
 
@@ -530,6 +696,23 @@ public abstract class GObject {
         return this;
     }
 
+    /**
+     * Sets the width of the lines used to draw this object's outline, in pixels.
+     * @throws IllegalArgumentException if width is negative
+     */
+    public GObject setLineWidth(float width) {
+        if (width < 0 || Float.isNaN(width)) {
+            throw new IllegalArgumentException("illegal line width: " + width);
+        }
+        if (GResourceCache.isShared(paint)) {
+            paint = GResourceCache.getPaint(paint.getColor(), paint.getStyle(), width, paint.isAntiAlias());
+        } else {
+            paint.setStrokeWidth(width);
+        }
+        repaint();
+        return this;
+    }
+
     /**
      * Sets the location of this object to the point (x, y).
      */
@@ -609,6 +792,32 @@ public abstract class GObject {
         }
         this.width = width;
         this.height = height;
+        repaint();
+        return this;
+    }
+
+    /**
+     * Sets whether this object is static, meaning that it rarely changes: a background,
+     * the frame around a score display, or a piece of scenery.
+     * The GCanvas draws each run of static objects that are next to each other in its
+     * Z-ordering into a bitmap once, then draws just that bitmap on every frame, in the
+     * same place in the Z-ordering, instead of painting each object again.
+     * Static objects can still be changed; any change to one (including to the
+     * contents of a static GCompound) re-renders its layer on the next frame,
+     * which is slower than drawing the object normally, so only mark objects static
+     * if they really do stay the same for many frames.
+     * Use sendToBack, sendToFront, and so on to place static layers behind or in
+     * front of your other objects; keeping your static objects together in the
+     * Z-ordering gives fewer, larger layers.
+     * Only affects objects added directly to a GCanvas.
+     */
+    public GObject setStatic(boolean isStatic) {
+        if (staticObject != isStatic) {
+            staticObject = isStatic;
+            if (gcanvas != null) {
+                gcanvas.staticChanged(this);
+            }
+        }
         return this;
     }
 
@@ -20,6 +20,7 @@ public class GOval extends GObject
 
     // private fields
     private boolean useArcs;
+    private final RectF ovalRect = new RectF();   // reused by paint
 
     /**
      * Constructs a new 0x0 oval, positioned at the origin.
@@ -119,13 +120,14 @@ public class GOval extends GObject
      * @noshow
      */
     public void paint(Canvas canvas) {
+        ovalRect.set(getX(), getY(), getRightX(), getBottomY());
         if (isFilled()) {
             // fill interior first
-            Paint fill = getFillColor();
-            canvas.drawOval(new RectF(getX(), getY(), getRightX(), getBottomY()), fill);
+            Paint fill = fillPaint();
+            canvas.drawOval(ovalRect, fill);
         }
 
         // draw outline second
-        canvas.drawOval(new RectF(getX(), getY(), getRightX(), getBottomY()), getPaint());
+        canvas.drawOval(ovalRect, paint);
     }
 }
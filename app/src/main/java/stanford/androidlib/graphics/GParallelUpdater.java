@@ -0,0 +1,234 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import java.util.concurrent.*;
+
+/**
+ * Runs the integration loop of a GKinematics store on several threads at once.
+ * The store's slots are split into one contiguous range per thread; the calling
+ * thread integrates the last range itself, then waits at a barrier until every
+ * worker has finished before returning.  Because each sprite's arithmetic is
+ * independent of every other sprite's and is done in the same order as the
+ * serial loop, the results are bit-for-bit the same as a single-threaded step.
+ *
+ * <p>
+ * Below a threshold number of sprites the overhead of waking the workers costs
+ * more than it saves, so the step is done on the calling thread alone.
+ * calibrate() measures where that crossover lies on the current device.
+ * </p>
+ *
+ * <p>
+ * This class is used internally by GCanvas; turn it on by calling
+ * GCanvas.setParallelUpdateEnabled(true).
+ * </p>
+ */
+final class GParallelUpdater {
+    // sprite counts tried by calibrate, and how many steps are timed at each
+    private static final int[] CALIBRATION_SIZES = {500, 1000, 2000, 4000, 8000, 16000, 32000, 64000};
+    private static final int CALIBRATION_STEPS = 40;
+
+    // idle workers exit after this long, so an unused updater holds no threads
+    private static final long KEEP_ALIVE_SECONDS = 5;
+
+    // private fields
+    private final ThreadPoolExecutor pool;
+    private final Range[] ranges;   // one per worker, reused on every step
+    private int threshold = GCanvas.DEFAULT_PARALLEL_UPDATE_THRESHOLD;
+    private int pending;            // workers still running; guarded by this
+    private Throwable failure;      // first exception thrown by a worker; guarded by this
+
+    /**
+     * Constructs a new updater with one worker per available processor,
+     * minus one for the calling thread.
+     */
+    GParallelUpdater() {
+        int workers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        ranges = new Range[workers];
+        for (int i = 0; i < workers; i++) {
+            ranges[i] = new Range();
+        }
+        pool = new ThreadPoolExecutor(workers, workers, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private int count = 0;
+
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "GParallelUpdater-" + (++count));
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Times serial and parallel steps of a scratch store at a series of sizes, and
+     * returns the smallest sprite count at which the parallel step was faster,
+     * or Integer.MAX_VALUE if it never was (for example, on a single-core device).
+     * Takes on the order of a hundred milliseconds; the store's contents are discarded.
+     */
+    int calibrate() {
+        if (getThreadCount() < 2) {
+            return Integer.MAX_VALUE;
+        }
+        GKinematics scratch = new GKinematics();
+        int max = CALIBRATION_SIZES[CALIBRATION_SIZES.length - 1];
+        scratch.ensureCapacity(max);
+        for (int i = 0; i < max; i++) {
+            scratch.dx[i] = i % 7 - 3;
+            scratch.dy[i] = i % 5 - 2;
+            scratch.accelerationY[i] = 0.01f;
+        }
+
+        for (int size : CALIBRATION_SIZES) {
+            long serial = Long.MAX_VALUE;
+            long parallel = Long.MAX_VALUE;
+            for (int i = 0; i < CALIBRATION_STEPS; i++) {
+                // alternate, and keep the best of each, to filter out GC pauses and frequency scaling
+                long start = System.nanoTime();
+                scratch.stepRange(0, size);
+                serial = Math.min(serial, System.nanoTime() - start);
+                start = System.nanoTime();
+                stepParallel(scratch, size);
+                parallel = Math.min(parallel, System.nanoTime() - start);
+            }
+            if (parallel < serial) {
+                return size;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the number of threads that share a parallel step, including the caller.
+     */
+    int getThreadCount() {
+        return ranges.length + 1;
+    }
+
+    /**
+     * Returns the number of sprites below which steps stay single-threaded.
+     */
+    int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Sets the number of sprites below which steps stay single-threaded.
+     */
+    void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Stops the worker threads.  The updater must not be used afterward.
+     */
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Advances every sprite in the given store by one tick, as GKinematics.step does,
+     * splitting the work across threads if the store holds at least threshold sprites.
+     * Returns once all of the sprites have been moved.
+     */
+    void step(GKinematics store) {
+        store.step++;
+        int size = store.size();
+        if (size < threshold) {
+            store.stepRange(0, size);
+        } else {
+            stepParallel(store, size);
+        }
+    }
+
+    /**
+     * Integrates slots 0 .. size-1 of the given store across the workers and this
+     * thread, whatever the threshold, without counting a new step.
+     * Returns once every range is done.
+     */
+    void stepParallel(GKinematics store, int size) {
+        int threads = getThreadCount();
+        int chunk = (size + threads - 1) / threads;
+        synchronized (this) {
+            pending = 0;
+            failure = null;
+        }
+        int start = 0;
+        for (Range range : ranges) {
+            int end = Math.min(size, start + chunk);
+            if (start >= end) {
+                break;
+            }
+            range.set(store, start, end);
+            synchronized (this) {
+                pending++;
+            }
+            pool.execute(range);
+            start = end;
+        }
+
+        // do the last range here rather than sit idle
+        if (start < size) {
+            store.stepRange(start, size);
+        }
+
+        // barrier: wait for every worker before anyone reads the arrays
+        synchronized (this) {
+            boolean interrupted = false;
+            while (pending > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException ie) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw new RuntimeException("error while updating sprites", failure);
+            }
+        }
+    }
+
+    // helper called by each worker when its range is done
+    private synchronized void rangeFinished(Throwable error) {
+        if (error != null && failure == null) {
+            failure = error;
+        }
+        pending--;
+        if (pending == 0) {
+            notifyAll();
+        }
+    }
+
+    /*
+     * One worker's share of a step: a contiguous range of slots in a store.
+     */
+    private class Range implements Runnable {
+        private GKinematics store;
+        private int start;
+        private int end;
+
+        void set(GKinematics store, int start, int end) {
+            this.store = store;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            Throwable error = null;
+            try {
+                store.stepRange(start, end);
+            } catch (Throwable t) {
+                error = t;
+            }
+            rangeFinished(error);
+        }
+    }
+}
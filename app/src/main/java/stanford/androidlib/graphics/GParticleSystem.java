@@ -0,0 +1,616 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import android.graphics.*;
+
+import java.util.*;
+
+import stanford.androidlib.util.RandomGenerator;
+
+/**
+ * A GParticleSystem is a graphical object that draws and animates a large number
+ * of small dots (particles), for effects such as explosions, sparks, smoke, and trails.
+ * Each particle has a position, a velocity, and a lifetime; as it ages, its color
+ * fades from the system's start color to its end color, and when its lifetime is up
+ * it disappears.
+ *
+ * <pre>
+ * GParticleSystem sparks = new GParticleSystem();
+ * sparks.setColors(GColor.YELLOW, GColor.makeColor(0, 255, 0, 0));
+ * sparks.setGravity(0, 300);
+ * add(sparks, x, y);
+ * sparks.emit(new GParticleSystem.Emitter().setSpeed(100, 250).setLife(0.5f, 1), 200);
+ * </pre>
+ *
+ * <p>
+ * Particles are not separate objects.  Their data is kept in parallel arrays of
+ * numbers that are allocated once, when the system is constructed, and reused as
+ * particles die and new ones are emitted.  This means a single system can animate
+ * tens of thousands of particles without slowing the app down with garbage collection.
+ * If the system is full, newly emitted particles are dropped.
+ * </p>
+ *
+ * <p>
+ * A particle system moves its particles automatically on every tick of animation
+ * once added to an animated GCanvas.  Unlike GSprite velocities, which are in pixels
+ * per frame, particle speeds and forces are in pixels per second, so effects look the
+ * same at any frame rate.
+ * Particles are emitted relative to the system's x/y location, but once emitted
+ * they move independently, so moving the system leaves a trail behind it.
+ * </p>
+ */
+public class GParticleSystem extends GObject {
+    /** Default maximum number of particles alive at once. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /** Default particle diameter, in pixels. */
+    public static final float DEFAULT_PARTICLE_SIZE = 4f;
+
+    // number of color steps particles are grouped into for drawing
+    private static final int COLOR_STEPS = 16;
+
+    /**
+     * An Emitter describes how new particles are launched: from where, in which
+     * direction, how fast, and how long they live.
+     * Add an emitter to a system with addEmitter to emit particles continuously at
+     * its rate, or pass it to emit to launch a one-time burst.
+     * Directions are in degrees, with 0 pointing right and 90 pointing up.
+     */
+    public static class Emitter {
+        private float x = 0;
+        private float y = 0;
+        private float rate = 0;
+        private float direction = 0;
+        private float spread = 360;
+        private float minSpeed = 50;
+        private float maxSpeed = 100;
+        private float minLife = 1;
+        private float maxLife = 1;
+        private boolean enabled = true;
+        private float pending = 0;   // fraction of a particle carried between ticks
+
+        /**
+         * Constructs a new emitter at the system's location that sends particles in
+         * all directions at 50-100 pixels per second, each living for 1 second.
+         * Its rate is 0, so it only emits particles when passed to emit.
+         */
+        public Emitter() {
+            // empty
+        }
+
+        /**
+         * Returns the direction in which particles are launched, in degrees.
+         */
+        public float getDirection() {
+            return direction;
+        }
+
+        /**
+         * Returns the number of particles emitted per second while added to a system.
+         */
+        public float getRate() {
+            return rate;
+        }
+
+        /**
+         * Returns the width of the range of launch directions, in degrees.
+         */
+        public float getSpread() {
+            return spread;
+        }
+
+        /**
+         * Returns the x-coordinate of this emitter, relative to its system's location.
+         */
+        public float getX() {
+            return x;
+        }
+
+        /**
+         * Returns the y-coordinate of this emitter, relative to its system's location.
+         */
+        public float getY() {
+            return y;
+        }
+
+        /**
+         * Returns whether this emitter is currently emitting particles at its rate.
+         * Default true.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets the direction in which particles are launched, in degrees,
+         * and the width of the range of directions around it.
+         * For example, a direction of 90 and spread of 30 launches particles
+         * upward, up to 15 degrees to either side.
+         * @throws IllegalArgumentException if spread is negative
+         */
+        public Emitter setDirection(float direction, float spread) {
+            if (spread < 0) {
+                throw new IllegalArgumentException("spread must be >= 0: " + spread);
+            }
+            this.direction = direction;
+            this.spread = spread;
+            return this;
+        }
+
+        /**
+         * Sets whether this emitter is currently emitting particles at its rate.
+         */
+        public Emitter setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            if (!enabled) {
+                pending = 0;
+            }
+            return this;
+        }
+
+        /**
+         * Sets how long each emitted particle lives, as a random number of seconds
+         * between the given minimum and maximum.
+         * @throws IllegalArgumentException if min is not positive or max is less than min
+         */
+        public Emitter setLife(float min, float max) {
+            if (min <= 0 || max < min) {
+                throw new IllegalArgumentException("illegal life range: " + min + ", " + max);
+            }
+            this.minLife = min;
+            this.maxLife = max;
+            return this;
+        }
+
+        /**
+         * Sets the location of this emitter, relative to its system's location.
+         */
+        public Emitter setLocation(float x, float y) {
+            this.x = x;
+            this.y = y;
+            return this;
+        }
+
+        /**
+         * Sets the number of particles emitted per second while added to a system.
+         * @throws IllegalArgumentException if rate is negative
+         */
+        public Emitter setRate(float rate) {
+            if (rate < 0) {
+                throw new IllegalArgumentException("rate must be >= 0: " + rate);
+            }
+            this.rate = rate;
+            return this;
+        }
+
+        /**
+         * Sets the launch speed of each emitted particle, as a random number of
+         * pixels per second between the given minimum and maximum.
+         * @throws IllegalArgumentException if min is negative or max is less than min
+         */
+        public Emitter setSpeed(float min, float max) {
+            if (min < 0 || max < min) {
+                throw new IllegalArgumentException("illegal speed range: " + min + ", " + max);
+            }
+            this.minSpeed = min;
+            this.maxSpeed = max;
+            return this;
+        }
+    }
+
+    // particle data, stored in parallel arrays; live particles are at indexes [0, count)
+    private final float[] particleX;
+    private final float[] particleY;
+    private final float[] velocityX;
+    private final float[] velocityY;
+    private final float[] age;
+    private final float[] life;
+    private int count = 0;
+
+    // reused buffers for drawing
+    private final float[] points;
+    private final int[] stepStart = new int[COLOR_STEPS + 1];
+
+    // forces and appearance
+    private float gravityX = 0;
+    private float gravityY = 0;
+    private float drag = 0;
+    private float particleSize = DEFAULT_PARTICLE_SIZE;
+    private int startColor = Color.WHITE;
+    private int endColor = Color.WHITE;
+    private final Paint particlePaint = new Paint();
+
+    // bounding box of live particles, updated on each tick
+    private float minX;
+    private float minY;
+    private float maxX;
+    private float maxY;
+
+    private final List<Emitter> emitters = new ArrayList<>();
+    private final RandomGenerator random = new RandomGenerator();
+
+    /**
+     * Constructs a new empty particle system at (0, 0) that can hold up to
+     * DEFAULT_CAPACITY particles at once.
+     */
+    public GParticleSystem() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new empty particle system at (0, 0) that can hold up to
+     * the given number of particles at once.
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public GParticleSystem(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0: " + capacity);
+        }
+        particleX = new float[capacity];
+        particleY = new float[capacity];
+        velocityX = new float[capacity];
+        velocityY = new float[capacity];
+        age = new float[capacity];
+        life = new float[capacity];
+        points = new float[capacity * 2];
+        particlePaint.setStyle(Paint.Style.STROKE);
+        particlePaint.setStrokeCap(Paint.Cap.ROUND);
+        particlePaint.setAntiAlias(true);
+        particlePaint.setStrokeWidth(particleSize);
+    }
+
+    /**
+     * Constructs a new empty particle system that can hold up to the given number
+     * of particles at once, and adds it to the given canvas.
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public GParticleSystem(GCanvas canvas, int capacity) {
+        this(capacity);
+        canvas.add(this);
+    }
+
+    /**
+     * Adds the given emitter to this system, so that it emits particles continuously
+     * at its rate on every tick of animation.
+     * @throws NullPointerException if emitter is null
+     */
+    public GParticleSystem addEmitter(Emitter emitter) {
+        if (emitter == null) {
+            throw new NullPointerException();
+        }
+        emitters.add(emitter);
+        return this;
+    }
+
+    /**
+     * Removes all live particles from this system.
+     * Emitters are not affected.
+     */
+    public GParticleSystem clear() {
+        count = 0;
+        repaint();
+        return this;
+    }
+
+    /**
+     * Returns false; particle systems do not respond to being touched.
+     */
+    @Override
+    public boolean contains(float x, float y) {
+        return false;
+    }
+
+    /**
+     * Immediately launches the given number of particles from the given emitter,
+     * regardless of its rate or whether it has been added to this system.
+     * If there is not room for all of them, the extra particles are dropped.
+     * @throws NullPointerException if emitter is null
+     * @throws IllegalArgumentException if particles is negative
+     */
+    public GParticleSystem emit(Emitter emitter, int particles) {
+        if (emitter == null) {
+            throw new NullPointerException();
+        }
+        if (particles < 0) {
+            throw new IllegalArgumentException("must be >= 0: " + particles);
+        }
+        int wasCount = count;
+        for (int i = 0; i < particles && count < particleX.length; i++) {
+            spawn(emitter);
+        }
+        if (count != wasCount) {
+            repaint();
+        }
+        return this;
+    }
+
+    /**
+     * Sets the given rectangle to the smallest rectangle enclosing every live particle,
+     * or an empty rectangle at the system's location if there are none, and returns it.
+     * @throws NullPointerException if bounds is null
+     */
+    @Override
+    public RectF getBounds(RectF bounds) {
+        if (count == 0) {
+            bounds.set(getX(), getY(), getX(), getY());
+        } else {
+            float pad = particleSize / 2;
+            bounds.set(minX - pad, minY - pad, maxX + pad, maxY + pad);
+        }
+        return bounds;
+    }
+
+    /**
+     * Returns the maximum number of particles this system can hold at once.
+     */
+    public int getCapacity() {
+        return particleX.length;
+    }
+
+    /**
+     * Returns the number of particles currently alive in this system.
+     */
+    public int getParticleCount() {
+        return count;
+    }
+
+    /**
+     * Returns the diameter of each particle, in pixels.
+     */
+    public float getParticleSize() {
+        return particleSize;
+    }
+
+    /**
+     * Draws all live particles onto the given canvas.
+     * Particles are drawn in a handful of batches, grouped by how far along
+     * their lifetime they are, rather than one at a time.
+     */
+    @Override
+    public void paint(Canvas canvas) {
+        if (!visible || count == 0) {
+            return;
+        }
+        if (startColor == endColor) {
+            for (int i = 0; i < count; i++) {
+                points[2 * i] = particleX[i];
+                points[2 * i + 1] = particleY[i];
+            }
+            particlePaint.setColor(startColor);
+            canvas.drawPoints(points, 0, count * 2, particlePaint);
+            return;
+        }
+
+        // sort particles into color steps by age (counting sort), then draw each step at once
+        Arrays.fill(stepStart, 0);
+        for (int i = 0; i < count; i++) {
+            stepStart[colorStep(i) + 1]++;
+        }
+        for (int step = 0; step < COLOR_STEPS; step++) {
+            stepStart[step + 1] += stepStart[step];
+        }
+        for (int i = 0; i < count; i++) {
+            int step = colorStep(i);
+            int slot = stepStart[step]++;
+            points[2 * slot] = particleX[i];
+            points[2 * slot + 1] = particleY[i];
+        }
+        // stepStart[step] now holds the end of each step, which is the start of the next
+        int start = 0;
+        for (int step = 0; step < COLOR_STEPS; step++) {
+            int end = stepStart[step];
+            if (end > start) {
+                particlePaint.setColor(blend(startColor, endColor, (step + 0.5f) / COLOR_STEPS));
+                canvas.drawPoints(points, start * 2, (end - start) * 2, particlePaint);
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Removes the given emitter from this system, if it was added.
+     */
+    public GParticleSystem removeEmitter(Emitter emitter) {
+        emitters.remove(emitter);
+        return this;
+    }
+
+    /**
+     * Sets the color of every particle for its whole lifetime.
+     * @throws NullPointerException if paint is null
+     */
+    @Override
+    public GParticleSystem setColor(Paint paint) {
+        if (paint == null) {
+            throw new NullPointerException();
+        }
+        return setColors(paint, paint);
+    }
+
+    /**
+     * Sets the colors particles fade between: each particle starts with the start
+     * color when emitted and gradually changes to the end color by the time it dies.
+     * Use an end color with an alpha of 0 to make particles fade out.
+     * @throws NullPointerException if either color is null
+     */
+    public GParticleSystem setColors(Paint start, Paint end) {
+        if (start == null || end == null) {
+            throw new NullPointerException();
+        }
+        this.startColor = start.getColor();
+        this.endColor = end.getColor();
+        repaint();
+        return this;
+    }
+
+    /**
+     * Sets how strongly particles are slowed down by air resistance.
+     * A drag of 1 makes particles lose about 63% of their speed each second;
+     * 0 (the default) means no drag.
+     * @throws IllegalArgumentException if drag is negative
+     */
+    public GParticleSystem setDrag(float drag) {
+        if (drag < 0) {
+            throw new IllegalArgumentException("drag must be >= 0: " + drag);
+        }
+        this.drag = drag;
+        return this;
+    }
+
+    /**
+     * Sets a constant acceleration applied to every particle, in pixels per second
+     * per second.  For example, setGravity(0, 500) pulls particles downward.
+     */
+    public GParticleSystem setGravity(float gravityX, float gravityY) {
+        this.gravityX = gravityX;
+        this.gravityY = gravityY;
+        return this;
+    }
+
+    /**
+     * Sets the diameter of each particle, in pixels.
+     * @throws IllegalArgumentException if size is not positive
+     */
+    public GParticleSystem setParticleSize(float size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be > 0: " + size);
+        }
+        this.particleSize = size;
+        particlePaint.setStrokeWidth(size);
+        repaint();
+        return this;
+    }
+
+    /**
+     * Sets whether particles are drawn as circles (true, the default) or squares.
+     * Squares are slightly faster to draw.
+     */
+    public GParticleSystem setRoundParticles(boolean round) {
+        particlePaint.setStrokeCap(round ? Paint.Cap.ROUND : Paint.Cap.SQUARE);
+        repaint();
+        return this;
+    }
+
+    /**
+     * Returns a string representation of this particle system, for debugging.
+     */
+    @Override
+    public String toString() {
+        return "GParticleSystem{x=" + getX() + ", y=" + getY()
+                + ", particles=" + count + "/" + particleX.length + "}";
+    }
+
+    /**
+     * Advances every particle by the given number of seconds: ages them, removes
+     * those whose lifetime is over, applies gravity and drag, moves them, and emits
+     * new particles from this system's emitters.
+     * Called automatically by GCanvas on every tick of animation.
+     */
+    public void update(float elapsedSeconds) {
+        if (elapsedSeconds <= 0) {
+            return;
+        }
+        boolean hadParticles = count > 0;
+        float damping = drag == 0 ? 1 : (float) Math.exp(-drag * elapsedSeconds);
+        float dvx = gravityX * elapsedSeconds;
+        float dvy = gravityY * elapsedSeconds;
+        float[] px = particleX;
+        float[] py = particleY;
+        float[] vx = velocityX;
+        float[] vy = velocityY;
+        float left = Float.MAX_VALUE;
+        float top = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE;
+        float bottom = -Float.MAX_VALUE;
+
+        int i = 0;
+        while (i < count) {
+            age[i] += elapsedSeconds;
+            if (age[i] >= life[i]) {
+                // dead; move the last live particle into this slot
+                count--;
+                px[i] = px[count];
+                py[i] = py[count];
+                vx[i] = vx[count];
+                vy[i] = vy[count];
+                age[i] = age[count];
+                life[i] = life[count];
+                continue;
+            }
+            vx[i] = (vx[i] + dvx) * damping;
+            vy[i] = (vy[i] + dvy) * damping;
+            px[i] += vx[i] * elapsedSeconds;
+            py[i] += vy[i] * elapsedSeconds;
+            left = Math.min(left, px[i]);
+            top = Math.min(top, py[i]);
+            right = Math.max(right, px[i]);
+            bottom = Math.max(bottom, py[i]);
+            i++;
+        }
+        minX = left;
+        minY = top;
+        maxX = right;
+        maxY = bottom;
+
+        for (int e = 0; e < emitters.size(); e++) {
+            Emitter emitter = emitters.get(e);
+            if (emitter.enabled && emitter.rate > 0) {
+                emitter.pending += emitter.rate * elapsedSeconds;
+                while (emitter.pending >= 1 && count < px.length) {
+                    spawn(emitter);
+                    emitter.pending--;
+                }
+                if (count == px.length) {
+                    emitter.pending = 0;   // full; don't save up a burst for later
+                }
+            }
+        }
+
+        if ((hadParticles || count > 0) && gcanvas != null) {
+            gcanvas.objectChanged(this);
+        }
+    }
+
+    // helper that launches one particle from the given emitter; caller ensures there is room
+    private void spawn(Emitter emitter) {
+        int i = count++;
+        float px = getX() + emitter.x;
+        float py = getY() + emitter.y;
+        float angle = emitter.direction + (random.nextFloat() - 0.5f) * emitter.spread;
+        float speed = random.nextFloat(emitter.minSpeed, emitter.maxSpeed);
+        particleX[i] = px;
+        particleY[i] = py;
+        velocityX[i] = speed * GMath.cosDegrees(angle);
+        velocityY[i] = -speed * GMath.sinDegrees(angle);
+        age[i] = 0;
+        life[i] = random.nextFloat(emitter.minLife, emitter.maxLife);
+        if (count == 1) {
+            minX = maxX = px;
+            minY = maxY = py;
+        } else {
+            minX = Math.min(minX, px);
+            minY = Math.min(minY, py);
+            maxX = Math.max(maxX, px);
+            maxY = Math.max(maxY, py);
+        }
+    }
+
+    // helper that returns which color step the given particle is in, based on its age
+    private int colorStep(int i) {
+        int step = (int) (age[i] / life[i] * COLOR_STEPS);
+        return Math.max(0, Math.min(COLOR_STEPS - 1, step));
+    }
+
+    // helper that returns the color the given fraction of the way from color1 to color2
+    private static int blend(int color1, int color2, float fraction) {
+        int a = Math.round(Color.alpha(color1) + (Color.alpha(color2) - Color.alpha(color1)) * fraction);
+        int r = Math.round(Color.red(color1) + (Color.red(color2) - Color.red(color1)) * fraction);
+        int g = Math.round(Color.green(color1) + (Color.green(color2) - Color.green(color1)) * fraction);
+        int b = Math.round(Color.blue(color1) + (Color.blue(color2) - Color.blue(color1)) * fraction);
+        return Color.argb(a, r, g, b);
+    }
+}
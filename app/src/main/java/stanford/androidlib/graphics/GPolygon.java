@@ -1,4 +1,13 @@
 /*
+ * @version 2026/10/16
+ * - methods that change the vertices, scale, or rotation now call repaint
+ * - vertices are stored in a packed float array instead of a list of GPoints, without locking
+ * - paint reuses the Path built from the vertices until they change, and applies the
+ *   location, scale, and rotation to it with a Matrix
+ * - caches the bounding box and transformed vertices used by getBounds and contains
+ * - getBounds() is inherited from GObject, which builds it from getBounds(RectF)
+ * - contains now takes rotation into account
+ * - added intersects(GPolygon) for exact polygon-polygon intersection, and isConvex
  * @version 2016/02/18
  * - fixed bugs with drawing code (was drawing points before, not Path of lines)
  */
@@ -7,7 +16,7 @@ package stanford.androidlib.graphics;
 
 import android.graphics.*;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * The <code>GPolygon</code> class is a graphical object whose appearance consists
@@ -26,10 +35,36 @@ public class GPolygon extends GObject implements GFillable, GScalable {
     private float yScale;
     private float rotation;
     private VertexList vertices;
-    private Path path;
+    private Path path;                // vertices, relative to the origin; valid if cacheValid
     private boolean cacheValid;
     private boolean complete;
 
+    // path transformed by location, scale, and rotation; created when first needed
+    private Path transformedPath;
+    private Matrix transform;
+    private float transformX;
+    private float transformY;
+    private float transformXScale;
+    private float transformYScale;
+    private float transformRotation;
+    private boolean transformValid;
+
+    // vertices moved, scaled, and rotated to where the polygon is, with their bounding
+    // box and convexity; valid while geometryValid and the transform is unchanged
+    private float[] worldCoords;
+    private float worldLeft;
+    private float worldTop;
+    private float worldRight;
+    private float worldBottom;
+    private boolean worldConvex;
+    private float geometryX;
+    private float geometryY;
+    private float geometryXScale;
+    private float geometryYScale;
+    private float geometryRotation;
+    private boolean geometryValid;
+    private float[] rectCoords;   // scratch corners for intersecting with other shapes' bounds
+
     /**
      * Constructs a new empty polygon at the origin.
      *
@@ -63,6 +98,8 @@ public class GPolygon extends GObject implements GFillable, GScalable {
     public GPolygon(GPoint[] points) {
         this();
         vertices.add(points);
+        cacheValid = false;
+        geometryValid = false;
         markAsComplete();
     }
 
@@ -113,6 +150,7 @@ public class GPolygon extends GObject implements GFillable, GScalable {
                     + "marked as complete.");
         }
         vertices.addVertex(x, y);
+        verticesChanged();
         return this;
     }
 
@@ -130,6 +168,7 @@ public class GPolygon extends GObject implements GFillable, GScalable {
                     + "marked as complete.");
         }
         vertices.addEdge(dx, dy);
+        verticesChanged();
         return this;
     }
 
@@ -148,6 +187,7 @@ public class GPolygon extends GObject implements GFillable, GScalable {
                     + "marked as complete.");
         }
         vertices.addEdge(r * GMath.cosDegrees(theta), -r * GMath.sinDegrees(theta));
+        verticesChanged();
         return this;
     }
 
@@ -169,6 +209,7 @@ public class GPolygon extends GObject implements GFillable, GScalable {
                     + "marked as complete.");
         }
         vertices.addArc(arcWidth, arcHeight, start, sweep);
+        verticesChanged();
         return this;
     }
 
@@ -194,6 +235,7 @@ public class GPolygon extends GObject implements GFillable, GScalable {
     public GObject scale(float sx, float sy) {
         xScale *= sx;
         yScale *= sy;
+        repaint();
         return this;
     }
 
@@ -205,18 +247,23 @@ public class GPolygon extends GObject implements GFillable, GScalable {
      */
     public GPolygon rotate(float theta) {
         rotation += theta;
+        repaint();
         return this;
     }
 
     /**
-     * Returns the bounding box of this object, which is defined to be the
-     * smallest rectangle that covers everything drawn by the figure.
-     *
-     * @usage GRectangle bounds = gpoly.getBounds();
-     * @return The bounding box for this object
+     * Sets the given rectangle to the bounding box of this polygon, and returns it.
+     * @throws NullPointerException if bounds is null
      */
-    public GRectangle getBounds() {
-        return vertices.getBounds(getX(), getY(), xScale, yScale, rotation);
+    @Override
+    public RectF getBounds(RectF bounds) {
+        if (vertices.size() == 0) {
+            bounds.set(0, 0, 0, 0);
+        } else {
+            updateGeometry();
+            bounds.set(worldLeft, worldTop, worldRight, worldBottom);
+        }
+        return bounds;
     }
 
     /**
@@ -229,7 +276,100 @@ public class GPolygon extends GObject implements GFillable, GScalable {
      *         the object, and <code>false</code> otherwise
      */
     public boolean contains(float x, float y) {
-        return vertices.contains((x - getX()) / xScale, (y - getY()) / yScale);
+        if (vertices.size() == 0) {
+            return false;
+        }
+        updateGeometry();
+        if (x < worldLeft || x > worldRight || y < worldTop || y > worldBottom) {
+            return false;
+        }
+        return GPolygonGeometry.contains(worldCoords, vertices.size(), x, y);
+    }
+
+    /**
+     * Returns <code>true</code> if this polygon overlaps or touches the given
+     * other polygon, taking each one's exact outline into account rather than
+     * just its bounding box.
+     * Convex polygons are compared with the separating axis test; concave ones
+     * by checking for crossing edges, then whether one lies inside the other.
+     *
+     * @usage if (gpoly.intersects(otherPoly)) . . .
+     * @param other The other polygon
+     * @return <code>true</code> if the two polygons overlap
+     * @throws NullPointerException if other is null
+     */
+    public boolean intersects(GPolygon other) {
+        if (other == null) {
+            throw new NullPointerException();
+        }
+        if (vertices.size() == 0 || other.vertices.size() == 0) {
+            return false;
+        }
+        updateGeometry();
+        other.updateGeometry();
+        if (worldRight < other.worldLeft || other.worldRight < worldLeft
+                || worldBottom < other.worldTop || other.worldBottom < worldTop) {
+            return false;
+        }
+        return GPolygonGeometry.intersects(
+                worldCoords, vertices.size(), worldConvex,
+                other.worldCoords, other.vertices.size(), other.worldConvex,
+                Math.max(worldLeft, other.worldLeft), Math.max(worldTop, other.worldTop),
+                Math.min(worldRight, other.worldRight), Math.min(worldBottom, other.worldBottom));
+    }
+
+    /**
+     * Returns <code>true</code> if this polygon's outline overlaps the given object:
+     * exactly if it is another polygon, or its bounding box otherwise.
+     * Used by GSprite for collisions between sprites whose shape is a polygon.
+     */
+    boolean intersectsShape(GObject other) {
+        if (other instanceof GPolygon) {
+            return intersects((GPolygon) other);
+        }
+        if (vertices.size() == 0) {
+            return false;
+        }
+        updateGeometry();
+        float left = other.getX();
+        float top = other.getY();
+        float right = left + other.getWidth();
+        float bottom = top + other.getHeight();
+        if (worldRight < left || right < worldLeft || worldBottom < top || bottom < worldTop) {
+            return false;
+        }
+        if (rectCoords == null) {
+            rectCoords = new float[8];
+        }
+        rectCoords[0] = left;
+        rectCoords[1] = top;
+        rectCoords[2] = right;
+        rectCoords[3] = top;
+        rectCoords[4] = right;
+        rectCoords[5] = bottom;
+        rectCoords[6] = left;
+        rectCoords[7] = bottom;
+        return GPolygonGeometry.intersects(
+                worldCoords, vertices.size(), worldConvex,
+                rectCoords, 4, /* convex */ true,
+                Math.max(worldLeft, left), Math.max(worldTop, top),
+                Math.min(worldRight, right), Math.min(worldBottom, bottom));
+    }
+
+    /**
+     * Returns <code>true</code> if this polygon is convex, that is, if every
+     * turn along its outline goes the same way.
+     * Intersection tests between convex polygons are faster.
+     *
+     * @usage if (gpoly.isConvex()) . . .
+     * @return <code>true</code> if the polygon is convex
+     */
+    public boolean isConvex() {
+        if (vertices.size() == 0) {
+            return true;
+        }
+        updateGeometry();
+        return worldConvex;
     }
 
     /**
@@ -242,23 +382,109 @@ public class GPolygon extends GObject implements GFillable, GScalable {
             return;
         }
 
-        // create path
-        path.reset();
-        GPoint point0 = vertices.get(0);
-        path.moveTo(point0.getX(), point0.getY());
-        for (int i = 1; i < vertices.size(); i++) {
-            GPoint point = vertices.get(i);
-            path.lineTo(point.getX(), point.getY());
+        // rebuild path only if the vertices have changed
+        if (!cacheValid) {
+            vertices.toPath(path);
+            cacheValid = true;
+            transformValid = false;
         }
+        Path drawPath = getTransformedPath();
 
         if (isFilled()) {
             // fill interior first
-            Paint fill = getFillColor();
-            canvas.drawPath(path, fill);
+            Paint fill = fillPaint();
+            canvas.drawPath(drawPath, fill);
         }
 
         // draw outline second
-        canvas.drawPath(path, getPaint());
+        canvas.drawPath(drawPath, paint);
+    }
+
+    // helper to return the cached path moved, scaled, and rotated to where the polygon is;
+    // the vertices themselves are never rewritten, so the path is only re-transformed
+    // when the location, scale, or rotation differ from last time
+    private Path getTransformedPath() {
+        float x = getX();
+        float y = getY();
+        if (x == 0 && y == 0 && xScale == 1 && yScale == 1 && rotation == 0) {
+            return path;
+        }
+        if (transformedPath == null) {
+            transformedPath = new Path();
+            transform = new Matrix();
+        }
+        if (!transformValid || x != transformX || y != transformY || xScale != transformXScale
+                || yScale != transformYScale || rotation != transformRotation) {
+            // same mapping as updateGeometry: rotate counterclockwise, scale, then move
+            transform.setRotate(-rotation);
+            transform.postScale(xScale, yScale);
+            transform.postTranslate(x, y);
+            path.transform(transform, transformedPath);
+            transformX = x;
+            transformY = y;
+            transformXScale = xScale;
+            transformYScale = yScale;
+            transformRotation = rotation;
+            transformValid = true;
+        }
+        return transformedPath;
+    }
+
+    // helper to recompute the transformed vertices and bounding box, if the vertices,
+    // location, scale, or rotation have changed since they were last computed
+    private void updateGeometry() {
+        float x = getX();
+        float y = getY();
+        if (geometryValid && x == geometryX && y == geometryY && xScale == geometryXScale
+                && yScale == geometryYScale && rotation == geometryRotation) {
+            return;
+        }
+        int count = vertices.size();
+        if (worldCoords == null || worldCoords.length < count * 2) {
+            worldCoords = new float[vertices.coords.length];
+        }
+
+        // rotate counterclockwise about the origin, scale, then move to the location
+        float sinTheta = GMath.sinDegrees(rotation);
+        float cosTheta = GMath.cosDegrees(rotation);
+        float[] local = vertices.coords;
+        float[] world = worldCoords;
+        float left = Float.POSITIVE_INFINITY;
+        float top = Float.POSITIVE_INFINITY;
+        float right = Float.NEGATIVE_INFINITY;
+        float bottom = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            float vx = local[i * 2];
+            float vy = local[i * 2 + 1];
+            float wx = x + xScale * (cosTheta * vx + sinTheta * vy);
+            float wy = y + yScale * (cosTheta * vy - sinTheta * vx);
+            world[i * 2] = wx;
+            world[i * 2 + 1] = wy;
+            left = Math.min(left, wx);
+            top = Math.min(top, wy);
+            right = Math.max(right, wx);
+            bottom = Math.max(bottom, wy);
+        }
+        worldLeft = left;
+        worldTop = top;
+        worldRight = right;
+        worldBottom = bottom;
+        worldConvex = GPolygonGeometry.isConvex(world, count);
+
+        geometryX = x;
+        geometryY = y;
+        geometryXScale = xScale;
+        geometryYScale = yScale;
+        geometryRotation = rotation;
+        geometryValid = true;
+    }
+
+    // helper to note that the vertices have changed, so the cached path
+    // and geometry must be rebuilt
+    private void verticesChanged() {
+        cacheValid = false;
+        geometryValid = false;
+        repaint();
     }
 
     /**
@@ -271,7 +497,7 @@ public class GPolygon extends GObject implements GFillable, GScalable {
      */
     public GPolygon recenter() {
         vertices.recenter();
-        cacheValid = false;
+        verticesChanged();
         return this;
     }
 
@@ -284,23 +510,20 @@ public class GPolygon extends GObject implements GFillable, GScalable {
         try {
             GPolygon clone = (GPolygon) super.clone();
             clone.vertices = new VertexList(clone.vertices);
+            clone.path = new Path();
+            clone.cacheValid = false;
+            clone.transformedPath = null;
+            clone.transform = null;
+            clone.transformValid = false;
+            clone.worldCoords = null;
+            clone.rectCoords = null;
+            clone.geometryValid = false;
             return clone;
         } catch (Exception CloneNotSupportedException) {
             throw new IllegalStateException("Impossible exception");
         }
     }
 
-    /**
-     * Overrides <code>repaint</code> in <code>GObject</code> to invalidate the
-     * cached polygon.
-     * @noshow
-     */
-    @Override
-    public void repaint() {
-        cacheValid = false;
-        super.repaint();
-    }
-
     /**
      * Calling this method makes it illegal to add or remove vertices from the
      * polygon.  Subclasses can invoke this method to protect the integrity of
@@ -327,15 +550,20 @@ public class GPolygon extends GObject implements GFillable, GScalable {
         xScale = 1.0f;
         yScale = 1.0f;
         cacheValid = false;
+        geometryValid = false;
         return this;
     }
 
     /**
-     * The <code>VertexList</code> class represents a list of vertices.
+     * The <code>VertexList</code> class represents a list of vertices,
+     * packed into one array as x0, y0, x1, y1, and so on.
      */
     private static class VertexList implements Serializable {
+        private static final int INITIAL_CAPACITY = 8;
+
         // private fields
-        private ArrayList<GPoint> vertices;
+        private float[] coords;
+        private int size;
         private float cx;
         private float cy;
 
@@ -343,7 +571,8 @@ public class GPolygon extends GObject implements GFillable, GScalable {
          * Creates a new <code>VertexList</code> with no elements.
          */
         public VertexList() {
-            vertices = new ArrayList<>();
+            coords = new float[INITIAL_CAPACITY * 2];
+            size = 0;
             cx = 0;
             cy = 0;
         }
@@ -352,28 +581,28 @@ public class GPolygon extends GObject implements GFillable, GScalable {
          * Creates a new <code>VertexList</code> that is a clone of the old one.
          */
         public VertexList(VertexList oldList) {
-            this();
-            for (int i = 0; i < oldList.vertices.size(); i++) {
-                vertices.add(oldList.vertices.get(i));
-            }
+            coords = Arrays.copyOf(oldList.coords, Math.max(oldList.size, INITIAL_CAPACITY) * 2);
+            size = oldList.size;
+            cx = oldList.cx;
+            cy = oldList.cy;
         }
 
         /**
          * Adds the specified vertex to the end of the list.
          */
-        public synchronized void addVertex(float x, float y) {
+        public void addVertex(float x, float y) {
             cx = x;
             cy = y;
-            vertices.add(new GPoint(cx, cy));
+            append(cx, cy);
         }
 
         /**
          * Adds the specified edge to the end of the list.
          */
-        public synchronized void addEdge(float dx, float dy) {
+        public void addEdge(float dx, float dy) {
             cx += dx;
             cy += dy;
-            vertices.add(new GPoint(cx, cy));
+            append(cx, cy);
         }
 
         /**
@@ -394,6 +623,7 @@ public class GPolygon extends GObject implements GFillable, GScalable {
             int nSteps = (int) (GMath.toRadians(Math.abs(sweep)) / dt);
             dt = GMath.toRadians(sweep) / nSteps;
             float theta = GMath.toRadians(start);
+            ensureCapacity(size + nSteps);
             for (int i = 0; i < nSteps; i++) {
                 theta += dt;
                 float px = x0 + rx * (float) Math.cos(theta);
@@ -405,9 +635,10 @@ public class GPolygon extends GObject implements GFillable, GScalable {
         /**
          * Adds copies of the points to the end of the vertex list.
          */
-        public synchronized void add(GPoint[] array) {
+        public void add(GPoint[] array) {
+            ensureCapacity(size + array.length);
             for (GPoint anArray : array) {
-                vertices.add(new GPoint(anArray.getX(), anArray.getY()));
+                append(anArray.getX(), anArray.getY());
             }
         }
 
@@ -415,28 +646,37 @@ public class GPolygon extends GObject implements GFillable, GScalable {
          * Returns the point in this list from the given index.
          */
         public GPoint get(int index) {
-            return vertices.get(index);
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+            }
+            return new GPoint(coords[index * 2], coords[index * 2 + 1]);
         }
 
         /**
-         * Removes the specified vertex from the list.
+         * Removes the first vertex at the same location as the specified one from the list.
          */
-        public synchronized void remove(GPoint vertex) {
-            vertices.remove(vertex);
+        public void remove(GPoint vertex) {
+            for (int i = 0; i < size; i++) {
+                if (coords[i * 2] == vertex.getX() && coords[i * 2 + 1] == vertex.getY()) {
+                    System.arraycopy(coords, (i + 1) * 2, coords, i * 2, (size - i - 1) * 2);
+                    size--;
+                    return;
+                }
+            }
         }
 
         /**
          * Removes all vertices from the list.
          */
-        public synchronized void clear() {
-            vertices.clear();
+        public void clear() {
+            size = 0;
         }
 
         /**
          * Returns the number of vertices in the list.
          */
         public int size() {
-            return vertices.size();
+            return size;
         }
 
         /**
@@ -444,59 +684,7 @@ public class GPolygon extends GObject implements GFillable, GScalable {
          * if the polygon is empty.
          */
         public GPoint getCurrentPoint() {
-            return (vertices.size() == 0) ? null : new GPoint(cx, cy);
-        }
-
-        /**
-         * Returns the bounding box for the polygon.
-         */
-        public synchronized GRectangle getBounds(float x0, float y0, float xScale, float yScale, float rotation) {
-            int nPoints = vertices.size();
-            if (nPoints == 0) return new GRectangle();
-            float xMin = 0;
-            float xMax = 0;
-            float yMin = 0;
-            float yMax = 0;
-            float sinTheta = GMath.sinDegrees(rotation);
-            float cosTheta = GMath.cosDegrees(rotation);
-            boolean first = true;
-            for (int i = 0; i < vertices.size(); i++) {
-                GPoint vertex = vertices.get(i);
-                float x = x0 + xScale * (cosTheta * vertex.getX() + sinTheta * vertex.getY());
-                float y = y0 + yScale * (cosTheta * vertex.getY() - sinTheta * vertex.getX());
-                if (first) {
-                    xMin = x;
-                    xMax = x;
-                    yMin = y;
-                    yMax = y;
-                    first = false;
-                } else {
-                    xMin = Math.min(xMin, x);
-                    xMax = Math.max(xMax, x);
-                    yMin = Math.min(yMin, y);
-                    yMax = Math.max(yMax, y);
-                }
-            }
-            return new GRectangle(xMin, yMin, xMax - xMin, yMax - yMin);
-        }
-
-        /**
-         * Returns <code>true</code> if the polygon described by this
-         * <code>VertexList</code> contains the specified point.
-         */
-        public synchronized boolean contains(float x, float y) {
-            int nPoints = vertices.size();
-            boolean isContained = false;
-            for (int i = 0; i < nPoints; i++) {
-                GPoint v1 = vertices.get(i);
-                GPoint v2 = vertices.get((i + 1) % nPoints);
-                if (((v1.getY() < y) && (v2.getY() >= y)) || ((v2.getY() < y) && (v1.getY() >= y))) {
-                    if (v1.getX() + (y - v1.getY()) / (v2.getY() - v1.getY()) * (v2.getX() - v1.getX()) < x) {
-                        isContained = !isContained;
-                    }
-                }
-            }
-            return isContained;
+            return (size == 0) ? null : new GPoint(cx, cy);
         }
 
         /**
@@ -506,31 +694,53 @@ public class GPolygon extends GObject implements GFillable, GScalable {
          * then to reformulate it so that it can be displayed relative to its center.
          */
         public void recenter() {
-            float xMin = 0;
-            float xMax = 0;
-            float yMin = 0;
-            float yMax = 0;
-            boolean first = true;
-            for (int i = 0; i < vertices.size(); i++) {
-                GPoint vertex = vertices.get(i);
-                if (first) {
-                    xMin = vertex.getX();
-                    xMax = vertex.getX();
-                    yMin = vertex.getY();
-                    yMax = vertex.getY();
-                    first = false;
-                } else {
-                    xMin = Math.min(xMin, vertex.getX());
-                    xMax = Math.max(xMax, vertex.getX());
-                    yMin = Math.min(yMin, vertex.getY());
-                    yMax = Math.max(yMax, vertex.getY());
-                }
+            if (size == 0) {
+                return;
+            }
+            float xMin = coords[0];
+            float xMax = coords[0];
+            float yMin = coords[1];
+            float yMax = coords[1];
+            for (int i = 1; i < size; i++) {
+                xMin = Math.min(xMin, coords[i * 2]);
+                xMax = Math.max(xMax, coords[i * 2]);
+                yMin = Math.min(yMin, coords[i * 2 + 1]);
+                yMax = Math.max(yMax, coords[i * 2 + 1]);
             }
             float xc = (xMin + xMax) / 2;
             float yc = (yMin + yMax) / 2;
-            for (int i = 0; i < vertices.size(); i++ ) {
-                GPoint vertex = vertices.get(i);
-                vertex.translate(-xc, -yc);
+            for (int i = 0; i < size; i++) {
+                coords[i * 2] -= xc;
+                coords[i * 2 + 1] -= yc;
+            }
+        }
+
+        /**
+         * Replaces the contents of the given path with lines joining the vertices in order.
+         */
+        public void toPath(Path path) {
+            path.rewind();
+            if (size == 0) {
+                return;
+            }
+            path.moveTo(coords[0], coords[1]);
+            for (int i = 1; i < size; i++) {
+                path.lineTo(coords[i * 2], coords[i * 2 + 1]);
+            }
+        }
+
+        // helper to add a vertex to the end of the array, growing it if needed
+        private void append(float x, float y) {
+            ensureCapacity(size + 1);
+            coords[size * 2] = x;
+            coords[size * 2 + 1] = y;
+            size++;
+        }
+
+        // helper to make room for the given number of vertices
+        private void ensureCapacity(int vertexCount) {
+            if (vertexCount * 2 > coords.length) {
+                coords = Arrays.copyOf(coords, Math.max(vertexCount * 2, coords.length * 2));
             }
         }
     }
@@ -0,0 +1,205 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+/**
+ * Geometry tests on polygons stored as packed coordinate arrays
+ * (x0, y0, x1, y1, and so on), with an edge from each vertex to the next
+ * and from the last vertex back to the first.
+ * None of these methods allocate memory, so they are safe to call on every
+ * frame for every pair of objects.
+ *
+ * <p>
+ * This class is used internally by GPolygon; see GPolygon.contains and
+ * GPolygon.intersects.
+ * </p>
+ */
+final class GPolygonGeometry {
+    private GPolygonGeometry() {
+        // not instantiable
+    }
+
+    /**
+     * Returns true if the point (x, y) is inside the given polygon, using the
+     * even-odd rule so that it also works for concave and self-crossing polygons.
+     */
+    static boolean contains(float[] coords, int count, float x, float y) {
+        boolean inside = false;
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            float x1 = coords[i * 2];
+            float y1 = coords[i * 2 + 1];
+            float x2 = coords[j * 2];
+            float y2 = coords[j * 2 + 1];
+            if ((y1 < y && y2 >= y) || (y2 < y && y1 >= y)) {
+                if (x1 + (y - y1) / (y2 - y1) * (x2 - x1) < x) {
+                    inside = !inside;
+                }
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Returns true if the given polygon is convex: every turn goes the same way,
+     * and it winds around only once.
+     * Collinear vertices are allowed.
+     */
+    static boolean isConvex(float[] coords, int count) {
+        if (count < 3) {
+            return true;
+        }
+        int sign = 0;
+        for (int i = 0; i < count; i++) {
+            int next = (i + 1) % count;
+            int after = (i + 2) % count;
+            float cross = cross(coords[i * 2], coords[i * 2 + 1],
+                    coords[next * 2], coords[next * 2 + 1],
+                    coords[after * 2], coords[after * 2 + 1]);
+            if (cross != 0) {
+                int turn = cross > 0 ? 1 : -1;
+                if (sign == 0) {
+                    sign = turn;
+                } else if (sign != turn) {
+                    return false;
+                }
+            }
+        }
+
+        // a convex polygon changes horizontal and vertical direction at most twice each;
+        // this rules out star shapes that turn the same way but wind around twice
+        return directionChanges(coords, count, 0) <= 2 && directionChanges(coords, count, 1) <= 2;
+    }
+
+    /**
+     * Returns true if the two polygons overlap or touch.
+     * If both are convex, uses the separating axis test; otherwise checks every
+     * pair of edges that lie in the area where the two bounding boxes overlap,
+     * then whether one polygon lies entirely inside the other.
+     * The caller should already have checked that the bounding boxes overlap;
+     * the overlap area is passed in as overlapLeft/Top/Right/Bottom.
+     */
+    static boolean intersects(float[] a, int aCount, boolean aConvex,
+                              float[] b, int bCount, boolean bConvex,
+                              float overlapLeft, float overlapTop,
+                              float overlapRight, float overlapBottom) {
+        if (aCount == 0 || bCount == 0) {
+            return false;
+        }
+        if (aConvex && bConvex && aCount >= 3 && bCount >= 3) {
+            return !hasSeparatingAxis(a, aCount, b, bCount) && !hasSeparatingAxis(b, bCount, a, aCount);
+        }
+
+        // sweep the edges of a, skipping any outside the overlap area;
+        // for each one, test the edges of b that are also inside it
+        for (int i = 0; i < aCount; i++) {
+            int i2 = (i + 1) % aCount;
+            float ax1 = a[i * 2], ay1 = a[i * 2 + 1];
+            float ax2 = a[i2 * 2], ay2 = a[i2 * 2 + 1];
+            if (Math.max(ax1, ax2) < overlapLeft || Math.min(ax1, ax2) > overlapRight
+                    || Math.max(ay1, ay2) < overlapTop || Math.min(ay1, ay2) > overlapBottom) {
+                continue;
+            }
+            for (int j = 0; j < bCount; j++) {
+                int j2 = (j + 1) % bCount;
+                float bx1 = b[j * 2], by1 = b[j * 2 + 1];
+                float bx2 = b[j2 * 2], by2 = b[j2 * 2 + 1];
+                if (Math.max(bx1, bx2) < Math.min(ax1, ax2) || Math.min(bx1, bx2) > Math.max(ax1, ax2)
+                        || Math.max(by1, by2) < Math.min(ay1, ay2) || Math.min(by1, by2) > Math.max(ay1, ay2)) {
+                    continue;
+                }
+                if (segmentsIntersect(ax1, ay1, ax2, ay2, bx1, by1, bx2, by2)) {
+                    return true;
+                }
+            }
+        }
+
+        // no edges cross, so either one is inside the other or they are apart
+        return contains(a, aCount, b[0], b[1]) || contains(b, bCount, a[0], a[1]);
+    }
+
+    // helper for the separating axis test: returns true if some edge normal of
+    // polygon a has a and b projecting onto non-overlapping intervals
+    private static boolean hasSeparatingAxis(float[] a, int aCount, float[] b, int bCount) {
+        for (int i = 0; i < aCount; i++) {
+            int next = (i + 1) % aCount;
+            float axisX = a[i * 2 + 1] - a[next * 2 + 1];
+            float axisY = a[next * 2] - a[i * 2];
+            if (axisX == 0 && axisY == 0) {
+                continue;
+            }
+            float aMin = Float.POSITIVE_INFINITY, aMax = Float.NEGATIVE_INFINITY;
+            for (int k = 0; k < aCount; k++) {
+                float p = a[k * 2] * axisX + a[k * 2 + 1] * axisY;
+                aMin = Math.min(aMin, p);
+                aMax = Math.max(aMax, p);
+            }
+            float bMin = Float.POSITIVE_INFINITY, bMax = Float.NEGATIVE_INFINITY;
+            for (int k = 0; k < bCount; k++) {
+                float p = b[k * 2] * axisX + b[k * 2 + 1] * axisY;
+                bMin = Math.min(bMin, p);
+                bMax = Math.max(bMax, p);
+            }
+            if (aMax < bMin || bMax < aMin) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // helper to return true if segment (x1,y1)-(x2,y2) touches segment (x3,y3)-(x4,y4)
+    private static boolean segmentsIntersect(float x1, float y1, float x2, float y2,
+                                             float x3, float y3, float x4, float y4) {
+        float d1 = cross(x3, y3, x4, y4, x1, y1);
+        float d2 = cross(x3, y3, x4, y4, x2, y2);
+        float d3 = cross(x1, y1, x2, y2, x3, y3);
+        float d4 = cross(x1, y1, x2, y2, x4, y4);
+        if (((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0))
+                && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0))) {
+            return true;
+        }
+        // collinear or touching cases: an endpoint lies on the other segment
+        return (d1 == 0 && onSegment(x3, y3, x4, y4, x1, y1))
+                || (d2 == 0 && onSegment(x3, y3, x4, y4, x2, y2))
+                || (d3 == 0 && onSegment(x1, y1, x2, y2, x3, y3))
+                || (d4 == 0 && onSegment(x1, y1, x2, y2, x4, y4));
+    }
+
+    // helper to count how many times the edges reverse direction along one axis
+    // (0 for x, 1 for y), going all the way around the polygon
+    private static int directionChanges(float[] coords, int count, int axis) {
+        int changes = 0;
+        int first = 0;
+        int last = 0;
+        for (int i = 0; i < count; i++) {
+            int next = (i + 1) % count;
+            float delta = coords[next * 2 + axis] - coords[i * 2 + axis];
+            int direction = delta > 0 ? 1 : delta < 0 ? -1 : 0;
+            if (direction != 0) {
+                if (first == 0) {
+                    first = direction;
+                } else if (direction != last) {
+                    changes++;
+                }
+                last = direction;
+            }
+        }
+        if (first != 0 && first != last) {
+            changes++;
+        }
+        return changes;
+    }
+
+    // helper to return the cross product of (b - a) and (c - a)
+    private static float cross(float ax, float ay, float bx, float by, float cx, float cy) {
+        return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+    }
+
+    // helper to return true if point c, known to be collinear with a and b, lies between them
+    private static boolean onSegment(float ax, float ay, float bx, float by, float cx, float cy) {
+        return Math.min(ax, bx) <= cx && cx <= Math.max(ax, bx)
+                && Math.min(ay, by) <= cy && cy <= Math.max(ay, by);
+    }
+}
@@ -95,11 +95,11 @@ public class GRect extends GObject
     public void paint(Canvas canvas) {
         if (isFilled()) {
             // fill interior first
-            Paint fill = getFillColor();
+            Paint fill = fillPaint();
             canvas.drawRect(getX(), getY(), getRightX(), getBottomY(), fill);
         }
 
         // draw outline second
-        canvas.drawRect(getX(), getY(), getRightX(), getBottomY(), getPaint());
+        canvas.drawRect(getX(), getY(), getRightX(), getBottomY(), paint);
     }
 }
@@ -0,0 +1,189 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import android.content.res.AssetManager;
+import android.graphics.*;
+import java.util.*;
+
+/**
+ * A shared cache of Typeface objects, so that asking for the same font again returns
+ * the same object instead of creating (or, for fonts stored in asset files, re-reading
+ * from disk) a new one each time.
+ * Typefaces are looked up by asset file or font family name and style.
+ * Android Typefaces are already unmodifiable, so they are shared as is.
+ *
+ * <p>
+ * The cache also interns the paints that GObjects draw with, by their color (including
+ * alpha), style, stroke width, and whether they are anti-aliased.  Every GObject starts
+ * with a shared default paint, and GObject.setColor, setFillColor, and setLineWidth
+ * switch it to another shared paint rather than changing it, so the many objects drawn
+ * in the same few colors all share a few paints.  Shared paints are never handed out:
+ * a GObject copies its shared paint the first time the paint is returned from getPaint,
+ * getColor, or getFillColor, and uses its own copy from then on.  Paints returned by
+ * public methods such as GColor.makeColor are always new objects that the caller may modify.
+ * </p>
+ *
+ * <p>
+ * Both caches are bounded, so that they do not keep every color or font alive forever.
+ * The paint cache holds at most PAINT_CACHE_SIZE paints in a fixed table, and looking
+ * one up allocates nothing; the typeface cache keeps the TYPEFACE_CACHE_SIZE most
+ * recently used fonts.
+ * </p>
+ */
+public final class GResourceCache {
+    /** Maximum number of paints kept in the cache. */
+    public static final int PAINT_CACHE_SIZE = 256;
+
+    /** Maximum number of typefaces kept in the cache. */
+    public static final int TYPEFACE_CACHE_SIZE = 32;
+
+    // flags of a new Paint, apart from anti-aliasing, which is part of a shared paint's key
+    private static final int DEFAULT_FLAGS = new Paint().getFlags() & ~Paint.ANTI_ALIAS_FLAG;
+
+    // paint table, indexed by a hash of the paint's attributes; a new paint
+    // whose slot is already taken replaces the paint in that slot
+    private static final SharedPaint[] paints = new SharedPaint[PAINT_CACHE_SIZE];
+
+    // typefaces by "name/style", least recently used first
+    private static final Map<String, Typeface> typefaces =
+            new LinkedHashMap<String, Typeface>(TYPEFACE_CACHE_SIZE, 0.75f, /* accessOrder */ true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Typeface> eldest) {
+                    return size() > TYPEFACE_CACHE_SIZE;
+                }
+            };
+
+    private GResourceCache() {
+        // not instantiable
+    }
+
+    /**
+     * Removes every paint and typeface from the cache.
+     * Paints and typefaces already handed out keep working.
+     */
+    public static synchronized void clear() {
+        Arrays.fill(paints, null);
+        typefaces.clear();
+    }
+
+    /**
+     * Returns a shared paint with the given ARGB color, style, stroke width, and
+     * anti-aliasing.  The paint must not be modified or given to clients; callers
+     * copy it with new Paint(paint) before changing it (see GObject.mutablePaint).
+     * @throws NullPointerException if style is null
+     * @throws IllegalArgumentException if strokeWidth is negative
+     */
+    static synchronized Paint getPaint(int argb, Paint.Style style, float strokeWidth, boolean antiAlias) {
+        if (style == null) {
+            throw new NullPointerException();
+        }
+        if (strokeWidth < 0 || Float.isNaN(strokeWidth)) {
+            throw new IllegalArgumentException("illegal stroke width: " + strokeWidth);
+        }
+        int strokeBits = Float.floatToIntBits(strokeWidth);
+        int hash = argb * 31 + strokeBits;
+        hash = hash * 31 + style.ordinal() * 2 + (antiAlias ? 1 : 0);
+        hash ^= hash >>> 16;
+        int slot = hash & (PAINT_CACHE_SIZE - 1);
+        SharedPaint paint = paints[slot];
+        if (paint == null || !paint.matches(argb, style, strokeBits, antiAlias)) {
+            paint = new SharedPaint(argb, style, strokeWidth, antiAlias);
+            paints[slot] = paint;
+        }
+        return paint;
+    }
+
+    /**
+     * Returns a shared paint that fills with the same color and anti-aliasing as the
+     * given paint, or null if the paint has other attributes that a shared paint would
+     * lose, such as a shader, a color filter, or flags other than anti-aliasing.
+     * A shadow layer is not kept, since older versions of Android cannot tell whether
+     * a paint has one.
+     * @throws NullPointerException if paint is null
+     */
+    static Paint getFillPaint(Paint paint) {
+        if ((paint.getFlags() & ~Paint.ANTI_ALIAS_FLAG) != DEFAULT_FLAGS
+                || paint.getShader() != null || paint.getColorFilter() != null
+                || paint.getMaskFilter() != null || paint.getPathEffect() != null
+                || paint.getXfermode() != null) {
+            return null;
+        }
+        return getPaint(paint.getColor(), Paint.Style.FILL, paint.getStrokeWidth(), paint.isAntiAlias());
+    }
+
+    /**
+     * Returns a typeface for the given font, in the given style (such as Typeface.BOLD).
+     * The name is first looked up as a font file in the app's assets folder,
+     * such as "fonts/Comic.ttf"; if there is no such file, it is treated as the name
+     * of a system font family, such as "monospace".
+     * Asset files are read only the first time each one is asked for.
+     * @throws NullPointerException if assets or name is null
+     */
+    public static Typeface getTypeface(AssetManager assets, String name, int style) {
+        if (assets == null || name == null) {
+            throw new NullPointerException();
+        }
+        String key = name + "/" + style;
+        synchronized (GResourceCache.class) {
+            Typeface font = typefaces.get(key);
+            if (font != null) {
+                return font;
+            }
+        }
+
+        // load outside the lock, since reading an asset can be slow
+        Typeface font = null;
+        try {
+            font = Typeface.createFromAsset(assets, name);
+        } catch (Exception e) {
+            // not an asset; fall through
+        }
+        if (font == null) {
+            // create from system font name
+            font = Typeface.create(name, style);
+        }
+        synchronized (GResourceCache.class) {
+            typefaces.put(key, font);
+        }
+        return font;
+    }
+
+    /**
+     * Returns true if the given paint is a shared paint from this cache,
+     * which must be copied before it is modified.
+     */
+    static boolean isShared(Paint paint) {
+        return paint instanceof SharedPaint;
+    }
+
+    /*
+     * A Paint interned by getPaint.  It is a separate class only so that isShared
+     * can tell it apart from a GObject's own copy; it stays internal to this package.
+     */
+    private static final class SharedPaint extends Paint {
+        private final int argb;
+        private final Style style;
+        private final int strokeBits;
+        private final boolean antiAlias;
+
+        SharedPaint(int argb, Style style, float strokeWidth, boolean antiAlias) {
+            this.argb = argb;
+            this.style = style;
+            this.strokeBits = Float.floatToIntBits(strokeWidth);
+            this.antiAlias = antiAlias;
+            setColor(argb);
+            setStyle(style);
+            setStrokeWidth(strokeWidth);
+            setAntiAlias(antiAlias);
+        }
+
+        boolean matches(int argb, Style style, int strokeBits, boolean antiAlias) {
+            return this.argb == argb && this.style == style
+                    && this.strokeBits == strokeBits && this.antiAlias == antiAlias;
+        }
+    }
+}
@@ -0,0 +1,429 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import java.util.*;
+
+/**
+ * The GObjects of a GCanvas, ordered from back to front in the z-ordering.
+ *
+ * <p>
+ * The objects are kept in order in a list of small chunks of at most CHUNK_SIZE
+ * objects each.  An object can be in only one list at a time: it records the list it
+ * is in (GObject.sceneList) and a sort key in that list (GObject.zOrder) that increases
+ * from back to front, so an object is found by a binary search over the chunks and
+ * then within one chunk.  An object must be removed from one list before it is added
+ * to another; GCanvas takes care of that when an object moves between canvases.
+ * </p>
+ *
+ * <p>
+ * Adding an object, removing one, and moving one to the front, to the back, or one
+ * step forward or backward each cost a binary search, O(log n), plus shifting at most
+ * CHUNK_SIZE references within the one or two chunks they touch.  The chunks
+ * themselves are kept in an ArrayList, so the occasional change that inserts or drops
+ * a whole chunk (a new chunk at the front, or a chunk that empties or is merged into
+ * its neighbor) also shifts the chunk list, which is O(n / CHUNK_SIZE): about 16
+ * references for a scene of a thousand objects.  A balanced tree of chunks would
+ * not make a frame cheaper, because the next snapshot copies the chunk list anyway
+ * at the same O(n / CHUNK_SIZE) cost, so the plain list is kept for its simplicity
+ * and its fast indexing.
+ * </p>
+ *
+ * <p>
+ * Code that walks the whole scene, such as drawing, animation ticks, and iterators,
+ * uses snapshot(), an unmodifiable list of the objects in order.  A snapshot is
+ * built at most once after each batch of changes and then shared by every caller
+ * until the scene changes again, and it can be walked safely from any thread while
+ * the scene keeps changing.  Snapshots share chunks with the list: once a snapshot
+ * has been taken, its chunks are never modified again, and a change copies just the
+ * chunk it touches.  So building the next snapshot costs one array of chunk
+ * references, about 1/CHUNK_SIZE of the number of objects, plus a copy of each chunk
+ * that changed, rather than a copy of the whole scene.
+ * </p>
+ *
+ * <p>
+ * All methods are thread-safe.  This class is used internally by GCanvas.
+ * </p>
+ */
+final class GSceneList {
+    /** Largest number of objects kept in one chunk. */
+    static final int CHUNK_SIZE = 64;
+
+    /** The canvas whose objects these are. */
+    final GCanvas canvas;
+
+    // a chunk this small is merged into a neighbor if the two fit in one chunk
+    private static final int MIN_CHUNK_SIZE = CHUNK_SIZE / 4;
+
+    // private fields; all but snapshot and changed are guarded by this
+    private final ArrayList<Chunk> chunks = new ArrayList<>();
+    private int size = 0;
+    private int generation = 1;  // chunks made in an earlier generation belong to a snapshot
+    private long frontKey = 0;   // key given to the most recent object moved to the front
+    private long backKey = 1;    // key given to the most recent object moved to the back
+    private int foundChunk;      // where find() last found an object
+    private int foundOffset;
+    private volatile Snapshot snapshot = new Snapshot(new Chunk[0], new int[0]);
+    private volatile boolean changed = false;
+
+    /**
+     * Constructs an empty list of the objects of the given canvas.
+     */
+    GSceneList(GCanvas canvas) {
+        this.canvas = canvas;
+    }
+
+    /**
+     * Adds the given object at the front of the z-ordering.
+     * The object must not be in this list or any other.
+     * @throws IllegalStateException if the object is already in a list
+     */
+    synchronized void add(GObject obj) {
+        if (obj.sceneList != null) {
+            throw new IllegalStateException("object is already in a canvas's scene");
+        }
+        obj.sceneList = this;
+        obj.zOrder = ++frontKey;
+        append(obj);
+    }
+
+    /**
+     * Returns true if the given object is in this list.
+     */
+    synchronized boolean contains(GObject obj) {
+        return find(obj);
+    }
+
+    /**
+     * Moves the given object one step toward the back of the z-ordering.
+     * Returns false, and does nothing, if the object is not in this list or is
+     * already at the back.
+     */
+    synchronized boolean moveBackward(GObject obj) {
+        if (!find(obj)) {
+            return false;
+        }
+        if (foundOffset > 0) {
+            swap(foundChunk, foundOffset, foundChunk, foundOffset - 1);
+        } else if (foundChunk > 0) {
+            swap(foundChunk, 0, foundChunk - 1, chunks.get(foundChunk - 1).size - 1);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Moves the given object one step toward the front of the z-ordering.
+     * Returns false, and does nothing, if the object is not in this list or is
+     * already at the front.
+     */
+    synchronized boolean moveForward(GObject obj) {
+        if (!find(obj)) {
+            return false;
+        }
+        if (foundOffset < chunks.get(foundChunk).size - 1) {
+            swap(foundChunk, foundOffset, foundChunk, foundOffset + 1);
+        } else if (foundChunk < chunks.size() - 1) {
+            swap(foundChunk, foundOffset, foundChunk + 1, 0);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Moves the given object to the back of the z-ordering.
+     * Returns false, and does nothing, if the object is not in this list or is
+     * already at the back.
+     */
+    synchronized boolean moveToBack(GObject obj) {
+        if (!find(obj) || (foundChunk == 0 && foundOffset == 0)) {
+            return false;
+        }
+        removeAt(foundChunk, foundOffset);
+        obj.zOrder = --backKey;
+        prepend(obj);
+        return true;
+    }
+
+    /**
+     * Moves the given object to the front of the z-ordering.
+     * Returns false, and does nothing, if the object is not in this list or is
+     * already at the front.
+     */
+    synchronized boolean moveToFront(GObject obj) {
+        if (!find(obj) || (foundChunk == chunks.size() - 1
+                && foundOffset == chunks.get(foundChunk).size - 1)) {
+            return false;
+        }
+        removeAt(foundChunk, foundOffset);
+        obj.zOrder = ++frontKey;
+        append(obj);
+        return true;
+    }
+
+    /**
+     * Removes the given object, and marks it as no longer in any list.
+     * Returns false, and does nothing, if the object was not in this list.
+     */
+    synchronized boolean remove(GObject obj) {
+        if (!find(obj)) {
+            return false;
+        }
+        removeAt(foundChunk, foundOffset);
+        obj.sceneList = null;
+        return true;
+    }
+
+    /**
+     * Removes every object, marking each one as no longer in any list,
+     * and returns a snapshot of the objects that were removed.
+     */
+    synchronized List<GObject> removeAll() {
+        List<GObject> removed = snapshot();
+        for (int i = 0; i < removed.size(); i++) {
+            removed.get(i).sceneList = null;
+        }
+        chunks.clear();
+        size = 0;
+        changed = true;
+        return removed;
+    }
+
+    /**
+     * Returns the number of objects in this list.
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns an unmodifiable list of the objects, from back to front,
+     * as of the most recent change.
+     */
+    List<GObject> snapshot() {
+        if (!changed) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (changed) {
+                Chunk[] array = chunks.toArray(new Chunk[chunks.size()]);
+                int[] ends = new int[array.length];
+                int end = 0;
+                for (int i = 0; i < array.length; i++) {
+                    end += array[i].size;
+                    ends[i] = end;
+                }
+                snapshot = new Snapshot(array, ends);
+                generation++;   // the chunks now belong to the snapshot
+                changed = false;
+            }
+            return snapshot;
+        }
+    }
+
+    // helper to add an object at the end of the last chunk
+    private void append(GObject obj) {
+        int last = chunks.size() - 1;
+        if (last < 0 || chunks.get(last).size == CHUNK_SIZE) {
+            chunks.add(new Chunk(generation));
+            last++;
+        }
+        Chunk chunk = writable(last);
+        chunk.items[chunk.size++] = obj;
+        size++;
+        changed = true;
+    }
+
+    // helper to look up an object by its key, storing where it is in foundChunk and
+    // foundOffset; returns false if it is not in this list
+    private boolean find(GObject obj) {
+        if (obj.sceneList != this) {
+            // its key belongs to another list, if any
+            return false;
+        }
+        long key = obj.zOrder;
+        int low = 0;
+        int high = chunks.size() - 1;
+        while (low < high) {
+            // first chunk whose last key is at least the key looked for
+            int mid = (low + high) >>> 1;
+            Chunk chunk = chunks.get(mid);
+            if (chunk.items[chunk.size - 1].zOrder < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low > high) {
+            return false;
+        }
+        Chunk chunk = chunks.get(low);
+        int offset = chunk.indexOf(key);
+        if (offset < 0 || chunk.items[offset] != obj) {
+            return false;
+        }
+        foundChunk = low;
+        foundOffset = offset;
+        return true;
+    }
+
+    // helper to add an object at the start of the first chunk
+    private void prepend(GObject obj) {
+        if (chunks.isEmpty() || chunks.get(0).size == CHUNK_SIZE) {
+            chunks.add(0, new Chunk(generation));
+        }
+        Chunk chunk = writable(0);
+        System.arraycopy(chunk.items, 0, chunk.items, 1, chunk.size);
+        chunk.items[0] = obj;
+        chunk.size++;
+        size++;
+        changed = true;
+    }
+
+    // helper to remove the object at the given place, dropping or merging its chunk
+    // if that leaves it empty or small
+    private void removeAt(int index, int offset) {
+        Chunk chunk = writable(index);
+        System.arraycopy(chunk.items, offset + 1, chunk.items, offset, chunk.size - offset - 1);
+        chunk.items[--chunk.size] = null;
+        size--;
+        changed = true;
+        if (chunk.size == 0) {
+            chunks.remove(index);
+        } else if (chunk.size < MIN_CHUNK_SIZE) {
+            if (index > 0 && chunks.get(index - 1).size + chunk.size <= CHUNK_SIZE) {
+                merge(index - 1);
+            } else if (index < chunks.size() - 1 && chunks.get(index + 1).size + chunk.size <= CHUNK_SIZE) {
+                merge(index);
+            }
+        }
+    }
+
+    // helper to move the objects of the chunk after the given one onto its end
+    private void merge(int index) {
+        Chunk chunk = writable(index);
+        Chunk next = chunks.remove(index + 1);
+        System.arraycopy(next.items, 0, chunk.items, chunk.size, next.size);
+        chunk.size += next.size;
+    }
+
+    // helper to exchange the places and z-order keys of two neighboring objects
+    private void swap(int index1, int offset1, int index2, int offset2) {
+        Chunk chunk1 = writable(index1);
+        Chunk chunk2 = writable(index2);
+        GObject obj1 = chunk1.items[offset1];
+        GObject obj2 = chunk2.items[offset2];
+        long temp = obj1.zOrder;
+        obj1.zOrder = obj2.zOrder;
+        obj2.zOrder = temp;
+        chunk1.items[offset1] = obj2;
+        chunk2.items[offset2] = obj1;
+        changed = true;
+    }
+
+    // helper to return the chunk at the given index, first replacing it with
+    // a copy if it belongs to a snapshot
+    private Chunk writable(int index) {
+        Chunk chunk = chunks.get(index);
+        if (chunk.generation != generation) {
+            chunk = new Chunk(chunk, generation);
+            chunks.set(index, chunk);
+        }
+        return chunk;
+    }
+
+    /*
+     * A run of consecutive objects in the z-ordering.  A chunk may be changed only
+     * during the generation in which it was made; after that it belongs to a snapshot.
+     */
+    private static final class Chunk {
+        final GObject[] items = new GObject[CHUNK_SIZE];
+        final int generation;
+        int size;
+
+        Chunk(int generation) {
+            this.generation = generation;
+        }
+
+        Chunk(Chunk other, int generation) {
+            System.arraycopy(other.items, 0, items, 0, other.size);
+            this.size = other.size;
+            this.generation = generation;
+        }
+
+        // returns the index of the object with the given key, or -1 if none
+        int indexOf(long key) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long midKey = items[mid].zOrder;
+                if (midKey < key) {
+                    low = mid + 1;
+                } else if (midKey > key) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /*
+     * An unmodifiable list of the objects in a set of chunks that no longer change.
+     * Walking it in order finds each object's chunk in constant time, by remembering
+     * the chunk of the last lookup; that hint is shared by every thread reading the
+     * list, which is harmless, since each lookup checks the hint before using it.
+     */
+    private static final class Snapshot extends AbstractList<GObject> implements RandomAccess {
+        private final Chunk[] chunks;
+        private final int[] ends;   // index just past the last object of each chunk
+        private final int size;
+        private int hint = 0;       // chunk of the most recent lookup
+
+        Snapshot(Chunk[] chunks, int[] ends) {
+            this.chunks = chunks;
+            this.ends = ends;
+            this.size = ends.length == 0 ? 0 : ends[ends.length - 1];
+        }
+
+        @Override
+        public GObject get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+            }
+            int chunk = hint;
+            if (chunk >= ends.length || index >= ends[chunk] || (chunk > 0 && index < ends[chunk - 1])) {
+                chunk = chunkOf(index);
+                hint = chunk;
+            }
+            return chunks[chunk].items[chunk == 0 ? index : index - ends[chunk - 1]];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        // returns the first chunk that ends after the given index
+        private int chunkOf(int index) {
+            int low = 0;
+            int high = ends.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ends[mid] <= index) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
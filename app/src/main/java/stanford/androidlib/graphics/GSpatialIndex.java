@@ -0,0 +1,232 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import android.graphics.RectF;
+import java.util.*;
+
+/**
+ * A spatial hash over the bounding boxes of the GObjects in a GCanvas.
+ * The plane is divided into square cells, and each cell is hashed into one of a
+ * fixed number of buckets, so memory use does not depend on how large the world is.
+ * Point and rectangle queries only need to look at the few buckets that cover the
+ * queried area rather than at every object in the canvas.
+ *
+ * <p>
+ * Objects are not re-bucketed as soon as they move; instead they are marked dirty
+ * and are re-bucketed lazily the next time the index is queried.  This keeps
+ * moving sprites cheap when nobody is touching the screen.
+ * </p>
+ *
+ * <p>
+ * This class is used internally by GCanvas; turn it on by calling
+ * GCanvas.setSpatialIndexEnabled(true).
+ * </p>
+ */
+final class GSpatialIndex {
+    /** Default width/height of each grid cell, in pixels. */
+    static final float DEFAULT_CELL_SIZE = 64f;
+
+    // number of hash buckets; must be a power of 2
+    private static final int BUCKET_COUNT = 1024;
+
+    // objects covering more cells than this are kept in a separate 'large' list
+    private static final int MAX_CELLS_PER_OBJECT = 64;
+
+    // bounds are padded slightly so that objects whose contains() test has some
+    // tolerance (such as GLine) are still found near their edges
+    private static final float BOUNDS_PADDING = GLine.LINE_TOLERANCE + 0.5f;
+
+    // sorts query results from back to front in the z-ordering
+    private static final Comparator<GObject> Z_ORDER = new Comparator<GObject>() {
+        public int compare(GObject o1, GObject o2) {
+            return o1.zOrder < o2.zOrder ? -1 : (o1.zOrder == o2.zOrder ? 0 : 1);
+        }
+    };
+
+    // private fields
+    private final float cellSize;
+    private final List<List<GObject>> buckets;
+    private final List<GObject> large = new ArrayList<>();
+    private final List<GObject> dirty = new ArrayList<>();
+    private int queryStamp = 0;
+    private final RectF area = new RectF();        // reused by getElementsAt
+    private final RectF objBounds = new RectF();   // reused by add and collect
+
+    /**
+     * Constructs a new empty index whose cells are the given number of pixels wide and tall.
+     * @throws IllegalArgumentException if cellSize is not a positive number
+     */
+    GSpatialIndex(float cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cell size must be > 0: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        buckets = new ArrayList<>(BUCKET_COUNT);
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.add(new ArrayList<GObject>());
+        }
+    }
+
+    /**
+     * Returns the width/height of each grid cell, in pixels.
+     */
+    float getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Adds the given object to the index based on its current bounds.
+     */
+    void add(GObject obj) {
+        RectF bounds = obj.getBounds(objBounds);
+        int left = cell(bounds.left - BOUNDS_PADDING);
+        int top = cell(bounds.top - BOUNDS_PADDING);
+        int right = cell(bounds.right + BOUNDS_PADDING);
+        int bottom = cell(bounds.bottom + BOUNDS_PADDING);
+        obj.indexCellLeft = left;
+        obj.indexCellTop = top;
+        obj.indexCellRight = right;
+        obj.indexCellBottom = bottom;
+        obj.indexDirty = false;
+        if ((long) (right - left + 1) * (bottom - top + 1) > MAX_CELLS_PER_OBJECT) {
+            obj.indexLarge = true;
+            large.add(obj);
+        } else {
+            obj.indexLarge = false;
+            for (int cy = top; cy <= bottom; cy++) {
+                for (int cx = left; cx <= right; cx++) {
+                    bucket(cx, cy).add(obj);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all objects from the index.
+     */
+    void clear() {
+        for (List<GObject> bucket : buckets) {
+            bucket.clear();
+        }
+        large.clear();
+        dirty.clear();
+    }
+
+    /**
+     * Returns the topmost object in the z-ordering that contains the given point,
+     * or null if no object contains it.
+     */
+    GObject getElementAt(float x, float y) {
+        flush();
+        GObject best = null;
+        for (GObject obj : bucket(cell(x), cell(y))) {
+            if ((best == null || obj.zOrder > best.zOrder) && obj.contains(x, y)) {
+                best = obj;
+            }
+        }
+        for (GObject obj : large) {
+            if ((best == null || obj.zOrder > best.zOrder) && obj.contains(x, y)) {
+                best = obj;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Adds to the given list every object whose bounding box overlaps the given
+     * rectangle, ordered from back to front in the z-ordering.
+     */
+    void getElementsAt(float x, float y, float width, float height, List<GObject> result) {
+        flush();
+        queryStamp++;
+        int start = result.size();
+        area.set(x, y, x + width, y + height);
+        int left = cell(x);
+        int top = cell(y);
+        int right = cell(x + width);
+        int bottom = cell(y + height);
+        if ((long) (right - left + 1) * (bottom - top + 1) >= BUCKET_COUNT) {
+            // area covers more cells than there are buckets; just visit every bucket once
+            for (List<GObject> bucket : buckets) {
+                collect(bucket, area, result);
+            }
+        } else {
+            for (int cy = top; cy <= bottom; cy++) {
+                for (int cx = left; cx <= right; cx++) {
+                    collect(bucket(cx, cy), area, result);
+                }
+            }
+        }
+        collect(large, area, result);
+        Collections.sort(result.subList(start, result.size()), Z_ORDER);
+    }
+
+    /**
+     * Notes that the given object's bounds may have changed.
+     * It will be re-bucketed before the next query.
+     */
+    void markDirty(GObject obj) {
+        if (!obj.indexDirty) {
+            obj.indexDirty = true;
+            dirty.add(obj);
+        }
+    }
+
+    /**
+     * Removes the given object from the index.
+     */
+    void remove(GObject obj) {
+        if (obj.indexLarge) {
+            large.remove(obj);
+        } else {
+            for (int cy = obj.indexCellTop; cy <= obj.indexCellBottom; cy++) {
+                for (int cx = obj.indexCellLeft; cx <= obj.indexCellRight; cx++) {
+                    bucket(cx, cy).remove(obj);
+                }
+            }
+        }
+        obj.indexDirty = false;   // any stale entry in dirty list will be skipped
+    }
+
+    // returns the bucket that the given cell hashes into
+    private List<GObject> bucket(int cx, int cy) {
+        return buckets.get(((cx * 73856093) ^ (cy * 19349663)) & (BUCKET_COUNT - 1));
+    }
+
+    // returns the cell row/column that contains the given coordinate
+    private int cell(float coord) {
+        return (int) Math.floor(coord / cellSize);
+    }
+
+    // adds objects from the given bucket that overlap the area and were not yet seen by this query
+    private void collect(List<GObject> bucket, RectF area, List<GObject> result) {
+        for (GObject obj : bucket) {
+            if (obj.indexQueryStamp != queryStamp) {
+                obj.indexQueryStamp = queryStamp;
+                RectF bounds = obj.getBounds(objBounds);
+                if (bounds.left <= area.right && area.left <= bounds.right
+                        && bounds.top <= area.bottom && area.top <= bounds.bottom) {
+                    result.add(obj);
+                }
+            }
+        }
+    }
+
+    // re-buckets any objects that moved or resized since the last query
+    private void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        for (GObject obj : dirty) {
+            if (obj.indexDirty) {
+                remove(obj);
+                add(obj);
+            }
+        }
+        dirty.clear();
+    }
+}
@@ -1,4 +1,17 @@
 /*
+ * @version 2026/10/16
+ * - update() reports movement to the enclosing GCanvas's spatial index
+ * - added collision layers and masks, used by collidesWith and GCollisionEngine
+ * - reports bitmap animation frame changes to the enclosing GCanvas, for partial redraw
+ * - added sprite sheet support (GSpriteSheet): animates by drawing frames of one shared bitmap
+ * - position and velocity can live in the canvas's GKinematics arrays (see GCanvas.setKinematicsEnabled),
+ *   read through accessors that refresh them from the store and written back one value at a time
+ * - collidesWith compares the exact outline of a GPolygon shape, not just its bounding box
+ * - added getBounds(RectF), which reads the sprite's rectangle without creating a GRectangle
+ * - added animation clips (GAnimationClip), timed in seconds rather than ticks, with frame events
+ * - added optional pixel-accurate collisions (setPixelCollision), using cached GBitmapMasks
+ * - added continuous collision detection (setContinuousCollision), so fast sprites cannot pass through others
+ * - sprites start with a shared default paint from GResourceCache; added setLineWidth
  * @version 2017/03/01
  * - bug fix for setCollisionMarginTop/Left (were also setting bottom/right margins)
  * @version 2017/02/28
@@ -31,6 +44,7 @@ import android.graphics.*;
 import android.os.Bundle;
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import stanford.androidlib.SimpleCanvas;
 
 /**
@@ -52,6 +66,18 @@ import stanford.androidlib.SimpleCanvas;
 public class GSprite extends GObject {
     private static boolean ourDebug = false;
     private static Paint ourDebugColor = null;
+    private static final AtomicInteger ourNextId = new AtomicInteger();
+
+    // most times a sprite sweeping for collisions can hit something in one update
+    private static final int MAX_SWEEP_PASSES = 4;
+
+    // scratch rectangle for pixel collision tests; per thread, like GObject's scratchBounds
+    private static final ThreadLocal<RectF> pixelRegion = new ThreadLocal<RectF>() {
+        @Override
+        protected RectF initialValue() {
+            return new RectF();
+        }
+    };
 
     /**
      * Sets a global "debug" flag that will cause some log messages to be printed,
@@ -69,18 +95,34 @@ public class GSprite extends GObject {
         ourDebug = debug;
     }
 
-    // private fields (instance variables)
+    // private fields (instance variables); while this sprite is moved by a GKinematics
+    // store, rect, collisionRect, dx, dy, and the shape's location are only a cache of
+    // the store's arrays, so they are read through rect(), collisionRect(), dx(), dy(),
+    // and shape(), and changed only through the helpers that also write the store
     private RectF rect;
     private RectF collisionRect;
     private GObject shape;
 
     // images and walk cycle
     private ArrayList<Bitmap> bitmaps = new ArrayList<>();
+    private GSpriteSheet spriteSheet = null;
+    private int[] sheetFrames = null;   // indexes of frames in spriteSheet, in animation order
     private int currentBitmap = 0;
     private int framesPerBitmap = 1;
     private int frameCount = 0;
     private boolean loopBitmaps = true;
 
+    // animation clip playback; changed only by the thread that runs animation ticks
+    private Map<String, GAnimationClip> clips = null;
+    private GAnimationClip clip = null;                    // clip being played, or null
+    private GAnimationClip.Timeline clipTimeline = null;   // its compiled timeline
+    private GAnimationClip.ClipListener clipListener = null;
+    private float clipSpeed = 1;
+    private float clipTime = 0;         // seconds since the start of the clip's current pass
+    private int clipKey = -1;           // timeline key last reached, or -1 before the first tick
+    private int clipFrame = 0;          // frame shown for that key
+    private boolean clipFinished = false;
+
     // velocity and acceleration
     private float dx = 0;
     private float dy = 0;
@@ -90,6 +132,37 @@ public class GSprite extends GObject {
     // flags
     private boolean collidable = true;
 
+    // pixel-accurate collision; the mask is looked up again only when the drawn bitmap changes
+    private boolean pixelCollision = false;
+    private int pixelCollisionResolution = 1;
+    private GBitmapMask pixelMask = null;
+    private Bitmap pixelMaskBitmap = null;
+
+    // continuous collision detection; read by GKinematics, which cannot move sweeping sprites
+    boolean continuousCollision = false;
+    private int contactResponse = GContact.STOP;
+    private GContact.ContactListener contactListener = null;
+    private GContact contact = null;   // reused for every contact this sprite reports
+
+    // where the last update started and on which animation tick, so that sprites
+    // sweeping for collisions can tell how far this one moved on the current tick
+    private float stepStartX;
+    private float stepStartY;
+    private int stepTick = -1;
+
+    // slot in the enclosing GCanvas's structure-of-arrays store, if kinematics is enabled
+    GKinematics kinematics = null;
+    int kinematicsSlot = -1;
+    int kinematicsStep;   // store's step count when rect, collisionRect, dx and dy were last copied from it
+
+    // collision filtering; sprites collide only if each one's layers match the other's mask
+    private int collisionLayers = 1;
+    private int collisionMask = ~0;
+
+    // bookkeeping for GCollisionEngine
+    final int spriteId = ourNextId.getAndIncrement();
+    int collisionStamp;
+
     // extra properties
     private Map<String, Object> extraProperties = new HashMap<>();
 
@@ -141,12 +214,45 @@ public class GSprite extends GObject {
         if (bitmap == null) {
             throw new NullPointerException();
         }
-        this.paint = new Paint();
+        this.paint = GResourceCache.getPaint(Color.BLACK, Paint.Style.FILL,
+                /* strokeWidth */ 0f, /* antiAlias */ false);
         this.bitmaps.add(bitmap);
         this.rect = new RectF(x, y, x + width, y + height);
         this.collisionRect = new RectF(x, y, x + width, y + height);
     }
 
+    /**
+     * Constructs a new sprite at (0, 0) that animates through all frames of the given sprite sheet.
+     * The sprite's size is set to the size of the sheet's first frame.
+     * @throws IllegalArgumentException if the sheet has no frames
+     */
+    public GSprite(GSpriteSheet sheet) {
+        this(sheet, 0, 0);
+    }
+
+    /**
+     * Constructs a new sprite at the given x/y location that animates through
+     * all frames of the given sprite sheet.
+     * The sprite's size is set to the size of the sheet's first frame.
+     * @throws IllegalArgumentException if the sheet has no frames
+     */
+    public GSprite(GSpriteSheet sheet, float x, float y) {
+        if (sheet == null) {
+            throw new NullPointerException();
+        }
+        if (sheet.getFrameCount() == 0) {
+            throw new IllegalArgumentException("sprite sheet has no frames");
+        }
+        this.paint = GResourceCache.getPaint(Color.BLACK, Paint.Style.FILL,
+                /* strokeWidth */ 0f, /* antiAlias */ false);
+        float width = sheet.getFrameWidth(0);
+        float height = sheet.getFrameHeight(0);
+        this.rect = new RectF(x, y, x + width, y + height);
+        this.collisionRect = new RectF(x, y, x + width, y + height);
+        this.spriteSheet = sheet;
+        this.sheetFrames = allFrames(sheet);
+    }
+
     /**
      * Constructs a new sprite at the given x/y location that displays the given graphical object.
      */
@@ -167,7 +273,8 @@ public class GSprite extends GObject {
         if (object == null) {
             throw new NullPointerException();
         }
-        this.paint = new Paint();
+        this.paint = GResourceCache.getPaint(Color.BLACK, Paint.Style.FILL,
+                /* strokeWidth */ 0f, /* antiAlias */ false);
         this.shape = object;
         this.rect = new RectF(x, y, x + width, y + height);
         this.collisionRect = new RectF(x, y, x + width, y + height);
@@ -223,6 +330,16 @@ public class GSprite extends GObject {
         canvas.add(this);
     }
 
+    /**
+     * Constructs a new sprite at the given x/y location that animates through
+     * all frames of the given sprite sheet, and adds it to the given canvas.
+     * @throws IllegalArgumentException if the sheet has no frames
+     */
+    public GSprite(GCanvas canvas, GSpriteSheet sheet, float x, float y) {
+        this(sheet, x, y);
+        canvas.add(this);
+    }
+
     /**
      * Constructs a new sprite at the given x/y location that displays the given graphical object.
      */
@@ -245,12 +362,30 @@ public class GSprite extends GObject {
         if (object == null) {
             throw new NullPointerException();
         }
-        this.paint = new Paint();
+        this.paint = GResourceCache.getPaint(Color.BLACK, Paint.Style.FILL,
+                /* strokeWidth */ 0f, /* antiAlias */ false);
         this.shape = object;
         this.rect = new RectF(x, y, x + width, y + height);
         this.collisionRect = new RectF(x, y, x + width, y + height);
     }
 
+    /**
+     * Adds the given animation clip to this sprite, so that it can be played by
+     * name with playClip.  Replaces any clip previously added with the same name.
+     * The same clip can be added to any number of sprites.
+     * @throws NullPointerException if clip is null
+     */
+    public GSprite addClip(GAnimationClip clip) {
+        if (clip == null) {
+            throw new NullPointerException();
+        }
+        if (clips == null) {
+            clips = new HashMap<>();
+        }
+        clips.put(clip.getName(), clip);
+        return this;
+    }
+
     /**
      * Adds this sprite to the given graphical canvas.
      * A convenience method that just calls the canvas's add(GObject) method.
@@ -364,10 +499,10 @@ public class GSprite extends GObject {
      * favoring the left edge if needed.
      */
     public GSprite boundHorizontal(float leftX, float rightX) {
-        if (rect.right >= rightX) {
+        if (rect().right >= rightX) {
             setRightX(rightX - Math.ulp(rightX));
         }
-        if (rect.left < leftX) {
+        if (rect().left < leftX) {
             setX(leftX);
         }
         return this;
@@ -412,10 +547,10 @@ public class GSprite extends GObject {
      * favoring the top edge if needed.
      */
     public GSprite boundVertical(float topY, float bottomY) {
-        if (rect.bottom >= bottomY) {
+        if (rect().bottom >= bottomY) {
             setBottomY(bottomY - Math.ulp(bottomY));
         }
-        if (rect.top < topY) {
+        if (rect().top < topY) {
             setY(topY);
         }
         return this;
@@ -434,16 +569,33 @@ public class GSprite extends GObject {
      * Collision is determined by the collision rectangles of the two sprites.
      * By default this is just the bounding boxes of their bitmaps or GObjects.
      * But if you have set a collision margin, then that margin is used here.
+     * If neither sprite has a collision margin and either one's shape is a GPolygon,
+     * the polygon's exact outline is used instead of its bounding box.
+     * If either sprite has pixel collision turned on (see setPixelCollision), the
+     * sprites collide only if their collision rectangles overlap in a place where
+     * both are opaque.
      */
     public boolean collidesWith(GSprite otherSprite) {
-        if (otherSprite == null || !collidable || !otherSprite.collidable) {
+        if (otherSprite == null || !collidable || !otherSprite.collidable
+                || (collisionLayers & otherSprite.collisionMask) == 0
+                || (otherSprite.collisionLayers & collisionMask) == 0) {
             return false;
         }
-        if (!hasCollisionBoundary() && !otherSprite.hasCollisionBoundary()
-                && shape != null && otherSprite.shape != null) {
-            return shape.intersects(otherSprite.shape);
+        GObject shape1 = shape();
+        GObject shape2 = otherSprite.shape();
+        if (pixelCollision || otherSprite.pixelCollision) {
+            return RectF.intersects(collisionRect(), otherSprite.collisionRect())
+                    && pixelsOverlap(otherSprite);
+        } else if (!hasCollisionBoundary() && !otherSprite.hasCollisionBoundary()
+                && shape1 != null && shape2 != null) {
+            if (shape1 instanceof GPolygon) {
+                return ((GPolygon) shape1).intersectsShape(shape2);
+            } else if (shape2 instanceof GPolygon) {
+                return ((GPolygon) shape2).intersectsShape(shape1);
+            }
+            return shape1.intersects(shape2);
         } else {
-            return RectF.intersects(collisionRect, otherSprite.collisionRect);
+            return RectF.intersects(collisionRect(), otherSprite.collisionRect());
         }
     }
 
@@ -485,10 +637,12 @@ public class GSprite extends GObject {
 
     /**
      * Returns the bitmap for this sprite as passed to the constructor.
-     * If a GObject was passed instead, this will be null.
+     * If a GObject or sprite sheet was passed instead, this will be null.
      */
     public Bitmap getBitmap() {
-        if (bitmaps != null && !bitmaps.isEmpty()) {
+        if (clip != null && spriteSheet == null) {
+            return bitmaps.get(clipFrame);
+        } else if (bitmaps != null && !bitmaps.isEmpty()) {
             return bitmaps.get(currentBitmap);
         } else {
             return null;
@@ -503,6 +657,56 @@ public class GSprite extends GObject {
         return bitmaps;
     }
 
+    /**
+     * Sets the given rectangle to this sprite's bounding box, and returns it.
+     * @throws NullPointerException if bounds is null
+     */
+    @Override
+    public RectF getBounds(RectF bounds) {
+        bounds.set(rect());
+        return bounds;
+    }
+
+    /**
+     * Returns the animation clip with the given name that was added to this sprite
+     * with addClip, or null if there is none.
+     */
+    public GAnimationClip getClip(String name) {
+        return clips == null ? null : clips.get(name);
+    }
+
+    /**
+     * Returns how fast this sprite plays animation clips, as a multiple of their
+     * normal speed.  Default 1.
+     */
+    public float getClipSpeed() {
+        return clipSpeed;
+    }
+
+    /**
+     * Returns the number of seconds since the current pass through this sprite's
+     * animation clip began, or 0 if no clip is playing.
+     */
+    public float getClipTime() {
+        return clip == null ? 0 : clipTime;
+    }
+
+    /**
+     * Returns the bit set of collision layers that this sprite belongs to.
+     * By default every sprite is in layer 1 only (a value of 1).
+     */
+    public int getCollisionLayers() {
+        return collisionLayers;
+    }
+
+    /**
+     * Returns the bit set of collision layers that this sprite can collide with.
+     * By default this is all layers (a value of ~0, or -1).
+     */
+    public int getCollisionMask() {
+        return collisionMask;
+    }
+
     /**
      * Returns this sprite's collision margin in the y direction.
      * This will be 0 unless you have called setCollisionMargin previously.
@@ -510,7 +714,7 @@ public class GSprite extends GObject {
      * for collision detection.
      */
     public float getCollisionMarginBottom() {
-        return collisionRect.top - rect.top;
+        return collisionRect().top - rect().top;
     }
 
     /**
@@ -520,7 +724,7 @@ public class GSprite extends GObject {
      * for collision detection.
      */
     public float getCollisionMarginLeft() {
-        return collisionRect.left - rect.left;
+        return collisionRect().left - rect().left;
     }
 
     /**
@@ -530,7 +734,7 @@ public class GSprite extends GObject {
      * for collision detection.
      */
     public float getCollisionMarginRight() {
-        return rect.right - collisionRect.right;
+        return rect().right - collisionRect().right;
     }
 
     /**
@@ -540,7 +744,7 @@ public class GSprite extends GObject {
      * for collision detection.
      */
     public float getCollisionMarginTop() {
-        return collisionRect.top - rect.top;
+        return collisionRect().top - rect().top;
     }
 
     /**
@@ -550,7 +754,7 @@ public class GSprite extends GObject {
      * for collision detection.
      */
     public float getCollisionMarginX() {
-        return collisionRect.left - rect.left;
+        return collisionRect().left - rect().left;
     }
 
     /**
@@ -560,17 +764,34 @@ public class GSprite extends GObject {
      * for collision detection.
      */
     public float getCollisionMarginY() {
-        return collisionRect.top - rect.top;
+        return collisionRect().top - rect().top;
+    }
+
+    /**
+     * Returns how this sprite responds when it runs into another sprite while
+     * sweeping for collisions: GContact.NONE, STOP, or BOUNCE.
+     */
+    public int getContactResponse() {
+        return contactResponse;
     }
 
     /**
      * Returns the index of the bitmap currently being displayed
-     * in this sprite's list of bitmaps.
+     * in this sprite's list of bitmaps (or of sprite sheet frames).
      */
     public int getCurrentBitmapIndex() {
         return this.currentBitmap;
     }
 
+    /**
+     * Returns the animation clip this sprite is playing, or null if none.
+     * A clip that has finished stays current until another clip is played or
+     * stopClip is called.
+     */
+    public GAnimationClip getCurrentClip() {
+        return clip;
+    }
+
     /**
      * Returns the extra property inside this sprite with the given name.
      * If the given extra property has not been previously set inside this sprite, returns null.
@@ -618,7 +839,15 @@ public class GSprite extends GObject {
      * Returns this sprite's height.
      */
     public float getHeight() {
-        return rect.height();
+        return rect().height();
+    }
+
+    /**
+     * Returns the number of pixels along each side of the square that each bit of
+     * this sprite's pixel collision mask stands for.  Default 1.
+     */
+    public int getPixelCollisionResolution() {
+        return pixelCollisionResolution;
     }
 
     /**
@@ -626,28 +855,36 @@ public class GSprite extends GObject {
      */
     @SuppressWarnings("unchecked")
     public <T extends GObject> T getShape() {
-        return (T) this.shape;
+        return (T) shape();
+    }
+
+    /**
+     * Returns the sprite sheet this sprite animates through, or null if it
+     * displays bitmaps or a GObject instead.
+     */
+    public GSpriteSheet getSpriteSheet() {
+        return spriteSheet;
     }
 
     /**
      * Returns this sprite's velocity in the x direction.
      */
     public float getVelocityX() {
-        return dx;
+        return dx();
     }
 
     /**
      * Returns this sprite's velocity in the y direction.
      */
     public float getVelocityY() {
-        return dy;
+        return dy();
     }
 
     /**
      * Returns the sprite's width.
      */
     public float getWidth() {
-        return rect.width();
+        return rect().width();
     }
 
     /**
@@ -655,7 +892,7 @@ public class GSprite extends GObject {
      */
     @Override
     public float getX() {
-        return rect.left;
+        return rect().left;
     }
 
     /**
@@ -663,14 +900,14 @@ public class GSprite extends GObject {
      */
     @Override
     public float getY() {
-        return rect.top;
+        return rect().top;
     }
 
     /**
      * Returns true if you have set a collision margin.
      */
     public boolean hasCollisionBoundary() {
-        return !collisionRect.equals(rect);
+        return !collisionRect().equals(rect());
     }
 
     /**
@@ -690,6 +927,14 @@ public class GSprite extends GObject {
         return collidesWith(otherSprite);
     }
 
+    /**
+     * Returns true if this sprite has played an animation clip in ONCE mode
+     * all the way to its end.
+     */
+    public boolean isClipFinished() {
+        return clipFinished;
+    }
+
     /**
      * Returns whether this sprite can be collided with.
      * This will be true unless you have called setCollidable.
@@ -698,6 +943,14 @@ public class GSprite extends GObject {
         return collidable;
     }
 
+    /**
+     * Returns true if this sprite sweeps for collisions as it moves.
+     * Default false.
+     */
+    public boolean isContinuousCollision() {
+        return continuousCollision;
+    }
+
     /**
      * Returns whether this sprite is within the bounds of its canvas.
      * This will use the canvas last passed to paint() if any.
@@ -755,6 +1008,7 @@ public class GSprite extends GObject {
      * Returns whether this sprite is within the horizontal (x) bounds of the given x area.
      */
     public boolean isInBoundsHorizontal(float leftX, float rightX) {
+        RectF rect = rect();
         return rect.left >= leftX && rect.right < rightX;
     }
 
@@ -784,6 +1038,7 @@ public class GSprite extends GObject {
      * Returns whether this sprite is within the vertical (y) bounds of the given y area.
      */
     public boolean isInBoundsVertical(float topY, float bottomY) {
+        RectF rect = rect();
         return rect.top >= topY && rect.bottom < bottomY;
     }
 
@@ -800,13 +1055,22 @@ public class GSprite extends GObject {
      * Returns whether this sprite has a non-zero velocity in any dimension.
      */
     public boolean isMoving() {
-        return dx != 0 || dy != 0;
+        return dx() != 0 || dy() != 0;
+    }
+
+    /**
+     * Returns true if this sprite uses pixel-accurate collisions.
+     * Default false.
+     */
+    public boolean isPixelCollision() {
+        return pixelCollision;
     }
 
     /**
      * Moves the sprite on the screen to the given x/y position.
      */
     public GSprite moveTo(float x, float y) {
+        GObject shape = shape();
         if (shape != null) {
             shape.moveTo(x, y);
         }
@@ -819,6 +1083,7 @@ public class GSprite extends GObject {
      */
     @Override
     public GSprite moveTo(GPoint point) {
+        GObject shape = shape();
         if (shape != null) {
             shape.moveTo(point);
         }
@@ -831,7 +1096,13 @@ public class GSprite extends GObject {
      */
     public void paint(Canvas canvas) {
         if (visible) {
-            if (bitmaps != null && bitmaps.size() > currentBitmap) {
+            GObject shape = shape();
+            if (spriteSheet != null) {
+                Rect frame = getSheetFrame();
+                canvas.drawBitmap(spriteSheet.getBitmap(), frame, rect(), /* paint */ null);
+            } else if (clip != null) {
+                canvas.drawBitmap(bitmaps.get(clipFrame), getX(), getY(), /* paint */ null);
+            } else if (bitmaps != null && bitmaps.size() > currentBitmap) {
                 Bitmap bitmap = bitmaps.get(currentBitmap);
                 canvas.drawBitmap(bitmap, getX(), getY(), /* paint */ null);
             } else if (shape != null) {
@@ -840,19 +1111,67 @@ public class GSprite extends GObject {
         }
         if (ourDebug) {
             // draw semi-transparent collision rectangle
-            canvas.drawRect(collisionRect, ourDebugColor);
+            canvas.drawRect(collisionRect(), ourDebugColor);
 
             // draw velocity vector if shape is moving
             if (isMoving()) {
                 GArrow velocity = new GArrow(
                         getCenterX(), getCenterY(),
-                        getCenterX() + dx, getCenterY() + dy);
+                        getCenterX() + dx(), getCenterY() + dy());
                 velocity.setPaint(ourDebugColor);
                 velocity.paint(canvas);
             }
         }
     }
 
+    /**
+     * Starts playing the animation clip with the given name, which must have been
+     * added with addClip, from its first frame.
+     * @throws NullPointerException if name is null
+     * @throws IllegalArgumentException if no clip with that name has been added
+     * @throws IllegalStateException if the clip has no frames
+     * @throws IndexOutOfBoundsException if the clip uses a frame this sprite does not have
+     */
+    public GSprite playClip(String name) {
+        if (name == null) {
+            throw new NullPointerException();
+        }
+        GAnimationClip named = getClip(name);
+        if (named == null) {
+            throw new IllegalArgumentException("no such clip: " + name);
+        }
+        return playClip(named);
+    }
+
+    /**
+     * Starts playing the given animation clip from its first frame.
+     * While a clip is playing, it decides which of the sprite's bitmaps or sprite
+     * sheet frames is drawn, instead of setFramesPerBitmap and setLoopBitmaps.
+     * The clip advances by the canvas's elapsed animation time on each tick.
+     * @throws NullPointerException if clip is null
+     * @throws IllegalStateException if the clip has no frames
+     * @throws IndexOutOfBoundsException if the clip uses a frame this sprite does not have
+     */
+    public GSprite playClip(GAnimationClip clip) {
+        if (clip == null) {
+            throw new NullPointerException();
+        }
+        GAnimationClip.Timeline timeline = clip.compile();
+        int available = spriteSheet != null ? spriteSheet.getFrameCount()
+                : (bitmaps == null ? 0 : bitmaps.size());
+        if (timeline.maxFrame >= available) {
+            throw new IndexOutOfBoundsException(String.valueOf(timeline.maxFrame));
+        }
+        this.clip = clip;
+        this.clipTimeline = timeline;
+        this.clipTime = 0;
+        this.clipKey = -1;
+        this.clipFrame = timeline.frames[0];
+        this.clipFinished = false;
+        repaint();
+        return this;
+    }
+
     /**
      * Sets the extra property inside this sprite with the given name.
      * The sprite's internal map of extra properties is meant as a catch-all
@@ -900,14 +1219,16 @@ public class GSprite extends GObject {
      * For example, passing 90 is a 'right' turn, -90 is a 'left' turn, and 180 is an about-face.
      */
     public GSprite rotateVelocity(float degrees) {
+        float dx = dx();
+        float dy = dy();
+
         // convert current velocity to polar
         float radians = (float) Math.toRadians(degrees);
 
         // round to 4 digits after decimal
         float newDx = (float) (Math.round((dx * Math.cos(radians) - dy * Math.sin(radians)) * 1e4) / 1e4);
         float newDy = (float) (Math.round((dx * Math.sin(radians) + dy * Math.cos(radians)) * 1e4) / 1e4);
-        dx = newDx;
-        dy = newDy;
+        storeVelocity(newDx, newDy);
         return this;
     }
 
@@ -934,6 +1255,7 @@ public class GSprite extends GObject {
      */
     @Override
     public GSprite scale(float sx, float sy) {
+        GObject shape = shape();
         if (shape != null) {
             shape.scale(sx, sy);
         }
@@ -947,7 +1269,7 @@ public class GSprite extends GObject {
      * the sprite's velocity.
      */
     public GSprite setAccelerationX(float accelerationX) {
-        this.accelerationX = accelerationX;
+        storeAcceleration(accelerationX, this.accelerationY);
         return this;
     }
 
@@ -957,7 +1279,7 @@ public class GSprite extends GObject {
      * the sprite's velocity.
      */
     public GSprite setAccelerationY(float accelerationY) {
-        this.accelerationY = accelerationY;
+        storeAcceleration(this.accelerationX, accelerationY);
         return this;
     }
 
@@ -967,8 +1289,7 @@ public class GSprite extends GObject {
      * the sprite's velocity.
      */
     public GSprite setAcceleration(float accelerationX, float accelerationY) {
-        this.accelerationX = accelerationX;
-        this.accelerationY = accelerationY;
+        storeAcceleration(accelerationX, accelerationY);
         return this;
     }
 
@@ -985,8 +1306,11 @@ public class GSprite extends GObject {
         ArrayList<Bitmap> newBitmaps = new ArrayList<>();
         newBitmaps.add(bitmap);
         synchronized (this) {
+            stopClip();
             currentBitmap = 0;
             bitmaps = newBitmaps;
+            spriteSheet = null;
+            sheetFrames = null;
             setSizeFromBitmap(bitmap);
         }
         return this;
@@ -997,8 +1321,11 @@ public class GSprite extends GObject {
      */
     public GSprite setBitmaps(ArrayList<Bitmap> bitmaps) {
         synchronized (this) {
+            stopClip();
             this.bitmaps = bitmaps;
             this.currentBitmap = 0;
+            this.spriteSheet = null;
+            this.sheetFrames = null;
             if (!bitmaps.isEmpty()) {
                 setSizeFromBitmap(bitmaps.get(0));
             }
@@ -1013,8 +1340,11 @@ public class GSprite extends GObject {
         ArrayList<Bitmap> newBitmaps = new ArrayList<>();
         Collections.addAll(newBitmaps, bitmaps);
         synchronized (this) {
+            stopClip();
             this.currentBitmap = 0;
             this.bitmaps = newBitmaps;
+            this.spriteSheet = null;
+            this.sheetFrames = null;
             if (bitmaps.length > 0) {
                 setSizeFromBitmap(bitmaps[0]);
             }
@@ -1034,6 +1364,7 @@ public class GSprite extends GObject {
      */
     @Override
     public GSprite setBounds(float x, float y, float width, float height) {
+        GObject shape = shape();
         if (shape != null) {
             shape.setBounds(x, y, width, height);
         }
@@ -1051,6 +1382,7 @@ public class GSprite extends GObject {
      */
     @Override
     public GSprite setBounds(GPoint location, GDimension size) {
+        GObject shape = shape();
         if (shape != null) {
             shape.setBounds(location, size);
         }
@@ -1058,6 +1390,28 @@ public class GSprite extends GObject {
         return this;
     }
 
+    /**
+     * Sets the listener to tell about the events and endings of the animation
+     * clips this sprite plays.  Pass null to stop listening.
+     */
+    public GSprite setClipListener(GAnimationClip.ClipListener listener) {
+        this.clipListener = listener;
+        return this;
+    }
+
+    /**
+     * Sets how fast this sprite plays animation clips, as a multiple of their
+     * normal speed; for example, 2 plays them twice as fast, and 0 pauses them.
+     * @throws IllegalArgumentException if speed is negative
+     */
+    public GSprite setClipSpeed(float speed) {
+        if (!(speed >= 0)) {
+            throw new IllegalArgumentException("speed must be >= 0: " + speed);
+        }
+        this.clipSpeed = speed;
+        return this;
+    }
+
     /**
      * Sets whether it is possible to collide with this sprite.
      * If false, collidesWith will always return false.
@@ -1067,6 +1421,28 @@ public class GSprite extends GObject {
         return this;
     }
 
+    /**
+     * Sets the bit set of collision layers that this sprite belongs to.
+     * For example, if players are in layer 1 and enemy bullets are in layer 2,
+     * you could write {@code bullet.setCollisionLayers(2).setCollisionMask(1);}
+     * so that bullets only ever collide with players and not with each other.
+     * Two sprites can collide only if each one's layers overlap the other's mask.
+     */
+    public GSprite setCollisionLayers(int layers) {
+        this.collisionLayers = layers;
+        return this;
+    }
+
+    /**
+     * Sets the bit set of collision layers that this sprite can collide with.
+     * Two sprites can collide only if each one's layers overlap the other's mask.
+     * Passing 0 means that this sprite will never collide with anything.
+     */
+    public GSprite setCollisionMask(int mask) {
+        this.collisionMask = mask;
+        return this;
+    }
+
     /**
      * Sets a collision margin for this sprite.
      * Collision is determined by the collision rectangles of the two sprites.
@@ -1108,15 +1484,17 @@ public class GSprite extends GObject {
      * would mean that only the innermost 12x8 pixels would count as a collision.
      */
     public GSprite setCollisionMargin(float pxLeft, float pxTop, float pxRight, float pxBottom) {
-        collisionRect.left = rect.left + pxLeft;
-        collisionRect.top = rect.top + pxTop;
-        collisionRect.right = rect.right - pxRight;
-        collisionRect.bottom = rect.bottom - pxBottom;
-        if (collisionRect.left > collisionRect.right || collisionRect.top > collisionRect.bottom) {
+        RectF rect = rect();
+        float left = rect.left + pxLeft;
+        float top = rect.top + pxTop;
+        float right = rect.right - pxRight;
+        float bottom = rect.bottom - pxBottom;
+        if (left > right || top > bottom) {
             throw new IllegalArgumentException("Collision margin too large"
                     + " (left=" + pxLeft + " top=" + pxTop + " right=" + pxRight + " bottom=" + pxBottom + ")"
                     + "; exceeds sprite size");
         }
+        storeCollisionRect(left, top, right, bottom);
         return this;
     }
 
@@ -1217,15 +1595,69 @@ public class GSprite extends GObject {
         return this;
     }
 
+    /**
+     * Sets the listener to tell about the sprites this sprite runs into while
+     * sweeping for collisions.  Pass null to stop listening.
+     */
+    public GSprite setContactListener(GContact.ContactListener listener) {
+        this.contactListener = listener;
+        return this;
+    }
+
+    /**
+     * Sets how this sprite responds when it runs into another sprite while
+     * sweeping for collisions.  With GContact.STOP (the default), it stops against
+     * the other sprite's edge, its velocity toward that edge drops to 0 as with a
+     * call to bound(), and it slides along the edge for the rest of the tick.
+     * With BOUNCE, its velocity toward the edge is reversed, as with flipVelocityX
+     * or flipVelocityY, and it travels the rest of the tick in the new direction.
+     * With NONE, it moves on through, and the contact is only reported.
+     * @throws IllegalArgumentException if response is not one of those constants
+     */
+    public GSprite setContactResponse(int response) {
+        if (response != GContact.NONE && response != GContact.STOP && response != GContact.BOUNCE) {
+            throw new IllegalArgumentException("unknown contact response: " + response);
+        }
+        this.contactResponse = response;
+        return this;
+    }
+
+    /**
+     * Sets whether this sprite sweeps for collisions as it moves.
+     * Normally update() moves a sprite by its whole velocity at once, so a sprite
+     * that moves farther in one tick than the thickness of a wall can pass right
+     * through it.  A sweeping sprite instead finds the first collidable sprite its
+     * collision rectangle would touch along the way, using the same collision
+     * layers and masks as collidesWith, and stops or bounces there (see
+     * setContactResponse) and tells its ContactListener.
+     * Other sprites' own movement on the same tick is taken into account.
+     * If the canvas has a spatial index, only sprites whose bounds touch the swept
+     * path are checked, so even hundreds of sweeping bullets stay cheap.
+     * Sweeping uses collision rectangles only, not shapes or pixels.
+     * A sweeping sprite is always moved by update(), never by the canvas's shared
+     * kinematics arrays.
+     */
+    public GSprite setContinuousCollision(boolean continuousCollision) {
+        this.continuousCollision = continuousCollision;
+        if (continuousCollision && contact == null) {
+            contact = new GContact();
+        }
+        if (gcanvas != null) {
+            gcanvas.kinematicsChanged(this);
+        }
+        return this;
+    }
+
     /**
      * Sets the index of the bitmap currently being displayed
      * in this sprite's list of bitmaps.
      */
     public GSprite setCurrentBitmapIndex(int index) {
-        if (index < 0 || index >= this.bitmaps.size()) {
+        if (index < 0 || index >= getAnimationFrameCount()) {
             throw new IndexOutOfBoundsException(String.valueOf(index));
         }
         this.currentBitmap = index;
+        repaint();
         return this;
     }
 
@@ -1313,19 +1745,30 @@ public class GSprite extends GObject {
         return this;
     }
 
+    /**
+     * Sets the width of the lines used to draw this sprite's outline, in pixels.
+     * @throws IllegalArgumentException if width is negative
+     */
+    @Override
+    public GSprite setLineWidth(float width) {
+        if (this.shape != null) {
+            this.shape.setLineWidth(width);
+        }
+        super.setLineWidth(width);
+        return this;
+    }
+
     /**
      * Moves this sprite to the given x/y location.
      */
     @Override
     public GSprite setLocation(float x, float y) {
+        GObject shape = shape();
         super.setLocation(x, y);
         if (shape != null) {
             shape.setLocation(x, y);
         }
-        float mX = getCollisionMarginX();
-        float mY = getCollisionMarginY();
-        rect.offsetTo(x, y);
-        collisionRect.offsetTo(x + mX, y + mY);
+        moveRectsTo(x, y);
         return this;
     }
 
@@ -1335,6 +1778,7 @@ public class GSprite extends GObject {
      */
     @Override
     public GSprite setLocation(GObject gobj) {
+        GObject shape = shape();
         if (shape != null) {
             shape.setLocation(gobj);
         }
@@ -1347,6 +1791,7 @@ public class GSprite extends GObject {
      */
     @Override
     public GSprite setLocation(GPoint point) {
+        GObject shape = shape();
         if (shape != null) {
             shape.setLocation(point);
         }
@@ -1377,6 +1822,38 @@ public class GSprite extends GObject {
         return this;
     }
 
+    /**
+     * Sets whether this sprite's collisions are tested pixel by pixel.
+     * If so, collidesWith first checks whether the two sprites' collision rectangles
+     * overlap, and if they do, whether any opaque pixel of this sprite's current
+     * bitmap or sprite sheet frame lies within that overlap on top of an opaque
+     * pixel of the other sprite.  Collision margins still apply: pixels outside a
+     * sprite's collision rectangle never collide.
+     * A sprite drawn as a GObject rather than a bitmap counts as solid over its
+     * collision rectangle.
+     * The masks of opaque pixels are made once per bitmap and shared by every
+     * sprite that shows it (see GBitmapMask).
+     */
+    public GSprite setPixelCollision(boolean pixelCollision) {
+        this.pixelCollision = pixelCollision;
+        return this;
+    }
+
+    /**
+     * Sets the size in pixels of the square that each bit of this sprite's pixel
+     * collision mask stands for.  A square counts as opaque if any of its pixels is.
+     * Larger values make the masks smaller and the tests faster, but less exact.
+     * Default 1.
+     * @throws IllegalArgumentException if resolution is less than 1
+     */
+    public GSprite setPixelCollisionResolution(int resolution) {
+        if (resolution < 1) {
+            throw new IllegalArgumentException("resolution must be >= 1: " + resolution);
+        }
+        this.pixelCollisionResolution = resolution;
+        return this;
+    }
+
     /**
      * Sets the GObject for this GSprite to draw.
      */
@@ -1391,6 +1868,7 @@ public class GSprite extends GObject {
      */
     @Override
     public GSprite setSize(float width, float height) {
+        GObject shape = shape();
         super.setSize(width, height);
         if (shape != null) {
             shape.setSize(width, height);
@@ -1399,7 +1877,8 @@ public class GSprite extends GObject {
         float marginTop = getCollisionMarginTop();
         float marginRight = getCollisionMarginRight();
         float marginBottom = getCollisionMarginBottom();
-        rect.set(rect.left, rect.top, rect.left + width, rect.top + height);
+        RectF rect = rect();
+        storeRect(rect.left, rect.top, rect.left + width, rect.top + height);
         return setCollisionMargin(marginLeft, marginTop, marginRight, marginBottom);
     }
 
@@ -1417,6 +1896,146 @@ public class GSprite extends GObject {
         return this;
     }
 
+    /**
+     * Sets this sprite to animate through all frames of the given sprite sheet,
+     * in order.  Replaces any bitmaps the sprite was displaying.
+     * The sprite's size is set to the size of the sheet's first frame;
+     * each frame is drawn stretched to fill the sprite's bounds.
+     * @throws NullPointerException if sheet is null
+     * @throws IllegalArgumentException if the sheet has no frames
+     */
+    public GSprite setSpriteSheet(GSpriteSheet sheet) {
+        if (sheet == null) {
+            throw new NullPointerException();
+        }
+        return setSpriteSheet(sheet, allFrames(sheet));
+    }
+
+    /**
+     * Sets this sprite to animate through the frames of the given sprite sheet
+     * that have the given indexes, in the given order.
+     * Replaces any bitmaps the sprite was displaying.
+     * The sprite's size is set to the size of the first of those frames;
+     * each frame is drawn stretched to fill the sprite's bounds.
+     * @throws NullPointerException if sheet or frames is null
+     * @throws IllegalArgumentException if no frames are given
+     * @throws IndexOutOfBoundsException if any index is not a frame of the sheet
+     */
+    public GSprite setSpriteSheet(GSpriteSheet sheet, int... frames) {
+        if (sheet == null || frames == null) {
+            throw new NullPointerException();
+        }
+        if (frames.length == 0) {
+            throw new IllegalArgumentException("must specify at least one frame");
+        }
+        for (int frame : frames) {
+            if (frame < 0 || frame >= sheet.getFrameCount()) {
+                throw new IndexOutOfBoundsException(String.valueOf(frame));
+            }
+        }
+        synchronized (this) {
+            stopClip();
+            this.currentBitmap = 0;
+            this.bitmaps = new ArrayList<>();
+            this.spriteSheet = sheet;
+            this.sheetFrames = frames.clone();
+            setSize(sheet.getFrameWidth(frames[0]), sheet.getFrameHeight(frames[0]));
+        }
+        return this;
+    }
+
+    /**
+     * Sets this sprite to animate through the frames of the given sprite sheet
+     * that have the given names, in the given order.
+     * Replaces any bitmaps the sprite was displaying.
+     * @throws NullPointerException if sheet or frameNames is null
+     * @throws IllegalArgumentException if no frames are given, or if any name
+     *         is not the name of a frame of the sheet
+     */
+    public GSprite setSpriteSheet(GSpriteSheet sheet, String... frameNames) {
+        if (sheet == null || frameNames == null) {
+            throw new NullPointerException();
+        }
+        return setSpriteSheet(sheet, sheet.indexesOf(frameNames));
+    }
+
+    // helper to return the indexes of every frame of the given sheet, in order
+    private static int[] allFrames(GSpriteSheet sheet) {
+        int[] frames = new int[sheet.getFrameCount()];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = i;
+        }
+        return frames;
+    }
+
+    // helper to return the number of bitmaps or sheet frames that this sprite cycles through
+    private int getAnimationFrameCount() {
+        if (spriteSheet != null) {
+            return sheetFrames.length;
+        } else {
+            return bitmaps == null ? 0 : bitmaps.size();
+        }
+    }
+
+    // helper to return the pixel mask of the bitmap this sprite currently draws,
+    // or null if it is not drawn from a bitmap
+    private GBitmapMask getPixelMask() {
+        Bitmap bitmap = spriteSheet != null ? spriteSheet.getBitmap() : getBitmap();
+        if (!pixelCollision || bitmap == null) {
+            return null;
+        }
+        GBitmapMask mask = pixelMask;
+        if (mask == null || pixelMaskBitmap != bitmap
+                || mask.getResolution() != pixelCollisionResolution
+                || mask.generationId != bitmap.getGenerationId()) {
+            mask = GBitmapMask.get(bitmap, pixelCollisionResolution);
+            pixelMask = mask;
+            pixelMaskBitmap = bitmap;
+        }
+        return mask;
+    }
+
+    // helper to return the sprite sheet frame currently drawn
+    private Rect getSheetFrame() {
+        return spriteSheet.getFrameRect(clip != null ? clipFrame : sheetFrames[currentBitmap]);
+    }
+
+    // helper to compare the opaque pixels of this sprite and the given one
+    // where their collision rectangles overlap
+    private boolean pixelsOverlap(GSprite other) {
+        GBitmapMask mask1 = getPixelMask();
+        GBitmapMask mask2 = other.getPixelMask();
+        RectF rect1 = rect();
+        RectF rect2 = other.rect();
+        RectF region = pixelRegion.get();
+        region.set(collisionRect());
+        if (!region.intersect(other.collisionRect())
+                || (mask1 != null && !region.intersect(rect1))
+                || (mask2 != null && !region.intersect(rect2))) {
+            return false;
+        }
+
+        // a sheet frame is stretched to fill the sprite; a bitmap is drawn at its own size
+        float x1 = rect1.left, y1 = rect1.top, scaleX1 = 1, scaleY1 = 1;
+        if (mask1 != null && spriteSheet != null) {
+            Rect frame = getSheetFrame();
+            scaleX1 = rect1.width() / frame.width();
+            scaleY1 = rect1.height() / frame.height();
+            x1 -= frame.left * scaleX1;
+            y1 -= frame.top * scaleY1;
+        }
+        float x2 = rect2.left, y2 = rect2.top, scaleX2 = 1, scaleY2 = 1;
+        if (mask2 != null && other.spriteSheet != null) {
+            Rect frame = other.getSheetFrame();
+            scaleX2 = rect2.width() / frame.width();
+            scaleY2 = rect2.height() / frame.height();
+            x2 -= frame.left * scaleX2;
+            y2 -= frame.top * scaleY2;
+        }
+        return GBitmapMask.overlaps(mask1, x1, y1, scaleX1, scaleY1,
+                mask2, x2, y2, scaleX2, scaleY2, region);
+    }
+
     // helper to use given bitmap to control sprite's size
     private void setSizeFromBitmap(Bitmap bitmap) {
         if (bitmap != null) {
@@ -1430,8 +2049,7 @@ public class GSprite extends GObject {
      * the given dx and dy amounts.
      */
     public GSprite setVelocity(float dx, float dy) {
-        this.dx = dx;
-        this.dy = dy;
+        storeVelocity(dx, dy);
         return this;
     }
 
@@ -1442,7 +2060,7 @@ public class GSprite extends GObject {
      * dy is unchanged by this call.
      */
     public GSprite setVelocityX(float dx) {
-        this.dx = dx;
+        storeVelocity(dx, dy());
         return this;
     }
 
@@ -1453,7 +2071,7 @@ public class GSprite extends GObject {
      * dx is unchanged by this call.
      */
     public GSprite setVelocityY(float dy) {
-        this.dy = dy;
+        storeVelocity(dx(), dy);
         return this;
     }
 
@@ -1475,6 +2093,7 @@ public class GSprite extends GObject {
      */
     @Override
     public GSprite setX(float x) {
+        GObject shape = shape();
         if (shape != null) {
             shape.setX(x);
         }
@@ -1488,6 +2107,7 @@ public class GSprite extends GObject {
      */
     @Override
     public GSprite setY(float y) {
+        GObject shape = shape();
         if (shape != null) {
             shape.setY(y);
         }
@@ -1506,12 +2126,27 @@ public class GSprite extends GObject {
         return this;
     }
 
+    /**
+     * Stops playing this sprite's animation clip, if any, so that it goes back to
+     * cycling through its bitmaps or sprite sheet frames as set by setFramesPerBitmap.
+     * Setting the sprite's bitmaps or sprite sheet also stops its clip.
+     */
+    public GSprite stopClip() {
+        if (clip != null) {
+            clip = null;
+            clipTimeline = null;
+            clipFinished = false;
+            repaint();
+        }
+        return this;
+    }
+
     /**
      * Returns a string representation of this sprite for debugging,
      * including its GObject if any, and its collision rectangle.
      */
     public String toString() {
-        return "GSprite{shape=" + shape + ", collRect=" + collisionRect + "}";
+        return "GSprite{shape=" + shape() + ", collRect=" + collisionRect() + "}";
     }
 
     /**
@@ -1519,6 +2154,7 @@ public class GSprite extends GObject {
      */
     @Override
     public GSprite translate(float dx, float dy) {
+        GObject shape = shape();
         if (shape != null) {
             shape.translate(dx, dy);
         }
@@ -1531,26 +2167,458 @@ public class GSprite extends GObject {
      * Moves the sprite by dx and dy and applies acceleration.
      */
     public void update() {
-        rect.offset(dx, dy);
-        collisionRect.offset(dx, dy);
-        if (shape != null) {
-            shape.translate(dx, dy);
+        RectF rect = rect();
+        stepStartX = rect.left;
+        stepStartY = rect.top;
+        stepTick = gcanvas == null ? -1 : gcanvas.getAnimationTickCount();
+        if (continuousCollision && gcanvas != null) {
+            sweep();
+        } else {
+            offsetRects(dx(), dy());
+        }
+        boolean moved = rect.left != stepStartX || rect.top != stepStartY;
+        if (moved && gcanvas != null) {
+            gcanvas.objectChanged(this);
         }
-        dx += accelerationX;
-        dy += accelerationY;
+        if (moved && parent != null) {
+            parent.childChanged();
+        }
+        storeVelocity(dx() + accelerationX, dy() + accelerationY);
+        advanceBitmap();
+    }
 
-        // animate bitmap if necessary
-        if (bitmaps != null && !bitmaps.isEmpty()) {
+    /**
+     * Advances this sprite's bitmap animation by one tick, if it has bitmaps or
+     * sprite sheet frames to cycle through.
+     * If a clip is playing, it advances by the canvas's elapsed animation time instead.
+     * Called by update, and by GKinematics for the sprites it moves.
+     */
+    void advanceBitmap() {
+        if (clipTimeline != null) {
+            advanceClip(gcanvas == null ? 0 : gcanvas.getAnimationFrameDelta());
+            return;
+        }
+        int animationFrames = getAnimationFrameCount();
+        if (animationFrames > 0) {
             synchronized (this) {
                 frameCount++;
                 if (frameCount % framesPerBitmap == 0) {
                     // if loopBitmaps flag is turned off,
                     // stay stopped at the last bitmap when sequence ends
-                    if (currentBitmap != bitmaps.size() - 1 || loopBitmaps) {
-                        currentBitmap = (currentBitmap + 1) % bitmaps.size();
+                    if (currentBitmap != animationFrames - 1 || loopBitmaps) {
+                        currentBitmap = (currentBitmap + 1) % animationFrames;
+                        if (gcanvas != null && animationFrames > 1) {
+                            gcanvas.objectChanged(this);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // helper to move the playing clip forward by the given number of seconds,
+    // and to report the events of every key reached on the way, even ones skipped over
+    private void advanceClip(float elapsedSeconds) {
+        GAnimationClip playing = clip;
+        GAnimationClip.Timeline timeline = clipTimeline;
+        if (clipFinished) {
+            return;
+        }
+        int keys = timeline.frames.length;
+        float time = clipTime + elapsedSeconds * clipSpeed;
+        long passes = 0;   // number of times time wrapped around to the start
+        int key;
+        boolean finished = false;
+        if (time < timeline.duration) {
+            key = timeline.keyAt(time);
+        } else if (timeline.loops) {
+            passes = (long) (time / timeline.duration);
+            time -= passes * timeline.duration;
+            if (!(time >= 0 && time < timeline.duration)) {
+                time = 0;   // rounding error
+            }
+            key = timeline.keyAt(time);
+        } else {
+            time = timeline.duration;
+            key = keys - 1;
+            finished = true;
+        }
+
+        int previousKey = clipKey;
+        clipTime = time;
+        clipKey = key;
+        clipFinished = finished;
+        if (timeline.frames[key] != clipFrame) {
+            clipFrame = timeline.frames[key];
+            if (gcanvas != null) {
+                gcanvas.objectChanged(this);
+            }
+        }
+
+        GAnimationClip.ClipListener listener = clipListener;
+        if (listener == null) {
+            return;
+        }
+        if (timeline.eventNames.length > 0) {
+            // keys reached, counted along the unwrapped timeline; after a long stall,
+            // report each event at most once
+            long last = passes * keys + key;
+            long first = Math.max(previousKey + 1, last - keys + 1);
+            for (long k = first; k <= last; k++) {
+                int wrapped = (int) (k % keys);
+                for (int e = timeline.eventStarts[wrapped]; e < timeline.eventStarts[wrapped + 1]; e++) {
+                    listener.onClipEvent(this, playing, timeline.eventNames[e]);
+                    if (clip != playing) {
+                        return;   // listener switched clips
                     }
                 }
             }
         }
+        if (finished) {
+            listener.onClipFinished(this, playing);
+        }
+    }
+
+    // helper to move this sprite by its velocity, stopping or bouncing at the first
+    // sprite it would run into along the way, and then carrying on for the rest of the tick
+    private void sweep() {
+        float moveX = dx();
+        float moveY = dy();
+        for (int pass = 0; pass < MAX_SWEEP_PASSES && (moveX != 0 || moveY != 0); pass++) {
+            if (!findContact(moveX, moveY)) {
+                offsetRects(moveX, moveY);
+                return;
+            }
+            if (contactResponse == GContact.NONE) {
+                float contactX = rect().left + contact.moveX;
+                float contactY = rect().top + contact.moveY;
+                offsetRects(moveX, moveY);
+                reportContact(contactX, contactY);
+                return;
+            }
+
+            // move up to the contact, then respond along the normal
+            offsetRects(contact.moveX, contact.moveY);
+            float rest = 1 - contact.time;
+            moveX *= rest;
+            moveY *= rest;
+            if (contact.normalX != 0) {
+                float dx = dx();
+                if (dx * contact.normalX < 0) {
+                    storeVelocity(contactResponse == GContact.BOUNCE ? -dx : 0, dy());
+                }
+                if (moveX * contact.normalX < 0) {
+                    moveX = contactResponse == GContact.BOUNCE ? -moveX : 0;
+                }
+            } else {
+                float dy = dy();
+                if (dy * contact.normalY < 0) {
+                    storeVelocity(dx(), contactResponse == GContact.BOUNCE ? -dy : 0);
+                }
+                if (moveY * contact.normalY < 0) {
+                    moveY = contactResponse == GContact.BOUNCE ? -moveY : 0;
+                }
+            }
+            reportContact(rect().left, rect().top);
+        }
+    }
+
+    // helper to find the first sprite this sprite would touch when moving by the
+    // given amount; fills in contact and returns true, or returns false if none
+    private boolean findContact(float moveX, float moveY) {
+        RectF a = collisionRect();
+        List<GObject> candidates = gcanvas.getSweepCandidates(
+                a.left + Math.min(0, moveX), a.top + Math.min(0, moveY),
+                a.right + Math.max(0, moveX), a.bottom + Math.max(0, moveY));
+        int tick = gcanvas.getAnimationTickCount();
+        GSprite first = null;
+        float firstTime = 1;
+        float firstNormalX = 0;
+        float firstNormalY = 0;
+        float otherMoveAtFirstX = 0;
+        float otherMoveAtFirstY = 0;
+        float otherEdgeAtFirst = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            GObject obj = candidates.get(i);
+            if (obj == this || !(obj instanceof GSprite)) {
+                continue;
+            }
+            GSprite other = (GSprite) obj;
+            if (!other.collidable || (collisionLayers & other.collisionMask) == 0
+                    || (other.collisionLayers & collisionMask) == 0) {
+                continue;
+            }
+
+            // how far the other sprite moves on this tick, and where it started
+            float otherMoveX;
+            float otherMoveY;
+            boolean otherMoved;
+            if (other.kinematics != null) {
+                otherMoveX = other.dx() - other.accelerationX;
+                otherMoveY = other.dy() - other.accelerationY;
+                otherMoved = true;
+            } else if (other.stepTick == tick && tick >= 0) {
+                otherMoveX = other.rect().left - other.stepStartX;
+                otherMoveY = other.rect().top - other.stepStartY;
+                otherMoved = true;
+            } else {
+                otherMoveX = other.dx();
+                otherMoveY = other.dy();
+                otherMoved = false;
+            }
+            RectF b = other.collisionRect();
+            float offsetX = otherMoved ? -otherMoveX : 0;
+            float offsetY = otherMoved ? -otherMoveY : 0;
+            float left = b.left + offsetX;
+            float top = b.top + offsetY;
+            float right = b.right + offsetX;
+            float bottom = b.bottom + offsetY;
+
+            // swept AABB: the times at which the moving box starts and stops
+            // overlapping the other box along each axis, in relative motion
+            float relX = moveX - otherMoveX;
+            float relY = moveY - otherMoveY;
+            float entryX;
+            float exitX;
+            if (relX > 0) {
+                entryX = (left - a.right) / relX;
+                exitX = (right - a.left) / relX;
+            } else if (relX < 0) {
+                entryX = (right - a.left) / relX;
+                exitX = (left - a.right) / relX;
+            } else if (a.left < right && left < a.right) {
+                entryX = Float.NEGATIVE_INFINITY;
+                exitX = Float.POSITIVE_INFINITY;
+            } else {
+                continue;
+            }
+            float entryY;
+            float exitY;
+            if (relY > 0) {
+                entryY = (top - a.bottom) / relY;
+                exitY = (bottom - a.top) / relY;
+            } else if (relY < 0) {
+                entryY = (bottom - a.top) / relY;
+                exitY = (top - a.bottom) / relY;
+            } else if (a.top < bottom && top < a.bottom) {
+                entryY = Float.NEGATIVE_INFINITY;
+                exitY = Float.POSITIVE_INFINITY;
+            } else {
+                continue;
+            }
+            float entry = Math.max(entryX, entryY);
+            float exit = Math.min(exitX, exitY);
+
+            // boxes that already overlap at the start are left to collidesWith
+            if (entry < 0 || entry >= firstTime || entry >= exit) {
+                continue;
+            }
+            first = other;
+            firstTime = entry;
+            if (entryX > entryY) {
+                firstNormalX = relX > 0 ? -1 : 1;
+                firstNormalY = 0;
+                otherEdgeAtFirst = relX > 0 ? left : right;
+            } else {
+                firstNormalX = 0;
+                firstNormalY = relY > 0 ? -1 : 1;
+                otherEdgeAtFirst = relY > 0 ? top : bottom;
+            }
+            otherMoveAtFirstX = otherMoveX;
+            otherMoveAtFirstY = otherMoveY;
+        }
+        if (first == null) {
+            return false;
+        }
+
+        // move exactly up to the other sprite's edge along the normal, so that
+        // rounding never leaves the two overlapping
+        contact.other = first;
+        contact.time = firstTime;
+        contact.normalX = firstNormalX;
+        contact.normalY = firstNormalY;
+        if (firstNormalX != 0) {
+            float edge = otherEdgeAtFirst + otherMoveAtFirstX * firstTime;
+            contact.moveX = firstNormalX < 0 ? edge - a.right : edge - a.left;
+            contact.moveY = moveY * firstTime;
+        } else {
+            float edge = otherEdgeAtFirst + otherMoveAtFirstY * firstTime;
+            contact.moveX = moveX * firstTime;
+            contact.moveY = firstNormalY < 0 ? edge - a.bottom : edge - a.top;
+        }
+        return true;
+    }
+
+    // helper to tell the contact listener, if any, about the contact just found
+    private void reportContact(float x, float y) {
+        contact.x = x;
+        contact.y = y;
+        if (contactListener != null) {
+            contactListener.onContact(this, contact);
+        }
+        contact.other = null;
+    }
+
+    /*
+     * Kinematics state.  While this sprite is registered with a GKinematics store, the
+     * store's arrays hold its true position and velocity, and rect, collisionRect, dx, dy,
+     * and the shape's location are a cache of them.  All reads of that state go through
+     * the accessors below, which refresh the cache after each step of the store, and all
+     * changes go through the store helpers, which write the store as well as the cache;
+     * so no other method needs to know whether this sprite is registered.
+     */
+
+    // returns this sprite's bounding rectangle, up to date; callers must not change it
+    private RectF rect() {
+        pullKinematics();
+        return rect;
+    }
+
+    /**
+     * Returns this sprite's collision rectangle, up to date with the GKinematics
+     * store it is registered with, if any.  Callers must not change or keep it.
+     */
+    RectF collisionRect() {
+        pullKinematics();
+        return collisionRect;
+    }
+
+    // returns this sprite's shape, if any, moved to where the sprite is now
+    private GObject shape() {
+        pullKinematics();
+        return shape;
+    }
+
+    // returns this sprite's velocity in the x direction, up to date
+    private float dx() {
+        pullKinematics();
+        return dx;
+    }
+
+    // returns this sprite's velocity in the y direction, up to date
+    private float dy() {
+        pullKinematics();
+        return dy;
+    }
+
+    // helper to move this sprite's rectangles and shape by the given amount
+    private void offsetRects(float moveX, float moveY) {
+        pullKinematics();
+        rect.offset(moveX, moveY);
+        collisionRect.offset(moveX, moveY);
+        if (shape != null) {
+            shape.translate(moveX, moveY);
+        }
+        storeRects();
+    }
+
+    // helper to move this sprite's rectangles so that the bounding rectangle's
+    // top-left corner is at the given location, keeping the collision margins
+    private void moveRectsTo(float x, float y) {
+        pullKinematics();
+        collisionRect.offsetTo(x + collisionRect.left - rect.left, y + collisionRect.top - rect.top);
+        rect.offsetTo(x, y);
+        storeRects();
+    }
+
+    // helper to set this sprite's bounding rectangle
+    private void storeRect(float left, float top, float right, float bottom) {
+        pullKinematics();
+        rect.set(left, top, right, bottom);
+        storeRects();
+    }
+
+    // helper to set this sprite's collision rectangle
+    private void storeCollisionRect(float left, float top, float right, float bottom) {
+        pullKinematics();
+        collisionRect.set(left, top, right, bottom);
+        storeRects();
+    }
+
+    // helper to set this sprite's velocity
+    private void storeVelocity(float dx, float dy) {
+        pullKinematics();
+        this.dx = dx;
+        this.dy = dy;
+        GKinematics store = kinematics;
+        if (store != null) {
+            store.dx[kinematicsSlot] = dx;
+            store.dy[kinematicsSlot] = dy;
+        }
+    }
+
+    // helper to set this sprite's acceleration
+    private void storeAcceleration(float accelerationX, float accelerationY) {
+        this.accelerationX = accelerationX;
+        this.accelerationY = accelerationY;
+        GKinematics store = kinematics;
+        if (store != null) {
+            store.accelerationX[kinematicsSlot] = accelerationX;
+            store.accelerationY[kinematicsSlot] = accelerationY;
+        }
+    }
+
+    // helper to copy this sprite's rectangles into its store, if it is registered
+    private void storeRects() {
+        GKinematics store = kinematics;
+        if (store == null) {
+            return;
+        }
+        int i = kinematicsSlot;
+        store.left[i] = rect.left;
+        store.top[i] = rect.top;
+        store.right[i] = rect.right;
+        store.bottom[i] = rect.bottom;
+        store.collisionLeft[i] = collisionRect.left;
+        store.collisionTop[i] = collisionRect.top;
+        store.collisionRight[i] = collisionRect.right;
+        store.collisionBottom[i] = collisionRect.bottom;
+    }
+
+    // helper to copy this sprite's state out of its store, if the store has stepped
+    // since the last copy, moving the shape along with the rectangles
+    private void pullKinematics() {
+        GKinematics store = kinematics;
+        if (store == null || kinematicsStep == store.step) {
+            return;
+        }
+        kinematicsStep = store.step;
+        int i = kinematicsSlot;
+        float oldX = rect.left;
+        float oldY = rect.top;
+        rect.set(store.left[i], store.top[i], store.right[i], store.bottom[i]);
+        collisionRect.set(store.collisionLeft[i], store.collisionTop[i],
+                store.collisionRight[i], store.collisionBottom[i]);
+        dx = store.dx[i];
+        dy = store.dy[i];
+        if (shape != null) {
+            shape.translate(rect.left - oldX, rect.top - oldY);
+        }
+    }
+
+    /**
+     * Registers this sprite with the given GKinematics store in the given slot,
+     * copying its state into the store's arrays.
+     * Called by GKinematics.register.
+     */
+    void joinKinematics(GKinematics store, int slot) {
+        pullKinematics();
+        kinematics = store;
+        kinematicsSlot = slot;
+        kinematicsStep = store.step;
+        storeRects();
+        storeVelocity(dx, dy);
+        storeAcceleration(accelerationX, accelerationY);
+    }
+
+    /**
+     * Copies this sprite's latest state out of the GKinematics store it is
+     * registered with, and stops using the store.
+     * Called by GKinematics.unregister.
+     */
+    void leaveKinematics() {
+        pullKinematics();
+        kinematics = null;
+        kinematicsSlot = -1;
     }
 }
@@ -0,0 +1,252 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import android.graphics.*;
+
+import java.util.*;
+
+/**
+ * A GSpriteSheet is a single bitmap image (sometimes called a texture atlas)
+ * that contains many smaller frames, such as every step of a character's walk cycle.
+ * A GSprite can animate through the frames of a sheet by drawing a different
+ * rectangular piece of the same bitmap on each step, rather than switching
+ * between many separate bitmaps.
+ * Any number of sprites can share one sheet, so the image is only decoded and
+ * stored in memory once.
+ *
+ * <p>
+ * The frames of a sheet can be laid out in a regular grid:
+ * </p>
+ *
+ * <pre>
+ * GSpriteSheet sheet = GSpriteSheet.fromGrid(bitmap, 4, 8);   // 4 rows, 8 columns
+ * GSprite sprite = new GSprite(sheet);
+ * </pre>
+ *
+ * <p>
+ * or packed together with their locations listed in a manifest, one frame per line,
+ * as the frame's name followed by its x, y, width, and height in pixels:
+ * </p>
+ *
+ * <pre>
+ * # name    x   y   w   h
+ * walk1     0   0  32  48
+ * walk2    32   0  32  48
+ * jump     64   0  40  52
+ * </pre>
+ */
+public class GSpriteSheet {
+    // private fields
+    private final Bitmap bitmap;
+    private final ArrayList<Rect> frames = new ArrayList<>();
+    private final ArrayList<String> frameNames = new ArrayList<>();
+    private final Map<String, Integer> frameIndexes = new HashMap<>();
+
+    /**
+     * Returns a new sprite sheet whose frames are the cells of a grid of the given
+     * number of rows and columns covering the whole bitmap, ordered left-to-right
+     * and then top-to-bottom.
+     * The frames are named "0", "1", "2", and so on.
+     * @throws NullPointerException if bitmap is null
+     * @throws IllegalArgumentException if rows or columns is not positive
+     */
+    public static GSpriteSheet fromGrid(Bitmap bitmap, int rows, int columns) {
+        if (bitmap == null) {
+            throw new NullPointerException();
+        }
+        if (rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("illegal grid size: " + rows + "x" + columns);
+        }
+        return fromGrid(bitmap, bitmap.getWidth() / columns, bitmap.getHeight() / rows, rows * columns);
+    }
+
+    /**
+     * Returns a new sprite sheet whose frames are cells of the given size, ordered
+     * left-to-right and then top-to-bottom starting from the top-left corner of the bitmap.
+     * Stops after the given number of frames, or when the bitmap runs out of whole cells.
+     * The frames are named "0", "1", "2", and so on.
+     * @throws NullPointerException if bitmap is null
+     * @throws IllegalArgumentException if frameWidth, frameHeight, or frameCount is not positive
+     */
+    public static GSpriteSheet fromGrid(Bitmap bitmap, int frameWidth, int frameHeight, int frameCount) {
+        if (bitmap == null) {
+            throw new NullPointerException();
+        }
+        if (frameWidth <= 0 || frameHeight <= 0 || frameCount <= 0) {
+            throw new IllegalArgumentException("illegal frame size/count: "
+                    + frameWidth + "x" + frameHeight + ", " + frameCount);
+        }
+        GSpriteSheet sheet = new GSpriteSheet(bitmap);
+        int columns = bitmap.getWidth() / frameWidth;
+        int rows = bitmap.getHeight() / frameHeight;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < columns; col++) {
+                if (sheet.getFrameCount() == frameCount) {
+                    return sheet;
+                }
+                int x = col * frameWidth;
+                int y = row * frameHeight;
+                sheet.addFrame(String.valueOf(sheet.getFrameCount()), x, y, frameWidth, frameHeight);
+            }
+        }
+        return sheet;
+    }
+
+    /**
+     * Returns a new sprite sheet whose frames are listed in the given manifest text.
+     * Each non-blank line of the manifest describes one frame as its name followed
+     * by its x, y, width, and height, separated by spaces, tabs, or commas.
+     * Lines beginning with # are ignored.
+     * @throws NullPointerException if bitmap or manifest is null
+     * @throws IllegalArgumentException if a line of the manifest is not in the expected
+     *         format, or describes a frame that does not fit inside the bitmap
+     */
+    public static GSpriteSheet fromManifest(Bitmap bitmap, String manifest) {
+        if (bitmap == null || manifest == null) {
+            throw new NullPointerException();
+        }
+        GSpriteSheet sheet = new GSpriteSheet(bitmap);
+        String[] lines = manifest.split("\r?\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] tokens = line.split("[\\s,]+");
+            if (tokens.length != 5) {
+                throw new IllegalArgumentException("line " + (i + 1)
+                        + ": expected 'name x y width height': " + line);
+            }
+            try {
+                sheet.addFrame(tokens[0],
+                        Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2]),
+                        Integer.parseInt(tokens[3]), Integer.parseInt(tokens[4]));
+            } catch (NumberFormatException nfe) {
+                throw new IllegalArgumentException("line " + (i + 1) + ": " + nfe.getMessage(), nfe);
+            }
+        }
+        return sheet;
+    }
+
+    /**
+     * Constructs a new sprite sheet for the given bitmap with no frames.
+     * Call addFrame to describe where its frames are.
+     * @throws NullPointerException if bitmap is null
+     */
+    public GSpriteSheet(Bitmap bitmap) {
+        if (bitmap == null) {
+            throw new NullPointerException();
+        }
+        this.bitmap = bitmap;
+    }
+
+    /**
+     * Adds a frame with the given name located at the given rectangle of this
+     * sheet's bitmap.
+     * @throws NullPointerException if name is null
+     * @throws IllegalArgumentException if the name is already used by another frame,
+     *         or if the rectangle is empty or does not fit inside the bitmap
+     */
+    public GSpriteSheet addFrame(String name, int x, int y, int width, int height) {
+        if (name == null) {
+            throw new NullPointerException();
+        }
+        if (frameIndexes.containsKey(name)) {
+            throw new IllegalArgumentException("duplicate frame name: " + name);
+        }
+        if (width <= 0 || height <= 0 || x < 0 || y < 0
+                || x + width > bitmap.getWidth() || y + height > bitmap.getHeight()) {
+            throw new IllegalArgumentException("frame '" + name + "' at (" + x + ", " + y + ") size "
+                    + width + "x" + height + " does not fit in "
+                    + bitmap.getWidth() + "x" + bitmap.getHeight() + " bitmap");
+        }
+        frameIndexes.put(name, frames.size());
+        frames.add(new Rect(x, y, x + width, y + height));
+        frameNames.add(name);
+        return this;
+    }
+
+    /**
+     * Returns the bitmap that holds all of this sheet's frames.
+     */
+    public Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    /**
+     * Returns the number of frames in this sheet.
+     */
+    public int getFrameCount() {
+        return frames.size();
+    }
+
+    /**
+     * Returns the height in pixels of the frame at the given index.
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public int getFrameHeight(int index) {
+        return frames.get(index).height();
+    }
+
+    /**
+     * Returns the name of the frame at the given index.
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public String getFrameName(int index) {
+        return frameNames.get(index);
+    }
+
+    /**
+     * Returns the rectangle of the bitmap occupied by the frame at the given index.
+     * The returned object is shared by every sprite using this sheet; do not modify it.
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public Rect getFrameRect(int index) {
+        return frames.get(index);
+    }
+
+    /**
+     * Returns the width in pixels of the frame at the given index.
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public int getFrameWidth(int index) {
+        return frames.get(index).width();
+    }
+
+    /**
+     * Returns the index of the frame with the given name, or -1 if there is no such frame.
+     */
+    public int indexOf(String name) {
+        Integer index = frameIndexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the indexes of the frames with the given names, in the same order.
+     * Useful for building an animation sequence to pass to GSprite.setSpriteSheet.
+     * @throws IllegalArgumentException if any name is not the name of a frame
+     */
+    public int[] indexesOf(String... names) {
+        int[] indexes = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            indexes[i] = indexOf(names[i]);
+            if (indexes[i] < 0) {
+                throw new IllegalArgumentException("no such frame: " + names[i]);
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Returns a string representation of this sprite sheet, for debugging.
+     */
+    @Override
+    public String toString() {
+        return "GSpriteSheet{" + bitmap.getWidth() + "x" + bitmap.getHeight()
+                + ", frames=" + frames.size() + "}";
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import android.graphics.*;
+import java.util.List;
+
+/**
+ * A run of consecutive static GObjects in a GCanvas's z-ordering, rendered once
+ * into a bitmap of their own so that each frame draws that one bitmap instead of
+ * painting every object in the run.
+ *
+ * <p>
+ * The layer covers only the area its objects occupy, in world coordinates, and is
+ * re-rendered ("baked") lazily the next time it is drawn after any of its objects
+ * has changed.  A layer whose area would need a bitmap larger than MAX_PIXELS is
+ * not baked; the canvas then paints its objects one by one as usual.
+ * </p>
+ *
+ * <p>
+ * This class is used internally by GCanvas; mark objects with GObject.setStatic(true).
+ * </p>
+ */
+final class GStaticLayer {
+    // largest bitmap a layer may use, in pixels (16MB at 4 bytes per pixel)
+    static final int MAX_PIXELS = 2048 * 2048;
+
+    // extra pixels around each object's bounds to cover strokes and anti-aliasing
+    private static final float PADDING = 2f;
+
+    // range of the canvas's object list that this layer covers: start .. end-1
+    int start;
+    int end;
+
+    // world area covered by the baked bitmap
+    float left;
+    float top;
+    float right;
+    float bottom;
+
+    // private fields
+    private Bitmap bitmap = null;   // null if nothing visible is in the layer, or it is too big
+    private final Canvas bakeCanvas = new Canvas();
+    private final RectF dst = new RectF();
+    private final RectF objBounds = new RectF();
+    private boolean valid = false;  // whether bitmap reflects the objects' current state
+    private boolean baked = false;  // whether the last bake fit in a bitmap
+
+    /**
+     * Draws the baked bitmap of this layer onto the given canvas at its world location.
+     * Has no effect if the layer has no visible objects.
+     * Call only after prepare has returned true.
+     */
+    void draw(Canvas canvas) {
+        if (bitmap != null) {
+            dst.set(left, top, right, bottom);
+            canvas.drawBitmap(bitmap, /* src */ null, dst, /* paint */ null);
+        }
+    }
+
+    /**
+     * Marks this layer as needing to be baked again before it is next drawn.
+     */
+    void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Makes sure this layer's bitmap is up to date, baking it from the given objects
+     * if any of them has changed, at the given number of bitmap pixels per world unit.
+     * Returns true if the layer can be drawn with draw, or false if it is too large to
+     * bake and the caller should paint its objects individually instead.
+     */
+    boolean prepare(List<GObject> gobjects, GCanvas gcanvas, float scale) {
+        if (valid) {
+            return baked;
+        }
+        valid = true;
+
+        // find the area covered by the visible objects in the layer
+        left = Float.POSITIVE_INFINITY;
+        top = Float.POSITIVE_INFINITY;
+        right = Float.NEGATIVE_INFINITY;
+        bottom = Float.NEGATIVE_INFINITY;
+        for (int i = start; i < end; i++) {
+            GObject obj = gobjects.get(i);
+            if (obj.isVisible()) {
+                RectF bounds = obj.getBounds(objBounds);
+                float pad = obj.paint.getStrokeWidth() / 2 + PADDING;
+                left = Math.min(left, bounds.left - pad);
+                top = Math.min(top, bounds.top - pad);
+                right = Math.max(right, bounds.right + pad);
+                bottom = Math.max(bottom, bounds.bottom + pad);
+            }
+        }
+        if (left > right) {
+            // nothing to draw
+            release();
+            baked = true;
+            return true;
+        }
+
+        int width = Math.max(1, (int) Math.ceil((right - left) * scale));
+        int height = Math.max(1, (int) Math.ceil((bottom - top) * scale));
+        if ((long) width * height > MAX_PIXELS) {
+            release();
+            baked = false;
+            return false;
+        }
+        right = left + width / scale;
+        bottom = top + height / scale;
+
+        if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+            release();
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        } else {
+            bitmap.eraseColor(Color.TRANSPARENT);
+        }
+        bakeCanvas.setBitmap(bitmap);
+        bakeCanvas.save();
+        bakeCanvas.scale(scale, scale);
+        bakeCanvas.translate(-left, -top);
+        for (int i = start; i < end; i++) {
+            GObject obj = gobjects.get(i);
+            obj.setGCanvas(gcanvas);
+            obj.canvas = bakeCanvas;
+            obj.paint(bakeCanvas);
+        }
+        bakeCanvas.restore();
+        bakeCanvas.setBitmap(null);
+        baked = true;
+        return true;
+    }
+
+    /**
+     * Frees this layer's bitmap, once the layer is no longer needed.
+     */
+    void release() {
+        if (bitmap != null) {
+            bitmap.recycle();
+            bitmap = null;
+        }
+    }
+}
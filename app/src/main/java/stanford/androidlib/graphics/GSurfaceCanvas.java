@@ -0,0 +1,961 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import android.content.Context;
+import android.graphics.*;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.CallSuper;
+import android.util.AttributeSet;
+import android.view.*;
+import java.util.*;
+import stanford.androidlib.FrameStats;
+
+/**
+ * A GSurfaceCanvas shows GObjects like a GCanvas does, but ticks, paints, and shows
+ * each frame on a render thread of its own, straight into the surface of a SurfaceView.
+ * You use it much like a GCanvas: extend it, add GObjects to it in init(), and
+ * call animate(fps); your onAnimateTick, onTouch, and onKey methods are called as usual.
+ *
+ * <pre>
+ * public class MyCanvas extends GSurfaceCanvas {
+ *     ...
+ *     public void init() {
+ *         ...
+ *         animate(60);
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>
+ * For each frame, the render thread locks the surface's canvas, paints the scene onto
+ * it, and posts it to the screen; the UI thread takes no part, so a stall there, such
+ * as a slow layout pass, does not delay or drop frames, and heavy scenes do not hold
+ * up touch handling.  The SurfaceHolder keeps more than one buffer, so the render
+ * thread can paint the next frame while the last one is still on the screen.
+ * The render thread runs from when the surface is created until it is destroyed,
+ * for example when the activity is paused; while the surface is gone, animation
+ * is suspended, and it picks up again when the surface comes back.  When the canvas
+ * is not animating, the render thread paints a new frame only when something changes.
+ * </p>
+ *
+ * <p>
+ * The GObjects are kept in a GCanvas that is never put on the screen itself;
+ * this class has the GCanvas methods for adding and arranging objects, and passes
+ * them on to it.  getGCanvas returns that GCanvas, for the GObject constructors that
+ * take one, and for settings that this class does not repeat, such as setPartialRedrawEnabled.
+ * </p>
+ *
+ * <p>
+ * The render thread is the only thread that changes the scene while it is running.
+ * Touch and key events are copied and handed to it, so your onTouch and onKey methods
+ * run on the render thread at the start of the next frame, just before onAnimateTick.
+ * Calls to add, remove, and the other methods that change which objects are in the
+ * canvas or their z-ordering, and the setters of this class, may be made from any
+ * thread; from another thread, they are queued and applied at the start of the next
+ * frame.  To change GObjects from other code on the UI thread, such as a button's click
+ * listener, wrap that code in a Runnable and pass it to queueEvent.  Settings changed
+ * through getGCanvas should likewise be changed in init, onAnimateTick, or queueEvent.
+ * </p>
+ */
+public abstract class GSurfaceCanvas extends SurfaceView
+        implements SurfaceHolder.Callback, Iterable<GObject>, View.OnTouchListener, View.OnKeyListener {
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    // private fields
+    private final Scene scene;
+    private volatile int fps = 0;   // 0 if not animated
+    private volatile boolean paused = false;
+    private volatile RenderThread renderThread = null;   // null unless the surface exists
+    private List<Runnable> queuedEvents = new ArrayList<>();   // guarded by eventLock
+    private List<Runnable> runningEvents = new ArrayList<>();  // scratch list for runQueuedEvents
+    private final Object eventLock = new Object();
+
+    /**
+     * Required constructor; your canvas subclass must implement a constructor
+     * with exactly the same parameters.
+     */
+    public GSurfaceCanvas(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        scene = new Scene(context);
+        getHolder().addCallback(this);
+        setOnKeyListener(this);
+        setOnTouchListener(this);
+    }
+
+    /**
+     * Adds the given GObject to this canvas, at the front of the Z-ordering;
+     * see GCanvas.add(GObject).
+     * @throws NullPointerException if obj is null
+     */
+    public void add(GObject obj) {
+        scene.add(obj);
+    }
+
+    /**
+     * Adds the given GObject to this canvas at the given x/y location;
+     * see GCanvas.add(GObject, float, float).
+     * @throws NullPointerException if obj is null
+     */
+    public void add(GObject obj, float x, float y) {
+        scene.add(obj, x, y);
+    }
+
+    /**
+     * Adds the given GObject to this canvas at the given x/y location.
+     * @throws NullPointerException if obj or point is null
+     */
+    public void add(GObject obj, GPoint point) {
+        scene.add(obj, point);
+    }
+
+    /**
+     * Begins animating this canvas on its render thread with the given number of
+     * frames per second.  If already animating, changes the frame rate.
+     * If fps is 0 or negative, stops animating.
+     */
+    public void animate(int fps) {
+        if (fps <= 0) {
+            animationStop();
+            return;
+        }
+        this.fps = fps;
+        paused = false;
+        frameRateChanged();
+    }
+
+    /**
+     * Halts animation until animationResume or animate is called.
+     * If you have never called animate yet, no effect.
+     */
+    public void animationPause() {
+        paused = true;
+        frameRateChanged();
+    }
+
+    /**
+     * Continues animation that was previously started and paused.
+     * If you have never called animate yet, no effect.
+     */
+    public void animationResume() {
+        paused = false;
+        frameRateChanged();
+    }
+
+    /**
+     * Halts animation.
+     * If not animating, no effect.
+     */
+    public void animationStop() {
+        fps = 0;
+        paused = false;
+        frameRateChanged();
+    }
+
+    /**
+     * Returns whether this canvas contains the given graphical object.
+     * @throws NullPointerException if obj is null
+     */
+    public boolean contains(GObject obj) {
+        return scene.contains(obj);
+    }
+
+    /**
+     * Call this to indicate that you want your canvas to receive events
+     * when the user types keys.
+     */
+    public void enableKeyboardEvents() {
+        requestFocus();
+        setFocusableInTouchMode(true);
+    }
+
+    /**
+     * Returns the number of seconds that passed between the previous frame of
+     * animation and the current one.
+     * If animation is not in progress, returns 0.
+     */
+    public float getAnimationFrameDelta() {
+        return scene.getAnimationFrameDelta();
+    }
+
+    /**
+     * Returns the number of frames of animation that have already passed.
+     */
+    public int getAnimationTickCount() {
+        return scene.getAnimationTickCount();
+    }
+
+    /**
+     * Returns the background color drawn behind the GObjects.
+     */
+    public Paint getBackgroundColor() {
+        return scene.getBackgroundColor();
+    }
+
+    /**
+     * Returns the camera through which this canvas shows its objects, or null if none.
+     */
+    public GCamera getCamera() {
+        return scene.getCamera();
+    }
+
+    /**
+     * Returns the collision engine that finds sprite collisions in this canvas
+     * on each tick of animation, or null if no collision listener has been set.
+     */
+    public GCollisionEngine getCollisionEngine() {
+        return scene.getCollisionEngine();
+    }
+
+    /**
+     * Returns the graphical object at the given index, counting from the back
+     * of the z-ordering.
+     */
+    public GObject getElement(int index) {
+        return scene.getElement(index);
+    }
+
+    /**
+     * Returns the topmost graphical object that contains the given point,
+     * or null if there is none.
+     */
+    public GObject getElementAt(float x, float y) {
+        return scene.getElementAt(x, y);
+    }
+
+    /**
+     * Returns the topmost graphical object that contains the given point,
+     * or null if there is none.
+     */
+    public GObject getElementAt(GPoint point) {
+        return scene.getElementAt(point);
+    }
+
+    /**
+     * Returns the topmost graphical object under the given touch event,
+     * taking any camera into account, or null if there is none.
+     */
+    public GObject getElementAt(MotionEvent event) {
+        return scene.getElementAt(event);
+    }
+
+    /**
+     * Returns every graphical object whose bounds touch the given rectangle,
+     * from back to front.
+     */
+    public List<GObject> getElementsAt(float x, float y, float width, float height) {
+        return scene.getElementsAt(x, y, width, height);
+    }
+
+    /**
+     * Returns the number of graphical objects stored in this canvas.
+     * Adds and removes made from other threads are not counted until they are
+     * applied at the start of the next frame.
+     */
+    public int getElementCount() {
+        return scene.getElementCount();
+    }
+
+    /**
+     * Returns the number of frames per second passed to animate,
+     * or 0 if not animating.
+     */
+    public int getFps() {
+        return fps;
+    }
+
+    /**
+     * Returns the object recording frame timing stats for this canvas,
+     * or null if frame stats are not enabled.
+     */
+    public FrameStats getFrameStats() {
+        return scene.getFrameStats();
+    }
+
+    /**
+     * Returns the GCanvas that holds this canvas's GObjects, for code that needs a
+     * GCanvas, such as the GObject constructors that take one.  That GCanvas is never
+     * shown itself; everything added to it appears on this canvas.
+     */
+    public GCanvas getGCanvas() {
+        return scene;
+    }
+
+    /**
+     * Returns the render scale set by setRenderScale, or 0 if none has been set.
+     */
+    public float getRenderScale() {
+        return scene.getRenderScale();
+    }
+
+    /**
+     * Returns whether animation is currently running and/or paused.
+     */
+    public boolean isAnimated() {
+        return fps > 0;
+    }
+
+    /**
+     * Returns whether frame timing stats are being recorded for this canvas.
+     */
+    public boolean isFrameStatsEnabled() {
+        return scene.isFrameStatsEnabled();
+    }
+
+    /**
+     * Returns whether a summary of frame timing stats is drawn on top of this canvas.
+     */
+    public boolean isFrameStatsOverlayVisible() {
+        return scene.isFrameStatsOverlayVisible();
+    }
+
+    /**
+     * Returns true if canvas has already been initialized; that is, if init() has been called.
+     */
+    public boolean isInitialized() {
+        return scene.isInitialized();
+    }
+
+    /**
+     * Returns whether this canvas moves its plain sprites in one pass over shared arrays.
+     */
+    public boolean isKinematicsEnabled() {
+        return scene.isKinematicsEnabled();
+    }
+
+    /**
+     * Returns whether this canvas moves its sprites on several threads at once.
+     */
+    public boolean isParallelUpdateEnabled() {
+        return scene.isParallelUpdateEnabled();
+    }
+
+    /**
+     * Returns true if the calling thread is this canvas's render thread.
+     */
+    public boolean isRenderThread() {
+        RenderThread thread = renderThread;
+        return thread != null && Thread.currentThread() == thread;
+    }
+
+    /**
+     * Returns whether this canvas keeps a spatial index of its objects.
+     */
+    public boolean isSpatialIndexEnabled() {
+        return scene.isSpatialIndexEnabled();
+    }
+
+    /**
+     * Returns an iterator over the GObjects found in this canvas.
+     */
+    @Override
+    public Iterator<GObject> iterator() {
+        return scene.iterator();
+    }
+
+    /**
+     * Called once, on the render thread, when the canvas first knows its size,
+     * before the first frame is shown.
+     * You can put code here to initialize your various shapes and drawings.
+     */
+    public abstract void init();
+
+    /**
+     * This method is called once for each frame of animation, on the render thread.
+     * Your canvas class should override this method to contain any code you want to
+     * run each frame of animation, and call super.onAnimateTick(), which moves
+     * the sprites and checks them for collisions just as GCanvas.onAnimateTick does.
+     */
+    @CallSuper
+    public void onAnimateTick() {
+        scene.onAnimateTick();
+    }
+
+    /**
+     * This method is called once for each frame of animation, on the render thread,
+     * passing the number of seconds that have passed since the previous tick.
+     * Override this instead of onAnimateTick() if you want to move things at a speed
+     * that does not depend on the frame rate.
+     * By default, just calls onAnimateTick().
+     */
+    @CallSuper
+    public void onAnimateTick(float elapsedSeconds) {
+        onAnimateTick();
+    }
+
+    /**
+     * Required method of OnKeyListener interface.
+     * Override this to handle key events; it is called on the render thread
+     * while the surface exists.
+     */
+    @Override
+    public boolean onKey(View v, int keyCode, KeyEvent event) {
+        // empty; override me
+        return true;
+    }
+
+    /**
+     * Required method of OnTouchListener interface.
+     * Override this to handle touch events; it is called on the render thread
+     * while the surface exists.
+     */
+    @Override
+    public boolean onTouch(View v, MotionEvent event) {
+        // empty; override me
+        return true;
+    }
+
+    /**
+     * Runs the given code on the render thread at the start of the next frame,
+     * before onTouch, onKey, and onAnimateTick are called for that frame.
+     * Runnables are run in the order they were queued.
+     * If the surface does not exist, the code is run on the UI thread instead:
+     * right away if this is called on the UI thread, or else as soon as possible.
+     * May be called from any thread.
+     * @throws NullPointerException if event is null
+     */
+    public void queueEvent(Runnable event) {
+        if (event == null) {
+            throw new NullPointerException();
+        }
+        synchronized (eventLock) {
+            RenderThread thread = renderThread;
+            if (thread != null) {
+                queuedEvents.add(event);
+                thread.requestFrame();
+                return;
+            }
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            event.run();
+        } else {
+            post(event);
+        }
+    }
+
+    /**
+     * Removes the given GObject from this canvas; see GCanvas.remove.
+     * @throws NullPointerException if obj is null
+     */
+    public void remove(GObject obj) {
+        scene.remove(obj);
+    }
+
+    /**
+     * Removes all GObjects from this canvas.
+     */
+    public void removeAll() {
+        scene.removeAll();
+    }
+
+    /**
+     * Moves the given GObject one step toward the back of the Z-ordering.
+     */
+    public void sendBackward(GObject obj) {
+        scene.sendBackward(obj);
+    }
+
+    /**
+     * Moves the given GObject one step toward the front of the Z-ordering.
+     */
+    public void sendForward(GObject obj) {
+        scene.sendForward(obj);
+    }
+
+    /**
+     * Moves the given GObject to the back of the Z-ordering.
+     */
+    public void sendToBack(GObject obj) {
+        scene.sendToBack(obj);
+    }
+
+    /**
+     * Moves the given GObject to the front of the Z-ordering.
+     */
+    public void sendToFront(GObject obj) {
+        scene.sendToFront(obj);
+    }
+
+    /**
+     * Sets a background color that will be drawn behind the GObjects.
+     * If no background has been set, the default background is white.
+     * @throws NullPointerException if color is null
+     */
+    public void setBackgroundColor(final Paint color) {
+        if (color == null) {
+            throw new NullPointerException();
+        }
+        onSceneThread(new Runnable() {
+            public void run() {
+                scene.setBackgroundColor(color);
+            }
+        });
+    }
+
+    /**
+     * Sets the camera through which this canvas shows its objects; see GCanvas.setCamera.
+     */
+    public void setCamera(final GCamera camera) {
+        onSceneThread(new Runnable() {
+            public void run() {
+                scene.setCamera(camera);
+            }
+        });
+    }
+
+    /**
+     * Sets the listener told about sprite collisions found on each tick of animation;
+     * see GCanvas.setCollisionListener.
+     */
+    public void setCollisionListener(final GCollisionEngine.CollisionListener listener) {
+        onSceneThread(new Runnable() {
+            public void run() {
+                scene.setCollisionListener(listener);
+            }
+        });
+    }
+
+    /**
+     * Sets whether to record how long each frame of animation takes to update and draw;
+     * see SimpleCanvas.setFrameStatsEnabled.
+     */
+    public void setFrameStatsEnabled(boolean enabled) {
+        scene.setFrameStatsEnabled(enabled);
+    }
+
+    /**
+     * Sets whether to draw a summary of frame timing stats in the top-left corner
+     * of this canvas.  Turns on frame stats if they are not already enabled.
+     */
+    public void setFrameStatsOverlayVisible(boolean visible) {
+        scene.setFrameStatsOverlayVisible(visible);
+    }
+
+    /**
+     * Sets whether plain sprites are moved in one pass over shared arrays;
+     * see GCanvas.setKinematicsEnabled.
+     */
+    public void setKinematicsEnabled(final boolean enabled) {
+        onSceneThread(new Runnable() {
+            public void run() {
+                scene.setKinematicsEnabled(enabled);
+            }
+        });
+    }
+
+    /**
+     * Sets whether sprites are moved on several threads at once when there are enough
+     * of them; see GCanvas.setParallelUpdateEnabled.
+     */
+    public void setParallelUpdateEnabled(final boolean enabled) {
+        onSceneThread(new Runnable() {
+            public void run() {
+                scene.setParallelUpdateEnabled(enabled);
+            }
+        });
+    }
+
+    /**
+     * Makes this canvas paint into a display buffer that is the given fraction of
+     * its size, which is then stretched to fill the surface; see GCanvas.setRenderScale.
+     * @throws IllegalArgumentException if scale is not greater than 0 and at most 1
+     */
+    public void setRenderScale(final float scale) {
+        if (scale <= 0 || scale > 1) {
+            throw new IllegalArgumentException("scale must be between 0 and 1: " + scale);
+        }
+        onSceneThread(new Runnable() {
+            public void run() {
+                scene.setRenderScale(scale);
+            }
+        });
+    }
+
+    /**
+     * Sets whether this canvas keeps a spatial index of its objects, to speed up
+     * getElementAt and collision checks; see GCanvas.setSpatialIndexEnabled.
+     */
+    public void setSpatialIndexEnabled(final boolean enabled) {
+        onSceneThread(new Runnable() {
+            public void run() {
+                scene.setSpatialIndexEnabled(enabled);
+            }
+        });
+    }
+
+    /**
+     * Converts an x-coordinate on this view, such as a touch location, to world coordinates.
+     */
+    public float toWorldX(float viewX) {
+        return scene.toWorldX(viewX);
+    }
+
+    /**
+     * Converts a y-coordinate on this view, such as a touch location, to world coordinates.
+     */
+    public float toWorldY(float viewY) {
+        return scene.toWorldY(viewY);
+    }
+
+    /**
+     * This View method is overridden so that, while the surface exists, touch events
+     * are handed to the render thread and passed to onTouch there.
+     * Clients should override onTouch rather than this method.
+     */
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent event) {
+        if (renderThread == null) {
+            return super.dispatchTouchEvent(event);
+        }
+        // the system reuses its event objects, so the render thread gets a copy
+        final MotionEvent copy = MotionEvent.obtain(event);
+        queueEvent(new Runnable() {
+            public void run() {
+                onTouch(GSurfaceCanvas.this, copy);
+                copy.recycle();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * This View method is overridden so that, while the surface exists, key events
+     * are handed to the render thread and passed to onKey there.
+     * Clients should override onKey rather than this method.
+     */
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        if (renderThread == null) {
+            return super.dispatchKeyEvent(event);
+        }
+        final KeyEvent copy = new KeyEvent(event);
+        queueEvent(new Runnable() {
+            public void run() {
+                onKey(GSurfaceCanvas.this, copy.getKeyCode(), copy);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Required method of SurfaceHolder.Callback; starts the render thread.
+     * Clients should not call this method directly.
+     */
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+        RenderThread thread = new RenderThread(holder);
+        synchronized (eventLock) {
+            renderThread = thread;
+        }
+        frameRateChanged();
+        thread.start();
+    }
+
+    /**
+     * Required method of SurfaceHolder.Callback; lays the scene out at the surface's
+     * new size, calling init() if it has not been called yet.
+     * Clients should not call this method directly.
+     */
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, final int width, final int height) {
+        queueEvent(new Runnable() {
+            public void run() {
+                // the scene is not in a window, so it is sized by hand
+                scene.layout(0, 0, width, height);
+            }
+        });
+    }
+
+    /**
+     * Required method of SurfaceHolder.Callback; stops the render thread, waiting
+     * for it to finish its current frame, since the surface must not be drawn on
+     * after this returns.
+     * Clients should not call this method directly.
+     */
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+        RenderThread thread = renderThread;
+        if (thread == null) {
+            return;
+        }
+        thread.quit();
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException ie) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // helper to tell the render thread, if any, how often to tick
+    private void frameRateChanged() {
+        RenderThread thread = renderThread;
+        if (thread != null) {
+            int fps = this.fps;
+            thread.setFrameInterval(fps > 0 && !paused ? NANOS_PER_SECOND / fps : 0);
+        }
+    }
+
+    // helper to run a change to the scene's settings on the scene's thread: right away
+    // if this is that thread, or else at the start of the next frame
+    private void onSceneThread(Runnable change) {
+        if (scene.isSceneThread()) {
+            change.run();
+        } else {
+            queueEvent(change);
+        }
+    }
+
+    // helper to ask the render thread, if any, to paint a frame soon, even if not animating
+    private void requestFrame() {
+        RenderThread thread = renderThread;
+        if (thread != null) {
+            thread.requestFrame();
+        }
+    }
+
+    // called by the render thread as it ends, to hand the scene back to the UI thread
+    private void renderThreadFinished(RenderThread thread) {
+        synchronized (eventLock) {
+            if (renderThread == thread) {
+                renderThread = null;
+            }
+            for (int i = 0; i < queuedEvents.size(); i++) {
+                post(queuedEvents.get(i));
+            }
+            queuedEvents.clear();
+        }
+    }
+
+    // runs the code queued by queueEvent and by input events, in order, on the render thread
+    private void runQueuedEvents() {
+        List<Runnable> events;
+        synchronized (eventLock) {
+            events = queuedEvents;
+            queuedEvents = runningEvents;
+            runningEvents = events;
+        }
+        for (int i = 0; i < events.size(); i++) {
+            events.get(i).run();
+        }
+        events.clear();
+    }
+
+    // runs one tick, if one is due, and paints one frame onto the surface, on the render thread
+    private void renderFrame(SurfaceHolder holder, boolean tick, float elapsedSeconds) {
+        runQueuedEvents();
+        if (!scene.isInitialized()) {
+            // init() is called once surfaceChanged has given the scene its size
+            return;
+        }
+
+        FrameStats stats = getFrameStats();
+        long start;
+        if (tick) {
+            start = (stats == null) ? 0 : System.nanoTime();
+            scene.preAnimateTick(elapsedSeconds);
+            onAnimateTick(elapsedSeconds);
+            if (stats != null) {
+                stats.record(FrameStats.TICK, System.nanoTime() - start);
+            }
+        }
+
+        Canvas canvas = holder.lockCanvas();
+        if (canvas == null) {
+            // the surface is not ready to be drawn on
+            return;
+        }
+        try {
+            start = (stats == null) ? 0 : System.nanoTime();
+            scene.renderScene(canvas);
+            scene.showFrame(canvas);
+            if (stats != null) {
+                stats.record(FrameStats.PAINT, System.nanoTime() - start);
+                if (scene.isFrameStatsOverlayVisible()) {
+                    stats.drawOverlay(canvas);
+                }
+            }
+        } finally {
+            holder.unlockCanvasAndPost(canvas);
+        }
+    }
+
+    /*
+     * The GCanvas that holds this canvas's GObjects and runs their ticks.  It is never
+     * put on the screen; the render thread paints it onto the surface instead, so its
+     * requests to animate or to be redrawn are passed back to the GSurfaceCanvas.
+     */
+    private final class Scene extends GCanvas {
+        Scene(Context context) {
+            super(context, /* attrs */ null);
+        }
+
+        @Override
+        public void init() {
+            GSurfaceCanvas.this.init();
+        }
+
+        @Override
+        public void animate(int fps) {
+            GSurfaceCanvas.this.animate(fps);
+        }
+
+        @Override
+        public void animationPause() {
+            GSurfaceCanvas.this.animationPause();
+        }
+
+        @Override
+        public void animationResume() {
+            GSurfaceCanvas.this.animationResume();
+        }
+
+        @Override
+        public void animationStop() {
+            GSurfaceCanvas.this.animationStop();
+        }
+
+        @Override
+        public boolean isAnimated() {
+            return GSurfaceCanvas.this.isAnimated();
+        }
+
+        @Override
+        public void invalidate() {
+            requestFrame();
+        }
+
+        @Override
+        public void postInvalidate() {
+            requestFrame();
+        }
+
+        @Override
+        boolean isSceneThread() {
+            RenderThread thread = renderThread;
+            return thread != null ? Thread.currentThread() == thread : super.isSceneThread();
+        }
+    }
+
+    /*
+     * The thread that ticks and paints this canvas while its surface exists.
+     * It keeps its own clock, so frames are not delayed by the UI thread;
+     * if it falls more than a frame behind, it skips the lost frames rather than
+     * running several ticks in a row to catch up.  When not animating, it sleeps
+     * until a frame is requested.
+     */
+    private final class RenderThread extends Thread {
+        private final SurfaceHolder holder;
+        private long frameIntervalNanos = 0;   // guarded by this; 0 when not ticking
+        private long nextFrameNanos;           // guarded by this; when the next tick is due
+        private long lastFrameNanos = -1;      // guarded by this; when the last tick ran, or -1
+        private boolean frameRequested = true; // guarded by this
+        private boolean running = true;        // guarded by this
+
+        RenderThread(SurfaceHolder holder) {
+            super("GSurfaceCanvas-render");
+            setDaemon(true);
+            this.holder = holder;
+        }
+
+        synchronized void setFrameInterval(long intervalNanos) {
+            if (intervalNanos > 0 && frameIntervalNanos == 0) {
+                // starting or resuming; the time spent stopped does not count as a frame
+                nextFrameNanos = System.nanoTime();
+                lastFrameNanos = -1;
+            }
+            frameIntervalNanos = intervalNanos;
+            notifyAll();
+        }
+
+        synchronized void requestFrame() {
+            frameRequested = true;
+            notifyAll();
+        }
+
+        synchronized void quit() {
+            running = false;
+            notifyAll();
+        }
+
+        @Override
+        public void run() {
+            try {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_DISPLAY);
+                runFrames();
+            } finally {
+                renderThreadFinished(this);
+            }
+        }
+
+        // ticks and paints frames until asked to quit
+        private void runFrames() {
+            while (true) {
+                boolean tick;
+                float elapsedSeconds = 0;
+                synchronized (this) {
+                    if (!waitForFrame()) {
+                        return;
+                    }
+                    frameRequested = false;
+                    long now = System.nanoTime();
+                    long interval = frameIntervalNanos;
+                    tick = interval > 0 && now - nextFrameNanos >= 0;
+                    if (tick) {
+                        FrameStats stats = getFrameStats();
+                        if (lastFrameNanos >= 0) {
+                            long elapsed = now - lastFrameNanos;
+                            elapsedSeconds = (float) elapsed / NANOS_PER_SECOND;
+                            if (stats != null) {
+                                stats.recordFrame(elapsed, elapsed > interval + interval / 2);
+                            }
+                        }
+                        lastFrameNanos = now;
+                        nextFrameNanos += interval;
+                        if (now - nextFrameNanos >= interval) {
+                            // too far behind to catch up; drop the lost frames
+                            if (stats != null) {
+                                stats.recordDroppedFrames((int) ((now - nextFrameNanos) / interval));
+                            }
+                            nextFrameNanos = now + interval;
+                        }
+                    }
+                }
+                renderFrame(holder, tick, elapsedSeconds);
+            }
+        }
+
+        // waits, holding this thread's lock, until a tick is due or a frame is requested;
+        // returns false if the thread was asked to quit
+        private boolean waitForFrame() {
+            boolean interrupted = false;
+            while (running && !frameRequested) {
+                long wait = 0;
+                if (frameIntervalNanos > 0) {
+                    wait = nextFrameNanos - System.nanoTime();
+                    if (wait <= 0) {
+                        break;
+                    }
+                }
+                try {
+                    wait(wait / 1000000L, (int) (wait % 1000000L));
+                } catch (InterruptedException ie) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return running;
+        }
+    }
+}
@@ -0,0 +1,592 @@
+/*
+ * @version 2026/10/16
+ * - initial version
+ */
+
+package stanford.androidlib.graphics;
+
+import android.graphics.*;
+
+/**
+ * A GTileMap is a rectangular grid of tiles, such as the floor, walls, and terrain
+ * of a level in a 2D game, drawn from the frames of one shared GSpriteSheet.
+ * The whole grid is a single GObject, and each cell just stores the index of the
+ * sheet frame to draw there, so even a map of millions of tiles is cheap to keep,
+ * to draw (only the tiles that can be seen are drawn), and to query (finding the
+ * tile at a point is a division, not a search).
+ *
+ * <pre>
+ * GSpriteSheet tiles = GSpriteSheet.fromGrid(tileBitmap, 8, 8);
+ * GTileMap map = new GTileMap(tiles, 200, 100, 32, 32);   // 200x100 tiles of 32x32 px
+ * map.fill(GRASS);
+ * map.setTile(10, 5, WALL);
+ * add(map);
+ * ...
+ * if (map.getTileAt(player.getCenterX(), player.getBottomY()) == WALL) { ... }
+ * </pre>
+ *
+ * <p>
+ * For very large maps whose tiles rarely change, call setChunkCaching(true):
+ * the map is then drawn in blocks of CHUNK_SIZE x CHUNK_SIZE tiles, each
+ * pre-rendered into a bitmap the first time it is seen and redrawn only when one
+ * of its tiles changes, so each frame draws a few bitmaps instead of many tiles.
+ * At most getMaxCachedChunks blocks are kept; when a new block is seen and the cache
+ * is full, the bitmap of the block that has gone longest without being drawn is
+ * reused for it, so memory stays bounded however large the map is.
+ * </p>
+ */
+public class GTileMap extends GObject {
+    /** Tile index meaning that a cell is empty and nothing is drawn there. */
+    public static final int EMPTY = -1;
+
+    /** Number of tiles along each side of a block when chunk caching is on. */
+    public static final int CHUNK_SIZE = 16;
+
+    /** Default maximum number of blocks kept as cached bitmaps when chunk caching is on. */
+    public static final int DEFAULT_MAX_CACHED_CHUNKS = 24;
+
+    // private fields
+    private final GSpriteSheet tileset;
+    private final int columns;
+    private final int rows;
+    private final float tileWidth;
+    private final float tileHeight;
+    private final short[] tiles;   // row-major; EMPTY or an index into tileset
+
+    // chunk cache; null unless chunk caching is on.  The blocks that have bitmaps are
+    // linked from most to least recently drawn through chunkNewer/chunkOlder, so that
+    // the least recently drawn one can be evicted when the cache is full
+    private Bitmap[] chunks;
+    private boolean[] chunkValid;
+    private int[] chunkNewer;
+    private int[] chunkOlder;
+    private int[] chunkPaintStamps;   // paintStamp of the paint call that last drew each block
+    private int newestChunk = -1;
+    private int oldestChunk = -1;
+    private int cachedChunkCount = 0;
+    private int maxCachedChunks = DEFAULT_MAX_CACHED_CHUNKS;
+    private int paintStamp = 0;
+    private Canvas chunkCanvas;
+    private int chunkColumns;
+    private int chunkRows;
+
+    // reused while painting, so that drawing allocates nothing
+    private final Rect clip = new Rect();
+    private final RectF dst = new RectF();
+
+    /**
+     * Constructs a new tile map of the given number of columns and rows,
+     * whose tiles are frames of the given sheet, drawn at the given size.
+     * Every tile is initially EMPTY.
+     * @throws NullPointerException if tileset is null
+     * @throws IllegalArgumentException if columns, rows, tileWidth, or tileHeight is not positive
+     */
+    public GTileMap(GSpriteSheet tileset, int columns, int rows, float tileWidth, float tileHeight) {
+        if (tileset == null) {
+            throw new NullPointerException();
+        }
+        if (columns <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("illegal map size: " + columns + "x" + rows);
+        }
+        if (tileWidth <= 0 || tileHeight <= 0) {
+            throw new IllegalArgumentException("illegal tile size: " + tileWidth + "x" + tileHeight);
+        }
+        if (tileset.getFrameCount() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("too many frames in tileset: " + tileset.getFrameCount());
+        }
+        this.tileset = tileset;
+        this.columns = columns;
+        this.rows = rows;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.tiles = new short[columns * rows];
+        java.util.Arrays.fill(tiles, (short) EMPTY);
+        this.width = columns * tileWidth;
+        this.height = rows * tileHeight;
+    }
+
+    /**
+     * Constructs a new tile map of the given number of columns and rows, whose
+     * tiles are frames of the given sheet, drawn at the size of the sheet's first frame.
+     * @throws NullPointerException if tileset is null
+     * @throws IllegalArgumentException if columns or rows is not positive,
+     *         or if the tileset has no frames
+     */
+    public GTileMap(GSpriteSheet tileset, int columns, int rows) {
+        this(tileset, columns, rows, firstFrameWidth(tileset), firstFrameHeight(tileset));
+    }
+
+    /**
+     * Returns true if the given x/y point lies on a non-empty tile of this map.
+     */
+    @Override
+    public boolean contains(float x, float y) {
+        return getTileAt(x, y) != EMPTY;
+    }
+
+    /**
+     * Sets every tile of the map to the given tile index.
+     * @throws IllegalArgumentException if tile is not EMPTY or a frame index of the tileset
+     */
+    public GTileMap fill(int tile) {
+        checkTile(tile);
+        java.util.Arrays.fill(tiles, (short) tile);
+        invalidateAllChunks();
+        repaint();
+        return this;
+    }
+
+    /**
+     * Sets the given rectangle to the bounding box of this map, and returns it.
+     * @throws NullPointerException if bounds is null
+     */
+    @Override
+    public RectF getBounds(RectF bounds) {
+        bounds.set(getX(), getY(), getX() + columns * tileWidth, getY() + rows * tileHeight);
+        return bounds;
+    }
+
+    /**
+     * Returns the column of the map containing the given x-coordinate,
+     * or -1 if it is outside the map.
+     */
+    public int getColumnAt(float x) {
+        float offset = x - getX();
+        if (offset < 0) {
+            return -1;
+        }
+        int column = (int) (offset / tileWidth);
+        return column < columns ? column : -1;
+    }
+
+    /**
+     * Returns the number of columns of tiles in this map.
+     */
+    public int getColumnCount() {
+        return columns;
+    }
+
+    /**
+     * Returns the row of the map containing the given y-coordinate,
+     * or -1 if it is outside the map.
+     */
+    public int getRowAt(float y) {
+        float offset = y - getY();
+        if (offset < 0) {
+            return -1;
+        }
+        int row = (int) (offset / tileHeight);
+        return row < rows ? row : -1;
+    }
+
+    /**
+     * Returns the number of rows of tiles in this map.
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Returns the tile index at the given column and row.
+     * @throws IndexOutOfBoundsException if column or row is outside the map
+     */
+    public int getTile(int column, int row) {
+        checkCell(column, row);
+        return tiles[row * columns + column];
+    }
+
+    /**
+     * Returns the tile index at the given x/y point, or EMPTY if the point is
+     * outside the map or on an empty tile.
+     */
+    public int getTileAt(float x, float y) {
+        int column = getColumnAt(x);
+        int row = getRowAt(y);
+        if (column < 0 || row < 0) {
+            return EMPTY;
+        }
+        return tiles[row * columns + column];
+    }
+
+    /**
+     * Returns the rectangle covered by the tile at the given column and row.
+     * @throws IndexOutOfBoundsException if column or row is outside the map
+     */
+    public GRectangle getTileBounds(int column, int row) {
+        checkCell(column, row);
+        return new GRectangle(getX() + column * tileWidth, getY() + row * tileHeight, tileWidth, tileHeight);
+    }
+
+    /**
+     * Returns the height of each tile as drawn.
+     */
+    public float getTileHeight() {
+        return tileHeight;
+    }
+
+    /**
+     * Returns the sprite sheet whose frames are drawn as this map's tiles.
+     */
+    public GSpriteSheet getTileset() {
+        return tileset;
+    }
+
+    /**
+     * Returns the width of each tile as drawn.
+     */
+    public float getTileWidth() {
+        return tileWidth;
+    }
+
+    /**
+     * Returns true if any tile in the given rectangle is not EMPTY.
+     * Useful for checking whether a sprite's bounds overlap a wall.
+     * Only the tiles under the rectangle are examined.
+     */
+    public boolean hasTileIn(float x, float y, float width, float height) {
+        int left = clampColumn(x);
+        int right = clampColumn(x + width);
+        int top = clampRow(y);
+        int bottom = clampRow(y + height);
+        if (x + width < getX() || y + height < getY()
+                || x >= getX() + columns * tileWidth || y >= getY() + rows * tileHeight) {
+            return false;
+        }
+        for (int row = top; row <= bottom; row++) {
+            for (int column = left; column <= right; column++) {
+                if (tiles[row * columns + column] != EMPTY) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the maximum number of blocks kept as cached bitmaps when chunk caching is on.
+     * Initially DEFAULT_MAX_CACHED_CHUNKS.
+     */
+    public int getMaxCachedChunks() {
+        return maxCachedChunks;
+    }
+
+    /**
+     * Returns whether this map pre-renders its tiles into cached blocks.
+     * Initially false.
+     */
+    public boolean isChunkCaching() {
+        return chunks != null;
+    }
+
+    /**
+     * Draws the tiles of this map that lie within the canvas's clip area.
+     * @noshow
+     */
+    @Override
+    public void paint(Canvas canvas) {
+        if (!isVisible() || !canvas.getClipBounds(clip)) {
+            return;
+        }
+        float x0 = getX();
+        float y0 = getY();
+        int left = clampColumn(clip.left);
+        int right = clampColumn(clip.right);
+        int top = clampRow(clip.top);
+        int bottom = clampRow(clip.bottom);
+        if (clip.right < x0 || clip.bottom < y0
+                || clip.left >= x0 + columns * tileWidth || clip.top >= y0 + rows * tileHeight) {
+            return;
+        }
+
+        if (chunks != null) {
+            paintStamp++;
+            for (int chunkRow = top / CHUNK_SIZE; chunkRow <= bottom / CHUNK_SIZE; chunkRow++) {
+                for (int chunkColumn = left / CHUNK_SIZE; chunkColumn <= right / CHUNK_SIZE; chunkColumn++) {
+                    Bitmap chunk = getChunk(chunkColumn, chunkRow);
+                    float chunkLeft = x0 + chunkColumn * CHUNK_SIZE * tileWidth;
+                    float chunkTop = y0 + chunkRow * CHUNK_SIZE * tileHeight;
+                    dst.set(chunkLeft, chunkTop,
+                            chunkLeft + CHUNK_SIZE * tileWidth, chunkTop + CHUNK_SIZE * tileHeight);
+                    canvas.drawBitmap(chunk, /* src */ null, dst, /* paint */ null);
+                }
+            }
+            // if more blocks were visible than the cache holds, let the extra ones go now
+            trimChunks();
+        } else {
+            drawTiles(canvas, x0, y0, left, top, right, bottom);
+        }
+    }
+
+    /**
+     * Sets whether this map pre-renders its tiles in blocks of CHUNK_SIZE x CHUNK_SIZE
+     * into cached bitmaps, and draws those instead of the individual tiles.
+     * This makes drawing a large map much faster, at the cost of memory for the
+     * bitmaps of up to getMaxCachedChunks blocks, and of redrawing a block whenever
+     * one of its tiles changes.  Best for layers whose tiles rarely change.
+     * Turning caching off recycles the cached bitmaps.
+     */
+    public GTileMap setChunkCaching(boolean enabled) {
+        if (enabled && chunks == null) {
+            chunkColumns = (columns + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            chunkRows = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            chunks = new Bitmap[chunkColumns * chunkRows];
+            chunkValid = new boolean[chunks.length];
+            chunkNewer = new int[chunks.length];
+            chunkOlder = new int[chunks.length];
+            chunkPaintStamps = new int[chunks.length];
+            newestChunk = -1;
+            oldestChunk = -1;
+            cachedChunkCount = 0;
+            chunkCanvas = new Canvas();
+        } else if (!enabled && chunks != null) {
+            for (int i = newestChunk; i >= 0; i = chunkOlder[i]) {
+                chunks[i].recycle();
+            }
+            chunks = null;
+            chunkValid = null;
+            chunkNewer = null;
+            chunkOlder = null;
+            chunkPaintStamps = null;
+            newestChunk = -1;
+            oldestChunk = -1;
+            cachedChunkCount = 0;
+            chunkCanvas = null;
+        }
+        repaint();
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of blocks kept as cached bitmaps when chunk caching is on.
+     * Each block's bitmap takes 4 bytes per pixel of CHUNK_SIZE x CHUNK_SIZE tiles.
+     * The limit should be at least the number of blocks that fit on the screen at once,
+     * plus a row and a column; if more blocks than that are visible in one frame,
+     * they are all kept for that frame, and the extra ones are let go afterward.
+     * @throws IllegalArgumentException if max is less than 1
+     */
+    public GTileMap setMaxCachedChunks(int max) {
+        if (max < 1) {
+            throw new IllegalArgumentException("must be >= 1: " + max);
+        }
+        maxCachedChunks = max;
+        if (chunks != null) {
+            trimChunks();
+        }
+        return this;
+    }
+
+    /**
+     * Sets the tile index at the given column and row.
+     * @throws IndexOutOfBoundsException if column or row is outside the map
+     * @throws IllegalArgumentException if tile is not EMPTY or a frame index of the tileset
+     */
+    public GTileMap setTile(int column, int row, int tile) {
+        checkCell(column, row);
+        checkTile(tile);
+        int index = row * columns + column;
+        if (tiles[index] != tile) {
+            tiles[index] = (short) tile;
+            if (chunks != null) {
+                chunkValid[(row / CHUNK_SIZE) * chunkColumns + column / CHUNK_SIZE] = false;
+            }
+            repaint();
+        }
+        return this;
+    }
+
+    /**
+     * Sets the tile indexes of a whole row-major block of the map at once, starting
+     * at the given column and row; the block is the given number of columns wide.
+     * Useful for loading a level.
+     * @throws NullPointerException if tiles is null
+     * @throws IndexOutOfBoundsException if the block does not fit inside the map
+     * @throws IllegalArgumentException if any tile is not EMPTY or a frame index of the tileset
+     */
+    public GTileMap setTiles(int column, int row, int blockColumns, int... tiles) {
+        if (tiles == null) {
+            throw new NullPointerException();
+        }
+        if (blockColumns <= 0 || tiles.length % blockColumns != 0) {
+            throw new IllegalArgumentException("tiles do not form a block " + blockColumns + " wide: "
+                    + tiles.length);
+        }
+        int blockRows = tiles.length / blockColumns;
+        checkCell(column, row);
+        checkCell(column + blockColumns - 1, row + blockRows - 1);
+        for (int tile : tiles) {
+            checkTile(tile);
+        }
+        for (int r = 0; r < blockRows; r++) {
+            for (int c = 0; c < blockColumns; c++) {
+                this.tiles[(row + r) * columns + column + c] = (short) tiles[r * blockColumns + c];
+            }
+        }
+        invalidateAllChunks();
+        repaint();
+        return this;
+    }
+
+    /**
+     * Returns a string representation of this map, for debugging.
+     */
+    @Override
+    public String toString() {
+        return "GTileMap{x=" + getX() + ", y=" + getY() + ", " + columns + "x" + rows
+                + " tiles of " + tileWidth + "x" + tileHeight + "}";
+    }
+
+    // helper to throw an exception if the given cell is outside the map
+    private void checkCell(int column, int row) {
+        if (column < 0 || column >= columns || row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("cell (" + column + ", " + row + ") is outside "
+                    + columns + "x" + rows + " map");
+        }
+    }
+
+    // helper to throw an exception if the given value is not a valid tile index
+    private void checkTile(int tile) {
+        if (tile != EMPTY && (tile < 0 || tile >= tileset.getFrameCount())) {
+            throw new IllegalArgumentException("illegal tile: " + tile);
+        }
+    }
+
+    // helper to return the column containing x, clamped to the map's columns
+    private int clampColumn(float x) {
+        int column = (int) Math.floor((x - getX()) / tileWidth);
+        return Math.max(0, Math.min(columns - 1, column));
+    }
+
+    // helper to return the row containing y, clamped to the map's rows
+    private int clampRow(float y) {
+        int row = (int) Math.floor((y - getY()) / tileHeight);
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    // helper to draw the tiles in the given range of cells, with the map's top-left at (x0, y0)
+    private void drawTiles(Canvas canvas, float x0, float y0, int left, int top, int right, int bottom) {
+        Bitmap bitmap = tileset.getBitmap();
+        for (int row = top; row <= bottom; row++) {
+            float tileTop = y0 + row * tileHeight;
+            int index = row * columns + left;
+            for (int column = left; column <= right; column++, index++) {
+                int tile = tiles[index];
+                if (tile != EMPTY) {
+                    float tileLeft = x0 + column * tileWidth;
+                    dst.set(tileLeft, tileTop, tileLeft + tileWidth, tileTop + tileHeight);
+                    canvas.drawBitmap(bitmap, tileset.getFrameRect(tile), dst, /* paint */ null);
+                }
+            }
+        }
+    }
+
+    // helper to return the cached bitmap for the given block, rendering it if needed;
+    // when the cache is full, a new block takes over the least recently drawn one's bitmap
+    private Bitmap getChunk(int chunkColumn, int chunkRow) {
+        int index = chunkRow * chunkColumns + chunkColumn;
+        Bitmap chunk = chunks[index];
+        if (chunk == null) {
+            if (cachedChunkCount >= maxCachedChunks && isEvictable(oldestChunk)) {
+                chunk = chunks[oldestChunk];
+                evictChunk(oldestChunk);
+            } else {
+                int width = (int) Math.ceil(CHUNK_SIZE * tileWidth);
+                int height = (int) Math.ceil(CHUNK_SIZE * tileHeight);
+                chunk = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            }
+            chunks[index] = chunk;
+            chunkValid[index] = false;
+            cachedChunkCount++;
+            linkNewestChunk(index);
+        } else if (index != newestChunk) {
+            unlinkChunk(index);
+            linkNewestChunk(index);
+        }
+        chunkPaintStamps[index] = paintStamp;
+        if (!chunkValid[index]) {
+            chunk.eraseColor(Color.TRANSPARENT);
+            chunkCanvas.setBitmap(chunk);
+            int left = chunkColumn * CHUNK_SIZE;
+            int top = chunkRow * CHUNK_SIZE;
+            drawTiles(chunkCanvas, -left * tileWidth, -top * tileHeight, left, top,
+                    Math.min(columns, left + CHUNK_SIZE) - 1, Math.min(rows, top + CHUNK_SIZE) - 1);
+            chunkCanvas.setBitmap(null);
+            chunkValid[index] = true;
+        }
+        return chunk;
+    }
+
+    // helper to forget the given block's bitmap, without recycling it
+    private void evictChunk(int index) {
+        unlinkChunk(index);
+        chunks[index] = null;
+        chunkValid[index] = false;
+        cachedChunkCount--;
+    }
+
+    // helper to return true if the given block has a bitmap that is not in use by
+    // the current paint call, so that it can be evicted
+    private boolean isEvictable(int index) {
+        return index >= 0 && chunkPaintStamps[index] != paintStamp;
+    }
+
+    // helper to put a block at the most recently drawn end of the list
+    private void linkNewestChunk(int index) {
+        chunkNewer[index] = -1;
+        chunkOlder[index] = newestChunk;
+        if (newestChunk >= 0) {
+            chunkNewer[newestChunk] = index;
+        } else {
+            oldestChunk = index;
+        }
+        newestChunk = index;
+    }
+
+    // helper to recycle the bitmaps of the least recently drawn blocks until the
+    // cache is within its limit, keeping any block drawn by the current paint call
+    private void trimChunks() {
+        while (cachedChunkCount > maxCachedChunks && isEvictable(oldestChunk)) {
+            Bitmap chunk = chunks[oldestChunk];
+            evictChunk(oldestChunk);
+            chunk.recycle();
+        }
+    }
+
+    // helper to take a block out of the list of blocks that have bitmaps
+    private void unlinkChunk(int index) {
+        int newer = chunkNewer[index];
+        int older = chunkOlder[index];
+        if (newer >= 0) {
+            chunkOlder[newer] = older;
+        } else {
+            newestChunk = older;
+        }
+        if (older >= 0) {
+            chunkNewer[older] = newer;
+        } else {
+            oldestChunk = newer;
+        }
+    }
+
+    // helper to mark every cached block as needing to be redrawn
+    private void invalidateAllChunks() {
+        if (chunkValid != null) {
+            java.util.Arrays.fill(chunkValid, false);
+        }
+    }
+
+    // helper to return the width of a sheet's first frame, for the constructor
+    private static float firstFrameWidth(GSpriteSheet tileset) {
+        if (tileset == null) {
+            throw new NullPointerException();
+        }
+        if (tileset.getFrameCount() == 0) {
+            throw new IllegalArgumentException("tileset has no frames");
+        }
+        return tileset.getFrameWidth(0);
+    }
+
+    // helper to return the height of a sheet's first frame, for the constructor
+    private static float firstFrameHeight(GSpriteSheet tileset) {
+        return tileset.getFrameHeight(0);
+    }
+}